@@ -40,10 +40,10 @@ public class SecurityConfig {
                 .cors(cors -> {})
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        // Public : login + health + handshake WebSocket (auth WS au CONNECT STOMP)
-                        .requestMatchers("/api/auth/login", "/actuator/health", "/ws/**").permitAll()
-                        // Administration : gestion des comptes + nettoyage = OWNER
-                        .requestMatchers("/api/users/**", "/api/cleanup/**").hasRole("OWNER")
+                        // Public : login + health + scrape Prometheus + handshake WebSocket (auth WS au CONNECT STOMP)
+                        .requestMatchers("/api/auth/login", "/actuator/health", "/actuator/prometheus", "/ws/**").permitAll()
+                        // Administration : gestion des comptes + nettoyage + profiling JFR = OWNER
+                        .requestMatchers("/api/users/**", "/api/cleanup/**", "/api/debug/jfr/**").hasRole("OWNER")
                         // Toute suppression / modification = OWNER (destructif ou structurel)
                         .requestMatchers(HttpMethod.DELETE, "/api/**").hasRole("OWNER")
                         .requestMatchers(HttpMethod.PUT, "/api/**").hasRole("OWNER")
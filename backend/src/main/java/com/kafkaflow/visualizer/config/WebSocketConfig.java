@@ -1,10 +1,15 @@
 package com.kafkaflow.visualizer.config;
 
 import com.kafkaflow.visualizer.security.JwtService;
+import com.kafkaflow.visualizer.websocket.OutboundMetricsInterceptor;
+import com.kafkaflow.visualizer.websocket.PayloadEncoding;
+import com.kafkaflow.visualizer.websocket.PayloadEncodingInterceptor;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -17,18 +22,26 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /** Attribut de session posé par le handshake SockJS : ce transport ne supporte pas les frames binaires. */
+    private static final String SOCKJS_SESSION_ATTRIBUTE = "sockJsTransport";
+
     private final JwtService jwtService;
+    private final PayloadEncodingInterceptor payloadEncodingInterceptor;
+    private final OutboundMetricsInterceptor outboundMetricsInterceptor;
 
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
@@ -43,6 +56,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns(allowedOrigins.split(","))
+                .addInterceptors(sockJsMarker())
                 .withSockJS();
 
         registry.addEndpoint("/ws")
@@ -76,9 +90,42 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                             : List.of();
                     accessor.setUser(new UsernamePasswordAuthenticationToken(
                             claims.getSubject(), null, authorities));
+
+                    payloadEncodingInterceptor.register(accessor.getSessionId(), PayloadEncoding.negotiate(
+                            accessor.getFirstNativeHeader(PayloadEncoding.HEADER), !isSockJs(accessor)));
                 }
                 return message;
             }
         });
     }
+
+    /**
+     * Transcode les payloads sortants (CBOR/Smile) pour les sessions qui l'ont négocié au CONNECT,
+     * puis compte les octets réellement envoyés.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(payloadEncodingInterceptor, outboundMetricsInterceptor);
+    }
+
+    private boolean isSockJs(StompHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        return attributes != null && Boolean.TRUE.equals(attributes.get(SOCKJS_SESSION_ATTRIBUTE));
+    }
+
+    private HandshakeInterceptor sockJsMarker() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                           @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+                attributes.put(SOCKJS_SESSION_ATTRIBUTE, true);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                       @NonNull WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
 }
@@ -2,6 +2,7 @@ package com.kafkaflow.visualizer.controller;
 
 import com.kafkaflow.visualizer.dto.ArchiveDto.*;
 import com.kafkaflow.visualizer.dto.KafkaDto.ApiResponse;
+import com.kafkaflow.visualizer.dto.KafkaDto.CursorPage;
 import com.kafkaflow.visualizer.service.archives.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +35,12 @@ public class ArchiveController {
         return ApiResponse.success(searchService.getArchives(filter));
     }
 
+    /** Pagination par curseur (originalTimestamp DESC) : {@code cursor} = {@code nextCursor} précédent. */
+    @GetMapping("/scroll")
+    public ApiResponse<CursorPage<ArchiveResponse>> scrollArchives(@Valid ArchiveFilterRequest filter) {
+        return ApiResponse.success(searchService.scrollArchives(filter));
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<ArchiveResponse> getArchiveById(@PathVariable Long id) {
         return ApiResponse.success(searchService.getArchiveById(id));
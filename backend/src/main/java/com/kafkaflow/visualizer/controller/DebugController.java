@@ -1,15 +1,28 @@
 package com.kafkaflow.visualizer.controller;
 
 import com.kafkaflow.visualizer.dto.KafkaDto.ApiResponse;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
 import com.kafkaflow.visualizer.service.kafka.KafkaConsumerManager;
+import com.kafkaflow.visualizer.dto.KafkaDto.ConsumerThreadStats;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.metrics.ConsumerThreadProfiler;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService.RecordingStatus;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,6 +32,11 @@ public class DebugController {
 
     private final JdbcTemplate jdbcTemplate;
     private final KafkaConsumerManager consumerManager;
+    private final TopicMetadataCache topicMetadataCache;
+    private final ConsumerThreadProfiler threadProfiler;
+    private final FlightRecorderService flightRecorderService;
+    private final SearchIndexService searchIndex;
+    private final ColdArchiveStore coldArchiveStore;
 
     @GetMapping("/status")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getDebugStatus() {
@@ -45,6 +63,10 @@ public class DebugController {
 
             status.put("activeConsumers", consumerManager.getActiveConsumerCount());
             status.put("consumerStatus", consumerManager.getConsumerStatus());
+            status.put("consumerThreads", threadProfiler.getTopConsumers(5));
+            status.put("topicCache", topicMetadataCache.getStats());
+            status.put("searchIndex", searchIndex.getStatus());
+            status.put("coldArchive", coldArchiveStore.getStatus());
 
             return ResponseEntity.ok(ApiResponse.success(status));
 
@@ -54,4 +76,45 @@ public class DebugController {
             return ResponseEntity.ok(ApiResponse.success("System contains errors", status));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Threads consumer triés par coût (CPU puis allocations), taux sur les 5 dernières secondes.
+     */
+    @GetMapping("/consumers")
+    public ResponseEntity<ApiResponse<List<ConsumerThreadStats>>> getConsumerThreads(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(threadProfiler.getTopConsumers(Math.max(1, limit))));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // JAVA FLIGHT RECORDER
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @GetMapping("/jfr")
+    public ResponseEntity<ApiResponse<RecordingStatus>> getRecordingStatus() {
+        return ResponseEntity.ok(ApiResponse.success(flightRecorderService.getStatus()));
+    }
+
+    @PostMapping("/jfr/start")
+    public ResponseEntity<ApiResponse<RecordingStatus>> startRecording(
+            @RequestParam(required = false) Integer durationSeconds,
+            @RequestParam(required = false) Integer maxSizeMb) {
+        return ResponseEntity.ok(ApiResponse.success("Flight recording started",
+                flightRecorderService.start(durationSeconds, maxSizeMb)));
+    }
+
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<ApiResponse<RecordingStatus>> stopRecording() {
+        return ResponseEntity.ok(ApiResponse.success("Flight recording stopped", flightRecorderService.stop()));
+    }
+
+    @GetMapping("/jfr/download")
+    public ResponseEntity<Resource> downloadRecording() {
+        Path file = flightRecorderService.getRecordingFile();
+        String filename = "yucast_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".jfr";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,30 @@
+package com.kafkaflow.visualizer.controller;
+
+import com.kafkaflow.visualizer.dto.KafkaDto.WebSocketMessage;
+import com.kafkaflow.visualizer.service.FlowDiagramService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDateTime;
+
+/**
+ * Abonnement STOMP aux flows : le diagramme complet est renvoyé une seule fois au client
+ * qui s'abonne à /app/flow/{id}, les deltas de métriques arrivent ensuite sur /topic/flow/{id}.
+ */
+@Controller
+@RequiredArgsConstructor
+public class FlowSubscriptionController {
+
+    private final FlowDiagramService flowDiagramService;
+
+    @SubscribeMapping("/flow/{id}")
+    public WebSocketMessage subscribeFlow(@DestinationVariable Long id) {
+        return WebSocketMessage.builder()
+                .type("FLOW_UPDATE")
+                .payload(flowDiagramService.getFlowById(id))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -3,6 +3,8 @@ package com.kafkaflow.visualizer.controller;
 import com.kafkaflow.visualizer.dto.KafkaDto.*;
 import com.kafkaflow.visualizer.service.KafkaConnectionService;
 import com.kafkaflow.visualizer.service.kafkatopic.*;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker.HotKeys;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge.ClientMetrics;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -82,6 +84,14 @@ public class KafkaTopicController {
         return ApiResponse.success(messageService.getMessages(filter));
     }
 
+    /** Pagination par curseur : passer {@code nextCursor} de la réponse précédente dans {@code cursor}. */
+    @GetMapping("/{topicId}/messages/scroll")
+    public ApiResponse<CursorPage<MessageResponse>> scrollMessages(@PathVariable Long topicId,
+                                                                   @Valid MessageFilter filter) {
+        filter.setTopicId(topicId);
+        return ApiResponse.success(messageService.scrollMessages(filter));
+    }
+
     @GetMapping("/{topicId}/messages/recent")
     public ApiResponse<List<MessageResponse>> getRecentMessages(@PathVariable Long topicId) {
         return ApiResponse.success(messageService.getRecentMessages(topicId));
@@ -96,6 +106,17 @@ public class KafkaTopicController {
         return ApiResponse.success(statsService.getLiveStats(id));
     }
 
+    @GetMapping("/{id}/hot-keys")
+    public ApiResponse<HotKeys> getHotKeys(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "1m") String window) {
+        return ApiResponse.success(statsService.getHotKeys(id, window));
+    }
+
+    @GetMapping("/{id}/client-metrics")
+    public ApiResponse<ClientMetrics> getClientMetrics(@PathVariable Long id) {
+        return ApiResponse.success(statsService.getClientMetrics(id));
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // ORPHANS
     // ═══════════════════════════════════════════════════════════════════════
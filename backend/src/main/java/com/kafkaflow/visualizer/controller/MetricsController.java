@@ -0,0 +1,48 @@
+package com.kafkaflow.visualizer.controller;
+
+import com.kafkaflow.visualizer.dto.KafkaDto.AnomalyResponse;
+import com.kafkaflow.visualizer.dto.KafkaDto.ApiResponse;
+import com.kafkaflow.visualizer.exception.ResourceNotFoundException;
+import com.kafkaflow.visualizer.service.metrics.AnomalyDetector;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker.TopicStageLatencies;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Métriques internes du pipeline d'ingestion (latences par étape, anomalies détectées).
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final StageLatencyTracker stageLatencyTracker;
+    private final AnomalyDetector anomalyDetector;
+
+    /** Latences par étape (p50 → max, en µs) de chaque topic consommé, sur la dernière minute. */
+    @GetMapping("/stage-latency")
+    public ApiResponse<List<TopicStageLatencies>> getStageLatencies() {
+        return ApiResponse.success(stageLatencyTracker.getTopicIds().stream()
+                .map(stageLatencyTracker::getLatencies)
+                .flatMap(Optional::stream)
+                .toList());
+    }
+
+    @GetMapping("/stage-latency/{topicId}")
+    public ApiResponse<TopicStageLatencies> getStageLatencies(@PathVariable Long topicId) {
+        return ApiResponse.success(stageLatencyTracker.getLatencies(topicId)
+                .orElseThrow(() -> new ResourceNotFoundException("Consumer", topicId)));
+    }
+
+    /** Dernières anomalies détectées, tous topics ou un seul. */
+    @GetMapping("/anomalies")
+    public ApiResponse<List<AnomalyResponse>> getAnomalies(
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ApiResponse.success(anomalyDetector.getRecentAnomalies(topicId, limit));
+    }
+}
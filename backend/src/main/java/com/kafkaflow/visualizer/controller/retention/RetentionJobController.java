@@ -2,9 +2,11 @@ package com.kafkaflow.visualizer.controller.retention;
 
 import com.kafkaflow.visualizer.dto.KafkaDto.ApiResponse;
 import com.kafkaflow.visualizer.dto.RetentionDto.JobLogResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.JobTopicLogResponse;
 import com.kafkaflow.visualizer.mapper.RetentionDtoMapper;
 import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
 import com.kafkaflow.visualizer.repository.RetentionJobLogRepository;
+import com.kafkaflow.visualizer.repository.RetentionJobTopicLogRepository;
 import com.kafkaflow.visualizer.service.retention.RetentionArchiveService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -20,6 +22,7 @@ import java.util.List;
 public class RetentionJobController {
 
     private final RetentionJobLogRepository jobLogRepository;
+    private final RetentionJobTopicLogRepository topicLogRepository;
     private final RetentionArchiveService archiveService;
     private final RetentionDtoMapper mapper;
 
@@ -52,6 +55,15 @@ public class RetentionJobController {
         return ResponseEntity.ok(ApiResponse.success(jobs));
     }
 
+    @GetMapping("/{id}/topics")
+    public ResponseEntity<ApiResponse<List<JobTopicLogResponse>>> getJobTopics(@PathVariable Long id) {
+        List<JobTopicLogResponse> topics = topicLogRepository.findByJobLogIdOrderByIdAsc(id).stream()
+                .map(mapper::toJobTopicLogResponse)
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(topics));
+    }
+
     @PostMapping("/run/archive")
     public ResponseEntity<ApiResponse<JobLogResponse>> runArchiveJob() {
         return ResponseEntity.ok(ApiResponse.success(
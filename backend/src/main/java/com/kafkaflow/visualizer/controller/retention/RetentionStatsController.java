@@ -1,6 +1,8 @@
 package com.kafkaflow.visualizer.controller.retention;
 
 import com.kafkaflow.visualizer.dto.KafkaDto.ApiResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.CardinalityResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.SizeDistributionResponse;
 import com.kafkaflow.visualizer.dto.RetentionDto.StatsResponse;
 import com.kafkaflow.visualizer.mapper.RetentionDtoMapper;
 import com.kafkaflow.visualizer.service.retention.RetentionStatsService;
@@ -33,6 +35,24 @@ public class RetentionStatsController {
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
+    @GetMapping("/topic/{topicId}/cardinality")
+    public ResponseEntity<ApiResponse<CardinalityResponse>> getTopicCardinality(
+            @PathVariable Long topicId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+
+        return ResponseEntity.ok(ApiResponse.success(statsService.getCardinality(topicId, start, end)));
+    }
+
+    @GetMapping("/topic/{topicId}/size-distribution")
+    public ResponseEntity<ApiResponse<SizeDistributionResponse>> getTopicSizeDistribution(
+            @PathVariable Long topicId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+
+        return ResponseEntity.ok(ApiResponse.success(statsService.getSizeDistribution(topicId, start, end)));
+    }
+
     @PostMapping("/aggregate")
     public ResponseEntity<ApiResponse<Void>> triggerAggregation() {
         statsService.aggregateStats();
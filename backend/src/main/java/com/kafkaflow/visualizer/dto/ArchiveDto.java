@@ -81,6 +81,12 @@ public class ArchiveDto {
         @Builder.Default
         @Pattern(regexp = "^(asc|desc)$", message = "Must be 'asc' or 'desc'")
         private String sortDirection = "desc";
+
+        /** Jeton opaque de pagination par curseur (ordre originalTimestamp DESC, id DESC). */
+        private String cursor;
+
+        /** Total (mis en cache) joint à une page par curseur. */
+        private boolean includeTotal;
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class FlowDto {
 
@@ -122,4 +123,28 @@ public class FlowDto {
         private String stroke;
         private Integer strokeWidth;
     }
+
+    /**
+     * Métriques d'un node de flow diffusées en temps réel (le diagramme statique est envoyé à l'abonnement).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class FlowNodeMetrics {
+        private String nodeId;
+        private Long topicId;
+        private Long messageCount;
+        private Double throughput;
+        private String status;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class FlowMetricsDelta {
+        private Long flowId;
+        private List<FlowNodeMetrics> nodes;
+    }
 }
\ No newline at end of file
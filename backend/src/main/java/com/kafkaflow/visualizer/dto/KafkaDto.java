@@ -4,13 +4,16 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.kafkaflow.visualizer.model.KafkaConnection.ConnectionStatus;
 import com.kafkaflow.visualizer.model.KafkaMessage.MessageDirection;
 import com.kafkaflow.visualizer.model.KafkaMessage.MessageStatus;
+import com.kafkaflow.visualizer.util.KeysetCursor;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class KafkaDto {
 
@@ -179,6 +182,12 @@ public class KafkaDto {
 
         @Builder.Default @Min(1) @Max(200)
         private int size = 50;
+
+        /** Jeton opaque de pagination par curseur ({@code nextCursor} de la page précédente). */
+        private String cursor;
+
+        /** Total (mis en cache) joint à une page par curseur ; coûte un COUNT à la première demande. */
+        private boolean includeTotal;
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -242,6 +251,7 @@ public class KafkaDto {
         private long totalMessagesStored;
         private List<TopicStats> topTopics;
         private List<MessageTrend> messageTrends;
+        private List<ConsumerThreadStats> expensiveConsumers;
     }
 
     @Data
@@ -263,6 +273,43 @@ public class KafkaDto {
         private long count;
     }
 
+    /**
+     * Coût d'un thread consumer : taux sur le dernier intervalle d'échantillonnage + cumuls.
+     * Valeurs à -1 si la JVM ne supporte pas la mesure.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ConsumerThreadStats {
+        private Long topicId;
+        private String topicName;
+        private String threadName;
+        private String threadState;
+        private double cpuPercent;
+        private long allocatedBytesPerSecond;
+        private long cpuTimeMs;
+        private long allocatedBytes;
+    }
+
+    /** Anomalie d'un topic : écart (z-score) entre la seconde observée et la baseline EWMA. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class AnomalyResponse {
+        private Long id;
+        private Long topicId;
+        private String topicName;
+        private String metric;
+        private String direction;
+        private double observed;
+        private double expected;
+        private double stdDev;
+        private double zScore;
+        private LocalDateTime detectedAt;
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // SYSTEM
     // ═══════════════════════════════════════════════════════════════════════
@@ -277,6 +324,36 @@ public class KafkaDto {
         private LocalDateTime timestamp;
     }
 
+    /**
+     * Page d'une pagination par curseur (sémantique {@code Slice}) : pas de COUNT,
+     * {@code totalElements} n'est renseigné que sur demande.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class CursorPage<T> {
+        private List<T> content;
+        private int size;
+        private boolean hasNext;
+        private String nextCursor;
+        private Long totalElements;
+
+        /** Le curseur suivant pointe sur le dernier élément de la tranche. */
+        public static <S, T> CursorPage<T> of(Slice<S> slice, Function<S, T> mapper,
+                                              Function<S, KeysetCursor> position, Long totalElements) {
+            List<S> rows = slice.getContent();
+            return CursorPage.<T>builder()
+                    .content(rows.stream().map(mapper).toList())
+                    .size(slice.getSize())
+                    .hasNext(slice.hasNext())
+                    .nextCursor(slice.hasNext() && !rows.isEmpty() ? position.apply(rows.get(rows.size() - 1)).encode() : null)
+                    .totalElements(totalElements)
+                    .build();
+        }
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -162,6 +162,24 @@ public class RetentionDto {
         private String errorMessage;
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class JobTopicLogResponse {
+        private Long topicId;
+        private String topicName;
+        private String status;
+        private Long rowsProcessed;
+        private Long bytesProcessed;
+        private String bytesProcessedFormatted;
+        private Integer chunks;
+        private Long rowsPerSecond;
+        private LocalDateTime startedAt;
+        private Long durationMs;
+        private String errorMessage;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -181,10 +199,46 @@ public class RetentionDto {
         private Integer maxSizeBytes;
         private Double messagesPerMinute;
         private Integer peakMessagesPerMinute;
+        private Integer uniqueKeysCount;
+        private Integer uniquePartitionsCount;
+        private Long sizeP50Bytes;
+        private Long sizeP95Bytes;
+        private Long sizeP99Bytes;
         private LocalDateTime firstMessageAt;
         private LocalDateTime lastMessageAt;
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CardinalityResponse {
+        private Long topicId;
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private Integer hoursMerged;
+        private Long uniqueKeys;
+        private Long uniquePartitions;
+        private Integer precision;
+        private Double standardErrorPercent;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SizeDistributionResponse {
+        private Long topicId;
+        private LocalDateTime start;
+        private LocalDateTime end;
+        private Integer hoursMerged;
+        private Long sampledMessages;
+        private Map<String, Long> sizeQuantiles;
+        private Double relativeAccuracyPercent;
+        private Integer peakMessagesPerMinute;
+        private LocalDateTime peakMinuteAt;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -1,15 +1,18 @@
 package com.kafkaflow.visualizer.mapper;
 
 import com.kafkaflow.visualizer.dto.RetentionDto.JobLogResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.JobTopicLogResponse;
 import com.kafkaflow.visualizer.dto.RetentionDto.PolicyResponse;
 import com.kafkaflow.visualizer.dto.RetentionDto.StatsResponse;
 import com.kafkaflow.visualizer.model.KafkaConnection;
 import com.kafkaflow.visualizer.model.KafkaMessageStats;
 import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
 import com.kafkaflow.visualizer.model.RetentionPolicy;
 import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.util.QuantileSketch;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -80,7 +83,25 @@ public class RetentionDtoMapper {
                 .build();
     }
 
+    public JobTopicLogResponse toJobTopicLogResponse(RetentionJobTopicLog log) {
+        return JobTopicLogResponse.builder()
+                .topicId(log.getTopicId())
+                .topicName(log.getTopicName())
+                .status(log.getStatus() != null ? log.getStatus().name() : null)
+                .rowsProcessed(log.getRowsProcessed())
+                .bytesProcessed(log.getBytesProcessed())
+                .bytesProcessedFormatted(formatBytes(log.getBytesProcessed() != null ? log.getBytesProcessed() : 0))
+                .chunks(log.getChunks())
+                .rowsPerSecond(log.getRowsPerSecond())
+                .startedAt(log.getStartedAt())
+                .durationMs(log.getDurationMs())
+                .errorMessage(log.getErrorMessage())
+                .build();
+    }
+
     public StatsResponse toStatsResponse(KafkaMessageStats stats) {
+        QuantileSketch sizes = stats.getSizeSketch() != null ? QuantileSketch.fromBytes(stats.getSizeSketch()) : null;
+
         return StatsResponse.builder()
                 .topicId(stats.getTopicId())
                 .hourBucket(stats.getHourBucket())
@@ -98,6 +119,11 @@ public class RetentionDtoMapper {
 
                 .messagesPerMinute(stats.getMessagesPerMinute() != null ? stats.getMessagesPerMinute().doubleValue() : 0.0)
                 .peakMessagesPerMinute(stats.getPeakMessagesPerMinute())
+                .uniqueKeysCount(stats.getUniqueKeysCount())
+                .uniquePartitionsCount(stats.getUniquePartitionsCount())
+                .sizeP50Bytes(sizes != null ? sizes.quantile(0.5) : null)
+                .sizeP95Bytes(sizes != null ? sizes.quantile(0.95) : null)
+                .sizeP99Bytes(sizes != null ? sizes.quantile(0.99) : null)
 
                 .firstMessageAt(stats.getFirstMessageAt())
                 .lastMessageAt(stats.getLastMessageAt())
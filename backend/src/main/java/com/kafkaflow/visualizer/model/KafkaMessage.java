@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 @Table(name = "kafka_messages", indexes = {
         @Index(name = "idx_message_topic", columnList = "topic_id"),
         @Index(name = "idx_message_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_message_topic_timestamp_id", columnList = "topic_id, timestamp, id"),
         @Index(name = "idx_message_key", columnList = "message_key"),
         @Index(name = "idx_message_type", columnList = "message_type"),
         @Index(name = "idx_message_bookmarked", columnList = "is_bookmarked")
@@ -23,8 +24,9 @@ public class KafkaMessage {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Pas de FK : incompatible avec le partitionnement MySQL ; les messages d'un topic sont supprimés avant lui
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "topic_id", nullable = false)
+    @JoinColumn(name = "topic_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private KafkaTopic topic;
 
     @Column(name = "message_key")
@@ -73,6 +75,11 @@ public class KafkaMessage {
     @Builder.Default
     private Boolean isBookmarked = false;
 
+    /** Classification déjà appliquée avant persistance : le @PrePersist ne rescanne pas la valeur. */
+    @Transient
+    @Builder.Default
+    private boolean classified = false;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -88,6 +95,9 @@ public class KafkaMessage {
         if (value != null && valueSize == null) {
             valueSize = value.length();
         }
+        if (classified) {
+            return;
+        }
         if (contentType == null || "unknown".equals(contentType)) {
             contentType = detectContentType(value);
         }
@@ -96,7 +106,24 @@ public class KafkaMessage {
         }
     }
 
-    private String detectContentType(String value) {
+    // ═══════════════════════════════════════════════════════════════════════
+    // CLASSIFICATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public record Classification(MessageType messageType, String contentType) {}
+
+    /** Détection du type (erreur, warning, système) et du format d'une valeur, sans entité. */
+    public static Classification classify(String value) {
+        return new Classification(detectMessageType(value), detectContentType(value));
+    }
+
+    public void applyClassification(Classification classification) {
+        this.messageType = classification.messageType();
+        this.contentType = classification.contentType();
+        this.classified = true;
+    }
+
+    private static String detectContentType(String value) {
         if (value == null || value.isEmpty()) {
             return "empty";
         }
@@ -113,7 +140,7 @@ public class KafkaMessage {
         return "text/plain";
     }
 
-    private MessageType detectMessageType(String value) {
+    private static MessageType detectMessageType(String value) {
         if (value == null) return MessageType.NORMAL;
         String lower = value.toLowerCase();
 
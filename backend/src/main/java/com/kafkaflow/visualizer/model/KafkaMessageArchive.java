@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 import java.util.Map;
 
 @Entity
-@Table(name = "kafka_messages_archive")
+@Table(name = "kafka_messages_archive", indexes = {
+        @Index(name = "idx_archive_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_archive_topic_timestamp_id", columnList = "topic_id, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
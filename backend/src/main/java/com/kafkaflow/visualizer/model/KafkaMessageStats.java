@@ -1,5 +1,7 @@
     package com.kafkaflow.visualizer.model;
 
+    import com.kafkaflow.visualizer.util.HyperLogLog;
+    import com.kafkaflow.visualizer.util.QuantileSketch;
     import jakarta.persistence.*;
     import lombok.AllArgsConstructor;
     import lombok.Builder;
@@ -7,6 +9,7 @@
     import lombok.NoArgsConstructor;
 
     import java.math.BigDecimal;
+    import java.nio.ByteBuffer;
     import java.time.LocalDateTime;
 
     @Entity
@@ -18,6 +21,8 @@
     @Builder
     public class KafkaMessageStats {
 
+        public static final int MINUTES_PER_HOUR = 60;
+
         @Id
         @GeneratedValue(strategy = GenerationType.IDENTITY)
         private Long id;
@@ -75,6 +80,25 @@
         @Builder.Default
         private Integer uniquePartitionsCount = 0;
 
+        /** Sketch HyperLogLog sérialisé des clés, fusionnable entre heures. */
+        @Lob
+        @Column(name = "unique_keys_sketch")
+        private byte[] uniqueKeysSketch;
+
+        /** Sketch HyperLogLog sérialisé des partitions. */
+        @Lob
+        @Column(name = "unique_partitions_sketch")
+        private byte[] uniquePartitionsSketch;
+
+        /** Sketch de quantiles sérialisé des tailles de payload ({@link QuantileSketch}). */
+        @Lob
+        @Column(name = "size_sketch")
+        private byte[] sizeSketch;
+
+        /** Nombre de messages par minute de l'heure (60 entiers), base du pic par minute. */
+        @Column(name = "minute_counts", length = MINUTES_PER_HOUR * Integer.BYTES)
+        private byte[] minuteCounts;
+
         @Column(name = "messages_per_minute", precision = 10, scale = 2)
         @Builder.Default
         private BigDecimal messagesPerMinute = BigDecimal.ZERO;
@@ -119,6 +143,69 @@
             this.updatedAt = LocalDateTime.now();
         }
 
+        /**
+         * Ajoute un delta (accumulé à l'ingestion ou recalculé par la réconciliation) à cette ligne.
+         */
+        public void merge(KafkaMessageStats delta) {
+            if (delta.getMessageCount() == null || delta.getMessageCount() == 0) {
+                return;
+            }
+
+            this.messageCount += delta.getMessageCount();
+            this.normalCount += delta.getNormalCount();
+            this.errorCount += delta.getErrorCount();
+            this.warningCount += delta.getWarningCount();
+            this.systemCount += delta.getSystemCount();
+            this.totalSizeBytes += delta.getTotalSizeBytes();
+
+            if (this.minSizeBytes == 0 || delta.getMinSizeBytes() < this.minSizeBytes) {
+                this.minSizeBytes = delta.getMinSizeBytes();
+            }
+            if (delta.getMaxSizeBytes() > this.maxSizeBytes) {
+                this.maxSizeBytes = delta.getMaxSizeBytes();
+            }
+            if (this.firstMessageAt == null || (delta.getFirstMessageAt() != null
+                    && delta.getFirstMessageAt().isBefore(this.firstMessageAt))) {
+                this.firstMessageAt = delta.getFirstMessageAt();
+            }
+            if (this.lastMessageAt == null || (delta.getLastMessageAt() != null
+                    && delta.getLastMessageAt().isAfter(this.lastMessageAt))) {
+                this.lastMessageAt = delta.getLastMessageAt();
+            }
+
+            this.uniqueKeysSketch = HyperLogLog.merge(this.uniqueKeysSketch, delta.getUniqueKeysSketch());
+            this.uniquePartitionsSketch = HyperLogLog.merge(this.uniquePartitionsSketch, delta.getUniquePartitionsSketch());
+            this.uniqueKeysCount = (int) HyperLogLog.estimate(this.uniqueKeysSketch);
+            this.sizeSketch = QuantileSketch.merge(this.sizeSketch, delta.getSizeSketch());
+            mergeMinuteCounts(delta.getMinuteCounts());
+            this.uniquePartitionsCount = (int) HyperLogLog.estimate(this.uniquePartitionsSketch);
+
+            this.avgSizeBytes = (int) (this.totalSizeBytes / this.messageCount);
+            this.updatedAt = LocalDateTime.now();
+            updateThroughput();
+        }
+
+        /**
+         * Remet les compteurs à zéro avant un recalcul complet de l'heure.
+         * Les sketches (cardinalité, tailles) sont conservés : ils ne se reconstruisent pas par agrégat SQL.
+         */
+        public void resetCounters() {
+            this.messageCount = 0;
+            this.normalCount = 0;
+            this.errorCount = 0;
+            this.warningCount = 0;
+            this.systemCount = 0;
+            this.totalSizeBytes = 0L;
+            this.avgSizeBytes = 0;
+            this.minSizeBytes = 0;
+            this.maxSizeBytes = 0;
+            this.messagesPerMinute = BigDecimal.ZERO;
+            this.peakMessagesPerMinute = 0;
+            this.minuteCounts = null;
+            this.firstMessageAt = null;
+            this.lastMessageAt = null;
+        }
+
         public void updateThroughput() {
             if (messageCount > 0) {
                 this.messagesPerMinute = BigDecimal.valueOf(messageCount)
@@ -126,6 +213,37 @@
             }
         }
 
+        private void mergeMinuteCounts(byte[] deltaCounts) {
+            if (deltaCounts == null) {
+                return;
+            }
+            int[] merged = decodeMinuteCounts(this.minuteCounts);
+            int[] added = decodeMinuteCounts(deltaCounts);
+            int peak = 0;
+            for (int minute = 0; minute < MINUTES_PER_HOUR; minute++) {
+                merged[minute] += added[minute];
+                peak = Math.max(peak, merged[minute]);
+            }
+            this.minuteCounts = encodeMinuteCounts(merged);
+            this.peakMessagesPerMinute = peak;
+        }
+
+        public static byte[] encodeMinuteCounts(int[] counts) {
+            ByteBuffer buffer = ByteBuffer.allocate(MINUTES_PER_HOUR * Integer.BYTES);
+            for (int minute = 0; minute < MINUTES_PER_HOUR; minute++) {
+                buffer.putInt(counts[minute]);
+            }
+            return buffer.array();
+        }
+
+        public static int[] decodeMinuteCounts(byte[] bytes) {
+            int[] counts = new int[MINUTES_PER_HOUR];
+            if (bytes != null && bytes.length == MINUTES_PER_HOUR * Integer.BYTES) {
+                ByteBuffer.wrap(bytes).asIntBuffer().get(counts);
+            }
+            return counts;
+        }
+
         public static KafkaMessageStats createForHour(Long topicId, Long connectionId, LocalDateTime hourBucket) {
             return KafkaMessageStats.builder()
                     .topicId(topicId)
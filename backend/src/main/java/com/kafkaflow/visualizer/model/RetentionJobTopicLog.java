@@ -0,0 +1,74 @@
+package com.kafkaflow.visualizer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avancement d'un topic dans un job de rétention ({@link RetentionJobLog}) : une ligne par topic,
+ * écrite au démarrage du topic puis mise à jour à la fin, pour suivre un job en cours.
+ */
+@Entity
+@Table(name = "retention_job_topic_logs",
+        indexes = @Index(name = "idx_job_topic_logs_job", columnList = "job_log_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RetentionJobTopicLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_log_id", nullable = false)
+    private Long jobLogId;
+
+    @Column(name = "topic_id", nullable = false)
+    private Long topicId;
+
+    @Column(name = "topic_name")
+    private String topicName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private TopicStatus status = TopicStatus.RUNNING;
+
+    @Column(name = "rows_processed")
+    @Builder.Default
+    private Long rowsProcessed = 0L;
+
+    @Column(name = "bytes_processed")
+    @Builder.Default
+    private Long bytesProcessed = 0L;
+
+    @Column(name = "chunks")
+    @Builder.Default
+    private Integer chunks = 0;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * RUNNING : en cours ; PARTIAL : budget de temps écoulé avant la fin du topic ;
+     * SKIPPED : budget écoulé avant son démarrage ; FAILED : erreur, les autres topics continuent.
+     */
+    public enum TopicStatus {
+        RUNNING, COMPLETED, PARTIAL, SKIPPED, FAILED
+    }
+
+    public long getRowsPerSecond() {
+        return durationMs != null && durationMs > 0 ? rowsProcessed * 1000 / durationMs : 0;
+    }
+}
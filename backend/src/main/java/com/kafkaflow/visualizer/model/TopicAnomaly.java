@@ -0,0 +1,66 @@
+package com.kafkaflow.visualizer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Anomalie détectée en streaming sur une série par seconde d'un topic (débit ou erreurs).
+ */
+@Entity
+@Table(name = "topic_anomalies",
+        indexes = @Index(name = "idx_topic_anomalies_topic_detected", columnList = "topic_id, detected_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopicAnomaly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "topic_id", nullable = false)
+    private Long topicId;
+
+    @Column(name = "topic_name")
+    private String topicName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 20)
+    private Metric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false, length = 10)
+    private Direction direction;
+
+    /** Valeur observée sur la seconde évaluée (messages/s ou erreurs/s). */
+    @Column(name = "observed")
+    private Double observed;
+
+    /** Moyenne EWMA avant l'observation. */
+    @Column(name = "expected")
+    private Double expected;
+
+    @Column(name = "std_dev")
+    private Double stdDev;
+
+    @Column(name = "z_score")
+    private Double zScore;
+
+    @Column(name = "detected_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime detectedAt = LocalDateTime.now();
+
+    public enum Metric {
+        THROUGHPUT, ERROR_RATE
+    }
+
+    public enum Direction {
+        SPIKE, DROP
+    }
+}
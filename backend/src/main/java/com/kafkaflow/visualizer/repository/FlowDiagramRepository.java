@@ -31,4 +31,7 @@ public interface FlowDiagramRepository extends JpaRepository<FlowDiagram, Long>
 
     @Query("SELECT f FROM FlowDiagram f LEFT JOIN FETCH f.connection WHERE f.connection.id = :connectionId AND f.liveMode = true")
     List<FlowDiagram> findByConnectionIdAndLiveModeTrueWithConnection(@Param("connectionId") Long connectionId);
-}
\ No newline at end of file
+
+    @Query("SELECT f FROM FlowDiagram f LEFT JOIN FETCH f.connection WHERE f.liveMode = true")
+    List<FlowDiagram> findByLiveModeTrueWithConnection();
+}
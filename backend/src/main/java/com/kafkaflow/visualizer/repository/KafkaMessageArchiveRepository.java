@@ -5,6 +5,7 @@ import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -52,8 +54,7 @@ public interface KafkaMessageArchiveRepository extends JpaRepository<KafkaMessag
     // FILTERED SEARCH (for Archives Page)
     // ═══════════════════════════════════════════════════════════════════════
 
-    @Query("SELECT a FROM KafkaMessageArchive a WHERE " +
-            "(:topicId IS NULL OR a.topicId = :topicId) " +
+    String FILTERS = "(:topicId IS NULL OR a.topicId = :topicId) " +
             "AND (:connectionId IS NULL OR a.connectionId = :connectionId) " +
             "AND (:topicName IS NULL OR LOWER(a.topicName) LIKE LOWER(CONCAT('%', :topicName, '%'))) " +
             "AND (:messageKey IS NULL OR LOWER(a.messageKey) LIKE LOWER(CONCAT('%', :messageKey, '%'))) " +
@@ -62,7 +63,12 @@ public interface KafkaMessageArchiveRepository extends JpaRepository<KafkaMessag
             "AND (:toDate IS NULL OR a.originalTimestamp <= :toDate) " +
             "AND (:messageType IS NULL OR a.messageType = :messageType) " +
             "AND (:archiveReason IS NULL OR a.archiveReason = :archiveReason) " +
-            "AND (:contentType IS NULL OR a.contentType = :contentType)")
+            "AND (:contentType IS NULL OR a.contentType = :contentType)";
+
+    String KEYSET = "a.originalTimestamp <= :cursorTs AND (a.originalTimestamp < :cursorTs OR a.id < :cursorId) " +
+            "ORDER BY a.originalTimestamp DESC, a.id DESC";
+
+    @Query("SELECT a FROM KafkaMessageArchive a WHERE " + FILTERS)
     Page<KafkaMessageArchive> findByFilters(
             @Param("topicId") Long topicId,
             @Param("connectionId") Long connectionId,
@@ -77,17 +83,90 @@ public interface KafkaMessageArchiveRepository extends JpaRepository<KafkaMessag
             Pageable pageable
     );
 
+    /** Pagination par clé (originalTimestamp DESC, id DESC), sans COUNT. */
+    @Query("SELECT a FROM KafkaMessageArchive a WHERE " + FILTERS + " AND " + KEYSET)
+    Slice<KafkaMessageArchive> findByFiltersBefore(
+            @Param("topicId") Long topicId,
+            @Param("connectionId") Long connectionId,
+            @Param("topicName") String topicName,
+            @Param("messageKey") String messageKey,
+            @Param("valueContains") String valueContains,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("messageType") MessageType messageType,
+            @Param("archiveReason") ArchiveReason archiveReason,
+            @Param("contentType") String contentType,
+            @Param("cursorTs") LocalDateTime cursorTs,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(a) FROM KafkaMessageArchive a WHERE " + FILTERS)
+    long countByFilters(
+            @Param("topicId") Long topicId,
+            @Param("connectionId") Long connectionId,
+            @Param("topicName") String topicName,
+            @Param("messageKey") String messageKey,
+            @Param("valueContains") String valueContains,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("messageType") MessageType messageType,
+            @Param("archiveReason") ArchiveReason archiveReason,
+            @Param("contentType") String contentType
+    );
+
     // ═══════════════════════════════════════════════════════════════════════
     // FULL TEXT SEARCH
     // ═══════════════════════════════════════════════════════════════════════
 
-    @Query("SELECT a FROM KafkaMessageArchive a WHERE " +
-            "LOWER(a.topicName) LIKE LOWER(CONCAT('%', :query, '%')) " +
+    String FULL_TEXT = "(LOWER(a.topicName) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR LOWER(a.messageKey) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR LOWER(a.messageValue) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "OR LOWER(a.connectionName) LIKE LOWER(CONCAT('%', :query, '%'))")
+            "OR LOWER(a.connectionName) LIKE LOWER(CONCAT('%', :query, '%')))";
+
+    @Query("SELECT a FROM KafkaMessageArchive a WHERE " + FULL_TEXT)
     Page<KafkaMessageArchive> searchFullText(@Param("query") String query, Pageable pageable);
 
+    @Query("SELECT a FROM KafkaMessageArchive a WHERE " + FULL_TEXT + " AND " + KEYSET)
+    Slice<KafkaMessageArchive> searchFullTextBefore(
+            @Param("query") String query,
+            @Param("cursorTs") LocalDateTime cursorTs,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    @Query("SELECT COUNT(a) FROM KafkaMessageArchive a WHERE " + FULL_TEXT)
+    long countFullText(@Param("query") String query);
+
+    /** Revérification des candidats de l'index plein texte : (id, originalTimestamp) des lignes qui matchent. */
+    @Query("SELECT a.id, a.originalTimestamp FROM KafkaMessageArchive a WHERE " + FULL_TEXT + " AND a.id IN :ids")
+    List<Object[]> findFullTextMatchingIds(@Param("query") String query, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(a.id) FROM KafkaMessageArchive a")
+    Long findMinId();
+
+    @Query("SELECT MAX(a.id) FROM KafkaMessageArchive a")
+    Long findMaxId();
+
+    /**
+     * Ids des archives d'un chunk inséré en SQL : lignes du topic copiées depuis les messages
+     * {@code [fromId, toId]}, parcourues à partir de {@code afterId} (max lu avant l'insert).
+     */
+    @Query("SELECT a.id FROM KafkaMessageArchive a WHERE a.id > :afterId AND a.topicId = :topicId " +
+            "AND a.originalId BETWEEN :fromId AND :toId ORDER BY a.id")
+    List<Long> findIdsArchivedFrom(@Param("afterId") long afterId, @Param("topicId") Long topicId,
+                                   @Param("fromId") long fromId, @Param("toId") long toId);
+
+    /** (id, topic, connexion, clé, valeur) des archives données, pour l'index plein texte. */
+    @Query("SELECT a.id, a.topicName, a.connectionName, a.messageKey, a.messageValue FROM KafkaMessageArchive a " +
+            "WHERE a.id IN :ids ORDER BY a.id")
+    List<Object[]> findSearchFieldsByIds(@Param("ids") Collection<Long> ids);
+
+    /** (id, topic, connexion, clé, valeur) par ordre d'id, pour la construction de l'index plein texte. */
+    @Query("SELECT a.id, a.topicName, a.connectionName, a.messageKey, a.messageValue FROM KafkaMessageArchive a " +
+            "WHERE a.id > :after AND a.id <= :upTo ORDER BY a.id")
+    List<Object[]> findSearchFieldsAfter(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
     // ═══════════════════════════════════════════════════════════════════════
     // COUNTS
     // ═══════════════════════════════════════════════════════════════════════
@@ -168,6 +247,21 @@ public interface KafkaMessageArchiveRepository extends JpaRepository<KafkaMessag
             @Param("toDate") LocalDateTime toDate
     );
 
+    // ═══════════════════════════════════════════════════════════════════════
+    // COLD TIER MIGRATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @Query("SELECT DISTINCT a.topicId, a.connectionId FROM KafkaMessageArchive a WHERE a.archivedAt < :before")
+    List<Object[]> findTopicsArchivedBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT a FROM KafkaMessageArchive a WHERE a.topicId = :topicId AND a.archivedAt < :before " +
+            "ORDER BY a.originalTimestamp, a.id")
+    List<KafkaMessageArchive> findColdCandidates(
+            @Param("topicId") Long topicId,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+
     // ═══════════════════════════════════════════════════════════════════════
     // DISTINCT VALUES (for filters)
     // ═══════════════════════════════════════════════════════════════════════
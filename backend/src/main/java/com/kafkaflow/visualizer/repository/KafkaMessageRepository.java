@@ -5,6 +5,7 @@ import com.kafkaflow.visualizer.model.KafkaMessage.MessageDirection;
 import com.kafkaflow.visualizer.model.KafkaMessage.MessageStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,14 +25,16 @@ public interface KafkaMessageRepository extends JpaRepository<KafkaMessage, Long
 
     Page<KafkaMessage> findByTopicIdAndKeyContaining(Long topicId, String key, Pageable pageable);
 
-    @Query("SELECT m FROM KafkaMessage m WHERE m.topic.id = :topicId " +
+    String FILTERS = "m.topic.id = :topicId " +
             "AND (:key IS NULL OR m.key LIKE %:key%) " +
             "AND (:valueContains IS NULL OR m.value LIKE %:valueContains%) " +
             "AND (:fromDate IS NULL OR m.timestamp >= :fromDate) " +
             "AND (:toDate IS NULL OR m.timestamp <= :toDate) " +
             "AND (:direction IS NULL OR m.direction = :direction) " +
             "AND (:status IS NULL OR m.status = :status) " +
-            "AND (:partition IS NULL OR m.partition = :partition)")
+            "AND (:partition IS NULL OR m.partition = :partition)";
+
+    @Query("SELECT m FROM KafkaMessage m WHERE " + FILTERS)
     Page<KafkaMessage> findByFilters(
             @Param("topicId") Long topicId,
             @Param("key") String key,
@@ -43,6 +47,64 @@ public interface KafkaMessageRepository extends JpaRepository<KafkaMessage, Long
             Pageable pageable
     );
 
+    /**
+     * Pagination par clé : messages strictement avant {@code (cursorTs, cursorId)} dans l'ordre
+     * (timestamp DESC, id DESC). Le prédicat {@code timestamp <= :cursorTs} reste une borne de range
+     * sur l'index (topic_id, timestamp, id) ; pas de COUNT (Slice).
+     */
+    @Query("SELECT m FROM KafkaMessage m WHERE " + FILTERS + " " +
+            "AND m.timestamp <= :cursorTs AND (m.timestamp < :cursorTs OR m.id < :cursorId) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    Slice<KafkaMessage> findByFiltersBefore(
+            @Param("topicId") Long topicId,
+            @Param("key") String key,
+            @Param("valueContains") String valueContains,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("direction") MessageDirection direction,
+            @Param("status") MessageStatus status,
+            @Param("partition") Integer partition,
+            @Param("cursorTs") LocalDateTime cursorTs,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    /** Revérification des candidats de l'index plein texte : (id, timestamp) des lignes qui matchent. */
+    @Query("SELECT m.id, m.timestamp FROM KafkaMessage m WHERE " + FILTERS + " AND m.id IN :ids")
+    List<Object[]> findMatchingIds(
+            @Param("topicId") Long topicId,
+            @Param("key") String key,
+            @Param("valueContains") String valueContains,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("direction") MessageDirection direction,
+            @Param("status") MessageStatus status,
+            @Param("partition") Integer partition,
+            @Param("ids") Collection<Long> ids
+    );
+
+    @Query("SELECT MIN(m.id) FROM KafkaMessage m")
+    Long findMinId();
+
+    @Query("SELECT MAX(m.id) FROM KafkaMessage m")
+    Long findMaxId();
+
+    /** (id, clé, valeur) par ordre d'id, pour la construction de l'index plein texte. */
+    @Query("SELECT m.id, m.key, m.value FROM KafkaMessage m WHERE m.id > :after AND m.id <= :upTo ORDER BY m.id")
+    List<Object[]> findSearchFieldsAfter(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT COUNT(m) FROM KafkaMessage m WHERE " + FILTERS)
+    long countByFilters(
+            @Param("topicId") Long topicId,
+            @Param("key") String key,
+            @Param("valueContains") String valueContains,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("direction") MessageDirection direction,
+            @Param("status") MessageStatus status,
+            @Param("partition") Integer partition
+    );
+
     @Query("SELECT COUNT(m) FROM KafkaMessage m WHERE m.timestamp >= :since")
     long countMessagesSince(@Param("since") LocalDateTime since);
 
@@ -70,6 +132,26 @@ public interface KafkaMessageRepository extends JpaRepository<KafkaMessage, Long
 
     List<KafkaMessage> findByTopicIdAndTimestampBetween(Long topicId, LocalDateTime start, LocalDateTime end);
 
+    @Query("SELECT m.topic.id, COUNT(m) FROM KafkaMessage m " +
+            "WHERE m.timestamp >= :start AND m.timestamp < :end " +
+            "GROUP BY m.topic.id")
+    List<Object[]> countByTopicInRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT FUNCTION('MINUTE', m.timestamp), COUNT(m) FROM KafkaMessage m " +
+            "WHERE m.topic.id = :topicId AND m.timestamp >= :start AND m.timestamp < :end " +
+            "GROUP BY FUNCTION('MINUTE', m.timestamp)")
+    List<Object[]> countByMinute(@Param("topicId") Long topicId,
+                                 @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+
+    @Query("SELECT m.messageType, COUNT(m), COALESCE(SUM(m.valueSize), 0), MIN(m.valueSize), MAX(m.valueSize), " +
+            "MIN(m.timestamp), MAX(m.timestamp) FROM KafkaMessage m " +
+            "WHERE m.topic.id = :topicId AND m.timestamp >= :start AND m.timestamp < :end " +
+            "GROUP BY m.messageType")
+    List<Object[]> aggregateByMessageType(@Param("topicId") Long topicId,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
+
     @Query("SELECT m FROM KafkaMessage m WHERE m.topic.id = :topicId AND m.timestamp < :before AND m.isBookmarked = false")
     List<KafkaMessage> findMessagesOlderThan(@Param("topicId") Long topicId, @Param("before") LocalDateTime before, Pageable pageable);
 
@@ -103,6 +185,57 @@ public interface KafkaMessageRepository extends JpaRepository<KafkaMessage, Long
             @Param("includeBookmarked") boolean includeBookmarked,
             Pageable pageable);
 
+    // ═══════════════════════════════════════════════════════════════════════
+    // ARCHIVAGE ENSEMBLISTE (plages d'ids, sans charger les entités)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Taille d'un message telle que copiée dans les archives : longueur du contenu quand
+     * {@code value_size} n'a pas été renseigné (lignes antérieures à la colonne).
+     */
+    String VALUE_BYTES = "CASE WHEN COALESCE(m.valueSize, 0) = 0 THEN COALESCE(LENGTH(m.value), 0) ELSE m.valueSize END";
+
+    String ARCHIVE_RANGE = "m.topic.id = :topicId AND m.id BETWEEN :fromId AND :toId " +
+            "AND m.timestamp < :cutoff AND (:includeBookmarked = true OR m.isBookmarked = false)";
+
+    /** Ids archivables du topic par ordre croissant : le premier et le dernier bornent le prochain chunk. */
+    @Query("SELECT m.id FROM KafkaMessage m WHERE m.topic.id = :topicId AND m.timestamp < :cutoff " +
+            "AND (:includeBookmarked = true OR m.isBookmarked = false) ORDER BY m.id")
+    List<Long> findIdsToArchive(
+            @Param("topicId") Long topicId,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("includeBookmarked") boolean includeBookmarked,
+            Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(" + VALUE_BYTES + "), 0) FROM KafkaMessage m WHERE " + ARCHIVE_RANGE)
+    long sumValueSizeInArchiveRange(
+            @Param("topicId") Long topicId,
+            @Param("fromId") long fromId,
+            @Param("toId") long toId,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("includeBookmarked") boolean includeBookmarked);
+
+    @Modifying
+    @Query("DELETE FROM KafkaMessage m WHERE " + ARCHIVE_RANGE)
+    int deleteArchiveRange(
+            @Param("topicId") Long topicId,
+            @Param("fromId") long fromId,
+            @Param("toId") long toId,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("includeBookmarked") boolean includeBookmarked);
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // OCCUPATION DU STOCKAGE CHAUD (recalage des compteurs de capacité)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Lignes {@code (topicId, nombre de messages, octets)} de tous les topics, en une requête. */
+    @Query("SELECT m.topic.id, COUNT(m), COALESCE(SUM(" + VALUE_BYTES + "), 0) FROM KafkaMessage m GROUP BY m.topic.id")
+    List<Object[]> sumHotUsageByTopic();
+
+    /** Une ligne {@code (nombre de messages, octets)} pour le topic. */
+    @Query("SELECT COUNT(m), COALESCE(SUM(" + VALUE_BYTES + "), 0) FROM KafkaMessage m WHERE m.topic.id = :topicId")
+    List<Object[]> measureHotUsage(@Param("topicId") Long topicId);
+
     @Query("SELECT m FROM KafkaMessage m WHERE m.topic.id = :topicId " +
             "AND m.timestamp < :before " +
             "ORDER BY m.timestamp ASC")
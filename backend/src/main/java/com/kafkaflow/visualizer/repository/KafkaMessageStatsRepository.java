@@ -17,6 +17,8 @@ public interface KafkaMessageStatsRepository extends JpaRepository<KafkaMessageS
 
     Optional<KafkaMessageStats> findByTopicIdAndHourBucket(Long topicId, LocalDateTime hourBucket);
 
+    List<KafkaMessageStats> findByHourBucket(LocalDateTime hourBucket);
+
     List<KafkaMessageStats> findByTopicIdAndHourBucketBetweenOrderByHourBucketAsc(
             Long topicId, LocalDateTime start, LocalDateTime end);
 
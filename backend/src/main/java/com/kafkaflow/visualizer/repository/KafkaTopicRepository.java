@@ -2,10 +2,12 @@ package com.kafkaflow.visualizer.repository;
 
 import com.kafkaflow.visualizer.model.KafkaTopic;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,4 +56,8 @@ public interface KafkaTopicRepository extends JpaRepository<KafkaTopic, Long> {
     @Query("SELECT t FROM KafkaTopic t LEFT JOIN FETCH t.connection c " +
             "WHERE t.id IN :ids AND (c IS NULL OR c.status <> 'CONNECTED')")
     List<KafkaTopic> findOrphanTopicsByIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE KafkaTopic t SET t.messageCount = COALESCE(t.messageCount, 0) + :delta, t.lastMessageAt = :at WHERE t.id = :id")
+    int incrementMessageCount(@Param("id") Long id, @Param("delta") long delta, @Param("at") LocalDateTime at);
 }
@@ -0,0 +1,13 @@
+package com.kafkaflow.visualizer.repository;
+
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RetentionJobTopicLogRepository extends JpaRepository<RetentionJobTopicLog, Long> {
+
+    List<RetentionJobTopicLog> findByJobLogIdOrderByIdAsc(Long jobLogId);
+}
@@ -0,0 +1,24 @@
+package com.kafkaflow.visualizer.repository;
+
+import com.kafkaflow.visualizer.model.TopicAnomaly;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TopicAnomalyRepository extends JpaRepository<TopicAnomaly, Long> {
+
+    List<TopicAnomaly> findAllByOrderByDetectedAtDesc(Pageable pageable);
+
+    List<TopicAnomaly> findByTopicIdOrderByDetectedAtDesc(Long topicId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM TopicAnomaly a WHERE a.detectedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
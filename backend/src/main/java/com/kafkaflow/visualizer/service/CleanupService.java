@@ -6,8 +6,10 @@ import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +31,7 @@ public class CleanupService {
     private final KafkaConnectionRepository connectionRepository;
     private final KafkaTopicRepository topicRepository;
     private final KafkaMessageRepository messageRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ═══════════════════════════════════════════════════════════════════════
     // DETECTION
@@ -139,6 +142,7 @@ public class CleanupService {
         for (KafkaTopic topic : orphanTopics) {
             messageRepository.deleteByTopicId(topic.getId());
             topicRepository.delete(topic);
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(topic.getId()));
             topicsDeleted++;
         }
 
@@ -196,6 +200,7 @@ public class CleanupService {
         for (KafkaTopic topic : toDelete) {
             messageRepository.deleteByTopicId(topic.getId());
             topicRepository.delete(topic);
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(topic.getId()));
             deleted++;
         }
 
@@ -212,6 +217,7 @@ public class CleanupService {
         for (KafkaTopic topic : topics) {
             messageRepository.deleteByTopicId(topic.getId());
             topicRepository.delete(topic);
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(topic.getId()));
         }
         // Supprimer la connexion
         connectionRepository.delete(connection);
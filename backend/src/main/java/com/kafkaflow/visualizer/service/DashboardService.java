@@ -5,13 +5,17 @@ import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import com.kafkaflow.visualizer.service.kafka.KafkaConsumerManager;
+import com.kafkaflow.visualizer.service.metrics.ConsumerThreadProfiler;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore;
 import com.kafkaflow.visualizer.service.metrics.ThroughputTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,7 +28,9 @@ public class DashboardService {
     private final KafkaTopicRepository topicRepository;
     private final KafkaMessageRepository messageRepository;
     private final ThroughputTracker throughputTracker;
+    private final MetricsTimeSeriesStore timeSeriesStore;
     private final KafkaConsumerManager consumerManager;
+    private final ConsumerThreadProfiler threadProfiler;
 
     @Transactional(readOnly = true)
     public DashboardStats getDashboardStats() {
@@ -49,10 +55,11 @@ public class DashboardService {
         }
 
         // ─────────────────────────────────────────────────────────────────────
-        // MÉTRIQUES HISTORIQUES (depuis DB)
+        // MÉTRIQUES HISTORIQUES (séries en mémoire, DB tant qu'elles ne couvrent pas 24h)
         // ─────────────────────────────────────────────────────────────────────
 
-        long messagesLast24h = messageRepository.countMessagesSince(last24Hours);
+        long messagesLast24h = timeSeriesStore.globalMessagesSince(Duration.ofHours(24))
+                .orElseGet(() -> messageRepository.countMessagesSince(last24Hours));
         long totalMessagesStored = messageRepository.count();
 
         // ─────────────────────────────────────────────────────────────────────
@@ -77,6 +84,7 @@ public class DashboardService {
         int runningThreads = (int) consumerManager.getConsumerStatus().values().stream()
                 .filter("RUNNING"::equals)
                 .count();
+        List<ConsumerThreadStats> expensiveConsumers = threadProfiler.getTopConsumers(5);
 
         // ─────────────────────────────────────────────────────────────────────
         // DÉTAILS (top topics + trends)
@@ -90,12 +98,7 @@ public class DashboardService {
                         .build())
                 .collect(Collectors.toList());
 
-        List<MessageTrend> messageTrends = messageRepository.getMessageTrendsByHour(last24Hours).stream()
-                .map(row -> MessageTrend.builder()
-                        .hour(String.valueOf(row[0]))
-                        .count((Long) row[1])
-                        .build())
-                .collect(Collectors.toList());
+        List<MessageTrend> messageTrends = buildMessageTrends(last24Hours);
 
         // ─────────────────────────────────────────────────────────────────────
         // BUILD RESPONSE
@@ -111,6 +114,7 @@ public class DashboardService {
                 // Consumers
                 .activeConsumers(activeConsumers)
                 .runningThreads(runningThreads)
+                .expensiveConsumers(expensiveConsumers)
                 // Messages - Temps réel
                 .messagesPerSecond(messagesPerSecond)
                 .messagesLastMinute(messagesLastMinute)
@@ -124,6 +128,25 @@ public class DashboardService {
                 .build();
     }
 
+    /**
+     * Tendance horaire des dernières 24h : série en mémoire si elle couvre la fenêtre, sinon COUNT en base.
+     */
+    private List<MessageTrend> buildMessageTrends(LocalDateTime last24Hours) {
+        return timeSeriesStore.globalHourlyTrend(Duration.ofHours(24))
+                .map(points -> points.stream()
+                        .map(point -> MessageTrend.builder()
+                                .hour(String.valueOf(point.start().atZone(ZoneId.systemDefault()).getHour()))
+                                .count(point.count())
+                                .build())
+                        .collect(Collectors.toList()))
+                .orElseGet(() -> messageRepository.getMessageTrendsByHour(last24Hours).stream()
+                        .map(row -> MessageTrend.builder()
+                                .hour(String.valueOf(row[0]))
+                                .count((Long) row[1])
+                                .build())
+                        .collect(Collectors.toList()));
+    }
+
     private double roundTwoDecimals(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
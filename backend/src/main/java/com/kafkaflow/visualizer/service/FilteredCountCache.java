@@ -0,0 +1,72 @@
+package com.kafkaflow.visualizer.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache court des totaux des listes filtrées (pagination par curseur).
+ * <p>
+ * Un COUNT sur une table de plusieurs millions de lignes coûte plusieurs secondes : il n'est
+ * calculé qu'à la demande ({@code includeTotal}) puis réutilisé pendant le TTL pour les pages
+ * suivantes du même filtre. Le total est donc approximatif sur une table en cours d'ingestion.
+ */
+@Component
+public class FilteredCountCache {
+
+    private record Entry(long count, long expiresAt) {}
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    private final int maxEntries;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public FilteredCountCache(
+            @Value("${app.pagination.count-cache.ttl-seconds:30}") int ttlSeconds,
+            @Value("${app.pagination.count-cache.max-entries:1000}") int maxEntries) {
+        this(ttlSeconds, maxEntries, System::currentTimeMillis);
+    }
+
+    /** Horloge injectable (epoch millis) pour les tests. */
+    FilteredCountCache(int ttlSeconds, int maxEntries, LongSupplier clock) {
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /** Total en cache pour ce filtre, sinon {@code counter} est exécuté et son résultat conservé. */
+    public long get(String scope, Object[] filter, LongSupplier counter) {
+        String key = key(scope, filter);
+        long now = clock.getAsLong();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.count();
+        }
+
+        long count = counter.getAsLong();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+            if (entries.size() >= maxEntries) entries.clear();
+        }
+        entries.put(key, new Entry(count, now + ttlMillis));
+        return count;
+    }
+
+    private static String key(String scope, Object[] filter) {
+        StringBuilder key = new StringBuilder(scope);
+        for (Object value : filter) {
+            key.append('|').append(Objects.toString(value, ""));
+        }
+        return key.toString();
+    }
+}
@@ -10,11 +10,16 @@ import com.kafkaflow.visualizer.repository.FlowDiagramRepository;
 import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import com.kafkaflow.visualizer.service.kafka.KafkaConsumerManager;
+import com.kafkaflow.visualizer.service.metrics.MetricsBroadcaster;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -48,6 +53,10 @@ public class FlowDiagramService {
         return applicationContext.getBean(KafkaConsumerManager.class);
     }
 
+    private MetricsBroadcaster getMetricsBroadcaster() {
+        return applicationContext.getBean(MetricsBroadcaster.class);
+    }
+
     // ✅ Utilise findAllWithConnection pour éviter LazyInitializationException
     public List<FlowDto.FlowDiagramResponse> getAllFlows() {
         return flowDiagramRepository.findAllWithConnection().stream()
@@ -91,6 +100,7 @@ public class FlowDiagramService {
 
         flow = flowDiagramRepository.save(flow);
         log.debug("Created flow diagram: {} (id: {})", flow.getName(), flow.getId());
+        invalidateLiveBindings();
         return toResponse(flow);
     }
 
@@ -123,6 +133,7 @@ public class FlowDiagramService {
 
         flow = flowDiagramRepository.save(flow);
         log.debug("Updated flow diagram: {} (id: {})", flow.getName(), flow.getId());
+        invalidateLiveBindings();
         return toResponse(flow);
     }
 
@@ -136,6 +147,7 @@ public class FlowDiagramService {
 
         flow = flowDiagramRepository.save(flow);
         log.debug("Updated flow layout: {}", flow.getId());
+        invalidateLiveBindings();
         return toResponse(flow);
     }
 
@@ -146,6 +158,90 @@ public class FlowDiagramService {
         }
         flowDiagramRepository.deleteById(id);
         log.debug("Deleted flow diagram: {}", id);
+        invalidateLiveBindings();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LIVE BINDINGS (deltas temps réel)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Liaison node → topic d'un flow live, résolue une seule fois (le diagramme n'est plus re-parsé à chaque batch).
+     *
+     * @param topicNodes      nodeId → topicId pour les nodes de type topic
+     * @param connectionNodes nodeIds des nodes cluster / application
+     */
+    public record LiveBinding(
+            Long flowId,
+            Long connectionId,
+            Map<String, Long> topicNodes,
+            List<String> connectionNodes
+    ) {}
+
+    @Transactional(readOnly = true)
+    public List<LiveBinding> getLiveBindings() {
+        List<LiveBinding> bindings = new ArrayList<>();
+        Map<Long, Map<String, Long>> topicIdsByConnection = new HashMap<>();
+
+        for (FlowDiagram flow : flowDiagramRepository.findByLiveModeTrueWithConnection()) {
+            KafkaConnection connection = flow.getConnection();
+            List<Map<String, Object>> nodes = fromJson(flow.getNodesJson(), List.class);
+            if (connection == null || nodes == null) continue;
+
+            Map<String, Long> topicIds = topicIdsByConnection.computeIfAbsent(connection.getId(), id ->
+                    topicRepository.findByConnectionId(id).stream()
+                            .collect(Collectors.toMap(KafkaTopic::getName, KafkaTopic::getId, (a, b) -> a)));
+
+            Map<String, Long> topicNodes = new HashMap<>();
+            List<String> connectionNodes = new ArrayList<>();
+            for (Map<String, Object> node : nodes) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> data = (Map<String, Object>) node.get("data");
+                Object nodeId = node.get("id");
+                if (data == null || nodeId == null) continue;
+
+                if (isTopicNode(node, data)) {
+                    Long topicId = topicIds.get((String) data.get("label"));
+                    if (topicId != null) {
+                        topicNodes.put(nodeId.toString(), topicId);
+                    }
+                } else if (isConnectionNode(node, data)) {
+                    connectionNodes.add(nodeId.toString());
+                }
+            }
+            bindings.add(new LiveBinding(flow.getId(), connection.getId(), topicNodes, connectionNodes));
+        }
+        return bindings;
+    }
+
+    /**
+     * Invalide l'index des flows live du broadcaster, après commit pour ne pas recharger un état périmé.
+     */
+    private void invalidateLiveBindings() {
+        try {
+            MetricsBroadcaster broadcaster = getMetricsBroadcaster();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        broadcaster.invalidateFlowBindings();
+                    }
+                });
+            } else {
+                broadcaster.invalidateFlowBindings();
+            }
+        } catch (Exception e) {
+            log.trace("Flow bindings invalidation skipped: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isTopicNode(Map<String, Object> node, Map<String, Object> data) {
+        return "topic".equals(node.get("type")) || "topic".equals(data.get("type"));
+    }
+
+    private static boolean isConnectionNode(Map<String, Object> node, Map<String, Object> data) {
+        return "cluster".equals(node.get("type")) || "application".equals(node.get("type")) ||
+                "cluster".equals(data.get("type")) || "application".equals(data.get("type"));
     }
 
     private FlowDto.FlowDiagramResponse toResponse(FlowDiagram flow) {
@@ -159,7 +255,7 @@ public class FlowDiagramService {
                 Map<String, Object> data = (Map<String, Object>) node.get("data");
                 if (data != null) {
                     // Enrichir les nodes de type "topic"
-                    if ("topic".equals(node.get("type")) || "topic".equals(data.get("type"))) {
+                    if (isTopicNode(node, data)) {
                         String topicName = (String) data.get("label");
                         if (topicName != null) {
                             Optional<KafkaTopic> topicOpt = topicRepository.findByNameAndConnectionId(topicName, connection.getId());
@@ -175,8 +271,7 @@ public class FlowDiagramService {
                     }
 
                     // Enrichir les nodes de type "cluster" ou "application"
-                    if ("cluster".equals(node.get("type")) || "application".equals(node.get("type")) ||
-                            "cluster".equals(data.get("type")) || "application".equals(data.get("type"))) {
+                    if (isConnectionNode(node, data)) {
                         data.put("connectionId", connection.getId());
                         data.put("status", connection.getStatus() == KafkaConnection.ConnectionStatus.CONNECTED ? "active" : "inactive");
                         data.put("topicsCount", topicRepository.countByConnectionId(connection.getId()));
@@ -10,6 +10,7 @@ import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import com.kafkaflow.visualizer.security.KafkaAddressValidator;
 import com.kafkaflow.visualizer.service.kafka.KafkaLogger;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.*;
@@ -31,6 +32,7 @@ public class KafkaConnectionService {
     private final KafkaTopicRepository topicRepository;
     private final KafkaLogger kafkaLogger;
     private final KafkaAddressValidator kafkaAddressValidator;
+    private final TopicMetadataCache topicMetadataCache;
     private final Map<Long, AdminClient> adminClients = new ConcurrentHashMap<>();
 
     @Transactional(readOnly = true)
@@ -74,6 +76,7 @@ public class KafkaConnectionService {
 
         // 2. À TOI : Appelle la méthode pour fermer l'AdminClient (utilise l'id)
         closeAdminClient(id);
+        topicMetadataCache.invalidateConnection(id);
 
         return toConnectionResponse(savedConnection);
 
@@ -88,6 +91,7 @@ public class KafkaConnectionService {
         kafkaLogger.logConnectionDeleted(connection.getName());
         connectionRepository.deleteById(id);
         closeAdminClient(id);
+        topicMetadataCache.invalidateConnection(id);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
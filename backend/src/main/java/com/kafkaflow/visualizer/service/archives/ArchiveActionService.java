@@ -8,13 +8,20 @@ import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.retention.HotStorageTracker;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import com.kafkaflow.visualizer.util.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 @Service
@@ -25,9 +32,14 @@ public class ArchiveActionService {
     private final KafkaMessageArchiveRepository archiveRepository;
     private final KafkaMessageRepository messageRepository;
     private final KafkaTopicRepository topicRepository;
+    private final TopicMetadataCache topicMetadataCache;
+    private final SearchIndexService searchIndex;
+    private final HotStorageTracker hotStorage;
+    private final ColdArchiveStore coldStore;
 
     /**
-     * Suppression en masse selon différents critères
+     * Suppression en masse selon différents critères, en base comme dans le tier froid (segments
+     * supprimés entiers, ou réécrits sans les lignes visées).
      */
     @Transactional
     public BulkOperationResponse deleteArchives(BulkDeleteRequest request) {
@@ -35,12 +47,16 @@ public class ArchiveActionService {
 
         if (request.getIds() != null && !request.getIds().isEmpty()) {
             deleted = archiveRepository.deleteByIds(request.getIds());
+            deleted += (int) coldStore.deleteByIds(request.getIds());
         } else if (request.getTopicId() != null) {
             deleted = archiveRepository.deleteByTopicId(request.getTopicId());
+            deleted += (int) coldStore.dropTopic(request.getTopicId());
         } else if (request.getConnectionId() != null) {
             deleted = archiveRepository.deleteByConnectionId(request.getConnectionId());
+            deleted += (int) coldStore.dropConnection(request.getConnectionId());
         } else if (request.getOlderThan() != null) {
             deleted = archiveRepository.deleteExpiredArchives(request.getOlderThan());
+            deleted += (int) coldStore.dropArchivedBefore(request.getOlderThan());
         }
 
         log.info("Deleted {} archives", deleted);
@@ -52,14 +68,29 @@ public class ArchiveActionService {
     }
 
     /**
-     * Restauration unitaire (Solution B : Pas de @Transactional global)
+     * Restauration unitaire (Solution B : Pas de @Transactional global). Les ids absents de la base
+     * sont cherchés dans le tier froid ; un id introuvable des deux côtés compte comme un échec.
      */
     public RestoreResponse restoreArchives(RestoreRequest request) {
-        List<KafkaMessageArchive> archives = archiveRepository.findAllById(request.getIds());
+        List<KafkaMessageArchive> archives = new ArrayList<>(archiveRepository.findAllById(request.getIds()));
         int restored = 0;
         int failed = 0;
         List<String> errors = new ArrayList<>();
 
+        Set<Long> missing = new HashSet<>(request.getIds());
+        archives.forEach(archive -> missing.remove(archive.getId()));
+        Set<Long> coldIds = new HashSet<>();
+        for (KafkaMessageArchive archive : coldStore.findByIds(missing)) {
+            archives.add(archive);
+            coldIds.add(archive.getId());
+        }
+        missing.removeAll(coldIds);
+        for (Long id : missing) {
+            errors.add("Archive ID " + id + ": not found");
+            failed++;
+        }
+        List<Long> restoredColdIds = new ArrayList<>();
+
         for (KafkaMessageArchive archive : archives) {
             try {
                 KafkaTopic topic = topicRepository.findById(archive.getTopicId())
@@ -81,12 +112,21 @@ public class ArchiveActionService {
                         .build();
 
                 messageRepository.saveAndFlush(message);
+                TransactionHooks.afterCommit(() -> {
+                    searchIndex.indexMessage(message.getId(), message.getKey(), message.getValue());
+                    hotStorage.recordIngest(topic.getId(), message.getValueSize() != null ? message.getValueSize() : 0);
+                });
 
                 topic.setMessageCount((topic.getMessageCount() != null ? topic.getMessageCount() : 0) + 1);
                 topicRepository.saveAndFlush(topic);
+                topicMetadataCache.invalidate(topic.getId());
 
                 if (request.isDeleteAfterRestore()) {
-                    archiveRepository.delete(archive);
+                    if (coldIds.contains(archive.getId())) {
+                        restoredColdIds.add(archive.getId());
+                    } else {
+                        archiveRepository.delete(archive);
+                    }
                 }
 
                 restored++;
@@ -98,6 +138,16 @@ public class ArchiveActionService {
             }
         }
 
+        // Une seule réécriture par segment froid pour toutes les lignes restaurées
+        if (!restoredColdIds.isEmpty()) {
+            try {
+                coldStore.deleteByIds(restoredColdIds);
+            } catch (Exception e) {
+                log.error("Failed to remove restored archives from cold storage: {}", e.getMessage());
+                errors.add("Cold archives " + restoredColdIds + " restored but not deleted: " + e.getMessage());
+            }
+        }
+
         return RestoreResponse.builder()
                 .restored(restored)
                 .failed(failed)
@@ -7,6 +7,9 @@ import com.kafkaflow.visualizer.dto.ArchiveDto.ExportResponse;
 import com.kafkaflow.visualizer.exception.ExportException;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive;
 import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveQuery;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.profiling.PipelineEvents;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +27,10 @@ import java.util.zip.GZIPOutputStream;
 public class ArchiveExportService {
 
     private final KafkaMessageArchiveRepository archiveRepository;
+    private final ColdArchiveStore coldStore;
+
+    /** Même plafond que {@code findByIdsOrdered}. */
+    private static final int MAX_EXPORT_BY_IDS = 10000;
 
     private static final ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule());
@@ -33,15 +40,22 @@ public class ArchiveExportService {
         List<KafkaMessageArchive> archives;
 
         if (request.getIds() != null && !request.getIds().isEmpty()) {
-            archives = archiveRepository.findByIdsOrdered(request.getIds());
+            archives = withCold(archiveRepository.findByIdsOrdered(request.getIds()),
+                    ColdArchiveQuery.builder().ids(request.getIds()).build(), MAX_EXPORT_BY_IDS);
         } else {
-            archives = archiveRepository.findForExport(
+            archives = withCold(archiveRepository.findForExport(
                     request.getTopicId(),
                     request.getFromDate(),
                     request.getToDate()
-            );
+            ), ColdArchiveQuery.builder()
+                    .topicId(request.getTopicId())
+                    .fromDate(request.getFromDate())
+                    .toDate(request.getToDate())
+                    .build(), Integer.MAX_VALUE);
         }
 
+        PipelineEvents.ExportChunk event = new PipelineEvents.ExportChunk();
+        event.begin();
         byte[] data;
         String filename;
         String contentType;
@@ -70,6 +84,12 @@ public class ArchiveExportService {
             data = compress(data);
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(request.getTopicId(), archives.size(), data.length);
+            event.commit();
+        }
+
         return ExportResponse.builder()
                 .filename(filename)
                 .contentType(contentType)
@@ -79,6 +99,19 @@ public class ArchiveExportService {
                 .build();
     }
 
+    /**
+     * Ajoute les lignes du tier froid (segments élagués par topic et dates via leur footer) et
+     * rétablit l'ordre {@code originalTimestamp DESC} des requêtes d'export.
+     */
+    private List<KafkaMessageArchive> withCold(List<KafkaMessageArchive> warm, ColdArchiveQuery query, int limit) {
+        if (coldStore.isEmpty()) return warm;
+        List<KafkaMessageArchive> merged = new ArrayList<>(warm);
+        merged.addAll(coldStore.find(query, limit, true));
+        merged.sort(Comparator.comparing(KafkaMessageArchive::getOriginalTimestamp)
+                .thenComparing(KafkaMessageArchive::getId).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // MÉTHODES PRIVÉES DE FORMATAGE (JSON, CSV, NDJSON)
     // ═══════════════════════════════════════════════════════════════════════
@@ -1,59 +1,159 @@
 package com.kafkaflow.visualizer.service.archives;
 
 import com.kafkaflow.visualizer.dto.ArchiveDto.*;
+import com.kafkaflow.visualizer.dto.KafkaDto.CursorPage;
 import com.kafkaflow.visualizer.exception.ResourceNotFoundException;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
 import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.service.FilteredCountCache;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveQuery;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.search.IndexedMatches;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
 import com.kafkaflow.visualizer.util.FormatUtils;
+import com.kafkaflow.visualizer.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class ArchiveSearchService {
 
     private final KafkaMessageArchiveRepository archiveRepository;
+    private final FilteredCountCache countCache;
+    private final SearchIndexService searchIndex;
+    private final ColdArchiveStore coldStore;
     private static final int MAX_PREVIEW_LENGTH = 200;
-    private static final java.util.Set<String> ALLOWED_SORT_FIELDS = java.util.Set.of(
-            "id", "originalId", "topicId", "topicName", "connectionId", "connectionName",
-            "partition", "offset", "originalTimestamp", "contentType");
+    /** Champs triables, avec leur clé de tri en mémoire pour la fusion avec le tier froid. */
+    private static final Map<String, Function<KafkaMessageArchive, Comparable<?>>> SORT_KEYS = Map.of(
+            "id", KafkaMessageArchive::getId,
+            "originalId", KafkaMessageArchive::getOriginalId,
+            "topicId", KafkaMessageArchive::getTopicId,
+            "topicName", archive -> lower(archive.getTopicName()),
+            "connectionId", KafkaMessageArchive::getConnectionId,
+            "connectionName", archive -> lower(archive.getConnectionName()),
+            "partition", KafkaMessageArchive::getPartition,
+            "offset", KafkaMessageArchive::getOffset,
+            "originalTimestamp", KafkaMessageArchive::getOriginalTimestamp,
+            "contentType", archive -> lower(archive.getContentType()));
+    private static final Comparator<KafkaMessageArchive> NEWEST_FIRST = Comparator
+            .comparing(KafkaMessageArchive::getOriginalTimestamp)
+            .thenComparing(KafkaMessageArchive::getId)
+            .reversed();
     /**
-     * Récupère la liste paginée et filtrée des archives
+     * Récupère la liste paginée et filtrée des archives, fusion de la base et du tier froid
+     * ({@link ColdArchiveStore}) quel que soit le tri. Trié par {@code originalTimestamp}, le tier
+     * froid n'ouvre que les blocs utiles ; sur un autre champ, il compare toutes ses lignes
+     * correspondantes.
      */
     @Transactional(readOnly = true)
     public Page<ArchiveResponse> getArchives(ArchiveFilterRequest filter) {
         Pageable pageable = buildPageable(filter);
+        boolean fullText = filter.getSearchQuery() != null && !filter.getSearchQuery().isBlank();
 
-        Page<KafkaMessageArchive> archives;
+        if (coldStore.isEmpty()) {
+            return findWarm(filter, pageable, fullText).map(this::toResponse);
+        }
+
+        // Chaque tier fournit ses offset + size premières lignes ; la page est prise dans la fusion
+        int window = (int) pageable.getOffset() + pageable.getPageSize();
+        Sort.Order sortOrder = pageable.getSort().iterator().next();
+        Sort.Direction direction = sortOrder.getDirection();
+        Sort sort = "id".equals(sortOrder.getProperty())
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortOrder.getProperty()).and(Sort.by(direction, "id"));
+        Page<KafkaMessageArchive> warm = findWarm(filter, PageRequest.of(0, window, sort), fullText);
+        ColdArchiveQuery query = coldQuery(filter, fullText);
+        Comparator<KafkaMessageArchive> order = comparator(sortOrder);
+        List<KafkaMessageArchive> cold = "originalTimestamp".equals(sortOrder.getProperty())
+                ? coldStore.find(query, window, sortOrder.isDescending())
+                : coldStore.find(query, window, order);
+        List<KafkaMessageArchive> merged = merge(warm.getContent(), cold, order);
+
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        long total = warm.getTotalElements() + countCold(filter, fullText, query);
+        return new PageImpl<>(merged.subList(from, to), pageable, total).map(this::toResponse);
+    }
+
+    /**
+     * Page suivant {@code filter.cursor} (originalTimestamp DESC, id DESC), sans OFFSET ni COUNT ;
+     * {@code sortBy} / {@code sortDirection} ne s'appliquent pas à ce mode. La tranche de la base est
+     * complétée par celle du tier froid après le même curseur.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ArchiveResponse> scrollArchives(ArchiveFilterRequest filter) {
+        KeysetCursor cursor = KeysetCursor.decode(filter.getCursor());
+        Pageable pageable = PageRequest.of(0, filter.getSize() > 0 ? Math.min(filter.getSize(), 100) : 20);
+        boolean fullText = filter.getSearchQuery() != null && !filter.getSearchQuery().isBlank();
 
-        if (filter.getSearchQuery() != null && !filter.getSearchQuery().isBlank()) {
-            archives = archiveRepository.searchFullText(filter.getSearchQuery(), pageable);
+        Slice<KafkaMessageArchive> archives;
+        Long total;
+        Optional<IndexedMatches> indexed = fullText ? searchIndexed(filter.getSearchQuery()) : Optional.empty();
+        if (indexed.isPresent()) {
+            archives = indexed.get().after(cursor, pageable.getPageSize(),
+                    archiveRepository::findAllById, KafkaMessageArchive::getId);
+            total = filter.isIncludeTotal() ? indexed.get().total() : null;
         } else {
-            archives = archiveRepository.findByFilters(
-                    filter.getTopicId(),
-                    filter.getConnectionId(),
-                    filter.getTopicName(),
-                    filter.getMessageKey(),
-                    filter.getValueContains(),
-                    filter.getFromDate(),
-                    filter.getToDate(),
-                    filter.getMessageType(),
-                    filter.getArchiveReason(),
-                    filter.getContentType(),
-                    pageable
-            );
+            if (fullText) {
+                archives = archiveRepository.searchFullTextBefore(
+                        filter.getSearchQuery(), cursor.timestamp(), cursor.id(), pageable);
+            } else {
+                archives = archiveRepository.findByFiltersBefore(
+                        filter.getTopicId(),
+                        filter.getConnectionId(),
+                        filter.getTopicName(),
+                        filter.getMessageKey(),
+                        filter.getValueContains(),
+                        filter.getFromDate(),
+                        filter.getToDate(),
+                        filter.getMessageType(),
+                        filter.getArchiveReason(),
+                        filter.getContentType(),
+                        cursor.timestamp(),
+                        cursor.id(),
+                        pageable
+                );
+            }
+            total = filter.isIncludeTotal() ? countArchives(filter, fullText) : null;
+        }
+
+        if (!coldStore.isEmpty()) {
+            ColdArchiveQuery query = coldQuery(filter, fullText);
+            int size = pageable.getPageSize();
+            List<KafkaMessageArchive> merged = merge(archives.getContent(),
+                    coldStore.find(query.toBuilder().before(cursor).build(), size, true), NEWEST_FIRST);
+            archives = new SliceImpl<>(merged.subList(0, Math.min(size, merged.size())), pageable,
+                    archives.hasNext() || merged.size() > size);
+            if (total != null) {
+                total += countCold(filter, fullText, query);
+            }
         }
 
-        return archives.map(this::toResponse);
+        return CursorPage.of(archives, this::toResponse,
+                archive -> new KeysetCursor(archive.getOriginalTimestamp(), archive.getId()), total);
     }
 
     /**
@@ -62,6 +162,7 @@ public class ArchiveSearchService {
     @Transactional(readOnly = true)
     public ArchiveResponse getArchiveById(Long id) {
         return archiveRepository.findById(id)
+                .or(() -> coldStore.findById(id))
                 .map(this::toFullResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("Archive", id));
     }
@@ -72,25 +173,146 @@ public class ArchiveSearchService {
     @Transactional(readOnly = true)
     public FilterOptions getFilterOptions() {
         return FilterOptions.builder()
-                .topicNames(archiveRepository.findDistinctTopicNames())
-                .connectionNames(archiveRepository.findDistinctConnectionNames())
-                .contentTypes(archiveRepository.findDistinctContentTypes())
+                .topicNames(withCold(archiveRepository.findDistinctTopicNames(), coldStore.topicNames()))
+                .connectionNames(withCold(archiveRepository.findDistinctConnectionNames(), coldStore.connectionNames()))
+                .contentTypes(withCold(archiveRepository.findDistinctContentTypes(), coldStore.contentTypes()))
                 .messageTypes(Arrays.asList(MessageType.values()))
                 .archiveReasons(Arrays.asList(ArchiveReason.values()))
                 .build();
     }
 
+    /** Valeurs distinctes de la base complétées par celles des segments, dans l'ordre alphabétique. */
+    private static List<String> withCold(List<String> values, SortedSet<String> cold) {
+        if (cold.isEmpty()) return values;
+        SortedSet<String> merged = new TreeSet<>(cold);
+        values.stream().filter(Objects::nonNull).forEach(merged::add);
+        return new ArrayList<>(merged);
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // HELPERS DE MAPPING (Spécifiques à la lecture)
     // ═══════════════════════════════════════════════════════════════════════
 
+    /** Lignes de la base seule, dans le tri de {@code pageable}. */
+    private Page<KafkaMessageArchive> findWarm(ArchiveFilterRequest filter, Pageable pageable, boolean fullText) {
+        Optional<IndexedMatches> indexed = Optional.empty();
+        // L'index ne sert que l'ordre par défaut (originalTimestamp DESC)
+        if (fullText && isNewestFirst(pageable.getSort())) {
+            indexed = searchIndexed(filter.getSearchQuery());
+        }
+
+        if (indexed.isPresent()) {
+            return indexed.get().page(pageable, archiveRepository::findAllById, KafkaMessageArchive::getId);
+        } else if (fullText) {
+            return archiveRepository.searchFullText(filter.getSearchQuery(), pageable);
+        }
+        return archiveRepository.findByFilters(
+                filter.getTopicId(),
+                filter.getConnectionId(),
+                filter.getTopicName(),
+                filter.getMessageKey(),
+                filter.getValueContains(),
+                filter.getFromDate(),
+                filter.getToDate(),
+                filter.getMessageType(),
+                filter.getArchiveReason(),
+                filter.getContentType(),
+                pageable
+        );
+    }
+
+    private static boolean isNewestFirst(Sort sort) {
+        Sort.Order first = sort.stream().findFirst().orElse(null);
+        return first != null && first.isDescending() && "originalTimestamp".equals(first.getProperty());
+    }
+
+    /** Même filtre que la requête SQL, appliqué aux segments : recherche globale ou filtres. */
+    private ColdArchiveQuery coldQuery(ArchiveFilterRequest filter, boolean fullText) {
+        if (fullText) {
+            return ColdArchiveQuery.builder().fullText(filter.getSearchQuery()).build();
+        }
+        return ColdArchiveQuery.builder()
+                .topicId(filter.getTopicId())
+                .connectionId(filter.getConnectionId())
+                .topicName(filter.getTopicName())
+                .messageKey(filter.getMessageKey())
+                .valueContains(filter.getValueContains())
+                .fromDate(filter.getFromDate())
+                .toDate(filter.getToDate())
+                .messageType(filter.getMessageType())
+                .archiveReason(filter.getArchiveReason())
+                .contentType(filter.getContentType())
+                .build();
+    }
+
+    private long countCold(ArchiveFilterRequest filter, boolean fullText, ColdArchiveQuery query) {
+        Object[] key = fullText ? new Object[]{filter.getSearchQuery()} : new Object[]{query};
+        return countCache.get(fullText ? "archives-cold-search" : "archives-cold", key, () -> coldStore.count(query));
+    }
+
+    /**
+     * Ordre en mémoire équivalent à l'{@code ORDER BY} SQL du champ puis de l'id : {@code NULL} en
+     * tête en ordre croissant (comme MySQL), textes comparés sans la casse.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<KafkaMessageArchive> comparator(Sort.Order sortOrder) {
+        Function<KafkaMessageArchive, Comparable> key = (Function) SORT_KEYS.get(sortOrder.getProperty());
+        Comparator<Comparable> keyOrder = Comparator.nullsFirst(Comparator.naturalOrder());
+        Comparator<KafkaMessageArchive> ascending = Comparator.<KafkaMessageArchive, Comparable>comparing(key, keyOrder)
+                .thenComparing(KafkaMessageArchive::getId);
+        return sortOrder.isDescending() ? ascending.reversed() : ascending;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /** Les deux tiers ne partagent aucun id : simple tri de l'union. */
+    private static List<KafkaMessageArchive> merge(List<KafkaMessageArchive> warm, List<KafkaMessageArchive> cold,
+                                                   Comparator<KafkaMessageArchive> order) {
+        List<KafkaMessageArchive> merged = new ArrayList<>(warm.size() + cold.size());
+        merged.addAll(warm);
+        merged.addAll(cold);
+        merged.sort(order);
+        return merged;
+    }
+
+    /** Recherche globale via l'index plein texte, candidats revérifiés en base ; vide = {@code LIKE}. */
+    private Optional<IndexedMatches> searchIndexed(String query) {
+        return searchIndex.candidates(SearchIndexService.Scope.ARCHIVES, query)
+                .map(candidates -> IndexedMatches.of(SearchIndexService.verifyInChunks(candidates,
+                        ids -> archiveRepository.findFullTextMatchingIds(query, ids))));
+    }
+
+    private long countArchives(ArchiveFilterRequest filter, boolean fullText) {
+        if (fullText) {
+            return countCache.get("archives-search", new Object[]{filter.getSearchQuery()},
+                    () -> archiveRepository.countFullText(filter.getSearchQuery()));
+        }
+        Object[] key = {filter.getTopicId(), filter.getConnectionId(), filter.getTopicName(), filter.getMessageKey(),
+                filter.getValueContains(), filter.getFromDate(), filter.getToDate(), filter.getMessageType(),
+                filter.getArchiveReason(), filter.getContentType()};
+        return countCache.get("archives", key, () -> archiveRepository.countByFilters(
+                filter.getTopicId(),
+                filter.getConnectionId(),
+                filter.getTopicName(),
+                filter.getMessageKey(),
+                filter.getValueContains(),
+                filter.getFromDate(),
+                filter.getToDate(),
+                filter.getMessageType(),
+                filter.getArchiveReason(),
+                filter.getContentType()
+        ));
+    }
+
     private Pageable buildPageable(ArchiveFilterRequest filter) {
         int page = filter.getPage() > 0 ? filter.getPage() : 0;
         int size = filter.getSize() > 0 ? Math.min(filter.getSize(), 100) : 20;
 
         // Allow-list : empeche l'injection d'un nom de colonne arbitraire dans Sort.by(...)
         String requestedSort = filter.getSortBy();
-        String sortBy = (requestedSort != null && ALLOWED_SORT_FIELDS.contains(requestedSort))
+        String sortBy = (requestedSort != null && SORT_KEYS.containsKey(requestedSort))
                 ? requestedSort : "originalTimestamp";
         Sort.Direction direction = "asc".equalsIgnoreCase(filter.getSortDirection())
                 ? Sort.Direction.ASC
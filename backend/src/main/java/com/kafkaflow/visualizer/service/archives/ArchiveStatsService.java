@@ -4,11 +4,16 @@ import com.kafkaflow.visualizer.dto.ArchiveDto.*;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
 import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore.ColdUsage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -18,16 +23,21 @@ import java.util.stream.Collectors;
 public class ArchiveStatsService {
 
     private final KafkaMessageArchiveRepository archiveRepository;
+    private final ColdArchiveStore coldStore;
 
+    /** Base et tier froid confondus : les segments comptent comme des lignes d'archive. */
     @Transactional(readOnly = true)
     public ArchiveStats getStats() {
-        long totalArchives = archiveRepository.countTotal();
-        long totalSize = archiveRepository.getTotalSize();
-        long archivedLast24h = archiveRepository.countArchivedSince(LocalDateTime.now().minusHours(24));
-        long archivedLast7d = archiveRepository.countArchivedSince(LocalDateTime.now().minusDays(7));
+        long totalArchives = archiveRepository.countTotal() + coldStore.rowCount();
+        long totalSize = archiveRepository.getTotalSize() + coldStore.valueBytes();
+        LocalDateTime last24h = LocalDateTime.now().minusHours(24);
+        LocalDateTime last7d = LocalDateTime.now().minusDays(7);
+        long archivedLast24h = archiveRepository.countArchivedSince(last24h) + coldStore.countArchivedSince(last24h);
+        long archivedLast7d = archiveRepository.countArchivedSince(last7d) + coldStore.countArchivedSince(last7d);
 
         // Statistiques par Topic
-        List<TopicArchiveStats> byTopic = archiveRepository.getStatsByTopic().stream()
+        List<Object[]> topicRows = withCold(archiveRepository.getStatsByTopic(), coldStore.usageByTopic());
+        List<TopicArchiveStats> byTopic = topicRows.stream()
                 .map(row -> TopicArchiveStats.builder()
                         .topicId((Long) row[0])
                         .topicName((String) row[1])
@@ -38,7 +48,8 @@ public class ArchiveStatsService {
                 .collect(Collectors.toList());
 
         // Statistiques par Connection
-        List<ConnectionArchiveStats> byConnection = archiveRepository.getStatsByConnection().stream()
+        List<Object[]> connectionRows = withCold(archiveRepository.getStatsByConnection(), coldStore.usageByConnection());
+        List<ConnectionArchiveStats> byConnection = connectionRows.stream()
                 .map(row -> ConnectionArchiveStats.builder()
                         .connectionId((Long) row[0])
                         .connectionName((String) row[1])
@@ -54,6 +65,7 @@ public class ArchiveStatsService {
                         row -> (MessageType) row[0],
                         row -> (Long) row[1]
                 ));
+        coldStore.countByMessageType().forEach((type, count) -> byMessageType.merge(type, count, Long::sum));
 
         // Répartition par raison d'archivage
         Map<ArchiveReason, Long> byArchiveReason = archiveRepository.getCountByArchiveReason().stream()
@@ -61,6 +73,7 @@ public class ArchiveStatsService {
                         row -> (ArchiveReason) row[0],
                         row -> (Long) row[1]
                 ));
+        coldStore.countByArchiveReason().forEach((reason, count) -> byArchiveReason.merge(reason, count, Long::sum));
 
         return ArchiveStats.builder()
                 .totalArchives(totalArchives)
@@ -77,7 +90,33 @@ public class ArchiveStatsService {
 
     @Transactional(readOnly = true)
     public long getTotalArchivedCount() {
-        return archiveRepository.countTotal();
+        return archiveRepository.countTotal() + coldStore.rowCount();
+    }
+
+    /**
+     * Ajoute les lignes froides aux lignes {@code [id, nom, count, taille]} de la base, par id,
+     * puis retrie par nombre décroissant comme la requête.
+     */
+    private static List<Object[]> withCold(List<Object[]> rows, List<ColdUsage> cold) {
+        if (cold.isEmpty()) return rows;
+        Map<Long, Object[]> merged = new HashMap<>();
+        List<Object[]> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            Object[] copy = row.clone();
+            merged.put((Long) copy[0], copy);
+            result.add(copy);
+        }
+        for (ColdUsage usage : cold) {
+            Object[] row = merged.get(usage.id());
+            if (row == null) {
+                result.add(new Object[]{usage.id(), usage.name(), usage.rows(), usage.valueBytes()});
+            } else {
+                row[2] = (Long) row[2] + usage.rows();
+                row[3] = (Long) row[3] + usage.valueBytes();
+            }
+        }
+        result.sort(Comparator.comparing((Object[] row) -> (Long) row[2]).reversed());
+        return result;
     }
 
     private String formatSize(long bytes) {
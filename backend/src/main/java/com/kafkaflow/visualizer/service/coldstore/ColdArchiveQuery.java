@@ -0,0 +1,151 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
+import com.kafkaflow.visualizer.service.coldstore.ColdSegment.BlockInfo;
+import com.kafkaflow.visualizer.util.KeysetCursor;
+import com.kafkaflow.visualizer.util.TextFolding;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Prédicat d'une lecture du tier froid, avec la même sémantique que les requêtes JPQL des archives
+ * ({@code FILTERS}, {@code FULL_TEXT}, {@code KEYSET}) : champs {@code null} ignorés, « contient »
+ * insensible à la casse et aux accents comme la collation {@code _ai_ci} ({@link TextFolding}),
+ * bornes de dates inclusives.
+ * <p>
+ * L'évaluation se fait à trois niveaux, du moins cher au plus cher : footer du segment, index du
+ * bloc, puis ligne par ligne ; les prédicats sur la valeur ne sont évalués qu'après les autres.
+ */
+@Builder(toBuilder = true)
+public record ColdArchiveQuery(
+        Long topicId,
+        Long connectionId,
+        String topicName,
+        String messageKey,
+        String valueContains,
+        LocalDateTime fromDate,
+        LocalDateTime toDate,
+        MessageType messageType,
+        ArchiveReason archiveReason,
+        String contentType,
+        String fullText,
+        Collection<Long> ids,
+        KeysetCursor before) {
+
+    public static final ColdArchiveQuery ALL = ColdArchiveQuery.builder().build();
+
+    public ColdArchiveQuery {
+        topicName = fold(topicName);
+        messageKey = fold(messageKey);
+        valueContains = fold(valueContains);
+        fullText = fold(fullText);
+        ids = ids != null ? Set.copyOf(ids) : null;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉLAGAGE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** {@code false} si aucune ligne du segment ne peut correspondre, d'après son footer. */
+    boolean mayMatch(ColdSegment segment) {
+        if (topicId != null && !topicId.equals(segment.getTopicId())) return false;
+        if (connectionId != null && !connectionId.equals(segment.getConnectionId())) return false;
+        // Topic et connexion sont constants dans un segment : ces filtres se décident ici
+        if (topicName != null && !contains(segment.getTopicName(), topicName)) return false;
+        if (ids != null && ids.stream().noneMatch(id -> id >= segment.getMinId() && id <= segment.getMaxId())) return false;
+        return mayMatchRange(segment.getMinTimestamp(), segment.getMaxTimestamp());
+    }
+
+    /** {@code false} si aucune ligne du bloc ne peut correspondre, d'après l'index et le filtre des clés. */
+    boolean mayMatch(BlockInfo block) {
+        if (ids != null && ids.stream().noneMatch(id -> id >= block.minId() && id <= block.maxId())) return false;
+        if (!mayMatchRange(block.minTimestamp(), block.maxTimestamp())) return false;
+        return messageKey == null || block.keyFilter() == null || block.keyFilter().mayContainSubstring(messageKey);
+    }
+
+    /**
+     * {@code true} si toutes les lignes du bloc correspondent (segment déjà accepté) : seules des
+     * bornes de temps le couvrant entièrement restent, le bloc est compté sans être décompressé.
+     */
+    boolean coversAll(ColdSegment segment, BlockInfo block) {
+        if (messageKey != null || valueContains != null || messageType != null || archiveReason != null
+                || contentType != null || ids != null || before != null) {
+            return false;
+        }
+        if (fullText != null && !contains(segment.getTopicName(), fullText)
+                && !contains(segment.getConnectionName(), fullText)) {
+            return false;
+        }
+        return (fromDate == null || !block.minTimestamp().isBefore(fromDate))
+                && (toDate == null || !block.maxTimestamp().isAfter(toDate));
+    }
+
+    private boolean mayMatchRange(LocalDateTime min, LocalDateTime max) {
+        if (fromDate != null && max.isBefore(fromDate)) return false;
+        if (toDate != null && min.isAfter(toDate)) return false;
+        return before == null || !min.isAfter(before.timestamp());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LIGNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    boolean needsValues() {
+        return valueContains != null || fullText != null;
+    }
+
+    /** Prédicats hors valeur ; le segment a déjà passé {@link #mayMatch(ColdSegment)}. */
+    boolean matchesMeta(ColdBlock block, int row) {
+        LocalDateTime timestamp = block.timestamps[row];
+        if (fromDate != null && timestamp.isBefore(fromDate)) return false;
+        if (toDate != null && timestamp.isAfter(toDate)) return false;
+        if (before != null && !isBefore(timestamp, block.ids[row], before)) return false;
+        if (ids != null && !ids.contains(block.ids[row])) return false;
+        if (messageKey != null && !contains(block.keys[row], messageKey)) return false;
+        if (messageType != null && messageType != block.messageTypes[row]) return false;
+        if (archiveReason != null && archiveReason != block.archiveReasons[row]) return false;
+        return contentType == null || contentType.equals(block.contentTypes[row]);
+    }
+
+    /** Prédicats sur la valeur ; les valeurs du bloc doivent être décodées. */
+    boolean matchesValues(ColdSegment segment, ColdBlock block, int row) {
+        if (valueContains != null && !contains(block.value(row), valueContains)) return false;
+        return fullText == null
+                || contains(segment.getTopicName(), fullText)
+                || contains(block.keys[row], fullText)
+                || contains(block.value(row), fullText)
+                || contains(segment.getConnectionName(), fullText);
+    }
+
+    /** Ordre keyset {@code (timestamp DESC, id DESC)} : la ligne vient strictement après le curseur. */
+    static boolean isBefore(LocalDateTime timestamp, long id, KeysetCursor cursor) {
+        int compare = timestamp.compareTo(cursor.timestamp());
+        return compare < 0 || (compare == 0 && id < cursor.id());
+    }
+
+    /**
+     * « Contient » sur une recherche déjà repliée. Une valeur ASCII est comparée sans copie en
+     * minuscules (boucle chaude des scans) ; seules les autres sont repliées avant la comparaison.
+     */
+    static boolean contains(String value, String foldedNeedle) {
+        if (value == null) return false;
+        int length = foldedNeedle.length();
+        if (length == 0) return true;
+        if (!TextFolding.isAscii(value)) return TextFolding.fold(value).contains(foldedNeedle);
+        char first = foldedNeedle.charAt(0);
+        for (int i = 0, last = value.length() - length; i <= last; i++) {
+            if (Character.toLowerCase(value.charAt(i)) == first && value.regionMatches(true, i, foldedNeedle, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String fold(String value) {
+        return value != null ? TextFolding.fold(value) : null;
+    }
+}
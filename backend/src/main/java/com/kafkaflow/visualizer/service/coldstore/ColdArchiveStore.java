@@ -0,0 +1,882 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import com.kafkaflow.visualizer.exception.ErrorCode;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
+import com.kafkaflow.visualizer.model.RetentionPolicy;
+import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.service.coldstore.ColdSegment.BlockInfo;
+import com.kafkaflow.visualizer.service.coldstore.ColdSegment.Summary;
+import com.kafkaflow.visualizer.service.retention.RetentionPolicyService;
+import com.kafkaflow.visualizer.util.FormatUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Tier froid des archives : segments colonnes compressés sur disque, un répertoire par topic
+ * ({@code topic-<id>/<yyyyMMdd>-<premier id>.seg}), un segment par jour de timestamp et par passe.
+ * <p>
+ * Les archives plus anciennes que {@code after-days} des topics dont la politique active
+ * {@code archiveCompress} quittent {@code kafka_messages_archive} pour un segment. Le passage est
+ * sans perte ni doublon visible : segment écrit en {@code .tmp}, renommé {@code .pending}, lignes
+ * supprimées en base, puis renommé {@code .seg} ; au redémarrage un {@code .pending} est rejoué.
+ * <p>
+ * Les valeurs y sont compressées une à une avec un dictionnaire entraîné par topic
+ * ({@link ValueDictionaries}), ce qui les garde lisibles seules sans perdre le gain des champs
+ * répétés d'un message à l'autre.
+ * <p>
+ * Les segments sont immuables : ils sortent entiers (topic, connexion, expiration de toutes leurs
+ * lignes), ou sont réécrits sans les lignes retirées une à une (suppression par ids, restauration,
+ * expiration partielle). La réécriture remplace le fichier par un renommage atomique : un arrêt
+ * brutal laisse l'ancienne ou la nouvelle version, jamais les deux.
+ * <p>
+ * Toute lecture retient les segments qu'elle parcourt ({@link ColdSegment#acquire()}) : un segment
+ * retiré pendant un scan n'est démappé, et son espace disque rendu, qu'à la fin de ce scan.
+ */
+@Service
+@Slf4j
+public class ColdArchiveStore {
+
+    private static final Comparator<KafkaMessageArchive> NEWEST_FIRST = Comparator
+            .comparing(KafkaMessageArchive::getOriginalTimestamp)
+            .thenComparing(KafkaMessageArchive::getId)
+            .reversed();
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int DELETE_BATCH = 1000;
+
+    private final KafkaMessageArchiveRepository archiveRepository;
+    private final RetentionPolicyService policyService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int afterDays;
+    private final int segmentMaxRows;
+    private final ColdSegmentWriter writer;
+    private final ValueDictionaries dictionaries;
+    private final int scanParallelism;
+    /** Pool dédié aux scans : ne concurrence ni le pool commun ni les workers de rétention. */
+    private final ForkJoinPool scanPool;
+
+    /** Triés par {@code maxTimestamp} décroissant ; remplacés en bloc à chaque modification. */
+    private volatile List<ColdSegment> segments = List.of();
+    /** Segments retirés dont un scan en cours retient encore le mapping (et donc l'espace disque). */
+    private final Set<ColdSegment> retired = ConcurrentHashMap.newKeySet();
+    private final List<Path> pending = new ArrayList<>();
+    /** Sérialise suppressions et réécritures : un segment retiré ne doit pas être ressuscité par une réécriture. */
+    private final Object mutation = new Object();
+
+    public ColdArchiveStore(
+            KafkaMessageArchiveRepository archiveRepository,
+            RetentionPolicyService policyService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.archive.cold.enabled:false}") boolean enabled,
+            @Value("${app.archive.cold.dir:data/cold-archive}") String directory,
+            @Value("${app.archive.cold.after-days:7}") int afterDays,
+            @Value("${app.archive.cold.block-rows:2048}") int blockRows,
+            @Value("${app.archive.cold.block-bytes:1048576}") int blockBytes,
+            @Value("${app.archive.cold.segment-max-rows:100000}") int segmentMaxRows,
+            @Value("${app.archive.cold.compression-level:6}") int compressionLevel,
+            @Value("${app.archive.cold.scan-parallelism:0}") int scanParallelism,
+            @Value("${app.archive.cold.key-filter-fpp:0.01}") double keyFilterFpp,
+            @Value("${app.archive.cold.dictionary-max-age-days:30}") int dictionaryMaxAgeDays) {
+        this.archiveRepository = archiveRepository;
+        this.policyService = policyService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.afterDays = afterDays;
+        this.segmentMaxRows = Math.max(1, segmentMaxRows);
+        this.writer = new ColdSegmentWriter(blockRows, blockBytes, compressionLevel, keyFilterFpp);
+        this.dictionaries = new ValueDictionaries(Duration.ofDays(Math.max(1, dictionaryMaxAgeDays)));
+        this.scanParallelism = scanParallelism > 0 ? scanParallelism : Runtime.getRuntime().availableProcessors();
+        this.scanPool = new ForkJoinPool(this.scanParallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("cold-scan-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        // Les segments existants restent lisibles même si la migration est désactivée
+        try {
+            load();
+        } catch (IOException e) {
+            log.warn("Cold archive directory {} unreadable: {}", directory, e.getMessage());
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LECTURE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Les {@code limit} lignes correspondant à {@code query}, triées par {@code (timestamp, id)}
+     * décroissants ({@code newestFirst}) ou croissants.
+     * <p>
+     * Les blocs retenus par l'élagage footer/index sont triés dans l'ordre demandé puis scannés en
+     * parallèle par vagues de {@code 2 x scan-parallelism} : avant chaque vague, et avant chaque
+     * décompression, la lecture s'arrête dès que le top-N est plein et qu'aucun bloc restant ne
+     * peut plus l'améliorer.
+     */
+    public List<KafkaMessageArchive> find(ColdArchiveQuery query, int limit, boolean newestFirst) {
+        if (limit <= 0) return List.of();
+        return withSegments(snapshot -> find(snapshot, query, limit, newestFirst));
+    }
+
+    private List<KafkaMessageArchive> find(List<ColdSegment> snapshot, ColdArchiveQuery query, int limit,
+                                           boolean newestFirst) {
+        Comparator<KafkaMessageArchive> order = newestFirst ? NEWEST_FIRST : NEWEST_FIRST.reversed();
+        TopN top = new TopN(order, limit, newestFirst);
+
+        List<BlockRef> units = candidateBlocks(snapshot, query);
+        units.sort(newestFirst
+                ? Comparator.comparing((BlockRef ref) -> ref.info().maxTimestamp()).reversed()
+                : Comparator.comparing((BlockRef ref) -> ref.info().minTimestamp()));
+        int wave = scanParallelism * 2;
+        for (int from = 0; from < units.size(); from += wave) {
+            // Blocs triés : si le premier de la vague ne peut rien apporter, les suivants non plus
+            if (top.cannotImprove(units.get(from).info())) break;
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (BlockRef ref : units.subList(from, Math.min(from + wave, units.size()))) {
+                tasks.add(() -> {
+                    scanInto(query, ref, top, limit, newestFirst);
+                    return null;
+                });
+            }
+            runAll(tasks);
+        }
+        return top.sorted();
+    }
+
+    /**
+     * Les {@code limit} premières lignes de {@code query} dans un ordre quelconque. Aucun bloc ne peut
+     * être écarté sur cet ordre : toutes les lignes correspondantes sont comparées sur leurs seules
+     * métadonnées, puis seules les lignes retenues sont relues en entier.
+     */
+    public List<KafkaMessageArchive> find(ColdArchiveQuery query, int limit, Comparator<KafkaMessageArchive> order) {
+        if (limit <= 0) return List.of();
+        List<Long> ids = withSegments(snapshot -> {
+            TopN top = new TopN(order, limit, false);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (BlockRef ref : candidateBlocks(snapshot, query)) {
+                tasks.add(() -> {
+                    top.offer(decode(ref, block -> {
+                        int[] rows = matchingRows(query, ref.segment(), block, false);
+                        List<KafkaMessageArchive> result = new ArrayList<>(rows.length);
+                        for (int row : rows) {
+                            result.add(block.toArchiveMetadata(row, ref.segment()));
+                        }
+                        return result;
+                    }));
+                    return null;
+                });
+            }
+            runAll(tasks);
+            return top.sorted().stream().map(KafkaMessageArchive::getId).toList();
+        });
+        List<KafkaMessageArchive> rows = new ArrayList<>(findByIds(ids));
+        rows.sort(order);
+        return rows;
+    }
+
+    /** Nombre de lignes correspondant à {@code query} ; les blocs entièrement couverts ne sont pas lus. */
+    public long count(ColdArchiveQuery query) {
+        return withSegments(snapshot -> {
+            LongAdder total = new LongAdder();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (BlockRef ref : candidateBlocks(snapshot, query)) {
+                if (query.coversAll(ref.segment(), ref.info())) {
+                    total.add(ref.info().rows());
+                    continue;
+                }
+                tasks.add(() -> {
+                    total.add(decode(ref, block -> matchingRows(query, ref.segment(), block, false).length));
+                    return null;
+                });
+            }
+            runAll(tasks);
+            return total.sum();
+        });
+    }
+
+    public Optional<KafkaMessageArchive> findById(Long id) {
+        if (id == null) return Optional.empty();
+        return findByIds(List.of(id)).stream().findFirst();
+    }
+
+    public List<KafkaMessageArchive> findByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty() || segments.isEmpty()) return List.of();
+        return find(ColdArchiveQuery.builder().ids(ids).build(), ids.size(), true);
+    }
+
+    /** Blocs pouvant contenir une ligne de {@code query}, d'après les footers puis les index. */
+    private static List<BlockRef> candidateBlocks(List<ColdSegment> snapshot, ColdArchiveQuery query) {
+        List<BlockRef> units = new ArrayList<>();
+        for (ColdSegment segment : snapshot) {
+            if (!query.mayMatch(segment)) continue;
+            for (BlockInfo info : segment.getBlocks()) {
+                if (query.mayMatch(info)) units.add(new BlockRef(segment, info));
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Scanne un bloc et verse ses meilleures lignes dans le top-N. Seules les {@code limit}
+     * meilleures lignes du bloc (triées par {@code (timestamp, id)}) sont matérialisées.
+     */
+    private void scanInto(ColdArchiveQuery query, BlockRef ref, TopN top, int limit, boolean newestFirst) {
+        // Le top-N a pu se remplir pendant que la tâche attendait son tour
+        if (top.cannotImprove(ref.info())) return;
+        List<KafkaMessageArchive> archives = decode(ref, block -> {
+            int[] rows = matchingRows(query, ref.segment(), block, true);
+            int from = newestFirst ? Math.max(0, rows.length - limit) : 0;
+            int to = newestFirst ? rows.length : Math.min(rows.length, limit);
+            List<KafkaMessageArchive> result = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                result.add(block.toArchive(rows[i], ref.segment()));
+            }
+            return result;
+        });
+        top.offer(archives);
+    }
+
+    /**
+     * Décode les métadonnées du bloc ; un bloc corrompu rend son segment illisible. Le mapping est
+     * retenu pendant {@code work}, qui ne doit pas laisser fuir le bloc : une tâche de scan annulée
+     * peut encore tourner après la fin de {@link #withSegments}.
+     */
+    private static <T> T decode(BlockRef ref, Function<ColdBlock, T> work) {
+        ColdSegment segment = ref.segment();
+        if (!segment.acquire()) {
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cold archive segment closed during scan: "
+                    + segment.getFile().getFileName());
+        }
+        try {
+            return work.apply(segment.meta(ref.info()));
+        } catch (AppException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw unreadable(segment, e);
+        } finally {
+            segment.release();
+        }
+    }
+
+    /**
+     * Exécute {@code work} sur les segments publiés, chacun retenu jusqu'à la fin : un segment
+     * retiré entre-temps reste lisible et n'est démappé qu'après.
+     */
+    private <T> T withSegments(Function<List<ColdSegment>, T> work) {
+        List<ColdSegment> snapshot = new ArrayList<>();
+        for (ColdSegment segment : segments) {
+            if (segment.acquire()) snapshot.add(segment);
+        }
+        try {
+            return work.apply(snapshot);
+        } finally {
+            snapshot.forEach(ColdSegment::release);
+        }
+    }
+
+    /**
+     * Indices des lignes du bloc qui passent {@code query}. Les valeurs ne sont décodées que si un
+     * prédicat les lit ou si l'appelant matérialise les lignes ({@code withValues}).
+     */
+    private static int[] matchingRows(ColdArchiveQuery query, ColdSegment segment, ColdBlock block,
+                                      boolean withValues) {
+        int[] rows = new int[block.rows];
+        int n = 0;
+        for (int row = 0; row < block.rows; row++) {
+            if (query.matchesMeta(block, row)) rows[n++] = row;
+        }
+        if (n == 0) return new int[0];
+
+        if (!query.needsValues()) {
+            if (withValues) segment.values(block);
+            return Arrays.copyOf(rows, n);
+        }
+        segment.values(block);
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (query.matchesValues(segment, block, rows[i])) rows[kept++] = rows[i];
+        }
+        return Arrays.copyOf(rows, kept);
+    }
+
+    /** Exécute les tâches de scan sur le pool dédié (en ligne s'il n'y en a qu'une). */
+    private void runAll(List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) return;
+        try {
+            if (tasks.size() == 1 || scanParallelism == 1) {
+                for (Callable<Void> task : tasks) task.call();
+                return;
+            }
+            for (Future<Void> future : scanPool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cold archive scan failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cold archive scan interrupted", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cold archive scan failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    /** Unité de travail d'un scan : un bloc d'un segment, déjà élagué. */
+    private record BlockRef(ColdSegment segment, BlockInfo info) {}
+
+    /** Top-N partagé entre les tâches d'un scan ; la tête du heap est la moins bonne ligne retenue. */
+    private static final class TopN {
+
+        private final Comparator<KafkaMessageArchive> order;
+        private final int limit;
+        private final boolean newestFirst;
+        private final PriorityQueue<KafkaMessageArchive> heap;
+
+        TopN(Comparator<KafkaMessageArchive> order, int limit, boolean newestFirst) {
+            this.order = order;
+            this.limit = limit;
+            this.newestFirst = newestFirst;
+            this.heap = new PriorityQueue<>(order.reversed());
+        }
+
+        /** Le heap est plein et le bloc est entièrement moins bon que sa tête. */
+        synchronized boolean cannotImprove(BlockInfo block) {
+            if (heap.size() < limit) return false;
+            LocalDateTime worst = heap.peek().getOriginalTimestamp();
+            return newestFirst ? block.maxTimestamp().isBefore(worst) : block.minTimestamp().isAfter(worst);
+        }
+
+        synchronized void offer(List<KafkaMessageArchive> archives) {
+            for (KafkaMessageArchive archive : archives) {
+                if (heap.size() < limit) {
+                    heap.add(archive);
+                } else if (order.compare(archive, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(archive);
+                }
+            }
+        }
+
+        synchronized List<KafkaMessageArchive> sorted() {
+            List<KafkaMessageArchive> result = new ArrayList<>(heap);
+            result.sort(order);
+            return result;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // MIGRATION DEPUIS LA BASE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Déplace vers des segments les archives plus anciennes que {@code after-days} des topics dont
+     * la politique active {@code archiveCompress}. Retourne le nombre de lignes déplacées.
+     */
+    public long migrateColdArchives() {
+        if (!enabled) return 0;
+        recoverPending();
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        long moved = 0;
+        for (Object[] row : archiveRepository.findTopicsArchivedBefore(cutoff)) {
+            Long topicId = (Long) row[0];
+            Long connectionId = (Long) row[1];
+            RetentionPolicy policy = policyService.getEffectivePolicy(topicId, connectionId);
+            if (policy == null || !Boolean.TRUE.equals(policy.getArchiveCompress())) continue;
+            try {
+                moved += migrateTopic(topicId, cutoff);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Cold archive migration failed for topic {}: {}", topicId, e.getMessage());
+            }
+        }
+        if (moved > 0) {
+            log.info("Moved {} archives to cold segments ({} segments, {} on disk)",
+                    moved, segments.size(), FormatUtils.formatSize(diskBytes()));
+        }
+        return moved;
+    }
+
+    private long migrateTopic(Long topicId, LocalDateTime cutoff) throws IOException {
+        long moved = 0;
+        while (true) {
+            List<KafkaMessageArchive> batch = archiveRepository.findColdCandidates(
+                    topicId, cutoff, PageRequest.of(0, segmentMaxRows));
+            if (batch.isEmpty()) return moved;
+
+            // Un segment par jour ; topic et connexion (noms compris) sont constants dans un segment
+            Map<String, List<KafkaMessageArchive>> groups = new LinkedHashMap<>();
+            for (KafkaMessageArchive archive : batch) {
+                String key = archive.getOriginalTimestamp().format(DAY) + '|' + archive.getTopicName()
+                        + '|' + archive.getConnectionId() + '|' + archive.getConnectionName();
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(archive);
+            }
+            for (List<KafkaMessageArchive> group : groups.values()) {
+                writeAndCommit(group);
+            }
+            moved += batch.size();
+            if (batch.size() < segmentMaxRows) return moved;
+        }
+    }
+
+    private void writeAndCommit(List<KafkaMessageArchive> rows) throws IOException {
+        KafkaMessageArchive first = rows.stream().min(Comparator.comparing(KafkaMessageArchive::getId)).orElseThrow();
+        Path topicDirectory = directory.resolve("topic-" + first.getTopicId());
+        Files.createDirectories(topicDirectory);
+        String name = rows.get(0).getOriginalTimestamp().format(DAY) + "-" + first.getId();
+        Path tmp = topicDirectory.resolve(name + SegmentFormat.TMP_EXTENSION);
+        Path pendingFile = topicDirectory.resolve(name + SegmentFormat.PENDING_EXTENSION);
+
+        writer.write(tmp, rows, dictionaries.forWriting(topicDirectory, rows));
+        // Relu via son mapping avant de supprimer la seule autre copie des lignes
+        try (ColdSegment written = ColdSegment.open(tmp, dictionaries)) {
+            if (written.getRowCount() != rows.size()) {
+                throw new IOException("Cold segment " + tmp.getFileName() + " does not hold all migrated rows");
+            }
+        }
+        SegmentFormat.moveAtomically(tmp, pendingFile);
+        deleteFromDatabase(rows.stream().map(KafkaMessageArchive::getId).toList());
+        promote(pendingFile);
+    }
+
+    /** Rejoue les segments {@code .pending} d'un arrêt brutal : lignes supprimées en base puis publication. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPending() {
+        List<Path> files;
+        synchronized (pending) {
+            files = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (Path file : files) {
+            try {
+                try (ColdSegment segment = ColdSegment.open(file, dictionaries)) {
+                    deleteFromDatabase(segmentIds(segment));
+                }
+                promote(file);
+                log.info("Recovered pending cold segment {}", file.getFileName());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Cannot recover pending cold segment {}: {}", file, e.getMessage());
+                synchronized (pending) {
+                    pending.add(file);
+                }
+            }
+        }
+    }
+
+    private void deleteFromDatabase(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+                archiveRepository.deleteByIds(ids.subList(from, Math.min(from + DELETE_BATCH, ids.size())));
+            }
+        });
+    }
+
+    private void promote(Path pendingFile) throws IOException {
+        String name = pendingFile.getFileName().toString();
+        Path target = pendingFile.resolveSibling(
+                name.substring(0, name.length() - SegmentFormat.PENDING_EXTENSION.length()) + SegmentFormat.EXTENSION);
+        SegmentFormat.moveAtomically(pendingFile, target);
+        ColdSegment segment = ColdSegment.open(target, dictionaries);
+        synchronized (this) {
+            List<ColdSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            publish(updated);
+        }
+    }
+
+    private static List<Long> segmentIds(ColdSegment segment) {
+        List<Long> ids = new ArrayList<>();
+        for (BlockInfo info : segment.getBlocks()) {
+            for (long id : segment.meta(info).ids) ids.add(id);
+        }
+        return ids;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SUPPRESSION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Retire les lignes archivées avant {@code cutoff}, comme la suppression ligne à ligne en base :
+     * les segments entièrement expirés sont supprimés, ceux qui n'en contiennent qu'une partie réécrits.
+     */
+    public long dropArchivedBefore(LocalDateTime cutoff) {
+        synchronized (mutation) {
+            long rows = drop(segment -> segment.getMaxArchivedAt() != null && segment.getMaxArchivedAt().isBefore(cutoff));
+            return rows + rewrite(
+                    segment -> segment.getMinArchivedAt() != null && segment.getMinArchivedAt().isBefore(cutoff),
+                    (block, row) -> block.archivedAt[row] != null && block.archivedAt[row].isBefore(cutoff));
+        }
+    }
+
+    /** Retire les lignes d'ids {@code ids} ; retourne le nombre de lignes effectivement retirées. */
+    public long deleteByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        Set<Long> targets = Set.copyOf(ids);
+        return rewrite(
+                segment -> targets.stream().anyMatch(id -> id >= segment.getMinId() && id <= segment.getMaxId()),
+                (block, row) -> targets.contains(block.ids[row]));
+    }
+
+    public long dropTopic(Long topicId) {
+        return drop(segment -> segment.getTopicId().equals(topicId));
+    }
+
+    public long dropConnection(Long connectionId) {
+        return drop(segment -> connectionId.equals(segment.getConnectionId()));
+    }
+
+    private long drop(Predicate<ColdSegment> condition) {
+        synchronized (mutation) {
+            List<ColdSegment> dropped = new ArrayList<>();
+            synchronized (this) {
+                List<ColdSegment> kept = new ArrayList<>();
+                for (ColdSegment segment : segments) {
+                    (condition.test(segment) ? dropped : kept).add(segment);
+                }
+                if (dropped.isEmpty()) return 0;
+                publish(kept);
+            }
+            long rows = 0;
+            Set<Path> topicDirectories = new HashSet<>();
+            for (ColdSegment segment : dropped) {
+                retire(segment);
+                try {
+                    Files.deleteIfExists(segment.getFile());
+                    rows += segment.getRowCount();
+                    topicDirectories.add(segment.getFile().getParent());
+                } catch (IOException e) {
+                    log.warn("Cannot delete cold segment {}: {}", segment.getFile(), e.getMessage());
+                }
+            }
+            pruneDictionaries(topicDirectories);
+            return rows;
+        }
+    }
+
+    /** Ligne d'un bloc décodé à retirer lors d'une réécriture. */
+    @FunctionalInterface
+    private interface RowFilter {
+        boolean test(ColdBlock block, int row);
+    }
+
+    /** Réécrit sans les lignes {@code removed} les segments que {@code mayContain} ne peut écarter. */
+    private long rewrite(Predicate<ColdSegment> mayContain, RowFilter removed) {
+        synchronized (mutation) {
+            long rows = 0;
+            Set<Path> topicDirectories = new HashSet<>();
+            for (ColdSegment segment : segments) {
+                if (!mayContain.test(segment)) continue;
+                try {
+                    long removedRows = rewrite(segment, removed);
+                    if (removedRows > 0) topicDirectories.add(segment.getFile().getParent());
+                    rows += removedRows;
+                } catch (IOException | RuntimeException e) {
+                    throw new AppException(ErrorCode.INTERNAL_ERROR,
+                            "Cannot rewrite cold segment " + segment.getFile().getFileName(), e);
+                }
+            }
+            pruneDictionaries(topicDirectories);
+            return rows;
+        }
+    }
+
+    /**
+     * Réécrit un segment sans ses lignes {@code removed} : nouveau fichier écrit à côté puis renommé
+     * par-dessus l'ancien, dont le mapping reste lisible par les scans en cours. Un segment vidé est
+     * supprimé.
+     */
+    private long rewrite(ColdSegment segment, RowFilter removed) throws IOException {
+        if (!segment.acquire()) return 0;
+        List<KafkaMessageArchive> kept = new ArrayList<>();
+        long removedRows = 0;
+        try {
+            for (BlockInfo info : segment.getBlocks()) {
+                ColdBlock block = segment.meta(info);
+                boolean decoded = false;
+                for (int row = 0; row < block.rows; row++) {
+                    if (removed.test(block, row)) {
+                        removedRows++;
+                        continue;
+                    }
+                    if (!decoded) {
+                        segment.values(block);
+                        decoded = true;
+                    }
+                    kept.add(block.toArchive(row, segment));
+                }
+            }
+        } finally {
+            segment.release();
+        }
+        if (removedRows == 0) return 0;
+        if (kept.isEmpty()) {
+            drop(candidate -> candidate == segment);
+            return removedRows;
+        }
+
+        Path file = segment.getFile();
+        String name = file.getFileName().toString();
+        Path tmp = file.resolveSibling(
+                name.substring(0, name.length() - SegmentFormat.EXTENSION.length()) + SegmentFormat.TMP_EXTENSION);
+        writer.write(tmp, kept, dictionaries.forWriting(file.getParent(), kept));
+        SegmentFormat.moveAtomically(tmp, file);
+        ColdSegment rewritten = ColdSegment.open(file, dictionaries);
+        synchronized (this) {
+            List<ColdSegment> updated = new ArrayList<>(segments);
+            updated.remove(segment);
+            updated.add(rewritten);
+            publish(updated);
+        }
+        retire(segment);
+        return removedRows;
+    }
+
+    /** Démappé tout de suite, ou à la fin du dernier scan qui le lit encore. */
+    private void retire(ColdSegment segment) {
+        retired.add(segment);
+        segment.close();
+    }
+
+    /** Dictionnaires qu'aucun segment restant ne référence. */
+    private void pruneDictionaries(Set<Path> topicDirectories) {
+        List<ColdSegment> remaining = segments;
+        for (Path topicDirectory : topicDirectories) {
+            Set<Integer> referenced = new HashSet<>();
+            for (ColdSegment segment : remaining) {
+                if (segment.getDictionary() != null && segment.getFile().getParent().equals(topicDirectory)) {
+                    referenced.add(segment.getDictionary().version());
+                }
+            }
+            dictionaries.prune(topicDirectory, referenced);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STATISTIQUES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Lignes froides d'un topic ou d'une connexion : {@code valueBytes} somme les {@code value_size}
+     * comme les statistiques de la base ; bornes sur {@code original_timestamp}.
+     */
+    public record ColdUsage(Long id, String name, long rows, long valueBytes,
+                            LocalDateTime oldest, LocalDateTime newest) {
+
+        private ColdUsage plus(ColdSegment segment, long valueBytes) {
+            return new ColdUsage(id, name, rows + segment.getRowCount(), this.valueBytes + valueBytes,
+                    oldest == null || segment.getMinTimestamp().isBefore(oldest) ? segment.getMinTimestamp() : oldest,
+                    newest == null || segment.getMaxTimestamp().isAfter(newest) ? segment.getMaxTimestamp() : newest);
+        }
+    }
+
+    public List<ColdUsage> usageByTopic() {
+        return usageBy(ColdSegment::getTopicId, ColdSegment::getTopicName);
+    }
+
+    public List<ColdUsage> usageByConnection() {
+        return usageBy(ColdSegment::getConnectionId, ColdSegment::getConnectionName);
+    }
+
+    public Optional<ColdUsage> topicUsage(Long topicId) {
+        return usageByTopic().stream().filter(usage -> usage.id().equals(topicId)).findFirst();
+    }
+
+    public long rowCount() {
+        return segments.stream().mapToLong(ColdSegment::getRowCount).sum();
+    }
+
+    public long valueBytes() {
+        return segments.stream().mapToLong(segment -> summary(segment).valueBytes()).sum();
+    }
+
+    /** Lignes archivées depuis {@code since} ; seuls les segments à cheval sur la date sont décodés. */
+    public long countArchivedSince(LocalDateTime since) {
+        long total = 0;
+        for (ColdSegment segment : segments) {
+            if (segment.getMaxArchivedAt() == null || segment.getMaxArchivedAt().isBefore(since)) continue;
+            if (!segment.getMinArchivedAt().isBefore(since)) {
+                total += segment.getRowCount();
+                continue;
+            }
+            for (BlockInfo info : segment.getBlocks()) {
+                total += decode(new BlockRef(segment, info), block -> Arrays.stream(block.archivedAt)
+                        .filter(archivedAt -> archivedAt != null && !archivedAt.isBefore(since))
+                        .count());
+            }
+        }
+        return total;
+    }
+
+    public Map<MessageType, Long> countByMessageType() {
+        Map<MessageType, Long> counts = new EnumMap<>(MessageType.class);
+        segments.forEach(segment -> summary(segment).byMessageType().forEach((type, n) -> counts.merge(type, n, Long::sum)));
+        return counts;
+    }
+
+    public Map<ArchiveReason, Long> countByArchiveReason() {
+        Map<ArchiveReason, Long> counts = new EnumMap<>(ArchiveReason.class);
+        segments.forEach(segment -> summary(segment).byArchiveReason().forEach((reason, n) -> counts.merge(reason, n, Long::sum)));
+        return counts;
+    }
+
+    public SortedSet<String> topicNames() {
+        return distinct(segment -> segment.getTopicName() != null ? Set.of(segment.getTopicName()) : Set.of());
+    }
+
+    public SortedSet<String> connectionNames() {
+        return distinct(segment -> segment.getConnectionName() != null ? Set.of(segment.getConnectionName()) : Set.of());
+    }
+
+    public SortedSet<String> contentTypes() {
+        return distinct(segment -> summary(segment).contentTypes());
+    }
+
+    /** Regroupe les segments par {@code id} ; le nom retenu est celui du segment le plus récent. */
+    private List<ColdUsage> usageBy(Function<ColdSegment, Long> id, Function<ColdSegment, String> name) {
+        Map<Long, ColdUsage> usages = new LinkedHashMap<>();
+        for (ColdSegment segment : segments) {
+            long bytes = summary(segment).valueBytes();
+            usages.compute(id.apply(segment), (key, usage) ->
+                    (usage != null ? usage : new ColdUsage(key, name.apply(segment), 0, 0, null, null)).plus(segment, bytes));
+        }
+        return new ArrayList<>(usages.values());
+    }
+
+    private SortedSet<String> distinct(Function<ColdSegment, Set<String>> values) {
+        SortedSet<String> result = new TreeSet<>();
+        for (ColdSegment segment : segments) {
+            result.addAll(values.apply(segment));
+        }
+        return result;
+    }
+
+    /** Agrégats d'un segment ; un segment retiré entre-temps ne compte plus. */
+    private static Summary summary(ColdSegment segment) {
+        if (!segment.acquire()) {
+            return new Summary(0, Map.of(), Map.of(), Set.of());
+        }
+        try {
+            return segment.summary();
+        } catch (RuntimeException e) {
+            throw unreadable(segment, e);
+        } finally {
+            segment.release();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉTAT
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public Map<String, Object> getStatus() {
+        List<ColdSegment> snapshot = segments;
+        long rows = snapshot.stream().mapToLong(ColdSegment::getRowCount).sum();
+        long raw = snapshot.stream().mapToLong(ColdSegment::getRawBytes).sum();
+        long disk = snapshot.stream().mapToLong(ColdSegment::getSizeBytes).sum();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("segments", snapshot.size());
+        status.put("rows", rows);
+        status.put("rawBytes", raw);
+        status.put("diskBytes", disk);
+        status.put("retainedBytes", retainedBytes());
+        status.put("compressionRatio", disk > 0 ? Math.round(raw * 100.0 / disk) / 100.0 : 0);
+        return status;
+    }
+
+    /** Segments publiés, plus les segments retirés dont un scan retient encore l'espace disque. */
+    public long diskBytes() {
+        return segments.stream().mapToLong(ColdSegment::getSizeBytes).sum() + retainedBytes();
+    }
+
+    private long retainedBytes() {
+        retired.removeIf(ColdSegment::isReleased);
+        return retired.stream().mapToLong(ColdSegment::getSizeBytes).sum();
+    }
+
+    private void publish(List<ColdSegment> updated) {
+        updated.sort(Comparator.comparing(ColdSegment::getMaxTimestamp).reversed());
+        segments = List.copyOf(updated);
+    }
+
+    private void load() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            if (enabled) Files.createDirectories(directory);
+            return;
+        }
+        List<ColdSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> topics = Files.newDirectoryStream(directory, "topic-*")) {
+            for (Path topicDirectory : topics) {
+                if (!Files.isDirectory(topicDirectory)) continue;
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(topicDirectory)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(SegmentFormat.TMP_EXTENSION)) {
+                            Files.deleteIfExists(file);
+                        } else if (name.endsWith(SegmentFormat.PENDING_EXTENSION)) {
+                            pending.add(file);
+                        } else if (name.endsWith(SegmentFormat.EXTENSION)) {
+                            try {
+                                loaded.add(ColdSegment.open(file, dictionaries));
+                            } catch (IOException | RuntimeException e) {
+                                // Seule copie de ces lignes : on ne supprime jamais un segment illisible
+                                log.error("Skipping unreadable cold segment {}: {}", file, e.getMessage());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        publish(loaded);
+        if (!loaded.isEmpty()) {
+            log.info("Loaded {} cold archive segments ({} rows)", loaded.size(),
+                    loaded.stream().mapToLong(ColdSegment::getRowCount).sum());
+        }
+    }
+
+    private static AppException unreadable(ColdSegment segment, Exception e) {
+        log.error("Cold archive segment {} unreadable", segment.getFile(), e);
+        return new AppException(ErrorCode.INTERNAL_ERROR,
+                "Cold archive segment unreadable: " + segment.getFile().getFileName(), e);
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
+import com.kafkaflow.visualizer.service.coldstore.ColdSegment.BlockInfo;
+import com.kafkaflow.visualizer.service.coldstore.SegmentFormat.Source;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bloc décodé, colonne par colonne. La section valeurs (l'essentiel du volume) n'est lue qu'à la
+ * demande : un filtre sur la clé, le type ou le temps n'y touche pas. Une valeur ou des headers ne
+ * deviennent des objets Java que pour les lignes effectivement lues ; depuis la v3, chaque valeur
+ * n'est même décompressée (avec le dictionnaire du segment) qu'à sa lecture.
+ */
+final class ColdBlock {
+
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    private static final ArchiveReason[] ARCHIVE_REASONS = ArchiveReason.values();
+
+    final BlockInfo info;
+    final int rows;
+    final long[] ids;
+    final long[] originalIds;
+    final LocalDateTime[] timestamps;
+    final Integer[] partitions;
+    final Long[] offsets;
+    final String[] keys;
+    final MessageType[] messageTypes;
+    final ArchiveReason[] archiveReasons;
+    final String[] contentTypes;
+    final Integer[] valueSizes;
+    final LocalDateTime[] archivedAt;
+    /** v3 : position et longueur compressée ({@code -1} = null) de chaque valeur, et longueur brute. */
+    private final int[] packedOffsets;
+    private final int[] packedLengths;
+    private final int[] rawLengths;
+
+    private ByteBuffer packedValues;
+    private ValueDictionary dictionary;
+    private Source valueSource;
+    private int[] valueOffsets;
+    private int[] valueLengths;
+    private int[] headerOffsets;
+    private String[] values;
+
+    private ColdBlock(BlockInfo info, int rows, boolean packed) {
+        this.info = info;
+        this.rows = rows;
+        this.ids = new long[rows];
+        this.originalIds = new long[rows];
+        this.timestamps = new LocalDateTime[rows];
+        this.partitions = new Integer[rows];
+        this.offsets = new Long[rows];
+        this.keys = new String[rows];
+        this.messageTypes = new MessageType[rows];
+        this.archiveReasons = new ArchiveReason[rows];
+        this.contentTypes = new String[rows];
+        this.valueSizes = new Integer[rows];
+        this.archivedAt = new LocalDateTime[rows];
+        this.packedOffsets = packed ? new int[rows] : null;
+        this.packedLengths = packed ? new int[rows] : null;
+        this.rawLengths = packed ? new int[rows] : null;
+    }
+
+    boolean hasValues() {
+        return valueSource != null;
+    }
+
+    /** Total des valeurs compressées du bloc (v3), qui suivent sa section valeurs. */
+    int packedValueBytes() {
+        return rows > 0 ? packedOffsets[rows - 1] + Math.max(packedLengths[rows - 1], 0) : 0;
+    }
+
+    static ColdBlock decodeMeta(BlockInfo info, byte[] raw, boolean packed) {
+        Source in = new Source(raw);
+        int rows = (int) in.readVarLong();
+        ColdBlock block = new ColdBlock(info, rows, packed);
+
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += in.readSigned();
+            block.ids[i] = previous;
+        }
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += in.readSigned();
+            block.originalIds[i] = previous;
+        }
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += in.readSigned();
+            block.timestamps[i] = SegmentFormat.fromNanos(previous);
+        }
+        for (int i = 0; i < rows; i++) {
+            Long partition = in.readNullable();
+            block.partitions[i] = partition != null ? partition.intValue() : null;
+        }
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            Long delta = in.readNullable();
+            if (delta != null) {
+                previous += delta;
+                block.offsets[i] = previous;
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            block.keys[i] = in.readString();
+        }
+        for (int i = 0; i < rows; i++) {
+            int type = in.readByte();
+            block.messageTypes[i] = type > 0 ? MESSAGE_TYPES[type - 1] : null;
+        }
+        for (int i = 0; i < rows; i++) {
+            int reason = in.readByte();
+            block.archiveReasons[i] = reason > 0 ? ARCHIVE_REASONS[reason - 1] : null;
+        }
+        for (int i = 0; i < rows; i++) {
+            block.contentTypes[i] = in.readString();
+        }
+        for (int i = 0; i < rows; i++) {
+            Long size = in.readNullable();
+            block.valueSizes[i] = size != null ? size.intValue() : null;
+        }
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            Long delta = in.readNullable();
+            if (delta != null) {
+                previous += delta;
+                block.archivedAt[i] = SegmentFormat.fromNanos(previous);
+            }
+        }
+        if (packed) {
+            int offset = 0;
+            for (int i = 0; i < rows; i++) {
+                block.packedOffsets[i] = offset;
+                block.packedLengths[i] = (int) in.readVarLong() - 1;
+                offset += Math.max(block.packedLengths[i], 0);
+            }
+            for (int i = 0; i < rows; i++) {
+                block.rawLengths[i] = (int) in.readVarLong();
+            }
+        }
+        return block;
+    }
+
+    /** Avant la v3 : relève la position de chaque valeur et de chaque liste de headers, sans rien décoder. */
+    void attachValues(byte[] raw) {
+        Source in = new Source(raw);
+        int[] offsets = new int[rows];
+        int[] lengths = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            lengths[i] = in.skipString();
+            offsets[i] = in.position() - Math.max(lengths[i], 0);
+        }
+        valueOffsets = offsets;
+        valueLengths = lengths;
+        attachHeaders(in);
+    }
+
+    /** v3 : headers décompressés, valeurs laissées compressées dans {@code packed} (vue du mapping). */
+    void attachHeaders(byte[] raw, ByteBuffer packed, ValueDictionary dictionary) {
+        this.packedValues = packed;
+        this.dictionary = dictionary;
+        attachHeaders(new Source(raw));
+    }
+
+    private void attachHeaders(Source in) {
+        int[] headerStarts = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            headerStarts[i] = in.position();
+            long count = in.readVarLong() - 1;
+            for (long h = 0; h < count * 2; h++) {
+                in.skipString();
+            }
+        }
+        headerOffsets = headerStarts;
+        values = new String[rows];
+        valueSource = in;
+    }
+
+    String value(int row) {
+        String value = values[row];
+        if (value != null) return value;
+        if (packedValues != null) {
+            if (packedLengths[row] >= 0) {
+                value = dictionary.decode(packedValues.slice(packedOffsets[row], packedLengths[row]), rawLengths[row]);
+            }
+        } else if (valueLengths[row] >= 0) {
+            value = valueSource.stringAt(valueOffsets[row], valueLengths[row]);
+        }
+        values[row] = value;
+        return value;
+    }
+
+    Map<String, String> headers(int row) {
+        valueSource.seek(headerOffsets[row]);
+        int count = (int) valueSource.readVarLong() - 1;
+        if (count < 0) return null;
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int h = 0; h < count; h++) {
+            map.put(valueSource.readString(), valueSource.readString());
+        }
+        return map;
+    }
+
+    /** Ligne {@code row} sous forme d'entité détachée ; les valeurs doivent avoir été décodées. */
+    KafkaMessageArchive toArchive(int row, ColdSegment segment) {
+        return metadata(row, segment)
+                .messageValue(value(row))
+                .headers(headers(row))
+                .build();
+    }
+
+    /** Ligne {@code row} sans valeur ni headers : de quoi la trier sans rien décompresser. */
+    KafkaMessageArchive toArchiveMetadata(int row, ColdSegment segment) {
+        return metadata(row, segment).build();
+    }
+
+    private KafkaMessageArchive.KafkaMessageArchiveBuilder metadata(int row, ColdSegment segment) {
+        return KafkaMessageArchive.builder()
+                .id(ids[row])
+                .originalId(originalIds[row])
+                .topicId(segment.getTopicId())
+                .topicName(segment.getTopicName())
+                .connectionId(segment.getConnectionId())
+                .connectionName(segment.getConnectionName())
+                .partition(partitions[row])
+                .offset(offsets[row])
+                .messageKey(keys[row])
+                .originalTimestamp(timestamps[row])
+                .messageType(messageTypes[row])
+                .contentType(contentTypes[row])
+                .valueSize(valueSizes[row])
+                .archivedAt(archivedAt[row])
+                .archiveReason(archiveReasons[row]);
+    }
+}
@@ -0,0 +1,300 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Segment froid immuable, lu via un mapping mémoire en lecture seule : footer et index des blocs
+ * décodés à l'ouverture, blocs décompressés à la demande directement depuis le mapping (aucune
+ * copie des octets compressés sur le heap). Le mapping est partagé sans verrou par les threads de
+ * scan : chaque lecture travaille sur sa propre vue ({@code slice}).
+ * <p>
+ * Les statistiques du footer (topic, connexion, bornes de temps, d'ids et d'archivage) permettent
+ * d'écarter un segment entier sans lire ses blocs ; celles de l'index, un bloc sans le décompresser.
+ * Depuis la v3, les valeurs sont compressées une à une avec le dictionnaire du topic dont la
+ * version est inscrite dans le footer.
+ * <p>
+ * Le mapping est compté par références : l'ouverture en détient une, rendue par {@link #close()},
+ * et chaque lecture l'encadre par {@link #acquire()} / {@link #release()}. À la dernière, il est
+ * démappé aussitôt, ce qui libère l'espace disque d'un segment supprimé sans attendre le GC ; si le
+ * JDK n'expose pas {@code invokeCleaner}, la libération reste différée au GC.
+ */
+@Getter
+@Slf4j
+final class ColdSegment implements AutoCloseable {
+
+    /** {@code Unsafe.invokeCleaner} lié, ou {@code null} : démappage laissé au GC. */
+    private static final MethodHandle UNMAPPER = unmapper();
+
+    /**
+     * Entrée de l'index : position et bornes d'un bloc ; {@code valuesLength} / {@code valuesRaw}
+     * décrivent la section valeurs (headers seuls en v3), {@code keyFilter} est {@code null} avant la v2.
+     */
+    record BlockInfo(int index, long offset, int metaLength, int metaRaw, int valuesLength, int valuesRaw,
+                     int rows, LocalDateTime minTimestamp, LocalDateTime maxTimestamp,
+                     long minId, long maxId, long minOffset, long maxOffset, KeyBloomFilter keyFilter) {}
+
+    /**
+     * Agrégats des colonnes de métadonnées, mêmes mesures que les statistiques de
+     * {@code kafka_messages_archive} ({@code valueBytes} = somme des {@code value_size}).
+     */
+    record Summary(long valueBytes, Map<MessageType, Long> byMessageType, Map<ArchiveReason, Long> byArchiveReason,
+                   Set<String> contentTypes) {}
+
+    private final Path file;
+    private final long sizeBytes;
+    private final Long topicId;
+    private final String topicName;
+    private final Long connectionId;
+    private final String connectionName;
+    private final long rowCount;
+    private final LocalDateTime minTimestamp;
+    private final LocalDateTime maxTimestamp;
+    private final long minId;
+    private final long maxId;
+    /** {@code null} si aucune ligne n'a de date d'archivage. */
+    private final LocalDateTime minArchivedAt;
+    private final LocalDateTime maxArchivedAt;
+    /** Taille des colonnes avant compression. */
+    private final long rawBytes;
+    private final List<BlockInfo> blocks;
+    /** {@code null} avant la v3 : valeurs et headers compressés ensemble par bloc. */
+    private final ValueDictionary dictionary;
+    @Getter(AccessLevel.NONE)
+    private final MappedByteBuffer buffer;
+    /** Calculé au premier besoin : le segment est immuable. */
+    @Getter(AccessLevel.NONE)
+    private volatile Summary summary;
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private ColdSegment(Path file, MappedByteBuffer buffer, ByteBuffer footer, ByteBuffer index, ByteBuffer filters,
+                        ValueDictionary dictionary) {
+        this.file = file;
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+        this.sizeBytes = buffer.capacity();
+        this.topicId = footer.getLong();
+        this.topicName = readUtf(footer);
+        boolean hasConnection = footer.get() != 0;
+        long connection = footer.getLong();
+        this.connectionId = hasConnection ? connection : null;
+        this.connectionName = readUtf(footer);
+        this.rowCount = footer.getLong();
+        this.minTimestamp = SegmentFormat.fromNanos(footer.getLong());
+        this.maxTimestamp = SegmentFormat.fromNanos(footer.getLong());
+        this.minId = footer.getLong();
+        this.maxId = footer.getLong();
+        long minArchived = footer.getLong();
+        long maxArchived = footer.getLong();
+        this.minArchivedAt = minArchived <= maxArchived ? SegmentFormat.fromNanos(minArchived) : null;
+        this.maxArchivedAt = minArchived <= maxArchived ? SegmentFormat.fromNanos(maxArchived) : null;
+        this.rawBytes = footer.getLong();
+
+        List<BlockInfo> entries = new ArrayList<>();
+        for (int i = 0; index.remaining() >= SegmentFormat.BLOCK_ENTRY_BYTES; i++) {
+            entries.add(new BlockInfo(i, index.getLong(), index.getInt(), index.getInt(), index.getInt(),
+                    index.getInt(), index.getInt(),
+                    SegmentFormat.fromNanos(index.getLong()), SegmentFormat.fromNanos(index.getLong()),
+                    index.getLong(), index.getLong(), index.getLong(), index.getLong(),
+                    filters != null ? KeyBloomFilter.read(filters) : null));
+        }
+        this.blocks = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Mappe le fichier puis valide trailer, footer et index ; lève si le fichier est tronqué ou
+     * étranger, ou si son dictionnaire manque.
+     */
+    static ColdSegment open(Path file, ValueDictionaries dictionaries) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Cold segment larger than 2 GB: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        try {
+            return read(file, buffer, dictionaries);
+        } catch (IOException | RuntimeException e) {
+            unmap(buffer, file);
+            throw e;
+        }
+    }
+
+    private static ColdSegment read(Path file, MappedByteBuffer buffer, ValueDictionaries dictionaries) throws IOException {
+        int size = buffer.capacity();
+        if (size < SegmentFormat.HEADER_BYTES + SegmentFormat.TRAILER_BYTES
+                || buffer.getInt(0) != SegmentFormat.MAGIC
+                || buffer.get(Integer.BYTES) < SegmentFormat.VERSION_WITHOUT_KEY_FILTERS
+                || buffer.get(Integer.BYTES) > SegmentFormat.VERSION
+                || buffer.getInt(size - Integer.BYTES) != SegmentFormat.MAGIC) {
+            throw new IllegalStateException("Not a cold segment: " + file);
+        }
+        long footerOffset = buffer.getLong(size - SegmentFormat.TRAILER_BYTES);
+        if (footerOffset <= 0 || footerOffset >= size - SegmentFormat.TRAILER_BYTES) {
+            throw new IllegalStateException("Invalid cold segment trailer: " + file);
+        }
+        ByteBuffer footer = buffer.slice((int) footerOffset, size - SegmentFormat.TRAILER_BYTES - (int) footerOffset);
+        int blockCount = footer.getInt(footer.limit() - Integer.BYTES - Long.BYTES);
+        long indexOffset = footer.getLong(footer.limit() - Long.BYTES);
+        if (blockCount < 0 || indexOffset + (long) blockCount * SegmentFormat.BLOCK_ENTRY_BYTES != footerOffset) {
+            throw new IllegalStateException("Invalid cold segment index: " + file);
+        }
+        ByteBuffer index = buffer.slice((int) indexOffset, blockCount * SegmentFormat.BLOCK_ENTRY_BYTES);
+
+        // Filtres de clés (v2) : entre les blocs et l'index, un par bloc dans l'ordre de l'index ;
+        // ceux d'avant le repliement des accents (v2, v3) sont validés puis ignorés
+        byte version = buffer.get(Integer.BYTES);
+        ByteBuffer filters = null;
+        if (version >= SegmentFormat.VERSION_WITHOUT_DICTIONARY) {
+            long filterOffset = footer.getLong(footer.limit() - Integer.BYTES - 2 * Long.BYTES);
+            if (filterOffset < SegmentFormat.HEADER_BYTES || filterOffset > indexOffset) {
+                throw new IllegalStateException("Invalid cold segment key filters: " + file);
+            }
+            if (version > SegmentFormat.VERSION_WITH_UNFOLDED_KEY_FILTERS) {
+                filters = buffer.slice((int) filterOffset, (int) (indexOffset - filterOffset));
+            }
+        }
+        ValueDictionary dictionary = null;
+        if (version >= SegmentFormat.VERSION_WITH_UNFOLDED_KEY_FILTERS) {
+            int dictionaryVersion = footer.getInt(footer.limit() - 2 * Integer.BYTES - 2 * Long.BYTES);
+            dictionary = dictionaries.load(file.getParent(), dictionaryVersion);
+        }
+        return new ColdSegment(file, buffer, footer, index, filters, dictionary);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CYCLE DE VIE DU MAPPING
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Retient le mapping ; {@code false} s'il a déjà été rendu (segment fermé). */
+    boolean acquire() {
+        while (true) {
+            int current = references.get();
+            if (current <= 0) return false;
+            if (references.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) unmap(buffer, file);
+    }
+
+    /** Rend la référence de l'ouverture : le mapping disparaît à la fin de la dernière lecture. */
+    @Override
+    public void close() {
+        release();
+    }
+
+    /** Vrai quand plus rien ne retient le mapping. */
+    boolean isReleased() {
+        return references.get() <= 0;
+    }
+
+    private static void unmap(MappedByteBuffer buffer, Path file) {
+        if (UNMAPPER == null) return;
+        try {
+            UNMAPPER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            log.warn("Cannot unmap cold segment {}, left to the GC: {}", file, e.getMessage());
+        }
+    }
+
+    private static MethodHandle unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("Cold segment mappings will be released by the GC: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Taux de compression des colonnes (brut / disque). */
+    double compressionRatio() {
+        return sizeBytes > 0 ? (double) rawBytes / sizeBytes : 0;
+    }
+
+    /** Agrégats du segment ; la première demande décode les métadonnées de tous ses blocs (pas les valeurs). */
+    Summary summary() {
+        Summary computed = summary;
+        if (computed != null) return computed;
+        long valueBytes = 0;
+        Map<MessageType, Long> byMessageType = new EnumMap<>(MessageType.class);
+        Map<ArchiveReason, Long> byArchiveReason = new EnumMap<>(ArchiveReason.class);
+        Set<String> contentTypes = new TreeSet<>();
+        for (BlockInfo info : blocks) {
+            ColdBlock block = meta(info);
+            for (int row = 0; row < block.rows; row++) {
+                if (block.valueSizes[row] != null) valueBytes += block.valueSizes[row];
+                if (block.messageTypes[row] != null) byMessageType.merge(block.messageTypes[row], 1L, Long::sum);
+                if (block.archiveReasons[row] != null) byArchiveReason.merge(block.archiveReasons[row], 1L, Long::sum);
+                if (block.contentTypes[row] != null) contentTypes.add(block.contentTypes[row]);
+            }
+        }
+        computed = new Summary(valueBytes, Collections.unmodifiableMap(byMessageType),
+                Collections.unmodifiableMap(byArchiveReason), Collections.unmodifiableSet(contentTypes));
+        summary = computed;
+        return computed;
+    }
+
+    /** Décode les colonnes de métadonnées du bloc, sans les valeurs. */
+    ColdBlock meta(BlockInfo block) {
+        ByteBuffer packed = buffer.slice((int) block.offset(), block.metaLength());
+        return ColdBlock.decodeMeta(block, SegmentFormat.inflate(packed, block.metaRaw()), dictionary != null);
+    }
+
+    /**
+     * Décompresse la section valeurs du bloc (les headers seuls depuis la v3), si ce n'est pas déjà
+     * fait. En v3 les valeurs restent compressées dans le mapping jusqu'à leur lecture.
+     */
+    void values(ColdBlock block) {
+        if (block.hasValues()) return;
+        BlockInfo info = block.info;
+        int sectionOffset = (int) info.offset() + info.metaLength();
+        byte[] raw = SegmentFormat.inflate(buffer.slice(sectionOffset, info.valuesLength()), info.valuesRaw());
+        if (dictionary == null) {
+            block.attachValues(raw);
+        } else {
+            block.attachHeaders(raw, buffer.slice(sectionOffset + info.valuesLength(), block.packedValueBytes()),
+                    dictionary);
+        }
+    }
+
+    private static String readUtf(ByteBuffer buffer) {
+        if (buffer.get() == 0) return null;
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
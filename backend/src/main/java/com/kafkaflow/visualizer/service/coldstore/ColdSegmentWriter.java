@@ -0,0 +1,289 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.service.coldstore.SegmentFormat.Sink;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Écrit un segment froid (format décrit dans {@link SegmentFormat}) à partir d'archives d'un même
+ * topic. Les lignes sont triées par {@code (timestamp, id)} puis découpées en blocs d'au plus
+ * {@code blockRows} lignes ou {@code blockBytes} octets bruts : plus le bloc est grand, meilleure
+ * est la compression, mais plus une lecture ponctuelle décompresse de données inutiles. Les valeurs
+ * font exception : chacune est compressée seule avec le dictionnaire du topic, une lecture n'en
+ * décompresse que les lignes retournées. Chaque bloc reçoit un {@link KeyBloomFilter} de ses clés,
+ * écrit entre les blocs et l'index.
+ */
+final class ColdSegmentWriter {
+
+    private static final Comparator<KafkaMessageArchive> OLDEST_FIRST =
+            Comparator.comparing(KafkaMessageArchive::getOriginalTimestamp).thenComparing(KafkaMessageArchive::getId);
+
+    private final int blockRows;
+    private final int blockBytes;
+    private final int level;
+    private final double keyFilterFpp;
+
+    ColdSegmentWriter(int blockRows, int blockBytes, int level, double keyFilterFpp) {
+        this.blockRows = Math.max(1, blockRows);
+        this.blockBytes = Math.max(1024, blockBytes);
+        this.level = level;
+        this.keyFilterFpp = Math.min(0.5, Math.max(1e-6, keyFilterFpp));
+    }
+
+    /**
+     * Écrit {@code archives} (même topic, même connexion) dans {@code target}, écrasé s'il existe,
+     * valeurs compressées avec {@code dictionary}.
+     */
+    void write(Path target, List<KafkaMessageArchive> archives, ValueDictionary dictionary) throws IOException {
+        if (archives.isEmpty()) {
+            throw new IllegalArgumentException("Cannot write an empty cold segment");
+        }
+        List<KafkaMessageArchive> rows = new ArrayList<>(archives);
+        rows.sort(OLDEST_FIRST);
+        KafkaMessageArchive first = rows.get(0);
+
+        Footer footer = new Footer();
+        List<long[]> entries = new ArrayList<>();
+        List<List<KafkaMessageArchive>> blocks = new ArrayList<>();
+        try (ValueDictionary.Encoder encoder = dictionary.encoder(level);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 1 << 16))) {
+            out.writeInt(SegmentFormat.MAGIC);
+            out.writeByte(SegmentFormat.VERSION);
+            long position = SegmentFormat.HEADER_BYTES;
+
+            int start = 0;
+            while (start < rows.size()) {
+                int end = blockEnd(rows, start);
+                List<KafkaMessageArchive> block = rows.subList(start, end);
+
+                byte[][] packedValues = new byte[block.size()][];
+                int[] rawLengths = new int[block.size()];
+                long payloadBytes = 0;
+                long rawValueBytes = 0;
+                for (int i = 0; i < block.size(); i++) {
+                    String value = block.get(i).getMessageValue();
+                    if (value == null) continue;
+                    byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+                    rawLengths[i] = raw.length;
+                    packedValues[i] = encoder.encode(raw);
+                    payloadBytes += packedValues[i].length;
+                    rawValueBytes += raw.length;
+                }
+
+                Sink meta = encodeMeta(block, packedValues, rawLengths);
+                Sink headers = encodeHeaders(block);
+                byte[] metaPacked = SegmentFormat.deflate(meta.buffer(), meta.size(), level);
+                byte[] headersPacked = SegmentFormat.deflate(headers.buffer(), headers.size(), level);
+                out.write(metaPacked);
+                out.write(headersPacked);
+                for (byte[] packed : packedValues) {
+                    if (packed != null) out.write(packed);
+                }
+
+                entries.add(blockEntry(block, position, metaPacked.length, meta.size(),
+                        headersPacked.length, headers.size()));
+                footer.add(block, meta.size() + headers.size() + rawValueBytes);
+                blocks.add(block);
+                position += metaPacked.length + headersPacked.length + payloadBytes;
+                start = end;
+            }
+
+            long filterOffset = position;
+            for (List<KafkaMessageArchive> block : blocks) {
+                position += KeyBloomFilter.write(out, block.stream().map(KafkaMessageArchive::getMessageKey).toList(),
+                        keyFilterFpp);
+            }
+            long indexOffset = position;
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                for (int i = 1; i <= 5; i++) out.writeInt((int) entry[i]);
+                for (int i = 6; i <= 11; i++) out.writeLong(entry[i]);
+            }
+            long footerOffset = indexOffset + (long) entries.size() * SegmentFormat.BLOCK_ENTRY_BYTES;
+
+            out.writeLong(first.getTopicId());
+            writeUtf(out, first.getTopicName());
+            out.writeBoolean(first.getConnectionId() != null);
+            out.writeLong(first.getConnectionId() != null ? first.getConnectionId() : 0);
+            writeUtf(out, first.getConnectionName());
+            out.writeLong(rows.size());
+            out.writeLong(footer.minTs);
+            out.writeLong(footer.maxTs);
+            out.writeLong(footer.minId);
+            out.writeLong(footer.maxId);
+            out.writeLong(footer.minArchivedAt);
+            out.writeLong(footer.maxArchivedAt);
+            out.writeLong(footer.rawBytes);
+            out.writeInt(dictionary.version());
+            out.writeLong(filterOffset);
+            out.writeInt(entries.size());
+            out.writeLong(indexOffset);
+
+            out.writeLong(footerOffset);
+            out.writeInt(SegmentFormat.MAGIC);
+        }
+    }
+
+    private int blockEnd(List<KafkaMessageArchive> rows, int start) {
+        long bytes = 0;
+        int end = start;
+        while (end < rows.size() && end - start < blockRows && (end == start || bytes < blockBytes)) {
+            KafkaMessageArchive row = rows.get(end++);
+            bytes += 64 + length(row.getMessageKey()) + length(row.getMessageValue());
+        }
+        return end;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // COLONNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static Sink encodeMeta(List<KafkaMessageArchive> block, byte[][] packedValues, int[] rawLengths) {
+        Sink sink = new Sink(block.size() * 48);
+        sink.writeVarLong(block.size());
+
+        long previous = 0;
+        for (KafkaMessageArchive row : block) {
+            sink.writeSigned(row.getId() - previous);
+            previous = row.getId();
+        }
+        previous = 0;
+        for (KafkaMessageArchive row : block) {
+            sink.writeSigned(row.getOriginalId() - previous);
+            previous = row.getOriginalId();
+        }
+        previous = 0;
+        for (KafkaMessageArchive row : block) {
+            long nanos = SegmentFormat.toNanos(row.getOriginalTimestamp());
+            sink.writeSigned(nanos - previous);
+            previous = nanos;
+        }
+        for (KafkaMessageArchive row : block) {
+            sink.writeNullable(row.getPartition() != null ? Long.valueOf(row.getPartition()) : null);
+        }
+        previous = 0;
+        for (KafkaMessageArchive row : block) {
+            // Offsets croissants par partition : un delta sur la ligne précédente reste petit
+            Long offset = row.getOffset();
+            sink.writeNullable(offset != null ? offset - previous : null);
+            if (offset != null) previous = offset;
+        }
+        for (KafkaMessageArchive row : block) {
+            sink.writeString(row.getMessageKey());
+        }
+        for (KafkaMessageArchive row : block) {
+            sink.write(row.getMessageType() != null ? row.getMessageType().ordinal() + 1 : 0);
+        }
+        for (KafkaMessageArchive row : block) {
+            sink.write(row.getArchiveReason() != null ? row.getArchiveReason().ordinal() + 1 : 0);
+        }
+        for (KafkaMessageArchive row : block) {
+            sink.writeString(row.getContentType());
+        }
+        for (KafkaMessageArchive row : block) {
+            sink.writeNullable(row.getValueSize() != null ? Long.valueOf(row.getValueSize()) : null);
+        }
+        previous = 0;
+        for (KafkaMessageArchive row : block) {
+            Long archivedAt = row.getArchivedAt() != null ? SegmentFormat.toNanos(row.getArchivedAt()) : null;
+            sink.writeNullable(archivedAt != null ? archivedAt - previous : null);
+            if (archivedAt != null) previous = archivedAt;
+        }
+        // Valeurs : longueur compressée + 1 ({@code 0} = null) puis longueur brute, pour les relire seules
+        for (byte[] packed : packedValues) {
+            sink.writeVarLong(packed != null ? packed.length + 1L : 0);
+        }
+        for (int rawLength : rawLengths) {
+            sink.writeVarLong(rawLength);
+        }
+        return sink;
+    }
+
+    private static Sink encodeHeaders(List<KafkaMessageArchive> block) {
+        Sink sink = new Sink(block.size() * 8);
+        for (KafkaMessageArchive row : block) {
+            Map<String, String> headers = row.getHeaders();
+            if (headers == null) {
+                sink.writeVarLong(0);
+                continue;
+            }
+            sink.writeVarLong(headers.size() + 1L);
+            headers.forEach((name, value) -> {
+                sink.writeString(name);
+                sink.writeString(value);
+            });
+        }
+        return sink;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // INDEX ET FOOTER
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static long[] blockEntry(List<KafkaMessageArchive> block, long offset,
+                                     int metaLength, int metaRaw, int valuesLength, int valuesRaw) {
+        long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+        long minOffset = Long.MAX_VALUE, maxOffset = Long.MIN_VALUE;
+        for (KafkaMessageArchive row : block) {
+            minId = Math.min(minId, row.getId());
+            maxId = Math.max(maxId, row.getId());
+            if (row.getOffset() != null) {
+                minOffset = Math.min(minOffset, row.getOffset());
+                maxOffset = Math.max(maxOffset, row.getOffset());
+            }
+        }
+        return new long[]{offset, metaLength, metaRaw, valuesLength, valuesRaw, block.size(),
+                SegmentFormat.toNanos(block.get(0).getOriginalTimestamp()),
+                SegmentFormat.toNanos(block.get(block.size() - 1).getOriginalTimestamp()),
+                minId, maxId, minOffset, maxOffset};
+    }
+
+    private static void writeUtf(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static final class Footer {
+        private long minTs = Long.MAX_VALUE;
+        private long maxTs = Long.MIN_VALUE;
+        private long minId = Long.MAX_VALUE;
+        private long maxId = Long.MIN_VALUE;
+        private long minArchivedAt = Long.MAX_VALUE;
+        private long maxArchivedAt = Long.MIN_VALUE;
+        private long rawBytes;
+
+        void add(List<KafkaMessageArchive> block, long raw) {
+            for (KafkaMessageArchive row : block) {
+                long ts = SegmentFormat.toNanos(row.getOriginalTimestamp());
+                minTs = Math.min(minTs, ts);
+                maxTs = Math.max(maxTs, ts);
+                minId = Math.min(minId, row.getId());
+                maxId = Math.max(maxId, row.getId());
+                if (row.getArchivedAt() != null) {
+                    long archivedAt = SegmentFormat.toNanos(row.getArchivedAt());
+                    minArchivedAt = Math.min(minArchivedAt, archivedAt);
+                    maxArchivedAt = Math.max(maxArchivedAt, archivedAt);
+                }
+            }
+            rawBytes += raw;
+        }
+    }
+}
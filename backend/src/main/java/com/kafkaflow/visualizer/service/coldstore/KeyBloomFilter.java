@@ -0,0 +1,119 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.util.TextFolding;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Filtre de Bloom des clés d'un bloc, sur les trigrammes de leur forme repliée
+ * ({@link TextFolding}) : la recherche par clé est un « contient » insensible à la casse et aux
+ * accents, une clé candidate doit donc contenir tous les trigrammes de la recherche repliée. Un trigramme absent du filtre écarte le bloc sans le décompresser ; un faux
+ * positif coûte seulement la lecture du bloc, revérifié ligne par ligne.
+ * <p>
+ * Les bits restent dans le mapping du segment (lus par {@code getLong}) : aucun tas consommé
+ * par segment ouvert. Sérialisation : {@code hashes (byte) | words (int) | words x long}.
+ */
+final class KeyBloomFilter {
+
+    private final ByteBuffer bits;
+    private final int words;
+    private final int hashes;
+
+    private KeyBloomFilter(ByteBuffer bits, int words, int hashes) {
+        this.bits = bits;
+        this.words = words;
+        this.hashes = hashes;
+    }
+
+    /** Lit un filtre à la position courante de {@code section} et avance au suivant. */
+    static KeyBloomFilter read(ByteBuffer section) {
+        int hashes = section.get();
+        int words = section.getInt();
+        ByteBuffer bits = section.slice(section.position(), words * Long.BYTES);
+        section.position(section.position() + words * Long.BYTES);
+        return new KeyBloomFilter(bits, words, hashes);
+    }
+
+    /** {@code false} si aucune clé du bloc ne peut contenir {@code foldedNeedle}. */
+    boolean mayContainSubstring(String foldedNeedle) {
+        // Moins de trois caractères : pas de trigramme, rien à écarter
+        if (foldedNeedle.length() < 3) return true;
+        if (words == 0) return false;
+        for (int i = 0; i + 2 < foldedNeedle.length(); i++) {
+            if (!mightContain(trigram(foldedNeedle, i))) return false;
+        }
+        return true;
+    }
+
+    private boolean mightContain(long trigram) {
+        long hash = mix(trigram);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long size = (long) words * Long.SIZE;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, size);
+            if ((bits.getLong((int) (bit >>> 6) * Long.BYTES) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉCRITURE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Écrit le filtre des clés d'un bloc, dimensionné pour {@code falsePositiveRate} par
+     * trigramme. Un bloc sans clé donne un filtre vide, qui écarte toute recherche par clé.
+     * Retourne le nombre d'octets écrits.
+     */
+    static int write(DataOutputStream out, Collection<String> keys, double falsePositiveRate) throws IOException {
+        Set<Long> trigrams = new HashSet<>();
+        for (String key : keys) {
+            if (key == null) continue;
+            String folded = TextFolding.fold(key);
+            for (int i = 0; i + 2 < folded.length(); i++) {
+                trigrams.add(trigram(folded, i));
+            }
+        }
+        int words = 0;
+        int hashes = 1;
+        if (!trigrams.isEmpty()) {
+            double bits = -trigrams.size() * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            words = (int) Math.max(1, Math.ceil(bits / Long.SIZE));
+            hashes = (int) Math.max(1, Math.min(16, Math.round((double) words * Long.SIZE / trigrams.size() * Math.log(2))));
+        }
+
+        long[] filter = new long[words];
+        long size = (long) words * Long.SIZE;
+        for (long trigram : trigrams) {
+            long hash = mix(trigram);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                filter[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        out.writeByte(hashes);
+        out.writeInt(words);
+        for (long word : filter) out.writeLong(word);
+        return 1 + Integer.BYTES + words * Long.BYTES;
+    }
+
+    /** Trois caractères d'un texte déjà replié, packés sur 48 bits. */
+    private static long trigram(String folded, int at) {
+        return ((long) folded.charAt(at) << 32) | ((long) folded.charAt(at + 1) << 16) | folded.charAt(at + 2);
+    }
+
+    /** Finaliseur de splitmix64 : répartit les 48 bits du trigramme sur les deux moitiés du hash. */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,245 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Constantes et encodages communs aux segments froids : varints, zigzag, chaînes nullables et
+ * compression DEFLATE des sections de bloc.
+ *
+ * <pre>
+ * Format d'un segment (v4) :
+ *   MAGIC (int) | VERSION (byte)
+ *   blocs     : par bloc, section méta et section headers compressées (DEFLATE brut), puis valeurs
+ *               méta    = rows, puis colonne par colonne : ids, originalIds, timestamps (deltas zigzag),
+ *                         partitions, offsets, clés, types, raisons, content-types, tailles, archivedAt,
+ *                         longueurs compressées et brutes des valeurs
+ *               headers = headers de chaque ligne
+ *               valeurs = chaque valeur compressée seule avec le dictionnaire du segment ({@link ValueDictionary})
+ *   filtres   : par bloc, filtre de Bloom des trigrammes des clés repliées ({@link KeyBloomFilter})
+ *   index     : blockCount x entrée fixe (offset, longueurs, lignes, min/max timestamp, id, offset)
+ *   footer    : topic, connexion, lignes, min/max timestamp, id, archivedAt, octets bruts,
+ *               version du dictionnaire, offset des filtres, blockCount, offset de l'index
+ *   trailer   : footerOffset (long) | MAGIC (int)
+ * </pre>
+ * v1 : sans filtres ni dictionnaire ; v2 : sans dictionnaire, la section valeurs contient les
+ * valeurs puis les headers, compressées ensemble ; v3 : filtres sur les clés en minuscules
+ * seulement, ignorés à la lecture. Tous restent lisibles.
+ * <p>
+ * Les timestamps sont stockés en nanosecondes depuis l'epoch (UTC) pour garder la précision des
+ * curseurs keyset ; les lignes d'un segment sont triées par {@code (timestamp, id)} croissants.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x5343464B; // "KFCS"
+    static final byte VERSION = 4;
+    /** Segments sans filtres de clés : toujours lisibles, leurs blocs ne sont jamais écartés par clé. */
+    static final byte VERSION_WITHOUT_KEY_FILTERS = 1;
+    /** Segments sans dictionnaire : valeurs et headers compressés ensemble par bloc. */
+    static final byte VERSION_WITHOUT_DICTIONARY = 2;
+    /**
+     * Segments dont les filtres portent sur les clés sans repliement des accents : ils écarteraient
+     * des blocs qu'une recherche repliée doit lire, leurs blocs sont donc lus sans filtre.
+     */
+    static final byte VERSION_WITH_UNFOLDED_KEY_FILTERS = 3;
+    static final int HEADER_BYTES = Integer.BYTES + 1;
+    static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    /** offset, metaLength, metaRaw, valuesLength, valuesRaw, rows, minTs, maxTs, minId, maxId, minOffset, maxOffset */
+    static final int BLOCK_ENTRY_BYTES = Long.BYTES + 5 * Integer.BYTES + 6 * Long.BYTES;
+
+    static final String EXTENSION = ".seg";
+    static final String PENDING_EXTENSION = ".pending";
+    static final String TMP_EXTENSION = ".tmp";
+    static final String DICTIONARY_PREFIX = "dict-";
+    static final String DICTIONARY_EXTENSION = ".dict";
+
+    private SegmentFormat() {
+    }
+
+    static long toNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // COMPRESSION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    static byte[] deflate(byte[] raw, int length, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(raw, 0, length);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, length / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == out.length) out = Arrays.copyOf(out, out.length * 2);
+                size += deflater.deflate(out, size, out.length - size);
+            }
+            return Arrays.copyOf(out, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Décompresse directement depuis le mapping du segment : pas de copie intermédiaire sur le heap. */
+    static byte[] inflate(ByteBuffer compressed, int rawLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] out = new byte[rawLength];
+            int size = 0;
+            while (size < rawLength) {
+                int n = inflater.inflate(out, size, rawLength - size);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                size += n;
+            }
+            if (size != rawLength) {
+                throw new IllegalStateException("Truncated cold segment block");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted cold segment block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉCRITURE / LECTURE DES COLONNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Tampon d'écriture d'une section : varints non signés, zigzag pour les deltas. */
+    static final class Sink extends ByteArrayOutputStream {
+
+        Sink(int capacity) {
+            super(capacity);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeSigned(long value) {
+            writeVarLong(zigzag(value));
+        }
+
+        /** {@code 0} = null, sinon zigzag + 1. */
+        void writeNullable(Long value) {
+            writeVarLong(value == null ? 0 : zigzag(value) + 1);
+        }
+
+        /** Longueur UTF-8 + 1 ({@code 0} = null) puis les octets. */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    /** Lecture séquentielle d'une section décompressée. */
+    static final class Source {
+
+        private final byte[] data;
+        private int position;
+
+        Source(byte[] data) {
+            this.data = data;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+                shift += 7;
+            }
+        }
+
+        long readSigned() {
+            return unzigzag(readVarLong());
+        }
+
+        Long readNullable() {
+            long raw = readVarLong();
+            return raw == 0 ? null : unzigzag(raw - 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong() - 1;
+            if (length < 0) return null;
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int readByte() {
+            return data[position++] & 0xFF;
+        }
+
+        int position() {
+            return position;
+        }
+
+        void seek(int position) {
+            this.position = position;
+        }
+
+        /** Saute une chaîne et retourne sa longueur en octets, {@code -1} si null. */
+        int skipString() {
+            int length = (int) readVarLong() - 1;
+            if (length > 0) position += length;
+            return length;
+        }
+
+        String stringAt(int offset, int length) {
+            return length < 0 ? null : new String(data, offset, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaires des topics sur disque, à côté de leurs segments :
+ * {@code topic-<id>/dict-<version>.dict}. Un segment référence la version avec laquelle ses
+ * valeurs ont été compressées ; une version n'est supprimée que lorsque plus aucun segment ne la
+ * référence et qu'une plus récente existe.
+ * <p>
+ * Un topic est réentraîné quand son dernier dictionnaire a plus de {@code maxAge} : les payloads
+ * évoluent (nouveaux champs, nouvelles valeurs d'énumération) et le gain du dictionnaire avec eux.
+ */
+@Slf4j
+final class ValueDictionaries {
+
+    /** Taille de l'échantillon d'entraînement, réparti sur le lot migré. */
+    private static final int TRAINING_SAMPLES = 1000;
+
+    private final Duration maxAge;
+    private final Map<Path, ValueDictionary> cache = new ConcurrentHashMap<>();
+
+    ValueDictionaries(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /** Dictionnaire {@code version} du répertoire de topic, lu une seule fois. */
+    ValueDictionary load(Path topicDirectory, int version) throws IOException {
+        Path file = file(topicDirectory, version);
+        ValueDictionary cached = cache.get(file);
+        if (cached != null) return cached;
+        ValueDictionary dictionary = new ValueDictionary(version, Files.readAllBytes(file));
+        cache.putIfAbsent(file, dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Dictionnaire avec lequel écrire {@code rows} : la dernière version du topic si elle est assez
+     * récente, sinon une nouvelle, entraînée sur un échantillon de {@code rows} et écrite sur disque
+     * avant tout segment qui l'utilise.
+     */
+    synchronized ValueDictionary forWriting(Path topicDirectory, List<KafkaMessageArchive> rows) throws IOException {
+        int latest = latestVersion(topicDirectory);
+        if (latest > 0) {
+            Instant trainedAt = Files.getLastModifiedTime(file(topicDirectory, latest)).toInstant();
+            if (trainedAt.plus(maxAge).isAfter(Instant.now())) {
+                return load(topicDirectory, latest);
+            }
+        }
+
+        List<String> samples = new ArrayList<>(Math.min(rows.size(), TRAINING_SAMPLES));
+        int stride = Math.max(1, rows.size() / TRAINING_SAMPLES);
+        for (int i = 0; i < rows.size() && samples.size() < TRAINING_SAMPLES; i += stride) {
+            samples.add(rows.get(i).getMessageValue());
+        }
+        long started = System.nanoTime();
+        ValueDictionary dictionary = ValueDictionary.train(latest + 1, samples);
+
+        Path target = file(topicDirectory, dictionary.version());
+        Path tmp = target.resolveSibling(target.getFileName() + SegmentFormat.TMP_EXTENSION);
+        Files.write(tmp, dictionary.bytes());
+        SegmentFormat.moveAtomically(tmp, target);
+        cache.put(target, dictionary);
+        log.info("Trained value dictionary {} for {} ({} bytes from {} samples in {} ms)", dictionary.version(),
+                topicDirectory.getFileName(), dictionary.bytes().length, samples.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return dictionary;
+    }
+
+    /** Supprime les versions du topic qui ne sont ni {@code referenced} ni la dernière. */
+    synchronized void prune(Path topicDirectory, Set<Integer> referenced) {
+        int latest;
+        try {
+            latest = latestVersion(topicDirectory);
+        } catch (IOException e) {
+            return;
+        }
+        for (int version = 1; version < latest; version++) {
+            if (referenced.contains(version)) continue;
+            Path file = file(topicDirectory, version);
+            try {
+                if (Files.deleteIfExists(file)) cache.remove(file);
+            } catch (IOException e) {
+                log.warn("Cannot delete value dictionary {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private static int latestVersion(Path topicDirectory) throws IOException {
+        if (!Files.isDirectory(topicDirectory)) return 0;
+        int latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(topicDirectory,
+                SegmentFormat.DICTIONARY_PREFIX + "*" + SegmentFormat.DICTIONARY_EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    latest = Math.max(latest, Integer.parseInt(name.substring(SegmentFormat.DICTIONARY_PREFIX.length(),
+                            name.length() - SegmentFormat.DICTIONARY_EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // Fichier étranger : ignoré
+                }
+            }
+        }
+        return latest;
+    }
+
+    private static Path file(Path topicDirectory, int version) {
+        return topicDirectory.resolve(SegmentFormat.DICTIONARY_PREFIX + version + SegmentFormat.DICTIONARY_EXTENSION);
+    }
+}
@@ -0,0 +1,198 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Dictionnaire DEFLATE d'un topic, entraîné sur un échantillon de ses valeurs. Les payloads JSON
+ * d'un topic répètent les mêmes noms de champs et fragments d'un message à l'autre : compressée
+ * seule, une valeur de quelques centaines d'octets ne gagne presque rien, mais compressée avec un
+ * dictionnaire prérempli ({@link Deflater#setDictionary}) elle ne paie plus que ses parties
+ * variables. Chaque valeur reste ainsi décompressable seule, sans décompresser son bloc.
+ * <p>
+ * Entraînement à la manière des dictionnaires zstd (COVER) : les fragments de {@value #SEGMENT}
+ * octets couvrant les k-mers présents dans le plus d'échantillons sont retenus, les meilleurs en
+ * fin de dictionnaire (distances les plus courtes pour DEFLATE).
+ */
+final class ValueDictionary {
+
+    /** Fenêtre DEFLATE : au-delà, le début du dictionnaire ne serait jamais référencé. */
+    static final int MAX_BYTES = 32 * 1024;
+    private static final int KMER = 8;
+    private static final int SEGMENT = 64;
+    private static final int STEP = 16;
+    private static final int MAX_SAMPLE_BYTES = 4096;
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final int version;
+    private final byte[] bytes;
+
+    ValueDictionary(int version, byte[] bytes) {
+        this.version = version;
+        this.bytes = bytes;
+    }
+
+    int version() {
+        return version;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENTRAÎNEMENT
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Fragment candidat : {@code length} octets de l'échantillon {@code sample} à partir de {@code start}. */
+    private record Candidate(int sample, int start, int length, long score) {}
+
+    static ValueDictionary train(int version, Collection<String> values) {
+        List<byte[]> samples = new ArrayList<>();
+        for (String value : values) {
+            if (value == null || value.isEmpty()) continue;
+            byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+            samples.add(raw.length > MAX_SAMPLE_BYTES ? Arrays.copyOf(raw, MAX_SAMPLE_BYTES) : raw);
+        }
+
+        // Fréquence documentaire de chaque k-mer (8 octets packés : pas de collision)
+        Map<Long, Integer> frequency = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i + KMER <= sample.length; i++) {
+                if (seen.add(kmer(sample, i))) frequency.merge(kmer(sample, i), 1, Integer::sum);
+            }
+        }
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingLong(Candidate::score).reversed());
+        Set<Long> covered = new HashSet<>();
+        for (int s = 0; s < samples.size(); s++) {
+            byte[] sample = samples.get(s);
+            for (int start = 0; start < sample.length; start += STEP) {
+                int length = Math.min(SEGMENT, sample.length - start);
+                if (length < KMER) break;
+                candidates.add(new Candidate(s, start, length, score(sample, start, length, frequency, covered)));
+            }
+        }
+
+        // Glouton paresseux : un candidat n'est retenu que si son score, recalculé, reste le meilleur
+        List<Candidate> selected = new ArrayList<>();
+        int size = 0;
+        while (!candidates.isEmpty() && size < MAX_BYTES) {
+            Candidate best = candidates.poll();
+            byte[] sample = samples.get(best.sample());
+            long score = score(sample, best.start(), best.length(), frequency, covered);
+            if (score <= 1) continue;
+            if (!candidates.isEmpty() && score < candidates.peek().score()) {
+                candidates.add(new Candidate(best.sample(), best.start(), best.length(), score));
+                continue;
+            }
+            int length = Math.min(best.length(), MAX_BYTES - size);
+            selected.add(new Candidate(best.sample(), best.start(), length, score));
+            size += length;
+            for (int i = best.start(); i + KMER <= best.start() + best.length(); i++) {
+                covered.add(kmer(sample, i));
+            }
+        }
+
+        byte[] dictionary = new byte[size];
+        int position = size;
+        for (Candidate candidate : selected) {
+            position -= candidate.length();
+            System.arraycopy(samples.get(candidate.sample()), candidate.start(), dictionary, position, candidate.length());
+        }
+        return new ValueDictionary(version, dictionary);
+    }
+
+    /** Somme des fréquences des k-mers du fragment pas encore couverts par le dictionnaire. */
+    private static long score(byte[] sample, int start, int length, Map<Long, Integer> frequency, Set<Long> covered) {
+        long score = 0;
+        Set<Long> counted = new HashSet<>();
+        for (int i = start; i + KMER <= start + length; i++) {
+            long kmer = kmer(sample, i);
+            if (!covered.contains(kmer) && counted.add(kmer)) score += frequency.getOrDefault(kmer, 0) - 1;
+        }
+        return score;
+    }
+
+    private static long kmer(byte[] data, int at) {
+        long value = 0;
+        for (int i = 0; i < KMER; i++) value = (value << 8) | (data[at + i] & 0xFF);
+        return value;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // COMPRESSION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Compresseur d'une passe d'écriture ; le {@link Deflater} est réutilisé d'une valeur à l'autre. */
+    Encoder encoder(int level) {
+        return new Encoder(level);
+    }
+
+    final class Encoder implements AutoCloseable {
+
+        private final Deflater deflater;
+        private byte[] buffer = new byte[1024];
+
+        private Encoder(int level) {
+            this.deflater = new Deflater(level, true);
+        }
+
+        byte[] encode(byte[] raw) {
+            deflater.reset();
+            if (bytes.length > 0) deflater.setDictionary(bytes);
+            deflater.setInput(raw);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            return Arrays.copyOf(buffer, size);
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+        }
+    }
+
+    /** Décompresse une valeur, directement depuis le mapping du segment. */
+    String decode(ByteBuffer packed, int rawLength) {
+        if (rawLength == 0) return "";
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        if (bytes.length > 0) inflater.setDictionary(bytes);
+        inflater.setInput(packed);
+        byte[] out = new byte[rawLength];
+        try {
+            int size = 0;
+            while (size < rawLength) {
+                int n = inflater.inflate(out, size, rawLength - size);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                size += n;
+            }
+            if (size != rawLength) {
+                throw new IllegalStateException("Truncated cold segment value");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted cold segment value", e);
+        }
+        return new String(out, StandardCharsets.UTF_8);
+    }
+}
@@ -1,11 +1,16 @@
 package com.kafkaflow.visualizer.service.kafka;
 
 import com.kafkaflow.visualizer.service.HealthService;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.profiling.PipelineEvents;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.errors.WakeupException;
 
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -20,6 +25,8 @@ public class ConsumerTask implements Runnable {
     private final KafkaMessageProcessor messageProcessor;
     private final KafkaErrorHandler errorHandler;
     private final HealthService healthService;
+    private final PipelineMetrics pipelineMetrics;
+    private final PipelineMetrics.TopicMeters meters;
     private final AtomicBoolean running;
     private final AtomicInteger consecutiveErrors = new AtomicInteger(0);
 
@@ -30,6 +37,7 @@ public class ConsumerTask implements Runnable {
             KafkaMessageProcessor messageProcessor,
             KafkaErrorHandler errorHandler,
             HealthService healthService,
+            PipelineMetrics pipelineMetrics,
             AtomicBoolean running
     ) {
         this.topicId = topicId;
@@ -38,6 +46,8 @@ public class ConsumerTask implements Runnable {
         this.messageProcessor = messageProcessor;
         this.errorHandler = errorHandler;
         this.healthService = healthService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.meters = pipelineMetrics.forTopic(topicId);
         this.running = running;
     }
 
@@ -53,12 +63,23 @@ public class ConsumerTask implements Runnable {
     private void consumeLoop() {
         while (running.get()) {
             try {
+                PipelineEvents.BatchPolled event = new PipelineEvents.BatchPolled();
+                event.begin();
+                long pollStart = System.nanoTime();
                 ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                long polledAt = System.nanoTime();
+                meters.recordPoll(polledAt - pollStart, records.count());
+                event.end();
+
+                if (!records.isEmpty() && event.shouldCommit()) {
+                    event.set(topicId, records.count(), PipelineEvents.serializedBytes(records));
+                    event.commit();
+                }
 
                 if (!records.isEmpty()) {
                     consecutiveErrors.set(0);
                     healthService.recordMessages(records.count());
-                    messageProcessor.processRecords(topicId, topicName, records);
+                    messageProcessor.processRecords(topicId, topicName, records, meters, polledAt);
                 }
 
             } catch (WakeupException e) {
@@ -75,6 +96,7 @@ public class ConsumerTask implements Runnable {
 
     private boolean handleError(Exception e) {
         int errors = consecutiveErrors.incrementAndGet();
+        pipelineMetrics.recordConsumerError(topicId, errorHandler.categorize(e));
         errorHandler.handleConsumerError(topicName, e, errors);
 
         if (errors >= MAX_CONSECUTIVE_ERRORS) {
@@ -85,6 +107,11 @@ public class ConsumerTask implements Runnable {
         return false;
     }
 
+    /** Métriques internes du client Kafka (lecture thread-safe, sans verrou du consumer). */
+    public Map<MetricName, ? extends Metric> clientMetrics() {
+        return consumer.metrics();
+    }
+
     public void stop() {
         try {
             consumer.wakeup();
@@ -4,7 +4,14 @@ import com.kafkaflow.visualizer.model.KafkaConnection;
 import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import com.kafkaflow.visualizer.service.HealthService;
+import com.kafkaflow.visualizer.service.metrics.AnomalyDetector;
+import com.kafkaflow.visualizer.service.metrics.ConsumerThreadProfiler;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge;
 import com.kafkaflow.visualizer.service.metrics.MetricsBroadcaster;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker;
 import com.kafkaflow.visualizer.service.metrics.ThroughputTracker;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -30,6 +37,13 @@ public class KafkaConsumerManager {
     private final KafkaMessageProcessor messageProcessor;
     private final KafkaErrorHandler errorHandler;
     private final ThroughputTracker throughputTracker;
+    private final MetricsTimeSeriesStore timeSeriesStore;
+    private final HotKeyTracker hotKeyTracker;
+    private final PipelineMetrics pipelineMetrics;
+    private final ConsumerThreadProfiler threadProfiler;
+    private final KafkaClientMetricsBridge clientMetricsBridge;
+    private final StageLatencyTracker stageLatencyTracker;
+    private final AnomalyDetector anomalyDetector;
     private final MetricsBroadcaster metricsBroadcaster;
     private final HealthService healthService;
 
@@ -87,6 +101,7 @@ public class KafkaConsumerManager {
     public void broadcastTopicMetrics() {
         if (!running.get()) return;
         activeTasks.keySet().forEach(metricsBroadcaster::broadcastTopicMetrics);
+        activeTasks.keySet().forEach(metricsBroadcaster::broadcastHotKeys);
     }
 
     @Scheduled(fixedDelay = 1000)
@@ -95,19 +110,57 @@ public class KafkaConsumerManager {
         metricsBroadcaster.broadcastRealTimeMetrics();
     }
 
+    @Scheduled(fixedDelay = 500)
+    public void broadcastFlowDeltas() {
+        if (!running.get()) return;
+        metricsBroadcaster.broadcastFlowDeltas();
+    }
+
     @Scheduled(fixedDelay = 5000)
     public void broadcastDashboardStats() {
         if (!running.get()) return;
+        threadProfiler.sample();
         updateConsumerStatusCache();
         metricsBroadcaster.broadcastDashboardMetrics();
     }
 
+    @Scheduled(fixedDelay = 5000)
+    public void harvestClientMetrics() {
+        if (!running.get()) return;
+        activeTasks.forEach((topicId, task) -> {
+            try {
+                clientMetricsBridge.harvest(topicId, task.clientMetrics());
+                metricsBroadcaster.broadcastClientMetrics(topicId);
+            } catch (Exception e) {
+                log.trace("Client metrics harvest failed [{}]: {}", topicId, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedRate = StageLatencyTracker.INTERVAL_SECONDS * 1000L)
+    public void rollStageLatencies() {
+        if (!running.get()) return;
+        stageLatencyTracker.rollIntervals();
+    }
+
+    @Scheduled(fixedRate = 1000, initialDelay = 1000)
+    public void detectAnomalies() {
+        if (!running.get()) return;
+        anomalyDetector.evaluate().forEach(metricsBroadcaster::broadcastAnomaly);
+    }
+
     @Scheduled(fixedDelay = 30000)
     public void cleanupThroughputData() {
         if (!running.get()) return;
         throughputTracker.cleanupAll();
     }
 
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void checkpointTimeSeries() {
+        if (!running.get()) return;
+        timeSeriesStore.checkpoint();
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // CONSUMER MANAGEMENT
     // ═══════════════════════════════════════════════════════════════════════
@@ -160,6 +213,7 @@ public class KafkaConsumerManager {
                     messageProcessor,
                     errorHandler,
                     healthService,
+                    pipelineMetrics,
                     running
             );
 
@@ -169,6 +223,7 @@ public class KafkaConsumerManager {
 
             activeTasks.put(topic.getId(), task);
             consumerThreads.put(topic.getId(), thread);
+            threadProfiler.register(topic.getId(), topic.getName(), thread);
 
             log.info(Log.CONSUMER_STARTED, topic.getName());
             updateConsumerStatusCache();
@@ -184,6 +239,11 @@ public class KafkaConsumerManager {
         ConsumerTask task = activeTasks.remove(topicId);
         Thread thread = consumerThreads.remove(topicId);
         throughputTracker.unregister(topicId);
+        hotKeyTracker.unregister(topicId);
+        threadProfiler.unregister(topicId);
+        clientMetricsBridge.unregister(topicId);
+        stageLatencyTracker.unregister(topicId);
+        anomalyDetector.unregister(topicId);
 
         if (task != null) {
             task.stop();
@@ -2,8 +2,16 @@ package com.kafkaflow.visualizer.service.kafka;
 
 import com.kafkaflow.visualizer.model.KafkaMessage;
 import com.kafkaflow.visualizer.service.kafkatopic.KafkaTopicMessageService;
+import com.kafkaflow.visualizer.service.metrics.AnomalyDetector;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker;
 import com.kafkaflow.visualizer.service.metrics.MetricsBroadcaster;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics.Stage;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics.TopicMeters;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker.StageRecorders;
 import com.kafkaflow.visualizer.service.metrics.ThroughputTracker;
+import com.kafkaflow.visualizer.service.profiling.PipelineEvents;
 import com.kafkaflow.visualizer.websocket.WebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,20 +30,34 @@ public class KafkaMessageProcessor {
     private final KafkaTopicMessageService messageService;
     private final WebSocketService webSocketService;
     private final ThroughputTracker throughputTracker;
+    private final MetricsTimeSeriesStore timeSeriesStore;
+    private final HotKeyTracker hotKeyTracker;
+    private final StageLatencyTracker stageLatencyTracker;
+    private final AnomalyDetector anomalyDetector;
     private final MetricsBroadcaster metricsBroadcaster;
     private final KafkaErrorHandler errorHandler;
 
-    public int processRecords(Long topicId, String topicName, ConsumerRecords<String, String> records) {
+    public int processRecords(Long topicId, String topicName, ConsumerRecords<String, String> records,
+                              TopicMeters meters, long polledAt) {
         int recordCount = records.count();
 
         throughputTracker.recordMessages(topicId, recordCount);
+        timeSeriesStore.record(topicId, recordCount);
 
+        StageRecorders latencies = stageLatencyTracker.forTopic(topicId);
+        PipelineEvents.BatchPersisted event = new PipelineEvents.BatchPersisted();
+        event.begin();
         int errors = 0;
         for (ConsumerRecord<String, String> record : records) {
-            if (!processRecord(topicId, record)) {
+            if (!processRecord(topicId, record, meters, latencies, polledAt)) {
                 errors++;
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(topicId, recordCount - errors, PipelineEvents.serializedBytes(records));
+            event.commit();
+        }
 
         errorHandler.handleBatchProcessingErrors(topicName, errors);
 
@@ -45,10 +67,25 @@ public class KafkaMessageProcessor {
         return errors;
     }
 
-    private boolean processRecord(Long topicId, ConsumerRecord<String, String> record) {
+    private boolean processRecord(Long topicId, ConsumerRecord<String, String> record, TopicMeters meters,
+                                  StageRecorders latencies, long polledAt) {
         try {
+            long start = System.nanoTime();
+            latencies.record(StageLatencyTracker.Stage.POLL_TO_PROCESS, start - polledAt);
+            hotKeyTracker.record(topicId, record.key());
             Map<String, String> headers = extractHeaders(record);
 
+            long classifyStart = System.nanoTime();
+            meters.recordStage(Stage.PREPARE, classifyStart - start);
+            KafkaMessage.Classification classification = KafkaMessage.classify(record.value());
+            if (classification.messageType() == KafkaMessage.MessageType.ERROR) {
+                anomalyDetector.recordErrors(topicId, 1);
+            }
+
+            long persistStart = System.nanoTime();
+            meters.recordStage(Stage.CLASSIFY, persistStart - classifyStart);
+            latencies.record(StageLatencyTracker.Stage.CLASSIFY, persistStart - classifyStart);
+
             var messageResponse = messageService.saveMessage(
                     topicId,
                     KafkaMessage.MessageDirection.INBOUND,
@@ -56,10 +93,26 @@ public class KafkaMessageProcessor {
                     record.value(),
                     record.partition(),
                     record.offset(),
-                    headers
+                    headers,
+                    classification
             );
 
+            long broadcastStart = System.nanoTime();
+            meters.recordStage(Stage.PERSIST, broadcastStart - persistStart);
+            latencies.record(StageLatencyTracker.Stage.PERSIST, broadcastStart - persistStart);
+
+            PipelineEvents.MessageBroadcast event = new PipelineEvents.MessageBroadcast();
+            event.begin();
             webSocketService.broadcastNewMessage(messageResponse);
+            event.end();
+            long end = System.nanoTime();
+            meters.recordStage(Stage.BROADCAST, end - broadcastStart);
+            latencies.record(StageLatencyTracker.Stage.BROADCAST, end - broadcastStart);
+            latencies.record(StageLatencyTracker.Stage.POLL_TO_BROADCAST, end - polledAt);
+            if (event.shouldCommit()) {
+                event.set(topicId, 1, Math.max(0, record.serializedValueSize()));
+                event.commit();
+            }
             return true;
 
         } catch (Exception e) {
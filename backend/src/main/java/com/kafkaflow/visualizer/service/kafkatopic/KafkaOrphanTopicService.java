@@ -6,6 +6,7 @@ import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +19,8 @@ public class KafkaOrphanTopicService {
 
     private final KafkaTopicRepository topicRepository;
     private final KafkaMessageRepository messageRepository;
+    private final TopicMetadataCache topicMetadataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<TopicResponse> getOrphanTopics() {
@@ -48,6 +51,9 @@ public class KafkaOrphanTopicService {
                 messageRepository.deleteByTopicId(topic.getId());
             }
             topicRepository.deleteAll(orphansToDelete);
+            orphansToDelete.forEach(topic -> topicMetadataCache.invalidate(topic.getId()));
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(
+                    orphansToDelete.stream().map(KafkaTopic::getId).toList()));
             log.info("Deleted {} orphan topics (skipped {} non-orphan)", deleted, skipped);
         }
 
@@ -76,6 +82,8 @@ public class KafkaOrphanTopicService {
             messageRepository.deleteByTopicId(topic.getId());
         }
         topicRepository.deleteAll(orphans);
+        orphans.forEach(topic -> topicMetadataCache.invalidate(topic.getId()));
+        eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(orphans.stream().map(KafkaTopic::getId).toList()));
 
         log.info("Deleted all {} orphan topics", deleted);
 
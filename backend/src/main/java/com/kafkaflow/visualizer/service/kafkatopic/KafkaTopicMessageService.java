@@ -3,17 +3,25 @@ package com.kafkaflow.visualizer.service.kafkatopic;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafkaflow.visualizer.dto.KafkaDto.CursorPage;
 import com.kafkaflow.visualizer.dto.KafkaDto.MessageFilter;
 import com.kafkaflow.visualizer.dto.KafkaDto.MessageResponse;
 import com.kafkaflow.visualizer.exception.ResourceNotFoundException;
 import com.kafkaflow.visualizer.model.KafkaMessage;
-import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.service.FilteredCountCache;
+import com.kafkaflow.visualizer.service.retention.HotStorageTracker;
+import com.kafkaflow.visualizer.service.retention.HourlyStatsAccumulator;
+import com.kafkaflow.visualizer.service.search.IndexedMatches;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import com.kafkaflow.visualizer.util.KeysetCursor;
+import com.kafkaflow.visualizer.util.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +40,11 @@ public class KafkaTopicMessageService {
     private final KafkaTopicRepository topicRepository;
     private final KafkaMessageRepository messageRepository;
     private final ObjectMapper objectMapper;
+    private final TopicMetadataCache topicMetadataCache;
+    private final HourlyStatsAccumulator statsAccumulator;
+    private final FilteredCountCache countCache;
+    private final SearchIndexService searchIndex;
+    private final HotStorageTracker hotStorage;
 
     @Transactional(readOnly = true)
     public Page<MessageResponse> getMessages(MessageFilter filter) {
@@ -40,6 +54,12 @@ public class KafkaTopicMessageService {
                 Sort.by(Sort.Direction.DESC, "timestamp")
         );
 
+        Optional<IndexedMatches> indexed = searchIndexed(filter);
+        if (indexed.isPresent()) {
+            return indexed.get().page(pageRequest, messageRepository::findAllById, KafkaMessage::getId)
+                    .map(this::toMessageResponse);
+        }
+
         Page<KafkaMessage> messages = messageRepository.findByFilters(
                 filter.getTopicId(),
                 filter.getKey(),
@@ -55,6 +75,77 @@ public class KafkaTopicMessageService {
         return messages.map(this::toMessageResponse);
     }
 
+    /**
+     * Page suivant {@code filter.cursor} (timestamp DESC, id DESC) : coût constant quelle que soit la
+     * profondeur, sans COUNT sauf si {@code includeTotal} (total mis en cache quelques secondes).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MessageResponse> scrollMessages(MessageFilter filter) {
+        KeysetCursor cursor = KeysetCursor.decode(filter.getCursor());
+
+        Optional<IndexedMatches> indexed = searchIndexed(filter);
+        if (indexed.isPresent()) {
+            Slice<KafkaMessage> messages = indexed.get().after(cursor, filter.getSize(),
+                    messageRepository::findAllById, KafkaMessage::getId);
+            Long total = filter.isIncludeTotal() ? indexed.get().total() : null;
+            return CursorPage.of(messages, this::toMessageResponse,
+                    message -> new KeysetCursor(message.getTimestamp(), message.getId()), total);
+        }
+
+        Slice<KafkaMessage> messages = messageRepository.findByFiltersBefore(
+                filter.getTopicId(),
+                filter.getKey(),
+                filter.getValueContains(),
+                filter.getFromDate(),
+                filter.getToDate(),
+                filter.getDirection(),
+                filter.getStatus(),
+                filter.getPartition(),
+                cursor.timestamp(),
+                cursor.id(),
+                PageRequest.of(0, filter.getSize())
+        );
+
+        Long total = filter.isIncludeTotal() ? countMessages(filter) : null;
+        return CursorPage.of(messages, this::toMessageResponse,
+                message -> new KeysetCursor(message.getTimestamp(), message.getId()), total);
+    }
+
+    /**
+     * {@code valueContains} via l'index plein texte : les candidats sont revérifiés avec tous les
+     * filtres en base. Vide = index indisponible ou requête non sélective, on garde le {@code LIKE}.
+     */
+    private Optional<IndexedMatches> searchIndexed(MessageFilter filter) {
+        return searchIndex.candidates(SearchIndexService.Scope.MESSAGES, filter.getValueContains())
+                .map(candidates -> IndexedMatches.of(SearchIndexService.verifyInChunks(candidates,
+                        ids -> messageRepository.findMatchingIds(
+                                filter.getTopicId(),
+                                filter.getKey(),
+                                filter.getValueContains(),
+                                filter.getFromDate(),
+                                filter.getToDate(),
+                                filter.getDirection(),
+                                filter.getStatus(),
+                                filter.getPartition(),
+                                ids
+                        ))));
+    }
+
+    private long countMessages(MessageFilter filter) {
+        Object[] key = {filter.getTopicId(), filter.getKey(), filter.getValueContains(), filter.getFromDate(),
+                filter.getToDate(), filter.getDirection(), filter.getStatus(), filter.getPartition()};
+        return countCache.get("messages", key, () -> messageRepository.countByFilters(
+                filter.getTopicId(),
+                filter.getKey(),
+                filter.getValueContains(),
+                filter.getFromDate(),
+                filter.getToDate(),
+                filter.getDirection(),
+                filter.getStatus(),
+                filter.getPartition()
+        ));
+    }
+
     @Transactional(readOnly = true)
     public List<MessageResponse> getRecentMessages(Long topicId) {
         return messageRepository.findTop100ByTopicIdOrderByTimestampDesc(topicId).stream()
@@ -70,11 +161,16 @@ public class KafkaTopicMessageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Persiste un message reçu. {@code classification} peut être calculée en amont pour être
+     * chronométrée à part ; {@code null} = détection au {@code @PrePersist}.
+     */
     @Transactional
     public MessageResponse saveMessage(Long topicId, KafkaMessage.MessageDirection direction,
                                        String key, String value, Integer partition, Long offset,
-                                       Map<String, String> headers) {
-        KafkaTopic topic = topicRepository.findById(topicId)
+                                       Map<String, String> headers, KafkaMessage.Classification classification) {
+        // Métadonnées depuis le cache : pas de SELECT du topic à chaque message
+        TopicMetadataCache.CachedTopic topic = topicMetadataCache.get(topicId)
                 .orElseThrow(() -> new ResourceNotFoundException("Topic", topicId));
 
         String headersJson = null;
@@ -86,8 +182,9 @@ public class KafkaTopicMessageService {
             }
         }
 
+        LocalDateTime now = LocalDateTime.now();
         KafkaMessage message = KafkaMessage.builder()
-                .topic(topic)
+                .topic(topicRepository.getReferenceById(topicId))
                 .direction(direction)
                 .key(key)
                 .value(value)
@@ -95,17 +192,35 @@ public class KafkaTopicMessageService {
                 .offset(offset)
                 .headers(headersJson)
                 .status(KafkaMessage.MessageStatus.RECEIVED)
-                .timestamp(LocalDateTime.now())
+                .timestamp(now)
+                .valueSize(value != null ? value.length() : 0)
                 .build();
+        if (classification != null) {
+            message.applyClassification(classification);
+        }
 
-        topic.setMessageCount(topic.getMessageCount() + 1);
-        topic.setLastMessageAt(LocalDateTime.now());
-        topicRepository.save(topic);
-
-        return toMessageResponse(messageRepository.save(message));
+        // Incrément atomique en base (sans relire ni réécrire la ligne du topic)
+        topicRepository.incrementMessageCount(topicId, 1, now);
+
+        KafkaMessage saved = messageRepository.save(message);
+        // États mémoire mis à jour après commit : un rollback n'y laisse pas de message fantôme
+        TransactionHooks.afterCommit(() -> {
+            topicMetadataCache.recordMessages(topicId, 1, now);
+            searchIndex.indexMessage(saved.getId(), key, value);
+            // Type détecté au @PrePersist : stats horaires tenues à jour sans relire les messages
+            statsAccumulator.record(topicId, topic.connectionId(), now, saved.getMessageType(), saved.getValueSize(),
+                    key, partition);
+            hotStorage.recordIngest(topicId, saved.getValueSize());
+        });
+
+        return toMessageResponse(saved, topic.name());
     }
 
     private MessageResponse toMessageResponse(KafkaMessage message) {
+        return toMessageResponse(message, message.getTopic().getName());
+    }
+
+    private MessageResponse toMessageResponse(KafkaMessage message, String topicName) {
         Map<String, String> headers = null;
         if (message.getHeaders() != null) {
             try {
@@ -117,7 +232,7 @@ public class KafkaTopicMessageService {
 
         return MessageResponse.builder()
                 .id(message.getId())
-                .topicName(message.getTopic().getName())
+                .topicName(topicName)
                 .key(message.getKey())
                 .value(message.getValue())
                 .partition(message.getPartition())
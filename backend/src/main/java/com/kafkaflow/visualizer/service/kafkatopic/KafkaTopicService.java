@@ -12,6 +12,7 @@ import com.kafkaflow.visualizer.service.KafkaConnectionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +29,8 @@ public class KafkaTopicService {
     private final KafkaConnectionRepository connectionRepository;
     private final KafkaMessageRepository messageRepository;
     private final KafkaConnectionService connectionService;
+    private final TopicMetadataCache topicMetadataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ═══════════════════════════════════════════════════════════════════════
     // CRUD
@@ -60,12 +63,16 @@ public class KafkaTopicService {
         }
         topic.setMonitored(request.isMonitored());
 
+        topicMetadataCache.invalidate(id);
         return toTopicResponse(topicRepository.save(topic));
     }
 
     @Transactional
     public void deleteTopic(Long id) {
+        messageRepository.deleteByTopicId(id);
         topicRepository.deleteById(id);
+        topicMetadataCache.invalidate(id);
+        eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(id));
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -77,6 +84,7 @@ public class KafkaTopicService {
         KafkaConnection connection = connectionRepository.findById(connectionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Connection", connectionId));
 
+        boolean added = false;
         for (String topicName : discoveredTopics) {
             if (!topicRepository.existsByConnectionIdAndName(connectionId, topicName)) {
                 KafkaTopic topic = KafkaTopic.builder()
@@ -86,9 +94,14 @@ public class KafkaTopicService {
                         .messageCount(0L)
                         .build();
                 topicRepository.save(topic);
+                added = true;
             }
         }
 
+        topicMetadataCache.invalidateConnection(connectionId);
+        if (added) {
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.added());
+        }
         return getTopicsByConnection(connectionId);
     }
 
@@ -140,7 +153,9 @@ public class KafkaTopicService {
                     .messageCount(0L)
                     .build();
 
-            return toTopicResponse(topicRepository.save(topic));
+            TopicResponse created = toTopicResponse(topicRepository.save(topic));
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.added());
+            return created;
 
         } catch (Exception e) {
             log.error("Failed to create topic in Kafka: {}", request.getName(), e);
@@ -165,6 +180,8 @@ public class KafkaTopicService {
 
             messageRepository.deleteByTopicId(topicId);
             topicRepository.delete(topic);
+            topicMetadataCache.invalidate(topicId);
+            eventPublisher.publishEvent(TopicCatalogChangedEvent.deleted(topicId));
 
             log.info("Topic deleted from database: {}", topic.getName());
 
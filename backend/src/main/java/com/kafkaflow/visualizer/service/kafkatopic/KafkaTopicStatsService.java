@@ -6,12 +6,20 @@ import com.kafkaflow.visualizer.model.KafkaMessage;
 import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker.HotKeys;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge.Bottleneck;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge.ClientMetrics;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,6 +29,30 @@ public class KafkaTopicStatsService {
 
     private final KafkaTopicRepository topicRepository;
     private final KafkaMessageRepository messageRepository;
+    private final HotKeyTracker hotKeyTracker;
+    private final KafkaClientMetricsBridge clientMetricsBridge;
+    private final MetricsTimeSeriesStore timeSeriesStore;
+
+    /**
+     * Top-K des clés sur une fenêtre glissante (1m, 1h, 24h), calculé en streaming sans GROUP BY.
+     */
+    public HotKeys getHotKeys(Long topicId, String window) {
+        if (!topicRepository.existsById(topicId)) {
+            throw new ResourceNotFoundException("Topic", topicId);
+        }
+        return hotKeyTracker.getHotKeys(topicId, HotKeyTracker.Window.fromLabel(window));
+    }
+
+    /**
+     * Dernières métriques du client Kafka du topic (vides si aucun consumer actif).
+     */
+    public ClientMetrics getClientMetrics(Long topicId) {
+        if (!topicRepository.existsById(topicId)) {
+            throw new ResourceNotFoundException("Topic", topicId);
+        }
+        return clientMetricsBridge.getMetrics(topicId)
+                .orElseGet(() -> new ClientMetrics(topicId, Map.of(), Bottleneck.UNKNOWN, null));
+    }
 
     @Transactional(readOnly = true)
     public TopicLiveStatsResponse getLiveStats(Long topicId) {
@@ -33,9 +65,9 @@ public class KafkaTopicStatsService {
         LocalDateTime lastMinute = now.minusMinutes(1);
 
         long totalMessages = messageRepository.countByTopicId(topicId);
-        long messagesLast24h = messageRepository.countByTopicIdAndTimestampAfter(topicId, last24h);
-        long messagesLastHour = messageRepository.countByTopicIdAndTimestampAfter(topicId, lastHour);
-        long messagesLastMinute = messageRepository.countByTopicIdAndTimestampAfter(topicId, lastMinute);
+        long messagesLast24h = messagesSince(topicId, Duration.ofHours(24), last24h);
+        long messagesLastHour = messagesSince(topicId, Duration.ofHours(1), lastHour);
+        long messagesLastMinute = messagesSince(topicId, Duration.ofMinutes(1), lastMinute);
 
         long errorCount = messageRepository.countByTopicIdAndMessageTypeAndTimestampAfter(
                 topicId, KafkaMessage.MessageType.ERROR, last24h);
@@ -63,6 +95,15 @@ public class KafkaTopicStatsService {
                 .build();
     }
 
+    /**
+     * Compte lu dans la série temporelle du topic ; {@code COUNT} sur kafka_messages tant que la
+     * série ne couvre pas la fenêtre (démarrage récent sans checkpoint).
+     */
+    private long messagesSince(Long topicId, Duration window, LocalDateTime since) {
+        return timeSeriesStore.messagesSince(topicId, window)
+                .orElseGet(() -> messageRepository.countByTopicIdAndTimestampAfter(topicId, since));
+    }
+
     private String formatBytes(long bytes) {
         if (bytes < 1024) return bytes + " B";
         int exp = (int) (Math.log(bytes) / Math.log(1024));
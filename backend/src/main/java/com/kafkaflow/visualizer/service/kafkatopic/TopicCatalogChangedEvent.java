@@ -0,0 +1,27 @@
+package com.kafkaflow.visualizer.service.kafkatopic;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Publié par toute opération qui ajoute ou supprime des topics en base. Les états en mémoire indexés
+ * par topic (séries temporelles, meters, graphe de flux) l'écoutent après commit
+ * ({@code @TransactionalEventListener}) plutôt que d'être appelés un à un depuis chaque chemin de
+ * suppression.
+ *
+ * @param deletedTopicIds topics supprimés (vide pour un ajout)
+ */
+public record TopicCatalogChangedEvent(Set<Long> deletedTopicIds) {
+
+    public static TopicCatalogChangedEvent added() {
+        return new TopicCatalogChangedEvent(Set.of());
+    }
+
+    public static TopicCatalogChangedEvent deleted(Collection<Long> topicIds) {
+        return new TopicCatalogChangedEvent(Set.copyOf(topicIds));
+    }
+
+    public static TopicCatalogChangedEvent deleted(Long topicId) {
+        return new TopicCatalogChangedEvent(Set.of(topicId));
+    }
+}
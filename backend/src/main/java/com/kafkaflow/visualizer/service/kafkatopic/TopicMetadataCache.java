@@ -0,0 +1,196 @@
+package com.kafkaflow.visualizer.service.kafkatopic;
+
+import com.kafkaflow.visualizer.model.KafkaConnection;
+import com.kafkaflow.visualizer.model.KafkaTopic;
+import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache mémoire des métadonnées topic/connexion pour les chemins chauds (ingestion et broadcasts).
+ * <p>
+ * Le compteur de messages est chargé une fois depuis la base puis incrémenté à l'ingestion :
+ * les broadcasts n'ont plus besoin de relire la ligne du topic à chaque batch.
+ * Toute écriture sur un topic (update, delete, sync, reset) doit appeler {@link #invalidate(Long)}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TopicMetadataCache {
+
+    private final KafkaTopicRepository topicRepository;
+
+    private final Map<Long, CachedTopic> topics = new ConcurrentHashMap<>();
+
+    /** Incrémentée à chaque invalidation : un chargement qui la voit changer ne met pas en cache. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LECTURE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public Optional<CachedTopic> get(Long topicId) {
+        if (topicId == null) return Optional.empty();
+
+        CachedTopic cached = topics.get(topicId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        Optional<CachedTopic> loaded = topicRepository.findByIdWithConnection(topicId).map(CachedTopic::of);
+        if (loaded.isEmpty() || generation.get() != loadGeneration) {
+            // Invalidé pendant le chargement : la ligne lue est peut-être antérieure au commit
+            return loaded;
+        }
+        CachedTopic topic = loaded.get();
+        CachedTopic existing = topics.putIfAbsent(topicId, topic);
+        if (existing == null && generation.get() != loadGeneration) {
+            // Invalidation passée entre la vérification et l'insertion : l'entrée ne doit pas survivre
+            topics.remove(topicId, topic);
+        }
+        return Optional.of(existing != null ? existing : topic);
+    }
+
+    /**
+     * Reporte les messages ingérés sur l'entrée en cache (si présente) sans relire la base.
+     */
+    public void recordMessages(Long topicId, long count, LocalDateTime at) {
+        CachedTopic cached = topics.get(topicId);
+        if (cached != null) {
+            cached.messageCount.addAndGet(count);
+            cached.lastMessageAt = at;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // INVALIDATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void invalidate(Long topicId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            if (topics.remove(topicId) != null) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    public void invalidateConnection(Long connectionId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            topics.values().removeIf(topic -> {
+                boolean match = Objects.equals(topic.connectionId(), connectionId);
+                if (match) invalidations.increment();
+                return match;
+            });
+        });
+    }
+
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            invalidations.add(topics.size());
+            topics.clear();
+        });
+    }
+
+    /**
+     * Invalide après commit : un rechargement concurrent ne doit pas remettre en cache l'ancienne ligne.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STATS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public CacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        double hitRate = total == 0 ? 0.0 : Math.round(hitCount * 10000.0 / total) / 100.0;
+        return new CacheStats(topics.size(), hitCount, missCount, invalidations.sum(), hitRate);
+    }
+
+    public record CacheStats(
+            int size,
+            long hits,
+            long misses,
+            long invalidations,
+            double hitRatePercent
+    ) {}
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENTRÉE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public static final class CachedTopic {
+        private final Long id;
+        private final String name;
+        private final Long connectionId;
+        private final String connectionName;
+        private final String color;
+        private final AtomicLong messageCount;
+        private volatile LocalDateTime lastMessageAt;
+
+        private CachedTopic(Long id, String name, Long connectionId, String connectionName, String color,
+                            long messageCount, LocalDateTime lastMessageAt) {
+            this.id = id;
+            this.name = name;
+            this.connectionId = connectionId;
+            this.connectionName = connectionName;
+            this.color = color;
+            this.messageCount = new AtomicLong(messageCount);
+            this.lastMessageAt = lastMessageAt;
+        }
+
+        static CachedTopic of(KafkaTopic topic) {
+            KafkaConnection connection = topic.getConnection();
+            return new CachedTopic(
+                    topic.getId(),
+                    topic.getName(),
+                    connection != null ? connection.getId() : null,
+                    connection != null ? connection.getName() : null,
+                    topic.getColor(),
+                    Optional.ofNullable(topic.getMessageCount()).orElse(0L),
+                    topic.getLastMessageAt()
+            );
+        }
+
+        public Long id() { return id; }
+        public String name() { return name; }
+        public Long connectionId() { return connectionId; }
+        public String connectionName() { return connectionName; }
+        public String color() { return color; }
+        public long messageCount() { return messageCount.get(); }
+        public LocalDateTime lastMessageAt() { return lastMessageAt; }
+    }
+}
@@ -0,0 +1,270 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.dto.KafkaDto.AnomalyResponse;
+import com.kafkaflow.visualizer.model.TopicAnomaly;
+import com.kafkaflow.visualizer.model.TopicAnomaly.Direction;
+import com.kafkaflow.visualizer.model.TopicAnomaly.Metric;
+import com.kafkaflow.visualizer.repository.TopicAnomalyRepository;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache.CachedTopic;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Détection d'anomalies en streaming sur le débit et les erreurs de chaque topic.
+ * <p>
+ * Une fois par seconde, la dernière seconde complète de {@link ThroughputTracker} et le nombre de
+ * messages classés {@code ERROR} sont comparés à une baseline EWMA (moyenne + variance
+ * exponentielles). Un z-score au-delà du seuil, avec un écart absolu minimal, produit une
+ * {@link TopicAnomaly} persistée puis diffusée. L'état est de quelques doubles par topic : aucune
+ * requête base hors des anomalies elles-mêmes.
+ */
+@Component
+@Slf4j
+public class AnomalyDetector {
+
+    /** Paramètres de détection ({@code app.metrics.anomaly.*}). */
+    record Settings(double alpha, double zThreshold, int warmupSeconds, int cooldownSeconds,
+                    double minThroughputDeviation, double minErrorDeviation) {}
+
+    private static final int ERROR_SLOTS = 4;
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STATE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private final Map<Long, TopicBaseline> baselines = new ConcurrentHashMap<>();
+
+    private final Settings settings;
+
+    private final int retentionDays;
+
+    private final ThroughputTracker throughputTracker;
+
+    private final TopicMetadataCache topicMetadataCache;
+
+    private final TopicAnomalyRepository anomalyRepository;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public AnomalyDetector(
+            ThroughputTracker throughputTracker,
+            TopicMetadataCache topicMetadataCache,
+            TopicAnomalyRepository anomalyRepository,
+            @Value("${app.metrics.anomaly.alpha:0.05}") double alpha,
+            @Value("${app.metrics.anomaly.z-threshold:4.0}") double zThreshold,
+            @Value("${app.metrics.anomaly.warmup-seconds:60}") int warmupSeconds,
+            @Value("${app.metrics.anomaly.cooldown-seconds:60}") int cooldownSeconds,
+            @Value("${app.metrics.anomaly.min-throughput-deviation:10}") double minThroughputDeviation,
+            @Value("${app.metrics.anomaly.min-error-deviation:5}") double minErrorDeviation,
+            @Value("${app.metrics.anomaly.retention-days:30}") int retentionDays) {
+        this(new Settings(alpha, zThreshold, warmupSeconds, cooldownSeconds, minThroughputDeviation, minErrorDeviation),
+                retentionDays, throughputTracker, topicMetadataCache, anomalyRepository, System::currentTimeMillis);
+    }
+
+    /** Horloge injectable (epoch millis) pour les tests. */
+    AnomalyDetector(Settings settings, int retentionDays, ThroughputTracker throughputTracker,
+                    TopicMetadataCache topicMetadataCache, TopicAnomalyRepository anomalyRepository,
+                    LongSupplier clock) {
+        if (!(settings.alpha() > 0 && settings.alpha() < 1)) {
+            throw new IllegalArgumentException("EWMA alpha must be in ]0, 1[: " + settings.alpha());
+        }
+        this.settings = settings;
+        this.retentionDays = retentionDays;
+        this.throughputTracker = throughputTracker;
+        this.topicMetadataCache = topicMetadataCache;
+        this.anomalyRepository = anomalyRepository;
+        this.clock = clock;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENREGISTREMENT / ÉVALUATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Messages classés {@code ERROR} dans un batch (appelé par le thread consumer). */
+    public void recordErrors(Long topicId, int count) {
+        if (count <= 0) return;
+        baselines.computeIfAbsent(topicId, id -> new TopicBaseline())
+                .recordErrors(clock.getAsLong() / 1000, count);
+    }
+
+    /**
+     * Évalue la dernière seconde complète de chaque topic suivi (appelé chaque seconde).
+     * Retourne les anomalies détectées, déjà persistées.
+     */
+    public List<AnomalyResponse> evaluate() {
+        long second = clock.getAsLong() / 1000 - 1;
+        List<TopicAnomaly> detected = new ArrayList<>();
+
+        for (Long topicId : throughputTracker.getTrackedTopicIds()) {
+            TopicBaseline baseline = baselines.computeIfAbsent(topicId, id -> new TopicBaseline());
+            baseline.evaluate(topicId, second, throughputTracker.getCountAtSecond(topicId, second), detected);
+        }
+
+        if (detected.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            anomalyRepository.saveAll(detected);
+        } catch (Exception e) {
+            log.warn("Failed to persist {} anomalies: {}", detected.size(), e.getMessage());
+        }
+        detected.forEach(anomaly -> log.info("Anomaly on topic {}: {} {} (observed {}, expected {}, z={})",
+                anomaly.getTopicName(), anomaly.getMetric(), anomaly.getDirection(),
+                anomaly.getObserved(), anomaly.getExpected(), anomaly.getZScore()));
+        return detected.stream().map(this::toResponse).toList();
+    }
+
+    public void unregister(Long topicId) {
+        baselines.remove(topicId);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HISTORIQUE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public List<AnomalyResponse> getRecentAnomalies(Long topicId, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 500)));
+        List<TopicAnomaly> anomalies = topicId != null
+                ? anomalyRepository.findByTopicIdOrderByDetectedAtDesc(topicId, page)
+                : anomalyRepository.findAllByOrderByDetectedAtDesc(page);
+        return anomalies.stream().map(this::toResponse).toList();
+    }
+
+    @Transactional
+    public int purgeExpired() {
+        int deleted = anomalyRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} anomalies older than {} days", deleted, retentionDays);
+        }
+        return deleted;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private AnomalyResponse toResponse(TopicAnomaly anomaly) {
+        return AnomalyResponse.builder()
+                .id(anomaly.getId())
+                .topicId(anomaly.getTopicId())
+                .topicName(anomaly.getTopicName())
+                .metric(anomaly.getMetric().name())
+                .direction(anomaly.getDirection().name())
+                .observed(anomaly.getObserved())
+                .expected(anomaly.getExpected())
+                .stdDev(anomaly.getStdDev())
+                .zScore(anomaly.getZScore())
+                .detectedAt(anomaly.getDetectedAt())
+                .build();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STRUCTURES INTERNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Baselines débit / erreurs d'un topic et compteurs d'erreurs des dernières secondes. */
+    private final class TopicBaseline {
+
+        private final Ewma throughput = new Ewma();
+        private final Ewma errors = new Ewma();
+        private final long[] errorCounts = new long[ERROR_SLOTS];
+        private final long[] errorEpochs = new long[ERROR_SLOTS];
+        private long lastEvaluated = Long.MIN_VALUE;
+
+        TopicBaseline() {
+            Arrays.fill(errorEpochs, Long.MIN_VALUE);
+        }
+
+        synchronized void recordErrors(long nowSecond, int count) {
+            int slot = (int) Math.floorMod(nowSecond, (long) ERROR_SLOTS);
+            if (errorEpochs[slot] != nowSecond) {
+                errorEpochs[slot] = nowSecond;
+                errorCounts[slot] = 0;
+            }
+            errorCounts[slot] += count;
+        }
+
+        synchronized void evaluate(Long topicId, long second, long messages, List<TopicAnomaly> detected) {
+            if (second <= lastEvaluated) return;
+            lastEvaluated = second;
+
+            int slot = (int) Math.floorMod(second, (long) ERROR_SLOTS);
+            long errorCount = errorEpochs[slot] == second ? errorCounts[slot] : 0;
+
+            check(topicId, Metric.THROUGHPUT, throughput, messages, second,
+                    settings.minThroughputDeviation(), true, detected);
+            // Une chute des erreurs n'est pas une anomalie
+            check(topicId, Metric.ERROR_RATE, errors, errorCount, second,
+                    settings.minErrorDeviation(), false, detected);
+        }
+
+        private void check(Long topicId, Metric metric, Ewma ewma, double observed, long second,
+                           double minDeviation, boolean detectDrops, List<TopicAnomaly> detected) {
+            double expected = ewma.mean;
+            // Plancher de Poisson : un compteur de moyenne m fluctue naturellement de ~sqrt(m)
+            double stdDev = Math.max(Math.sqrt(ewma.variance), Math.max(Math.sqrt(expected), 1.0));
+            double deviation = observed - expected;
+            double z = deviation / stdDev;
+            boolean warm = ewma.samples >= settings.warmupSeconds();
+            ewma.update(observed, settings.alpha());
+
+            if (!warm || Math.abs(deviation) < minDeviation || Math.abs(z) < settings.zThreshold()) return;
+            if (z < 0 && !detectDrops) return;
+            if (second - ewma.lastAlertSecond < settings.cooldownSeconds()) return;
+            ewma.lastAlertSecond = second;
+
+            detected.add(TopicAnomaly.builder()
+                    .topicId(topicId)
+                    .topicName(topicMetadataCache.get(topicId).map(CachedTopic::name).orElse(null))
+                    .metric(metric)
+                    .direction(z > 0 ? Direction.SPIKE : Direction.DROP)
+                    .observed(observed)
+                    .expected(round(expected))
+                    .stdDev(round(stdDev))
+                    .zScore(round(z))
+                    .detectedAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()))
+                    .build());
+        }
+    }
+
+    /** Moyenne et variance exponentielles, mises à jour incrémentalement (West / Finch). */
+    private static final class Ewma {
+
+        private double mean;
+        private double variance;
+        private long samples;
+        private long lastAlertSecond = Long.MIN_VALUE / 2;
+
+        void update(double value, double alpha) {
+            if (samples++ == 0) {
+                mean = value;
+                return;
+            }
+            double diff = value - mean;
+            double increment = alpha * diff;
+            mean += increment;
+            variance = (1 - alpha) * (variance + diff * increment);
+        }
+    }
+}
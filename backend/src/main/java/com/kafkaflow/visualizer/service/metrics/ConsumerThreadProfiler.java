@@ -0,0 +1,159 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.dto.KafkaDto.ConsumerThreadStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * CPU et allocations mémoire de chaque thread consumer, via {@link com.sun.management.ThreadMXBean}.
+ * <p>
+ * {@link #sample()} (planifié par KafkaConsumerManager) relève les compteurs cumulés des threads
+ * et en déduit des taux sur l'intervalle écoulé : % d'un cœur et octets alloués par seconde.
+ * Les lectures ne coûtent qu'un appel JMX par thread, hors du chemin d'ingestion.
+ */
+@Component
+@Slf4j
+public class ConsumerThreadProfiler {
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    private final LongSupplier nanoClock;
+
+    private final boolean cpuSupported;
+
+    private final boolean allocationSupported;
+
+    private final Map<Long, ThreadSample> threads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConsumerThreadProfiler() {
+        this((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean(), System::nanoTime);
+    }
+
+    /** MXBean et horloge (nanos) injectables pour les tests. */
+    ConsumerThreadProfiler(com.sun.management.ThreadMXBean threadMXBean, LongSupplier nanoClock) {
+        this.threadMXBean = threadMXBean;
+        this.nanoClock = nanoClock;
+        this.cpuSupported = enableCpuTime(threadMXBean);
+        this.allocationSupported = enableAllocatedMemory(threadMXBean);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // THREADS SUIVIS (appelé par KafkaConsumerManager)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void register(Long topicId, String topicName, Thread thread) {
+        threads.put(topicId, new ThreadSample(topicName, thread));
+    }
+
+    public void unregister(Long topicId) {
+        threads.remove(topicId);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉCHANTILLONNAGE / REQUÊTES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void sample() {
+        long now = nanoClock.getAsLong();
+        threads.values().forEach(sample -> sample.update(now));
+    }
+
+    /** Threads triés du plus coûteux au moins coûteux (CPU, puis allocations). */
+    public List<ConsumerThreadStats> getTopConsumers(int limit) {
+        return threads.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted(Comparator.comparingDouble(ConsumerThreadStats::getCpuPercent)
+                        .thenComparingLong(ConsumerThreadStats::getAllocatedBytesPerSecond)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public List<ConsumerThreadStats> getAllConsumers() {
+        return getTopConsumers(Integer.MAX_VALUE);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static boolean enableCpuTime(com.sun.management.ThreadMXBean mxBean) {
+        if (!mxBean.isThreadCpuTimeSupported()) {
+            log.warn("Thread CPU time is not supported by this JVM: consumer CPU usage unavailable");
+            return false;
+        }
+        if (!mxBean.isThreadCpuTimeEnabled()) {
+            mxBean.setThreadCpuTimeEnabled(true);
+        }
+        return true;
+    }
+
+    private static boolean enableAllocatedMemory(com.sun.management.ThreadMXBean mxBean) {
+        if (!mxBean.isThreadAllocatedMemorySupported()) {
+            log.warn("Thread allocation accounting is not supported by this JVM: consumer allocation rate unavailable");
+            return false;
+        }
+        if (!mxBean.isThreadAllocatedMemoryEnabled()) {
+            mxBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return true;
+    }
+
+    /** Derniers compteurs cumulés d'un thread et taux calculés au dernier échantillon. */
+    private final class ThreadSample {
+
+        private final String topicName;
+        private final Thread thread;
+        private long sampledAt = -1;
+        private long cpuNanos = -1;
+        private long allocatedBytes = -1;
+        private double cpuPercent;
+        private long allocatedBytesPerSecond;
+
+        ThreadSample(String topicName, Thread thread) {
+            this.topicName = topicName;
+            this.thread = thread;
+        }
+
+        synchronized void update(long now) {
+            long threadId = thread.threadId();
+            long cpu = cpuSupported ? threadMXBean.getThreadCpuTime(threadId) : -1;
+            long allocated = allocationSupported ? threadMXBean.getThreadAllocatedBytes(threadId) : -1;
+
+            // Thread terminé : l'MXBean retourne -1, on garde les derniers cumuls connus
+            if (sampledAt >= 0 && now > sampledAt) {
+                double elapsedNanos = now - sampledAt;
+                cpuPercent = cpu >= 0 && cpuNanos >= 0
+                        ? Math.round(Math.max(0, cpu - cpuNanos) * 10000.0 / elapsedNanos) / 100.0 : 0;
+                allocatedBytesPerSecond = allocated >= 0 && allocatedBytes >= 0
+                        ? Math.round(Math.max(0, allocated - allocatedBytes) * 1e9 / elapsedNanos) : 0;
+            }
+
+            sampledAt = now;
+            if (cpu >= 0) cpuNanos = cpu;
+            if (allocated >= 0) allocatedBytes = allocated;
+        }
+
+        synchronized ConsumerThreadStats toStats(Long topicId) {
+            return ConsumerThreadStats.builder()
+                    .topicId(topicId)
+                    .topicName(topicName)
+                    .threadName(thread.getName())
+                    .threadState(thread.getState().name())
+                    .cpuPercent(cpuSupported ? cpuPercent : -1)
+                    .allocatedBytesPerSecond(allocationSupported ? allocatedBytesPerSecond : -1)
+                    .cpuTimeMs(cpuNanos >= 0 ? cpuNanos / 1_000_000 : -1)
+                    .allocatedBytes(allocatedBytes)
+                    .build();
+        }
+    }
+}
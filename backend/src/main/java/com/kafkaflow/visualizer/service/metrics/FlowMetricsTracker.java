@@ -0,0 +1,139 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.dto.FlowDto.FlowNodeMetrics;
+import com.kafkaflow.visualizer.service.FlowDiagramService.LiveBinding;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * État des deltas de flows live : index topic → flows, flows "dirty" et dernières métriques envoyées.
+ * <p>
+ * Les consumers ne font que marquer les flows concernés ; le flush périodique calcule les métriques
+ * une seule fois par flow et par intervalle, et n'émet que les nodes qui ont changé.
+ */
+@Component
+public class FlowMetricsTracker {
+
+    private volatile Map<Long, LiveBinding> bindings;
+    private volatile Map<Long, Set<Long>> flowsByTopic = Map.of();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Set<Long> dirtyFlows = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Map<String, FlowNodeMetrics>> lastSent = new ConcurrentHashMap<>();
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // BINDINGS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public boolean isLoaded() {
+        return bindings != null;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Installe les bindings chargés, sauf si une invalidation est survenue pendant le chargement.
+     */
+    public synchronized void load(List<LiveBinding> liveBindings, long expectedGeneration) {
+        if (generation.get() != expectedGeneration) return;
+
+        Map<Long, LiveBinding> byFlow = new HashMap<>();
+        Map<Long, Set<Long>> byTopic = new HashMap<>();
+        for (LiveBinding binding : liveBindings) {
+            byFlow.put(binding.flowId(), binding);
+            binding.topicNodes().values().forEach(topicId ->
+                    byTopic.computeIfAbsent(topicId, id -> new HashSet<>()).add(binding.flowId()));
+        }
+
+        lastSent.keySet().retainAll(byFlow.keySet());
+        dirtyFlows.retainAll(byFlow.keySet());
+        this.flowsByTopic = byTopic;
+        this.bindings = byFlow;
+    }
+
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        bindings = null;
+    }
+
+    /** Un topic créé, synchronisé ou supprimé change la résolution des nodes topic des flows. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopicCatalogChanged(TopicCatalogChangedEvent event) {
+        invalidate();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // DIRTY TRACKING
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void markTopicActivity(Long topicId) {
+        Set<Long> flowIds = flowsByTopic.get(topicId);
+        if (flowIds != null) {
+            dirtyFlows.addAll(flowIds);
+        }
+    }
+
+    public void markAllDirty() {
+        Map<Long, LiveBinding> current = bindings;
+        if (current != null) {
+            dirtyFlows.addAll(current.keySet());
+        }
+    }
+
+    /**
+     * Retire et retourne les flows à recalculer lors de ce flush.
+     */
+    public List<LiveBinding> drainDirty() {
+        Map<Long, LiveBinding> current = bindings;
+        if (current == null || dirtyFlows.isEmpty()) return List.of();
+
+        List<LiveBinding> drained = new ArrayList<>();
+        for (Long flowId : List.copyOf(dirtyFlows)) {
+            dirtyFlows.remove(flowId);
+            LiveBinding binding = current.get(flowId);
+            if (binding != null) {
+                drained.add(binding);
+            }
+        }
+        return drained;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // DIFF
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Retourne les nodes dont les métriques diffèrent du dernier envoi et mémorise l'état courant.
+     * Un flow dont un topic a encore du débit reste dirty pour que le throughput redescende à 0.
+     */
+    public List<FlowNodeMetrics> diff(Long flowId, List<FlowNodeMetrics> current) {
+        Map<String, FlowNodeMetrics> previous = lastSent.computeIfAbsent(flowId, id -> new ConcurrentHashMap<>());
+        List<FlowNodeMetrics> changed = new ArrayList<>();
+        boolean stillActive = false;
+
+        for (FlowNodeMetrics node : current) {
+            if (!node.equals(previous.get(node.getNodeId()))) {
+                changed.add(node);
+                previous.put(node.getNodeId(), node);
+            }
+            stillActive |= node.getThroughput() != null && node.getThroughput() > 0;
+        }
+
+        if (stillActive) {
+            dirtyFlows.add(flowId);
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,218 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import com.kafkaflow.visualizer.exception.ErrorCode;
+import com.kafkaflow.visualizer.util.CountMinSketch;
+import com.kafkaflow.visualizer.util.HyperLogLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Détection des clés chaudes (heavy hitters) par topic, en streaming.
+ * <p>
+ * Chaque fenêtre glissante (1 min, 1 h, 24 h) est un ring de slots ; un slot contient un
+ * Count-Min Sketch et un min-heap des {@code 2 * topK} meilleures clés candidates. La mémoire par
+ * topic est fixe ({@link #memoryBytesPerTopic()}) quel que soit le nombre de clés distinctes.
+ */
+@Component
+public class HotKeyTracker {
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // FENÊTRES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public enum Window {
+        ONE_MINUTE("1m", 10, 6),
+        ONE_HOUR("1h", 600, 6),
+        ONE_DAY("24h", 3 * 3600, 8);
+
+        private final String label;
+        private final long slotSeconds;
+        private final int slots;
+
+        Window(String label, long slotSeconds, int slots) {
+            this.label = label;
+            this.slotSeconds = slotSeconds;
+            this.slots = slots;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) return window;
+            }
+            throw new AppException(ErrorCode.INVALID_ARGUMENT,
+                    "Unknown hot key window: " + label + " (expected 1m, 1h or 24h)");
+        }
+    }
+
+    public record HotKey(String key, long estimatedCount, double sharePercent) {}
+
+    public record HotKeys(Long topicId, String window, long totalMessages, List<HotKey> keys) {}
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STATE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private final Map<Long, TopicHotKeys> topics = new ConcurrentHashMap<>();
+
+    private final int topK;
+
+    private final int sketchWidth;
+
+    private final int sketchDepth;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public HotKeyTracker(
+            @Value("${app.metrics.hot-keys.top-k:10}") int topK,
+            @Value("${app.metrics.hot-keys.sketch-width:512}") int sketchWidth,
+            @Value("${app.metrics.hot-keys.sketch-depth:4}") int sketchDepth) {
+        this(topK, sketchWidth, sketchDepth, System::currentTimeMillis);
+    }
+
+    /** Horloge injectable (epoch millis) pour les tests. */
+    HotKeyTracker(int topK, int sketchWidth, int sketchDepth, LongSupplier clock) {
+        new CountMinSketch(sketchWidth, sketchDepth);
+        this.topK = topK;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.clock = clock;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENREGISTREMENT / REQUÊTES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Les messages sans clé ne sont pas suivis. */
+    public void record(Long topicId, String key) {
+        if (key == null) return;
+
+        long hash = HyperLogLog.hash(key.getBytes(StandardCharsets.UTF_8));
+        topics.computeIfAbsent(topicId, id -> new TopicHotKeys())
+                .record(key, hash, clock.getAsLong() / 1000);
+    }
+
+    public HotKeys getHotKeys(Long topicId, Window window) {
+        TopicHotKeys hotKeys = topics.get(topicId);
+        if (hotKeys == null) {
+            return new HotKeys(topicId, window.label, 0, List.of());
+        }
+        return hotKeys.top(topicId, window, clock.getAsLong() / 1000);
+    }
+
+    public void unregister(Long topicId) {
+        topics.remove(topicId);
+    }
+
+    public long memoryBytesPerTopic() {
+        int slots = Arrays.stream(Window.values()).mapToInt(w -> w.slots).sum();
+        return (long) slots * sketchWidth * sketchDepth * Integer.BYTES;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STRUCTURES INTERNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private final class TopicHotKeys {
+
+        private final Map<Window, Slot[]> rings = new EnumMap<>(Window.class);
+
+        TopicHotKeys() {
+            for (Window window : Window.values()) {
+                rings.put(window, new Slot[window.slots]);
+            }
+        }
+
+        synchronized void record(String key, long hash, long nowSecond) {
+            for (Window window : Window.values()) {
+                long epoch = Math.floorDiv(nowSecond, window.slotSeconds);
+                Slot[] ring = rings.get(window);
+                int index = (int) Math.floorMod(epoch, (long) ring.length);
+                if (ring[index] == null) {
+                    ring[index] = new Slot(new CountMinSketch(sketchWidth, sketchDepth), 2 * topK);
+                }
+                ring[index].record(key, hash, epoch);
+            }
+        }
+
+        synchronized HotKeys top(Long topicId, Window window, long nowSecond) {
+            long currentEpoch = Math.floorDiv(nowSecond, window.slotSeconds);
+            List<Slot> live = new ArrayList<>();
+            for (Slot slot : rings.get(window)) {
+                if (slot != null && slot.epoch > currentEpoch - window.slots && slot.epoch <= currentEpoch) {
+                    live.add(slot);
+                }
+            }
+
+            long total = live.stream().mapToLong(slot -> slot.total).sum();
+            Set<String> candidates = new HashSet<>();
+            live.forEach(slot -> candidates.addAll(slot.candidates.keySet()));
+
+            List<HotKey> keys = candidates.stream()
+                    .map(key -> {
+                        long hash = HyperLogLog.hash(key.getBytes(StandardCharsets.UTF_8));
+                        long count = live.stream().mapToLong(slot -> slot.sketch.estimate(hash)).sum();
+                        return new HotKey(key, count, total > 0 ? Math.round(count * 10000.0 / total) / 100.0 : 0);
+                    })
+                    .sorted(Comparator.comparingLong(HotKey::estimatedCount).reversed().thenComparing(HotKey::key))
+                    .limit(topK)
+                    .toList();
+
+            return new HotKeys(topicId, window.label, total, keys);
+        }
+    }
+
+    /** Un intervalle de temps : sketch des fréquences + min-heap des clés candidates. */
+    private static final class Slot {
+
+        private final CountMinSketch sketch;
+        private final int capacity;
+        private final Map<String, Long> candidates = new HashMap<>();
+        private final PriorityQueue<String> heap;
+        private long epoch = Long.MIN_VALUE;
+        private long total;
+
+        Slot(CountMinSketch sketch, int capacity) {
+            this.sketch = sketch;
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity, Comparator.comparingLong(candidates::get));
+        }
+
+        void record(String key, long hash, long currentEpoch) {
+            if (epoch != currentEpoch) {
+                epoch = currentEpoch;
+                total = 0;
+                sketch.clear();
+                heap.clear();
+                candidates.clear();
+            }
+
+            total++;
+            long estimate = sketch.add(hash, 1);
+
+            if (candidates.containsKey(key)) {
+                heap.remove(key);
+                candidates.put(key, estimate);
+                heap.offer(key);
+            } else if (candidates.size() < capacity) {
+                candidates.put(key, estimate);
+                heap.offer(key);
+            } else if (estimate > candidates.get(heap.peek())) {
+                candidates.remove(heap.poll());
+                candidates.put(key, estimate);
+                heap.offer(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pont entre les métriques internes des {@code KafkaConsumer} et l'application.
+ * <p>
+ * KafkaConsumerManager appelle {@link #harvest} périodiquement avec {@code consumer.metrics()} de
+ * chaque ConsumerTask ; un sous-ensemble choisi (latence de fetch, débit, lag, commit, temps passé
+ * en poll) est conservé par topic, exposé en REST/WebSocket et sous forme de gauges Micrometer
+ * {@code yucast.kafka.consumer.*}.
+ * <p>
+ * Lecture : un {@code poll-idle-ratio-avg} élevé avec du lag signifie que le consumer attend le
+ * broker ; un ratio bas signifie que le temps part dans notre traitement (persistance, diffusion).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KafkaClientMetricsBridge {
+
+    /** Métriques retenues (niveau client : chaque consumer ne suit qu'un topic). */
+    public enum ClientMetric {
+        FETCH_LATENCY_AVG("consumer-fetch-manager-metrics", "fetch-latency-avg", "milliseconds"),
+        FETCH_LATENCY_MAX("consumer-fetch-manager-metrics", "fetch-latency-max", "milliseconds"),
+        FETCH_RATE("consumer-fetch-manager-metrics", "fetch-rate", "requests/s"),
+        BYTES_CONSUMED_RATE("consumer-fetch-manager-metrics", "bytes-consumed-rate", "bytes/s"),
+        RECORDS_CONSUMED_RATE("consumer-fetch-manager-metrics", "records-consumed-rate", "records/s"),
+        RECORDS_LAG_MAX("consumer-fetch-manager-metrics", "records-lag-max", "records"),
+        COMMIT_LATENCY_AVG("consumer-coordinator-metrics", "commit-latency-avg", "milliseconds"),
+        POLL_IDLE_RATIO_AVG("consumer-metrics", "poll-idle-ratio-avg", null),
+        TIME_BETWEEN_POLL_AVG("consumer-metrics", "time-between-poll-avg", "milliseconds");
+
+        private final String group;
+        private final String kafkaName;
+        private final String baseUnit;
+
+        ClientMetric(String group, String kafkaName, String baseUnit) {
+            this.group = group;
+            this.kafkaName = kafkaName;
+            this.baseUnit = baseUnit;
+        }
+
+        public String getKafkaName() {
+            return kafkaName;
+        }
+
+        String meterName() {
+            return "yucast.kafka.consumer." + kafkaName.replace('-', '.');
+        }
+    }
+
+    /** Diagnostic dérivé des métriques, pour savoir de quel côté chercher. */
+    public enum Bottleneck {
+        /** Le consumer passe l'essentiel de son temps hors poll : traitement applicatif (DB, WS). */
+        PROCESSING,
+        /** Le consumer attend dans poll alors qu'il reste du lag : broker ou réseau lent. */
+        FETCH,
+        /** Le consumer attend dans poll sans lag : il suit le débit du topic. */
+        NONE,
+        /** Pas encore assez d'échantillons. */
+        UNKNOWN
+    }
+
+    /** Valeurs {@code null} tant que Kafka n'a pas d'échantillon (NaN / -Infinity côté client). */
+    public record ClientMetrics(
+            Long topicId,
+            Map<String, Double> metrics,
+            Bottleneck bottleneck,
+            LocalDateTime sampledAt
+    ) {}
+
+    private static final double IDLE_RATIO_THRESHOLD = 0.5;
+
+    private final MeterRegistry registry;
+    private final PipelineMetrics pipelineMetrics;
+
+    private final Map<Long, EnumMap<ClientMetric, Double>> latest = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> sampledAt = new ConcurrentHashMap<>();
+    private final Map<Long, List<Meter>> gauges = new ConcurrentHashMap<>();
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // COLLECTE (appelé par KafkaConsumerManager)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void harvest(Long topicId, Map<MetricName, ? extends Metric> consumerMetrics) {
+        EnumMap<ClientMetric, Double> values = new EnumMap<>(ClientMetric.class);
+        for (Map.Entry<MetricName, ? extends Metric> entry : consumerMetrics.entrySet()) {
+            MetricName name = entry.getKey();
+            // Les variantes par topic/partition doublonnent la valeur niveau client
+            if (name.tags().containsKey("topic") || name.tags().containsKey("partition")) continue;
+
+            for (ClientMetric metric : ClientMetric.values()) {
+                if (metric.kafkaName.equals(name.name()) && metric.group.equals(name.group())) {
+                    values.put(metric, toFinite(entry.getValue().metricValue()));
+                }
+            }
+        }
+
+        latest.put(topicId, values);
+        sampledAt.put(topicId, LocalDateTime.now());
+        gauges.computeIfAbsent(topicId, this::registerGauges);
+    }
+
+    public void unregister(Long topicId) {
+        latest.remove(topicId);
+        sampledAt.remove(topicId);
+        List<Meter> meters = gauges.remove(topicId);
+        if (meters != null) {
+            meters.forEach(registry::remove);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // REQUÊTES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public Optional<ClientMetrics> getMetrics(Long topicId) {
+        EnumMap<ClientMetric, Double> values = latest.get(topicId);
+        if (values == null) return Optional.empty();
+
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        for (ClientMetric metric : ClientMetric.values()) {
+            metrics.put(metric.kafkaName, values.get(metric));
+        }
+        return Optional.of(new ClientMetrics(topicId, metrics, bottleneck(values), sampledAt.get(topicId)));
+    }
+
+    public Set<Long> getTopicIds() {
+        return latest.keySet();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static Bottleneck bottleneck(Map<ClientMetric, Double> values) {
+        Double idleRatio = values.get(ClientMetric.POLL_IDLE_RATIO_AVG);
+        if (idleRatio == null) return Bottleneck.UNKNOWN;
+        if (idleRatio < IDLE_RATIO_THRESHOLD) return Bottleneck.PROCESSING;
+
+        Double lag = values.get(ClientMetric.RECORDS_LAG_MAX);
+        return lag != null && lag > 0 ? Bottleneck.FETCH : Bottleneck.NONE;
+    }
+
+    /**
+     * Topics tagués {@value PipelineMetrics#OVERFLOW_TAG} : pas de gauge (elles partageraient la même
+     * série). {@code null} pour retenter au prochain échantillon, le topic pouvant être re-tagué.
+     */
+    private List<Meter> registerGauges(Long topicId) {
+        PipelineMetrics.TopicMeters topicMeters = pipelineMetrics.forTopic(topicId);
+        if (topicMeters.isOverflow()) return null;
+
+        List<Meter> meters = new ArrayList<>();
+        for (ClientMetric metric : ClientMetric.values()) {
+            meters.add(Gauge.builder(metric.meterName(), () -> currentValue(topicId, metric))
+                    .description("Kafka consumer " + metric.kafkaName)
+                    .baseUnit(metric.baseUnit)
+                    .tags(topicMeters.tags())
+                    .register(registry));
+        }
+        return meters;
+    }
+
+    private double currentValue(Long topicId, ClientMetric metric) {
+        EnumMap<ClientMetric, Double> values = latest.get(topicId);
+        Double value = values != null ? values.get(metric) : null;
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double toFinite(Object value) {
+        if (value instanceof Number number) {
+            double d = number.doubleValue();
+            return Double.isFinite(d) ? d : null;
+        }
+        return null;
+    }
+}
@@ -1,26 +1,33 @@
 package com.kafkaflow.visualizer.service.metrics;
 
-import com.kafkaflow.visualizer.dto.FlowDto;
+import com.kafkaflow.visualizer.dto.FlowDto.FlowMetricsDelta;
+import com.kafkaflow.visualizer.dto.FlowDto.FlowNodeMetrics;
+import com.kafkaflow.visualizer.dto.KafkaDto.AnomalyResponse;
 import com.kafkaflow.visualizer.dto.KafkaDto.DashboardStats;
 import com.kafkaflow.visualizer.dto.KafkaDto.MessageTrend;
 import com.kafkaflow.visualizer.dto.KafkaDto.TopicStats;
-import com.kafkaflow.visualizer.model.FlowDiagram;
-import com.kafkaflow.visualizer.model.KafkaTopic;
-import com.kafkaflow.visualizer.repository.FlowDiagramRepository;
+import com.kafkaflow.visualizer.model.KafkaConnection;
 import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import com.kafkaflow.visualizer.service.FlowDiagramService;
+import com.kafkaflow.visualizer.service.FlowDiagramService.LiveBinding;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache.CachedTopic;
 import com.kafkaflow.visualizer.websocket.WebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -33,9 +40,14 @@ public class MetricsBroadcaster {
 
     private final WebSocketService webSocketService;
     private final KafkaTopicRepository topicRepository;
-    private final FlowDiagramRepository flowDiagramRepository;
     private final FlowDiagramService flowDiagramService;
     private final ThroughputTracker throughputTracker;
+    private final FlowMetricsTracker flowMetricsTracker;
+    private final TopicMetadataCache topicMetadataCache;
+    private final MetricsTimeSeriesStore timeSeriesStore;
+    private final HotKeyTracker hotKeyTracker;
+    private final ConsumerThreadProfiler threadProfiler;
+    private final KafkaClientMetricsBridge clientMetricsBridge;
 
     // Repositories pour le dashboard (évite la dépendance circulaire avec DashboardService)
     private final KafkaConnectionRepository connectionRepository;
@@ -54,6 +66,9 @@ public class MetricsBroadcaster {
      */
     public void updateConsumerStatus(int activeCount, Map<Long, String> status) {
         this.activeConsumerCount = activeCount;
+        if (!status.equals(this.consumerStatus)) {
+            flowMetricsTracker.markAllDirty();
+        }
         this.consumerStatus = new ConcurrentHashMap<>(status);
     }
 
@@ -94,8 +109,9 @@ public class MetricsBroadcaster {
             messagesLastHour = messageRepository.countMessagesSince(lastHour);
         }
 
-        // Métriques historiques
-        long messagesLast24h = messageRepository.countMessagesSince(last24Hours);
+        // Métriques historiques (séries en mémoire, DB tant qu'elles ne couvrent pas 24h)
+        long messagesLast24h = timeSeriesStore.globalMessagesSince(Duration.ofHours(24))
+                .orElseGet(() -> messageRepository.countMessagesSince(last24Hours));
         long totalMessagesStored = messageRepository.count();
 
         // Connections
@@ -121,12 +137,7 @@ public class MetricsBroadcaster {
                 .collect(Collectors.toList());
 
         // Trends
-        List<MessageTrend> messageTrends = messageRepository.getMessageTrendsByHour(last24Hours).stream()
-                .map(row -> MessageTrend.builder()
-                        .hour(String.valueOf(row[0]))
-                        .count((Long) row[1])
-                        .build())
-                .collect(Collectors.toList());
+        List<MessageTrend> messageTrends = buildMessageTrends(last24Hours);
 
         return DashboardStats.builder()
                 .totalConnections(totalConnections)
@@ -135,6 +146,7 @@ public class MetricsBroadcaster {
                 .monitoredTopics(monitoredTopics)
                 .activeConsumers(activeConsumerCount)
                 .runningThreads(runningThreads)
+                .expensiveConsumers(threadProfiler.getTopConsumers(5))
                 .messagesPerSecond(messagesPerSecond)
                 .messagesLastMinute(messagesLastMinute)
                 .messagesLastHour(messagesLastHour)
@@ -145,6 +157,25 @@ public class MetricsBroadcaster {
                 .build();
     }
 
+    /**
+     * Tendance horaire des dernières 24h : série en mémoire si elle couvre la fenêtre, sinon COUNT en base.
+     */
+    private List<MessageTrend> buildMessageTrends(LocalDateTime last24Hours) {
+        return timeSeriesStore.globalHourlyTrend(Duration.ofHours(24))
+                .map(points -> points.stream()
+                        .map(point -> MessageTrend.builder()
+                                .hour(String.valueOf(point.start().atZone(ZoneId.systemDefault()).getHour()))
+                                .count(point.count())
+                                .build())
+                        .collect(Collectors.toList()))
+                .orElseGet(() -> messageRepository.getMessageTrendsByHour(last24Hours).stream()
+                        .map(row -> MessageTrend.builder()
+                                .hour(String.valueOf(row[0]))
+                                .count((Long) row[1])
+                                .build())
+                        .collect(Collectors.toList()));
+    }
+
     /**
      * Broadcast uniquement les métriques temps réel (plus léger, plus fréquent)
      */
@@ -174,35 +205,62 @@ public class MetricsBroadcaster {
      * Broadcast les métriques complètes d'un topic
      */
     public void broadcastTopicMetrics(Long topicId) {
-        findTopicWithConnection(topicId).ifPresent(topic -> {
+        topicMetadataCache.get(topicId).ifPresent(topic -> {
             double throughput = throughputTracker.getThroughput(topicId);
             long messagesLastMinute = throughputTracker.getMessagesInWindow(topicId);
-            long messageCount = Optional.ofNullable(topic.getMessageCount()).orElse(0L);
+            long messageCount = topic.messageCount();
 
             var metrics = new WebSocketService.TopicMetricsPayload(
                     topicId,
-                    topic.getName(),
+                    topic.name(),
                     messageCount,
                     roundTwoDecimals(throughput),
                     roundTwoDecimals(throughput * 60),
                     messagesLastMinute,
-                    topic.getLastMessageAt(),
+                    topic.lastMessageAt(),
                     true
             );
 
             webSocketService.broadcastTopicMetrics(metrics);
-            webSocketService.broadcastTopicUpdate(topicId, topic.getName(), messageCount, roundTwoDecimals(throughput));
+            webSocketService.broadcastTopicUpdate(topicId, topic.name(), messageCount, roundTwoDecimals(throughput));
         });
     }
 
+    /**
+     * Clés chaudes de la dernière minute ; rien n'est envoyé pour un topic sans trafic.
+     */
+    public void broadcastHotKeys(Long topicId) {
+        var hotKeys = hotKeyTracker.getHotKeys(topicId, HotKeyTracker.Window.ONE_MINUTE);
+        if (hotKeys.totalMessages() > 0) {
+            webSocketService.broadcastHotKeys(hotKeys);
+        }
+    }
+
+    /**
+     * Broadcast les métriques du client Kafka d'un topic (après chaque collecte)
+     */
+    public void broadcastClientMetrics(Long topicId) {
+        clientMetricsBridge.getMetrics(topicId).ifPresent(webSocketService::broadcastClientMetrics);
+    }
+
+    /**
+     * Broadcast une anomalie de débit ou d'erreurs détectée par {@link AnomalyDetector}
+     */
+    public void broadcastAnomaly(AnomalyResponse anomaly) {
+        try {
+            webSocketService.broadcastAnomaly(anomaly);
+        } catch (Exception e) {
+            log.trace("Anomaly broadcast failed: {}", e.getMessage());
+        }
+    }
+
     /**
      * Broadcast une mise à jour de topic (après réception de messages)
      */
     public void broadcastTopicUpdate(Long topicId) {
-        findTopicWithConnection(topicId).ifPresent(topic -> {
+        topicMetadataCache.get(topicId).ifPresent(topic -> {
             double throughput = throughputTracker.getThroughput(topicId);
-            long messageCount = Optional.ofNullable(topic.getMessageCount()).orElse(0L);
-            webSocketService.broadcastTopicUpdate(topicId, topic.getName(), messageCount, throughput);
+            webSocketService.broadcastTopicUpdate(topicId, topic.name(), topic.messageCount(), throughput);
         });
     }
 
@@ -211,39 +269,93 @@ public class MetricsBroadcaster {
     // ═══════════════════════════════════════════════════════════════════════
 
     /**
-     * Broadcast les mises à jour de flows liés à un topic
+     * Marque les flows live liés à un topic (appelé après chaque batch) : aucun accès base ici,
+     * les deltas sont calculés et envoyés par {@link #broadcastFlowDeltas()}.
      */
     public void broadcastFlowUpdates(Long topicId) {
-        findTopicWithConnection(topicId)
-                .filter(topic -> topic.getConnection() != null)
-                .ifPresent(topic -> {
-                    Long connectionId = topic.getConnection().getId();
-                    List<FlowDiagram> liveFlows = flowDiagramRepository.findByConnectionIdAndLiveModeTrueWithConnection(connectionId);
+        if (!flowMetricsTracker.isLoaded()) {
+            reloadFlowBindings();
+        }
+        flowMetricsTracker.markTopicActivity(topicId);
+    }
 
-                    liveFlows.forEach(flow -> broadcastFlowUpdate(flow.getId()));
-                });
+    /**
+     * Envoie les métriques des nodes modifiés de chaque flow dirty (appelé périodiquement, ce qui borne
+     * le débit de messages par flow quel que soit le nombre de batches consommés).
+     */
+    public void broadcastFlowDeltas() {
+        try {
+            List<LiveBinding> dirty = flowMetricsTracker.drainDirty();
+            if (dirty.isEmpty()) return;
+
+            Set<Long> connectionIds = dirty.stream()
+                    .map(LiveBinding::connectionId)
+                    .collect(Collectors.toSet());
+
+            Map<Long, KafkaConnection> connections = connectionRepository.findAllById(connectionIds).stream()
+                    .collect(Collectors.toMap(KafkaConnection::getId, Function.identity()));
+
+            for (LiveBinding binding : dirty) {
+                List<FlowNodeMetrics> changed = flowMetricsTracker.diff(binding.flowId(),
+                        buildNodeMetrics(binding, connections.get(binding.connectionId())));
+                if (!changed.isEmpty()) {
+                    webSocketService.broadcastFlowMetrics(new FlowMetricsDelta(binding.flowId(), changed));
+                }
+            }
+        } catch (Exception e) {
+            log.trace("Flow deltas broadcast failed: {}", e.getMessage());
+        }
     }
 
     /**
-     * Broadcast un flow spécifique
+     * Invalide l'index des flows live (création, modification ou suppression d'un flow)
      */
-    public void broadcastFlowUpdate(Long flowId) {
+    public void invalidateFlowBindings() {
+        flowMetricsTracker.invalidate();
+    }
+
+    private void reloadFlowBindings() {
+        long generation = flowMetricsTracker.generation();
         try {
-            FlowDto.FlowDiagramResponse flowData = flowDiagramService.getFlowById(flowId);
-            webSocketService.broadcastFlowUpdate(flowId, flowData);
+            flowMetricsTracker.load(flowDiagramService.getLiveBindings(), generation);
         } catch (Exception e) {
-            log.trace("Flow broadcast skipped [{}]: {}", flowId, e.getMessage());
+            log.trace("Flow bindings reload failed: {}", e.getMessage());
         }
     }
 
+    private List<FlowNodeMetrics> buildNodeMetrics(LiveBinding binding, KafkaConnection connection) {
+        List<FlowNodeMetrics> nodes = new ArrayList<>();
+
+        binding.topicNodes().forEach((nodeId, topicId) -> {
+            CachedTopic topic = topicMetadataCache.get(topicId).orElse(null);
+            if (topic == null) return;
+
+            double throughput = roundTwoDecimals(throughputTracker.getThroughput(topicId));
+            String status = throughput > 0 ? "active"
+                    : "RUNNING".equals(consumerStatus.get(topicId)) ? "connected" : "inactive";
+            nodes.add(FlowNodeMetrics.builder()
+                    .nodeId(nodeId)
+                    .topicId(topicId)
+                    .messageCount(topic.messageCount())
+                    .throughput(throughput)
+                    .status(status)
+                    .build());
+        });
+
+        if (connection != null) {
+            String status = connection.getStatus() == KafkaConnection.ConnectionStatus.CONNECTED ? "active" : "inactive";
+            binding.connectionNodes().forEach(nodeId -> nodes.add(FlowNodeMetrics.builder()
+                    .nodeId(nodeId)
+                    .status(status)
+                    .build()));
+        }
+        return nodes;
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // HELPERS
     // ═══════════════════════════════════════════════════════════════════════
 
-    private Optional<KafkaTopic> findTopicWithConnection(Long topicId) {
-        return topicRepository.findByIdWithConnection(topicId);
-    }
-
     private double roundTwoDecimals(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
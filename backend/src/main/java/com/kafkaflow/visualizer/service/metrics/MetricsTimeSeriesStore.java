@@ -0,0 +1,383 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Séries temporelles en mémoire du nombre de messages, par topic et globales, à plusieurs résolutions
+ * (1 s, 1 min, 1 h, 1 jour), chacune bornée par sa propre rétention.
+ * <p>
+ * Alimentée par le chemin d'ingestion, elle remplace les {@code COUNT} sur kafka_messages pour les
+ * tendances du dashboard et les statistiques live des topics. L'état est sauvegardé périodiquement dans un fichier binaire compact
+ * (écrit via un mapping mémoire puis renommé atomiquement) et rechargé au démarrage.
+ */
+@Component
+@Slf4j
+public class MetricsTimeSeriesStore {
+
+    private static final int MAGIC = 0x59435453; // "YCTS"
+    private static final int FORMAT_VERSION = 1;
+    private static final long GLOBAL_SERIES_ID = Long.MIN_VALUE;
+
+    public enum Resolution {
+        SECOND(1, 3600),        // 1 h
+        MINUTE(60, 1440),       // 24 h
+        HOUR(3600, 24 * 30),    // 30 jours
+        DAY(86400, 365);        // 1 an
+
+        private final long seconds;
+        private final int buckets;
+
+        Resolution(long seconds, int buckets) {
+            this.seconds = seconds;
+            this.buckets = buckets;
+        }
+
+        public long seconds() {
+            return seconds;
+        }
+
+        public Duration retention() {
+            return Duration.ofSeconds(seconds * buckets);
+        }
+    }
+
+    public record Point(Instant start, long count) {}
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STATE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private final Map<Long, Series> topicSeries = new ConcurrentHashMap<>();
+    private final Series globalSeries = new Series();
+
+    private final Path checkpointFile;
+    private final boolean persistenceEnabled;
+    private final LongSupplier clock;
+
+    /** Début de la couverture (epoch seconds) : avant cette date, la série ne sait rien. */
+    private volatile long trackingSince;
+
+    @Autowired
+    public MetricsTimeSeriesStore(
+            @Value("${app.metrics.timeseries.checkpoint-file:data/metrics-timeseries.bin}") String checkpointFile,
+            @Value("${app.metrics.timeseries.persistence-enabled:true}") boolean persistenceEnabled) {
+        this(Path.of(checkpointFile), persistenceEnabled, System::currentTimeMillis);
+    }
+
+    MetricsTimeSeriesStore(Path checkpointFile, boolean persistenceEnabled, LongSupplier clock) {
+        this.checkpointFile = checkpointFile;
+        this.persistenceEnabled = persistenceEnabled;
+        this.clock = clock;
+        this.trackingSince = nowSecond();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENREGISTREMENT
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void record(Long topicId, long count) {
+        if (count <= 0) return;
+
+        long now = nowSecond();
+        globalSeries.add(now, count);
+        topicSeries.computeIfAbsent(topicId, id -> new Series()).add(now, count);
+    }
+
+    public void remove(Long topicId) {
+        topicSeries.remove(topicId);
+    }
+
+    /** Les séries des topics supprimés ne sont plus ni gardées en mémoire ni sauvegardées. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopicCatalogChanged(TopicCatalogChangedEvent event) {
+        event.deletedTopicIds().forEach(this::remove);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // REQUÊTES (topicId null = global)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Somme des buckets de la résolution donnée sur la fenêtre ]now - window, now].
+     */
+    public long sum(Long topicId, Resolution resolution, Duration window) {
+        Series series = seriesFor(topicId);
+        return series == null ? 0 : series.ring(resolution).sum(bucketOf(nowSecond(), resolution), bucketsIn(window, resolution));
+    }
+
+    /**
+     * Points non vides de la fenêtre, dans l'ordre chronologique.
+     */
+    public List<Point> query(Long topicId, Resolution resolution, Duration window) {
+        Series series = seriesFor(topicId);
+        if (series == null) return List.of();
+        return series.ring(resolution).points(bucketOf(nowSecond(), resolution), bucketsIn(window, resolution), resolution);
+    }
+
+    /**
+     * Vrai si la série couvre toute la fenêtre (suivi actif depuis au moins {@code window}).
+     */
+    public boolean covers(Duration window) {
+        return trackingSince <= nowSecond() - window.getSeconds();
+    }
+
+    /**
+     * Nombre global de messages sur la fenêtre, ou vide si la série ne la couvre pas encore.
+     */
+    public OptionalLong globalMessagesSince(Duration window) {
+        return messagesSince(null, window);
+    }
+
+    /**
+     * Nombre de messages du topic sur la fenêtre, ou vide si la série ne la couvre pas encore.
+     * Un topic sans série n'a rien reçu depuis le début du suivi : 0.
+     */
+    public OptionalLong messagesSince(Long topicId, Duration window) {
+        if (!covers(window)) return OptionalLong.empty();
+        return OptionalLong.of(sum(topicId, pickResolution(window), window));
+    }
+
+    /**
+     * Tendance horaire globale, ou vide si la série ne couvre pas encore la fenêtre.
+     */
+    public Optional<List<Point>> globalHourlyTrend(Duration window) {
+        if (!covers(window)) return Optional.empty();
+        return Optional.of(query(null, Resolution.HOUR, window));
+    }
+
+    public Instant getTrackingSince() {
+        return Instant.ofEpochSecond(trackingSince);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // PERSISTANCE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @PostConstruct
+    public void restore() {
+        if (!persistenceEnabled || !Files.isRegularFile(checkpointFile)) return;
+
+        try (FileChannel channel = FileChannel.open(checkpointFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring incompatible metrics checkpoint {}", checkpointFile);
+                return;
+            }
+            trackingSince = Math.min(trackingSince, buffer.getLong());
+            int seriesCount = buffer.getInt();
+            long now = nowSecond();
+            for (int i = 0; i < seriesCount; i++) {
+                long id = buffer.getLong();
+                Series series = id == GLOBAL_SERIES_ID ? globalSeries : topicSeries.computeIfAbsent(id, k -> new Series());
+                series.read(buffer, now);
+            }
+            log.info("Restored metrics time series for {} topics from {}", topicSeries.size(), checkpointFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to restore metrics checkpoint {}: {}", checkpointFile, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void checkpoint() {
+        if (!persistenceEnabled) return;
+
+        Map<Long, Series> snapshot = new ConcurrentHashMap<>(topicSeries);
+        snapshot.put(GLOBAL_SERIES_ID, globalSeries);
+
+        long size = 4 + 4 + 8 + 4;
+        for (Series series : snapshot.values()) {
+            size += 8 + series.encodedSize();
+        }
+
+        try {
+            Path parent = checkpointFile.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(trackingSince).putInt(snapshot.size());
+                for (Map.Entry<Long, Series> entry : snapshot.entrySet()) {
+                    buffer.putLong(entry.getKey());
+                    entry.getValue().write(buffer);
+                }
+                // Les séries continuent d'évoluer pendant l'écriture : on tronque à la taille réellement écrite
+                int written = buffer.position();
+                buffer.force();
+                channel.truncate(written);
+            }
+            try {
+                Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.debug("Metrics checkpoint written: {} series, {} bytes", snapshot.size(), Files.size(checkpointFile));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write metrics checkpoint {}: {}", checkpointFile, e.getMessage());
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private Series seriesFor(Long topicId) {
+        return topicId == null ? globalSeries : topicSeries.get(topicId);
+    }
+
+    private long nowSecond() {
+        return clock.getAsLong() / 1000;
+    }
+
+    private static long bucketOf(long epochSecond, Resolution resolution) {
+        return Math.floorDiv(epochSecond, resolution.seconds);
+    }
+
+    private static int bucketsIn(Duration window, Resolution resolution) {
+        return (int) Math.min(resolution.buckets, Math.max(1, window.getSeconds() / resolution.seconds));
+    }
+
+    /** Résolution la plus fine dont la rétention couvre la fenêtre. */
+    private static Resolution pickResolution(Duration window) {
+        for (Resolution resolution : Resolution.values()) {
+            if (resolution.retention().compareTo(window) >= 0) return resolution;
+        }
+        return Resolution.DAY;
+    }
+
+    /** Un ring buffer par résolution. */
+    private static final class Series {
+
+        private final Ring[] rings = Arrays.stream(Resolution.values())
+                .map(resolution -> new Ring(resolution.buckets))
+                .toArray(Ring[]::new);
+
+        void add(long epochSecond, long count) {
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()].add(bucketOf(epochSecond, resolution), count);
+            }
+        }
+
+        Ring ring(Resolution resolution) {
+            return rings[resolution.ordinal()];
+        }
+
+        long encodedSize() {
+            long size = 0;
+            for (Ring ring : rings) size += 4 + 16L * ring.capacity();
+            return size;
+        }
+
+        void write(MappedByteBuffer buffer) {
+            for (Ring ring : rings) ring.write(buffer);
+        }
+
+        void read(MappedByteBuffer buffer, long nowSecond) {
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()].read(buffer, bucketOf(nowSecond, resolution));
+            }
+        }
+    }
+
+    /**
+     * Compteurs indexés par epoch de bucket ; un slot dont l'epoch est hors fenêtre est ignoré puis réutilisé.
+     */
+    private static final class Ring {
+
+        private final long[] counts;
+        private final long[] epochs;
+
+        Ring(int capacity) {
+            counts = new long[capacity];
+            epochs = new long[capacity];
+            Arrays.fill(epochs, Long.MIN_VALUE);
+        }
+
+        int capacity() {
+            return counts.length;
+        }
+
+        synchronized void add(long epoch, long count) {
+            int slot = (int) Math.floorMod(epoch, (long) counts.length);
+            if (epochs[slot] != epoch) {
+                if (epochs[slot] > epoch) return; // bucket trop ancien (restauration)
+                epochs[slot] = epoch;
+                counts[slot] = 0;
+            }
+            counts[slot] += count;
+        }
+
+        synchronized long sum(long now, int window) {
+            long oldest = now - window;
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (epochs[i] > oldest && epochs[i] <= now) total += counts[i];
+            }
+            return total;
+        }
+
+        synchronized List<Point> points(long now, int window, Resolution resolution) {
+            long oldest = now - window;
+            List<Point> points = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (epochs[i] > oldest && epochs[i] <= now && counts[i] > 0) {
+                    points.add(new Point(Instant.ofEpochSecond(epochs[i] * resolution.seconds), counts[i]));
+                }
+            }
+            points.sort(Comparator.comparing(Point::start));
+            return points;
+        }
+
+        /** Écrit uniquement les buckets non vides : nombre puis paires (epoch, count). */
+        synchronized void write(MappedByteBuffer buffer) {
+            int countPosition = buffer.position();
+            buffer.putInt(0);
+            int written = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (epochs[i] != Long.MIN_VALUE && counts[i] > 0) {
+                    buffer.putLong(epochs[i]).putLong(counts[i]);
+                    written++;
+                }
+            }
+            buffer.putInt(countPosition, written);
+        }
+
+        void read(MappedByteBuffer buffer, long now) {
+            int entries = buffer.getInt();
+            long oldest = now - counts.length;
+            for (int i = 0; i < entries; i++) {
+                long epoch = buffer.getLong();
+                long count = buffer.getLong();
+                if (epoch > oldest && epoch <= now) add(epoch, count);
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.service.kafka.KafkaConsumerConfig.ErrorCategory;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métriques Micrometer du pipeline (consumers, traitement, WebSocket, jobs de rétention),
+ * exposées sur {@code /actuator/prometheus}.
+ * <p>
+ * Les meters par topic sont tagués {@code topic} / {@code connection}. Au-delà de
+ * {@code app.metrics.micrometer.max-tagged-topics} topics distincts, les suivants partagent le tag
+ * {@value #OVERFLOW_TAG} : le nombre de séries Prometheus reste borné. Un topic encore absent de
+ * {@link TopicMetadataCache} à sa première mesure est aussi tagué {@value #OVERFLOW_TAG}, puis re-tagué
+ * dès que le cache le connaît ; ses meters sont retirés du registre à sa suppression.
+ */
+@Component
+@Slf4j
+public class PipelineMetrics {
+
+    public static final String OVERFLOW_TAG = "other";
+
+    private static final Tags OVERFLOW_TAGS = Tags.of("topic", OVERFLOW_TAG, "connection", OVERFLOW_TAG);
+
+    public enum Stage {
+        PREPARE, CLASSIFY, PERSIST, BROADCAST;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final TopicMetadataCache topicMetadataCache;
+    private final int maxTaggedTopics;
+
+    private final Map<Long, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+    private final Map<RetentionJobLog.JobType, AtomicLong> lastJobRowsPerSecond = new ConcurrentHashMap<>();
+
+    private final Counter webSocketBytes;
+    private final Counter webSocketDrops;
+
+    /** Délai entre deux tentatives de résolution des tags d'un topic absent du cache. */
+    @Value("${app.metrics.micrometer.tag-retry-seconds:30}")
+    private long tagRetrySeconds = 30;
+
+    public PipelineMetrics(MeterRegistry registry,
+                           TopicMetadataCache topicMetadataCache,
+                           @Value("${app.metrics.micrometer.max-tagged-topics:100}") int maxTaggedTopics) {
+        this.registry = registry;
+        this.topicMetadataCache = topicMetadataCache;
+        this.maxTaggedTopics = maxTaggedTopics;
+        this.webSocketBytes = Counter.builder("yucast.websocket.outbound.bytes")
+                .description("Octets des frames STOMP envoyées aux clients")
+                .baseUnit("bytes")
+                .register(registry);
+        this.webSocketDrops = Counter.builder("yucast.websocket.drops")
+                .description("Messages WebSocket non délivrés")
+                .register(registry);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONSUMERS / TRAITEMENT
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Meters d'un topic, créés une fois puis réutilisés par le thread consumer. */
+    public TopicMeters forTopic(Long topicId) {
+        return topicMeters.computeIfAbsent(topicId, id -> {
+            if (topicMeters.size() >= maxTaggedTopics) {
+                return new TopicMeters(id, OVERFLOW_TAGS, false);
+            }
+            Optional<Tags> tags = resolveTags(id);
+            return new TopicMeters(id, tags.orElse(OVERFLOW_TAGS), tags.isEmpty());
+        });
+    }
+
+    public void recordConsumerError(Long topicId, ErrorCategory category) {
+        registry.counter("yucast.consumer.errors",
+                forTopic(topicId).tags().and("category", category.name().toLowerCase(Locale.ROOT))).increment();
+    }
+
+    /**
+     * Topics supprimés : leurs meters (et toute série portant leurs tags) quittent le registre et
+     * libèrent leur place sous {@code max-tagged-topics}. Les meters {@value #OVERFLOW_TAG} sont partagés
+     * et restent.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopicCatalogChanged(TopicCatalogChangedEvent event) {
+        for (Long topicId : event.deletedTopicIds()) {
+            TopicMeters meters = topicMeters.remove(topicId);
+            if (meters != null && !isOverflow(meters.bound.tags)) {
+                List<Tag> tags = meters.bound.tags.stream().toList();
+                registry.getMeters().stream()
+                        .filter(meter -> meter.getId().getTags().containsAll(tags))
+                        .forEach(registry::remove);
+            }
+        }
+    }
+
+    private static boolean isOverflow(Tags tags) {
+        return tags.stream().anyMatch(tag -> tag.getKey().equals("topic") && tag.getValue().equals(OVERFLOW_TAG));
+    }
+
+    private Optional<Tags> resolveTags(Long topicId) {
+        return topicMetadataCache.get(topicId)
+                .map(topic -> Tags.of(
+                        "topic", topic.name(),
+                        "connection", topic.connectionName() != null ? topic.connectionName() : "unknown"));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // WEBSOCKET
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void recordWebSocketSend(String type) {
+        registry.counter("yucast.websocket.sends", "type", type).increment();
+    }
+
+    public void recordWebSocketFrame(int bytes) {
+        webSocketBytes.increment(bytes);
+    }
+
+    public void recordWebSocketDrop() {
+        webSocketDrops.increment();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // RÉTENTION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Durée, lignes traitées et débit (lignes/s) d'un job terminé.
+     */
+    public void recordRetentionJob(RetentionJobLog jobLog) {
+        if (jobLog.getDurationMs() == null) {
+            return;
+        }
+
+        String job = jobLog.getJobType().name().toLowerCase(Locale.ROOT);
+        String status = jobLog.getStatus().name().toLowerCase(Locale.ROOT);
+        int rows = jobLog.getMessagesProcessed() != null ? jobLog.getMessagesProcessed() : 0;
+
+        registry.timer("yucast.retention.job", "job", job, "status", status)
+                .record(jobLog.getDurationMs(), TimeUnit.MILLISECONDS);
+        registry.counter("yucast.retention.rows", "job", job).increment(rows);
+
+        long rowsPerSecond = jobLog.getDurationMs() > 0 ? rows * 1000L / jobLog.getDurationMs() : rows;
+        lastJobRowsPerSecond.computeIfAbsent(jobLog.getJobType(), type -> registry.gauge(
+                "yucast.retention.rows.per.second", Tags.of("job", job), new AtomicLong()))
+                .set(rowsPerSecond);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // METERS PAR TOPIC
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Meters d'un topic. Gardés par le thread consumer pour toute sa durée : un topic inconnu du cache
+     * à la création se re-résout lui-même (au plus une fois par {@code tag-retry-seconds}) et rebascule
+     * ses meters sur ses vrais tags.
+     */
+    public final class TopicMeters {
+
+        private final Long topicId;
+        private volatile Bound bound;
+        /** {@code System.nanoTime()} de la prochaine tentative de résolution ; 0 une fois résolu. */
+        private volatile long retryAt;
+
+        private TopicMeters(Long topicId, Tags tags, boolean unresolved) {
+            this.topicId = topicId;
+            this.bound = new Bound(tags);
+            this.retryAt = unresolved ? System.nanoTime() + TimeUnit.SECONDS.toNanos(tagRetrySeconds) : 0;
+        }
+
+        public void recordPoll(long nanos, int records) {
+            Bound current = current();
+            current.poll.record(nanos, TimeUnit.NANOSECONDS);
+            current.recordsPerPoll.record(records);
+        }
+
+        public void recordStage(Stage stage, long nanos) {
+            current().stages[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /** Tags topic/connection, ou {@value #OVERFLOW_TAG} au-delà de la limite de cardinalité. */
+        public Tags tags() {
+            return current().tags;
+        }
+
+        public boolean isOverflow() {
+            return PipelineMetrics.isOverflow(current().tags);
+        }
+
+        private Bound current() {
+            long retry = retryAt;
+            if (retry != 0 && System.nanoTime() - retry >= 0) {
+                resolve();
+            }
+            return bound;
+        }
+
+        private synchronized void resolve() {
+            if (retryAt == 0) return;
+            Optional<Tags> tags = resolveTags(topicId);
+            if (tags.isPresent()) {
+                // Les meters OVERFLOW_TAG sont partagés avec d'autres topics : on s'en détache sans les retirer
+                bound = new Bound(tags.get());
+                retryAt = 0;
+            } else {
+                retryAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(tagRetrySeconds);
+            }
+        }
+    }
+
+    private final class Bound {
+
+        private final Tags tags;
+        private final Timer poll;
+        private final DistributionSummary recordsPerPoll;
+        private final Timer[] stages = new Timer[Stage.values().length];
+
+        private Bound(Tags tags) {
+            this.tags = tags;
+            this.poll = Timer.builder("yucast.consumer.poll")
+                    .description("Durée d'un poll Kafka")
+                    .tags(tags)
+                    .register(registry);
+            this.recordsPerPoll = DistributionSummary.builder("yucast.consumer.records.per.poll")
+                    .description("Records retournés par poll")
+                    .tags(tags)
+                    .register(registry);
+            for (Stage stage : Stage.values()) {
+                stages[stage.ordinal()] = Timer.builder("yucast.ingest.stage")
+                        .description("Durée d'une étape de traitement d'un message")
+                        .tags(tags.and("stage", stage.tag()))
+                        .register(registry);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogrammes de latence par étape du pipeline et par topic (HdrHistogram).
+ * <p>
+ * Le thread consumer enregistre dans un {@link Recorder} par étape, sans verrou. Toutes les
+ * {@value #INTERVAL_SECONDS} s, {@link #rollIntervals()} (planifié par KafkaConsumerManager) extrait
+ * l'histogramme de l'intervalle écoulé dans un ring de {@value #WINDOW_INTERVALS} slots : les requêtes
+ * portent sur la dernière minute, précision 2 chiffres significatifs (1 %), valeurs en microsecondes.
+ */
+@Component
+public class StageLatencyTracker {
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉTAPES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public enum Stage {
+        /** Fin du poll → début du traitement du message (attente dans le batch). */
+        POLL_TO_PROCESS,
+        CLASSIFY,
+        PERSIST,
+        BROADCAST,
+        /** Fin du poll → fin de la diffusion WebSocket. */
+        POLL_TO_BROADCAST;
+
+        public String label() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    public record StageLatency(String stage, long count, double meanMicros, long p50Micros, long p90Micros,
+                               long p99Micros, long p999Micros, long maxMicros) {}
+
+    public record TopicStageLatencies(Long topicId, long windowSeconds, List<StageLatency> stages) {}
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CONSTANTES / STATE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public static final int INTERVAL_SECONDS = 10;
+
+    public static final int WINDOW_INTERVALS = 6;
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<Long, StageRecorders> topics = new ConcurrentHashMap<>();
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENREGISTREMENT
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Recorders d'un topic, à récupérer une fois par batch par le thread consumer. */
+    public StageRecorders forTopic(Long topicId) {
+        return topics.computeIfAbsent(topicId, id -> new StageRecorders());
+    }
+
+    public void unregister(Long topicId) {
+        topics.remove(topicId);
+    }
+
+    /** Clôt l'intervalle courant de chaque topic (appel périodique). */
+    public void rollIntervals() {
+        topics.values().forEach(StageRecorders::roll);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // REQUÊTES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public Optional<TopicStageLatencies> getLatencies(Long topicId) {
+        StageRecorders recorders = topics.get(topicId);
+        if (recorders == null) return Optional.empty();
+
+        List<StageLatency> stages = new ArrayList<>(Stage.values().length);
+        for (Stage stage : Stage.values()) {
+            stages.add(toLatency(stage, recorders.window(stage)));
+        }
+        return Optional.of(new TopicStageLatencies(topicId, (long) INTERVAL_SECONDS * WINDOW_INTERVALS, stages));
+    }
+
+    public Set<Long> getTopicIds() {
+        return topics.keySet();
+    }
+
+    private static StageLatency toLatency(Stage stage, Histogram histogram) {
+        long count = histogram.getTotalCount();
+        if (count == 0) {
+            return new StageLatency(stage.label(), 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new StageLatency(
+                stage.label(),
+                count,
+                Math.round(histogram.getMean() * 10) / 10.0,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STRUCTURES INTERNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public static final class StageRecorders {
+
+        private final Recorder[] recorders = new Recorder[Stage.values().length];
+        private final Histogram[][] ring = new Histogram[Stage.values().length][WINDOW_INTERVALS];
+        private int slot;
+
+        private StageRecorders() {
+            for (int i = 0; i < recorders.length; i++) {
+                recorders[i] = new Recorder(SIGNIFICANT_DIGITS);
+            }
+        }
+
+        /** Thread consumer uniquement : écriture sans verrou. */
+        public void record(Stage stage, long nanos) {
+            recorders[stage.ordinal()].recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+
+        private synchronized void roll() {
+            slot = (slot + 1) % WINDOW_INTERVALS;
+            for (int i = 0; i < recorders.length; i++) {
+                // L'histogramme sortant du ring est recyclé par le recorder
+                Histogram evicted = ring[i][slot];
+                ring[i][slot] = evicted != null
+                        ? recorders[i].getIntervalHistogram(evicted)
+                        : recorders[i].getIntervalHistogram();
+            }
+        }
+
+        private synchronized Histogram window(Stage stage) {
+            Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+            for (Histogram interval : ring[stage.ordinal()]) {
+                if (interval != null) {
+                    merged.add(interval);
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -4,13 +4,19 @@ import com.kafkaflow.visualizer.service.kafka.KafkaConsumerConfig;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
-
+import java.util.function.LongSupplier;
+
+/**
+ * Compteurs de débit par topic sur fenêtres glissantes.
+ * <p>
+ * Chaque topic possède deux ring buffers de compteurs : un bucket par seconde (fenêtre de 60 s)
+ * et un bucket par minute (fenêtre d'une heure). L'enregistrement est en O(1) et la mémoire est
+ * constante quel que soit le débit ; une requête coûte O(nombre de buckets).
+ */
 @Component
 public class ThroughputTracker {
 
@@ -24,18 +30,28 @@ public class ThroughputTracker {
 
     private static final Duration LAST_HOUR_WINDOW = Duration.ofHours(1);
 
+    private static final int SECOND_BUCKETS = (int) Math.max(THROUGHPUT_WINDOW.getSeconds(), LAST_MINUTE_WINDOW.getSeconds());
+
+    private static final int MINUTE_BUCKETS = (int) LAST_HOUR_WINDOW.toMinutes();
+
     // ═══════════════════════════════════════════════════════════════════════
     // STATE
     // ═══════════════════════════════════════════════════════════════════════
 
-    private final Map<Long, Deque<Instant>> topicTimestamps = new ConcurrentHashMap<>();
-
-    private final Map<Long, Deque<Instant>> topicTimestampsHourly = new ConcurrentHashMap<>();
+    private final Map<Long, TopicCounters> topicCounters = new ConcurrentHashMap<>();
 
     private final boolean hourlyTrackingEnabled;
 
+    private final LongSupplier clock;
+
     public ThroughputTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    /** Horloge injectable (epoch millis) pour les tests et le benchmark. */
+    ThroughputTracker(LongSupplier clock) {
         this.hourlyTrackingEnabled = true;
+        this.clock = clock;
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -45,23 +61,8 @@ public class ThroughputTracker {
     public void recordMessages(Long topicId, int count) {
         if (count <= 0) return;
 
-        Instant now = Instant.now();
-
-        Deque<Instant> timestamps = topicTimestamps.computeIfAbsent(
-                topicId, k -> new ConcurrentLinkedDeque<>()
-        );
-        for (int i = 0; i < count; i++) {
-            timestamps.addLast(now);
-        }
-
-        if (hourlyTrackingEnabled) {
-            Deque<Instant> hourlyTimestamps = topicTimestampsHourly.computeIfAbsent(
-                    topicId, k -> new ConcurrentLinkedDeque<>()
-            );
-            for (int i = 0; i < count; i++) {
-                hourlyTimestamps.addLast(now);
-            }
-        }
+        topicCounters.computeIfAbsent(topicId, k -> new TopicCounters(hourlyTrackingEnabled))
+                .record(clock.getAsLong() / 1000, count);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -69,36 +70,24 @@ public class ThroughputTracker {
     // ═══════════════════════════════════════════════════════════════════════
 
     public double getThroughput(Long topicId) {
-        Deque<Instant> timestamps = topicTimestamps.get(topicId);
-        if (timestamps == null || timestamps.isEmpty()) {
-            return 0.0;
-        }
-
-        cleanOldTimestamps(timestamps, THROUGHPUT_WINDOW);
-
-        if (timestamps.isEmpty()) {
-            return 0.0;
-        }
-
-        return (double) timestamps.size() / THROUGHPUT_WINDOW.getSeconds();
+        return (double) getMessagesInWindow(topicId) / THROUGHPUT_WINDOW.getSeconds();
     }
 
     public long getMessagesInWindow(Long topicId) {
-        Deque<Instant> timestamps = topicTimestamps.get(topicId);
-        if (timestamps == null) {
-            return 0;
-        }
-        cleanOldTimestamps(timestamps, THROUGHPUT_WINDOW);
-        return timestamps.size();
+        return countSeconds(topicId, THROUGHPUT_WINDOW);
     }
 
     public long getMessagesLastMinute(Long topicId) {
-        Deque<Instant> timestamps = topicTimestamps.get(topicId);
-        if (timestamps == null) {
+        return countSeconds(topicId, LAST_MINUTE_WINDOW);
+    }
+
+    /** Messages comptés pendant la seconde {@code epochSecond} ; 0 si elle est sortie de la fenêtre. */
+    public long getCountAtSecond(Long topicId, long epochSecond) {
+        TopicCounters counters = topicCounters.get(topicId);
+        if (counters == null) {
             return 0;
         }
-        cleanOldTimestamps(timestamps, LAST_MINUTE_WINDOW);
-        return countInWindow(timestamps, LAST_MINUTE_WINDOW);
+        return counters.countAt(epochSecond);
     }
 
     public long getMessagesLastHour(Long topicId) {
@@ -106,12 +95,11 @@ public class ThroughputTracker {
             return -1;
         }
 
-        Deque<Instant> timestamps = topicTimestampsHourly.get(topicId);
-        if (timestamps == null) {
+        TopicCounters counters = topicCounters.get(topicId);
+        if (counters == null) {
             return 0;
         }
-        cleanOldTimestamps(timestamps, LAST_HOUR_WINDOW);
-        return timestamps.size();
+        return counters.sumMinutes(clock.getAsLong() / 1000, MINUTE_BUCKETS);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -119,13 +107,13 @@ public class ThroughputTracker {
     // ═══════════════════════════════════════════════════════════════════════
 
     public double getGlobalThroughput() {
-        return topicTimestamps.keySet().stream()
+        return topicCounters.keySet().stream()
                 .mapToDouble(this::getThroughput)
                 .sum();
     }
 
     public long getGlobalMessagesLastMinute() {
-        return topicTimestamps.keySet().stream()
+        return topicCounters.keySet().stream()
                 .mapToLong(this::getMessagesLastMinute)
                 .sum();
     }
@@ -134,13 +122,13 @@ public class ThroughputTracker {
         if (!hourlyTrackingEnabled) {
             return -1;
         }
-        return topicTimestampsHourly.keySet().stream()
+        return topicCounters.keySet().stream()
                 .mapToLong(this::getMessagesLastHour)
                 .sum();
     }
 
     public Set<Long> getTrackedTopicIds() {
-        return topicTimestamps.keySet();
+        return topicCounters.keySet();
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -148,22 +136,19 @@ public class ThroughputTracker {
     // ═══════════════════════════════════════════════════════════════════════
 
     public void register(Long topicId) {
-        topicTimestamps.putIfAbsent(topicId, new ConcurrentLinkedDeque<>());
-        if (hourlyTrackingEnabled) {
-            topicTimestampsHourly.putIfAbsent(topicId, new ConcurrentLinkedDeque<>());
-        }
+        topicCounters.putIfAbsent(topicId, new TopicCounters(hourlyTrackingEnabled));
     }
 
     public void unregister(Long topicId) {
-        topicTimestamps.remove(topicId);
-        topicTimestampsHourly.remove(topicId);
+        topicCounters.remove(topicId);
     }
 
+    /**
+     * Remet à zéro les buckets expirés (les lectures les ignorent déjà, ceci libère juste l'état périmé).
+     */
     public void cleanupAll() {
-        topicTimestamps.values().forEach(ts -> cleanOldTimestamps(ts, THROUGHPUT_WINDOW));
-        if (hourlyTrackingEnabled) {
-            topicTimestampsHourly.values().forEach(ts -> cleanOldTimestamps(ts, LAST_HOUR_WINDOW));
-        }
+        long nowSecond = clock.getAsLong() / 1000;
+        topicCounters.values().forEach(counters -> counters.advance(nowSecond));
     }
 
     public boolean isHourlyTrackingEnabled() {
@@ -174,17 +159,89 @@ public class ThroughputTracker {
     // HELPERS
     // ═══════════════════════════════════════════════════════════════════════
 
-    private void cleanOldTimestamps(Deque<Instant> timestamps, Duration window) {
-        Instant cutoff = Instant.now().minus(window);
-        while (!timestamps.isEmpty() && timestamps.peekFirst().isBefore(cutoff)) {
-            timestamps.pollFirst();
+    private long countSeconds(Long topicId, Duration window) {
+        TopicCounters counters = topicCounters.get(topicId);
+        if (counters == null) {
+            return 0;
         }
+        return counters.sumSeconds(clock.getAsLong() / 1000, (int) window.getSeconds());
     }
 
-    private long countInWindow(Deque<Instant> timestamps, Duration window) {
-        Instant cutoff = Instant.now().minus(window);
-        return timestamps.stream()
-                .filter(ts -> ts.isAfter(cutoff))
-                .count();
+    /**
+     * Ring buffers d'un topic. Chaque slot mémorise l'epoch (seconde ou minute) qu'il compte :
+     * un slot dont l'epoch est sorti de la fenêtre est simplement ignoré puis réutilisé.
+     */
+    private static final class TopicCounters {
+
+        private final long[] secondCounts = new long[SECOND_BUCKETS];
+        private final long[] secondEpochs = new long[SECOND_BUCKETS];
+        private final long[] minuteCounts;
+        private final long[] minuteEpochs;
+
+        TopicCounters(boolean hourly) {
+            this.minuteCounts = hourly ? new long[MINUTE_BUCKETS] : null;
+            this.minuteEpochs = hourly ? new long[MINUTE_BUCKETS] : null;
+            Arrays.fill(secondEpochs, Long.MIN_VALUE);
+            if (hourly) Arrays.fill(minuteEpochs, Long.MIN_VALUE);
+        }
+
+        synchronized void record(long nowSecond, long count) {
+            add(secondCounts, secondEpochs, nowSecond, count);
+            if (minuteCounts != null) {
+                add(minuteCounts, minuteEpochs, Math.floorDiv(nowSecond, 60), count);
+            }
+        }
+
+        synchronized long sumSeconds(long nowSecond, int window) {
+            return sum(secondCounts, secondEpochs, nowSecond, Math.min(window, SECOND_BUCKETS));
+        }
+
+        synchronized long countAt(long epochSecond) {
+            int slot = (int) Math.floorMod(epochSecond, (long) SECOND_BUCKETS);
+            return secondEpochs[slot] == epochSecond ? secondCounts[slot] : 0;
+        }
+
+        synchronized long sumMinutes(long nowSecond, int window) {
+            if (minuteCounts == null) return 0;
+            return sum(minuteCounts, minuteEpochs, Math.floorDiv(nowSecond, 60), Math.min(window, MINUTE_BUCKETS));
+        }
+
+        synchronized void advance(long nowSecond) {
+            expire(secondCounts, secondEpochs, nowSecond);
+            if (minuteCounts != null) {
+                expire(minuteCounts, minuteEpochs, Math.floorDiv(nowSecond, 60));
+            }
+        }
+
+        private static void add(long[] counts, long[] epochs, long epoch, long count) {
+            int slot = (int) Math.floorMod(epoch, (long) counts.length);
+            if (epochs[slot] != epoch) {
+                epochs[slot] = epoch;
+                counts[slot] = 0;
+            }
+            counts[slot] += count;
+        }
+
+        /** Somme des buckets dont l'epoch est dans ]now - window, now]. */
+        private static long sum(long[] counts, long[] epochs, long now, int window) {
+            long oldest = now - window;
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (epochs[i] > oldest && epochs[i] <= now) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+
+        private static void expire(long[] counts, long[] epochs, long now) {
+            long oldest = now - counts.length;
+            for (int i = 0; i < counts.length; i++) {
+                if (epochs[i] <= oldest) {
+                    counts[i] = 0;
+                    epochs[i] = Long.MIN_VALUE;
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.kafkaflow.visualizer.service.profiling;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import com.kafkaflow.visualizer.exception.ErrorCode;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pilote un enregistrement Java Flight Recorder borné (durée et taille) depuis l'API.
+ * <p>
+ * Un seul enregistrement à la fois ; le fichier {@code .jfr} du dernier enregistrement reste
+ * téléchargeable jusqu'au suivant. Les événements {@link PipelineEvents} sont toujours activés,
+ * en plus des événements JVM (GC, verrous, allocations) de la configuration choisie.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    public enum State {IDLE, RUNNING, STOPPED}
+
+    public record RecordingStatus(
+            State state,
+            LocalDateTime startedAt,
+            long maxDurationSeconds,
+            long maxSizeMb,
+            Long fileSizeBytes
+    ) {}
+
+    /** Ces événements exposent l'environnement (mots de passe BDD, SASL...) : jamais enregistrés. */
+    private static final Map<String, String> SENSITIVE_EVENTS_OFF = Map.of(
+            "jdk.InitialEnvironmentVariable#enabled", "false",
+            "jdk.InitialSystemProperty#enabled", "false");
+
+    private final int maxDurationSeconds;
+    private final int maxSizeMb;
+    private final String settings;
+
+    private Recording recording;
+    private Path recordingFile;
+    private LocalDateTime startedAt;
+    private long durationSeconds;
+    private long sizeMb;
+
+    public FlightRecorderService(
+            @Value("${app.profiling.jfr.max-duration-seconds:900}") int maxDurationSeconds,
+            @Value("${app.profiling.jfr.max-size-mb:200}") int maxSizeMb,
+            @Value("${app.profiling.jfr.settings:profile}") String settings) {
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeMb = maxSizeMb;
+        this.settings = settings;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // CYCLE DE VIE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Démarre un enregistrement, arrêté automatiquement après {@code durationSeconds}.
+     * Les bornes demandées sont plafonnées par la configuration.
+     */
+    public synchronized RecordingStatus start(Integer durationSeconds, Integer sizeMb) {
+        if (currentState() == State.RUNNING) {
+            throw new AppException(ErrorCode.RESOURCE_DUPLICATE, "A flight recording is already running");
+        }
+        discardPrevious();
+
+        this.durationSeconds = bounded(durationSeconds, maxDurationSeconds);
+        this.sizeMb = bounded(sizeMb, maxSizeMb);
+
+        try {
+            Map<String, String> recordingSettings = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+            recordingSettings.putAll(SENSITIVE_EVENTS_OFF);
+
+            Path file = Files.createTempFile("yucast-", ".jfr");
+            Recording newRecording = new Recording(recordingSettings);
+            newRecording.setName("yucast-pipeline");
+            PipelineEvents.TYPES.forEach(newRecording::enable);
+            newRecording.setToDisk(true);
+            newRecording.setDuration(Duration.ofSeconds(this.durationSeconds));
+            newRecording.setMaxSize(this.sizeMb * 1024 * 1024);
+            newRecording.setDestination(file);
+            newRecording.start();
+
+            recording = newRecording;
+            recordingFile = file;
+            startedAt = LocalDateTime.now();
+        } catch (IOException | ParseException e) {
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cannot start flight recording: " + e.getMessage(), e);
+        }
+
+        log.info("Flight recording started ({}s, {} MB max)", this.durationSeconds, this.sizeMb);
+        return getStatus();
+    }
+
+    /** Arrête l'enregistrement en cours ; le fichier devient téléchargeable. */
+    public synchronized RecordingStatus stop() {
+        if (currentState() != State.RUNNING) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "No flight recording is running");
+        }
+        recording.stop();
+        closeRecording();
+        log.info("Flight recording stopped → {}", recordingFile);
+        return getStatus();
+    }
+
+    public synchronized RecordingStatus getStatus() {
+        State state = currentState();
+        Long fileSize = null;
+        if (state == State.STOPPED) {
+            try {
+                fileSize = Files.size(recordingFile);
+            } catch (IOException e) {
+                log.debug("Cannot read recording size: {}", e.getMessage());
+            }
+        }
+        return new RecordingStatus(state, startedAt, durationSeconds, sizeMb, fileSize);
+    }
+
+    /** Fichier {@code .jfr} du dernier enregistrement terminé. */
+    public synchronized Path getRecordingFile() {
+        State state = currentState();
+        if (state == State.RUNNING) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Stop the flight recording before downloading it");
+        }
+        if (state == State.IDLE || !Files.exists(recordingFile)) {
+            throw new AppException(ErrorCode.RESOURCE_NOT_FOUND, "No flight recording available");
+        }
+        return recordingFile;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeRecording();
+        discardPrevious();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Un enregistrement arrivé au bout de sa durée s'arrête seul : on le libère ici. */
+    private State currentState() {
+        if (recording != null) {
+            if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED
+                    || recording.getState() == RecordingState.NEW) {
+                return State.RUNNING;
+            }
+            closeRecording();
+        }
+        return recordingFile != null ? State.STOPPED : State.IDLE;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void discardPrevious() {
+        if (recordingFile != null) {
+            try {
+                Files.deleteIfExists(recordingFile);
+            } catch (IOException e) {
+                log.warn("Cannot delete previous flight recording {}: {}", recordingFile, e.getMessage());
+            }
+            recordingFile = null;
+            startedAt = null;
+        }
+    }
+
+    private static long bounded(Integer requested, int max) {
+        return requested == null || requested <= 0 ? max : Math.min(requested, max);
+    }
+}
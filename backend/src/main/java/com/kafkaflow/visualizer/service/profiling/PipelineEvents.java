@@ -0,0 +1,95 @@
+package com.kafkaflow.visualizer.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+
+import java.util.List;
+
+/**
+ * Événements Java Flight Recorder des chemins chauds (ingestion, archivage, export).
+ * <p>
+ * Usage : {@code begin()} avant l'étape, {@code end()} après, puis renseigner les champs et
+ * {@code commit()} uniquement si {@code shouldCommit()} — hors enregistrement, le coût se limite à
+ * l'allocation de l'événement (éliminée par le JIT). La durée est portée par l'événement lui-même.
+ */
+public final class PipelineEvents {
+
+    /** Types à activer dans un enregistrement. */
+    public static final List<Class<? extends Event>> TYPES = List.of(
+            BatchPolled.class, BatchPersisted.class, MessageBroadcast.class, ArchiveChunk.class, ExportChunk.class);
+
+    private PipelineEvents() {
+    }
+
+    @Category({"Yucast", "Pipeline"})
+    @StackTrace(false)
+    abstract static class PipelineEvent extends Event {
+
+        @Label("Topic ID")
+        @Description("0 si l'opération couvre plusieurs topics")
+        public long topicId;
+
+        @Label("Records")
+        public int recordCount;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        public void set(Long topicId, int recordCount, long bytes) {
+            this.topicId = topicId != null ? topicId : 0;
+            this.recordCount = recordCount;
+            this.bytes = bytes;
+        }
+    }
+
+    @Name("yucast.BatchPolled")
+    @Label("Batch Polled")
+    @Description("Poll Kafka ayant retourné au moins un record")
+    public static final class BatchPolled extends PipelineEvent {
+    }
+
+    @Name("yucast.BatchPersisted")
+    @Label("Batch Persisted")
+    @Description("Traitement complet d'un batch : persistance et diffusion de chaque message")
+    public static final class BatchPersisted extends PipelineEvent {
+    }
+
+    @Name("yucast.MessageBroadcast")
+    @Label("Message Broadcast")
+    @Description("Diffusion WebSocket d'un message ingéré")
+    public static final class MessageBroadcast extends PipelineEvent {
+    }
+
+    @Name("yucast.ArchiveChunk")
+    @Label("Archive Chunk Moved")
+    @Description("Chunk de messages copié vers les archives puis supprimé de la table chaude")
+    public static final class ArchiveChunk extends PipelineEvent {
+    }
+
+    @Name("yucast.ExportChunk")
+    @Label("Export Chunk Written")
+    @Description("Sérialisation (et compression) d'un export d'archives")
+    public static final class ExportChunk extends PipelineEvent {
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Taille sérialisée (clé + valeur) d'un batch, telle que reçue du broker. */
+    public static long serializedBytes(ConsumerRecords<?, ?> records) {
+        long bytes = 0;
+        for (ConsumerRecord<?, ?> record : records) {
+            bytes += Math.max(0, record.serializedKeySize()) + Math.max(0, record.serializedValueSize());
+        }
+        return bytes;
+    }
+}
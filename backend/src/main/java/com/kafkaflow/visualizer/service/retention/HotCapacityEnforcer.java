@@ -0,0 +1,265 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaTopic;
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
+import com.kafkaflow.visualizer.model.RetentionPolicy;
+import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
+import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.repository.RetentionJobLogRepository;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.retention.HotStorageTracker.Usage;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.ArchiveTarget;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.Chunk;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.JobOutcome;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicResult;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicTask;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fait respecter {@code hotMaxMessages} et {@code hotMaxSizeMb} entre deux jobs horaires.
+ * <p>
+ * Chaque passage ne lit que les compteurs de {@link HotStorageTracker} ; seuls les topics au-dessus
+ * d'un plafond sont mesurés exactement (un {@code COUNT} indexé par topic) puis ramenés sous le
+ * seuil bas ({@code low-watermark}) en déplaçant leurs plus anciens messages par chunks : archivés
+ * si la politique l'active, sinon supprimés si la purge automatique est autorisée.
+ * <p>
+ * Un topic qui reste au-dessus de son plafond parce qu'il ne contient plus que des favoris est
+ * mis de côté : il n'est plus mesuré ni journalisé tant que son usage ne grandit pas, que sa
+ * politique ne change pas ou jusqu'au prochain recalage des compteurs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotCapacityEnforcer {
+
+    private static final long BYTES_PER_MB = 1024L * 1024;
+
+    /** Plafonds effectifs d'un topic ; {@code 0} = pas de plafond. */
+    record TopicCap(Long topicId, String topicName, Long connectionId, String connectionName,
+                    long maxRows, long maxBytes, boolean archive, boolean includeBookmarked) {
+
+        /** Cutoff « maintenant » : tout message déjà écrit peut sortir, du plus ancien au plus récent. */
+        ArchiveTarget target() {
+            return new ArchiveTarget(topicId, topicName, connectionId, connectionName,
+                    LocalDateTime.now(), includeBookmarked);
+        }
+
+        boolean exceededBy(Usage usage) {
+            return (maxRows > 0 && usage.rows() > maxRows) || (maxBytes > 0 && usage.bytes() > maxBytes);
+        }
+    }
+
+    /** Usage d'un topic qui ne pouvait plus descendre sous {@code cap} ; seuls des favoris restaient. */
+    private record Pinned(TopicCap cap, Usage usage) {
+
+        boolean stillHolds(TopicCap current, Usage now) {
+            return cap.equals(current) && now.rows() <= usage.rows() && now.bytes() <= usage.bytes();
+        }
+    }
+
+    private final HotStorageTracker hotStorage;
+    private final KafkaMessageRepository messageRepository;
+    private final KafkaTopicRepository topicRepository;
+    private final RetentionJobLogRepository jobLogRepository;
+    private final RetentionPolicyService policyService;
+    private final RetentionChunkArchiver chunkArchiver;
+    private final RetentionTopicExecutor topicExecutor;
+    private final SearchIndexService searchIndex;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${app.retention.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.retention.capacity.low-watermark:0.9}")
+    private double lowWatermark;
+
+    @Value("${app.retention.capacity.time-budget-seconds:60}")
+    private int timeBudgetSeconds;
+
+    @Value("${app.retention.capacity.policy-refresh-seconds:60}")
+    private int policyRefreshSeconds;
+
+    @Value("${app.retention.capacity.resync-hours:6}")
+    private int resyncHours;
+
+    private volatile Map<Long, TopicCap> caps = Map.of();
+    private final Map<Long, Pinned> pinned = new ConcurrentHashMap<>();
+    private long capsLoadedAt;
+    private long resyncedAt;
+
+    /**
+     * Ramène sous leurs plafonds les topics qui les dépassent. Retourne {@code null} sans rien
+     * journaliser quand aucun topic ne dépasse : c'est le cas normal, vérifié à chaque passage.
+     */
+    public RetentionJobLog enforceCaps() {
+        refreshIfDue();
+
+        Map<Long, Usage> usage = hotStorage.snapshot();
+        List<TopicCap> exceeded = caps.values().stream()
+                .filter(cap -> {
+                    Usage current = usage.getOrDefault(cap.topicId(), Usage.EMPTY);
+                    return cap.exceededBy(current) && !isPinned(cap, current);
+                })
+                .toList();
+        if (exceeded.isEmpty()) {
+            return null;
+        }
+
+        RetentionJobLog jobLog = RetentionJobLog.start(JobType.PURGE_HOT);
+        jobLogRepository.save(jobLog);
+
+        try {
+            List<TopicTask> tasks = new ArrayList<>();
+            for (TopicCap cap : exceeded) {
+                tasks.add(new TopicTask(cap.topicId(), cap.topicName(), deadline -> enforce(cap, deadline)));
+            }
+
+            JobOutcome outcome = topicExecutor.run(jobLog, tasks, Duration.ofSeconds(timeBudgetSeconds));
+
+            for (RetentionJobTopicLog topic : outcome.topics()) {
+                TopicCap cap = caps.get(topic.getTopicId());
+                if (cap != null && cap.archive()) {
+                    jobLog.incrementArchived(topic.getRowsProcessed().intValue(), topic.getBytesProcessed());
+                } else {
+                    jobLog.incrementDeleted(topic.getRowsProcessed().intValue(), topic.getBytesProcessed());
+                }
+            }
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("trigger", "capacity");
+            details.put("lowWatermark", lowWatermark);
+            details.putAll(outcome.summary());
+            jobLog.setDetails(details);
+            jobLog.complete();
+            jobLog.setErrorMessage(outcome.failureMessage());
+            if (jobLog.getMessagesProcessed() > 0) {
+                log.info("Capacity enforcement moved {} messages out of hot storage for {} topics",
+                        jobLog.getMessagesProcessed(), exceeded.size());
+            }
+
+        } catch (Exception e) {
+            log.error("Capacity enforcement failed", e);
+            jobLog.fail(e.getMessage());
+        }
+
+        pipelineMetrics.recordRetentionJob(jobLog);
+        return jobLogRepository.save(jobLog);
+    }
+
+    /** Mesure le topic, puis déplace ses plus anciens messages jusqu'au seuil bas ou à l'échéance. */
+    private TopicResult enforce(TopicCap cap, long deadline) {
+        Long topicId = cap.topicId();
+        ArchiveTarget target = cap.target();
+        // Les compteurs déclenchent, la mesure décide : un compteur surestimé ne supprime rien
+        Object[] measured = messageRepository.measureHotUsage(topicId).get(0);
+        long rows = ((Number) measured[0]).longValue();
+        long bytes = ((Number) measured[1]).longValue();
+        hotStorage.reset(topicId, rows, bytes);
+
+        long rowsToFree = excess(rows, cap.maxRows());
+        long bytesToFree = excess(bytes, cap.maxBytes());
+        long movedRows = 0;
+        long movedBytes = 0;
+        int chunks = 0;
+
+        while ((rowsToFree > 0 || bytesToFree > 0) && System.nanoTime() < deadline) {
+            long averageSize = rows > 0 ? Math.max(1, bytes / rows) : 1;
+            long needed = Math.max(rowsToFree, (bytesToFree + averageSize - 1) / averageSize);
+            int size = (int) Math.min(chunkSize, Math.max(1, needed));
+
+            Chunk chunk = cap.archive()
+                    ? chunkArchiver.archiveChunk(target, size, ArchiveReason.CLEANUP)
+                    : chunkArchiver.evictChunk(target, size);
+            if (chunk.rows() == 0) {
+                // Il ne reste que des messages protégés (favoris) : rien de plus à déplacer
+                log.warn("Topic {} stays above its hot storage cap: remaining messages are bookmarked",
+                        cap.topicName());
+                pinned.put(topicId, new Pinned(cap, hotStorage.get(topicId)));
+                return new TopicResult(movedRows, movedBytes, chunks, true);
+            }
+            if (cap.archive()) {
+                searchIndex.indexArchiveIds(chunk.archiveIds());
+            }
+            movedRows += chunk.rows();
+            movedBytes += chunk.bytes();
+            chunks++;
+            rowsToFree -= chunk.rows();
+            bytesToFree -= chunk.bytes();
+        }
+        return new TopicResult(movedRows, movedBytes, chunks, rowsToFree <= 0 && bytesToFree <= 0);
+    }
+
+    /** Vrai si le topic est bloqué par ses favoris et que ni son usage ni son plafond n'ont changé depuis. */
+    private boolean isPinned(TopicCap cap, Usage current) {
+        Pinned entry = pinned.get(cap.topicId());
+        if (entry == null) {
+            return false;
+        }
+        if (entry.stillHolds(cap, current)) {
+            return true;
+        }
+        pinned.remove(cap.topicId());
+        return false;
+    }
+
+    /** Quantité à libérer pour revenir au seuil bas, {@code 0} si le plafond est respecté. */
+    private long excess(long value, long cap) {
+        if (cap <= 0 || value <= cap) {
+            return 0;
+        }
+        return value - (long) Math.floor(cap * lowWatermark);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // PLAFONDS ET RECALAGE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void refreshIfDue() {
+        long now = System.currentTimeMillis();
+        if (hotStorage.isStale() || now - resyncedAt >= resyncHours * 3_600_000L) {
+            hotStorage.resetAll(messageRepository.sumHotUsageByTopic());
+            resyncedAt = now;
+            // Favoris retirés entre-temps : chaque topic bloqué est réessayé une fois par recalage
+            pinned.clear();
+        }
+        if (capsLoadedAt == 0 || now - capsLoadedAt >= policyRefreshSeconds * 1000L) {
+            caps = loadCaps();
+            capsLoadedAt = now;
+        }
+    }
+
+    /** Politique effective de chaque topic ; sans archivage ni purge automatique, pas de plafond appliqué. */
+    private Map<Long, TopicCap> loadCaps() {
+        Map<Long, TopicCap> loaded = new HashMap<>();
+        List<KafkaTopic> topics = topicRepository.findAll();
+        for (KafkaTopic topic : topics) {
+            RetentionPolicy policy = policyService.getEffectivePolicy(topic.getId(), topic.getConnection().getId());
+            if (policy == null) continue;
+
+            boolean archive = Boolean.TRUE.equals(policy.getArchiveEnabled());
+            if (!archive && !Boolean.TRUE.equals(policy.getAutoPurgeEnabled())) continue;
+
+            long maxRows = policy.getHotMaxMessages() != null ? Math.max(0, policy.getHotMaxMessages()) : 0;
+            long maxBytes = policy.getHotMaxSizeMb() != null ? Math.max(0, policy.getHotMaxSizeMb()) * BYTES_PER_MB : 0;
+            if (maxRows == 0 && maxBytes == 0) continue;
+
+            loaded.put(topic.getId(), new TopicCap(topic.getId(), topic.getName(),
+                    topic.getConnection().getId(), topic.getConnection().getName(),
+                    maxRows, maxBytes, archive, Boolean.TRUE.equals(policy.getPurgeBookmarked())));
+        }
+        hotStorage.retainAll(topics.stream().map(KafkaTopic::getId).toList());
+        pinned.keySet().retainAll(loaded.keySet());
+        return loaded;
+    }
+}
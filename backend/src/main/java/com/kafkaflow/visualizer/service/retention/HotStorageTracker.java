@@ -0,0 +1,127 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Occupation du stockage chaud ({@code kafka_messages}) par topic : lignes et octets, tenus à jour
+ * à l'ingestion et à l'archivage, sans {@code COUNT} ni {@code SUM}.
+ * <p>
+ * Les compteurs servent de déclencheur à {@link HotCapacityEnforcer} : ils peuvent dériver (purges
+ * en masse, restaurations, incréments concurrents d'un recalage), c'est pourquoi l'enforcer mesure
+ * exactement un topic avant d'en supprimer quoi que ce soit, et les recale périodiquement.
+ */
+@Component
+public class HotStorageTracker {
+
+    public record Usage(long rows, long bytes) {
+        public static final Usage EMPTY = new Usage(0, 0);
+    }
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    private volatile boolean stale = true;
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // MISE À JOUR INCRÉMENTALE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void recordIngest(Long topicId, long bytes) {
+        counter(topicId).add(1, bytes);
+    }
+
+    public void recordRemoved(Long topicId, long rows, long bytes) {
+        Counter counter = counters.get(topicId);
+        if (counter != null) {
+            counter.add(-rows, -bytes);
+        }
+    }
+
+    /** Remplace les compteurs d'un topic par une mesure exacte. */
+    public void reset(Long topicId, long rows, long bytes) {
+        counter(topicId).set(rows, bytes);
+    }
+
+    public void forget(Long topicId) {
+        counters.remove(topicId);
+    }
+
+    /** Ne garde que les topics encore existants. */
+    public void retainAll(Collection<Long> topicIds) {
+        counters.keySet().retainAll(topicIds);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // RECALAGE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Demande un recalage complet, après une suppression en masse dont la répartition est inconnue. */
+    public void markStale() {
+        stale = true;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Recale tous les topics depuis des lignes {@code (Long topicId, Number rows, Number bytes)}.
+     * Les messages ingérés pendant la requête peuvent être comptés deux fois ou pas du tout ;
+     * l'écart est borné par le débit et corrigé à la mesure suivante.
+     */
+    public void resetAll(List<Object[]> usageByTopic) {
+        Map<Long, Counter> measured = new HashMap<>();
+        for (Object[] row : usageByTopic) {
+            Counter counter = new Counter();
+            counter.set(((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+            measured.put((Long) row[0], counter);
+        }
+        counters.keySet().retainAll(measured.keySet());
+        measured.forEach((topicId, counter) -> counter(topicId).set(counter.rows.get(), counter.bytes.get()));
+        stale = false;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // LECTURE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public Usage get(Long topicId) {
+        Counter counter = counters.get(topicId);
+        return counter != null ? counter.usage() : Usage.EMPTY;
+    }
+
+    public Map<Long, Usage> snapshot() {
+        Map<Long, Usage> snapshot = new HashMap<>();
+        counters.forEach((topicId, counter) -> snapshot.put(topicId, counter.usage()));
+        return snapshot;
+    }
+
+    private Counter counter(Long topicId) {
+        return counters.computeIfAbsent(topicId, id -> new Counter());
+    }
+
+    private static final class Counter {
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        void add(long rowDelta, long byteDelta) {
+            rows.updateAndGet(value -> Math.max(0, value + rowDelta));
+            bytes.updateAndGet(value -> Math.max(0, value + byteDelta));
+        }
+
+        void set(long rowCount, long byteCount) {
+            rows.set(rowCount);
+            bytes.set(byteCount);
+        }
+
+        Usage usage() {
+            return new Usage(rows.get(), bytes.get());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.KafkaMessage;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
+import com.kafkaflow.visualizer.model.KafkaMessageStats;
+import com.kafkaflow.visualizer.util.HyperLogLog;
+import com.kafkaflow.visualizer.util.QuantileSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrégats horaires alimentés à l'ingestion, en attente d'écriture dans {@code kafka_messages_stats}.
+ * <p>
+ * Un bucket par (topic, heure) ne contient que des compteurs (dont un par minute, pour le pic), deux
+ * sketches HyperLogLog (clés et partitions) et un sketch de quantiles des tailles, tous de taille
+ * bornée : la mémoire ne dépend ni du débit ni du nombre de clés distinctes.
+ * {@link #drain()} détache les buckets courants, que {@link RetentionStatsService} fusionne en base.
+ */
+@Component
+public class HourlyStatsAccumulator {
+
+    private final Map<BucketKey, HourBucket> buckets = new ConcurrentHashMap<>();
+
+    private final int keyPrecision;
+
+    private final int partitionPrecision;
+
+    private final double sizeAccuracy;
+
+    @Autowired
+    public HourlyStatsAccumulator(
+            @Value("${app.stats.hll.key-precision:12}") int keyPrecision,
+            @Value("${app.stats.hll.partition-precision:8}") int partitionPrecision,
+            @Value("${app.stats.size-sketch.relative-accuracy:0.01}") double sizeAccuracy) {
+        // Validation immédiate : une précision hors bornes ferait échouer chaque ingestion
+        new HyperLogLog(keyPrecision);
+        new HyperLogLog(partitionPrecision);
+        new QuantileSketch(sizeAccuracy);
+        this.keyPrecision = keyPrecision;
+        this.partitionPrecision = partitionPrecision;
+        this.sizeAccuracy = sizeAccuracy;
+    }
+
+    /** Précisions par défaut, pour les tests. */
+    HourlyStatsAccumulator() {
+        this(12, 8, 0.01);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENREGISTREMENT
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void record(Long topicId, Long connectionId, LocalDateTime timestamp,
+                       KafkaMessage.MessageType type, int size, String key, Integer partition) {
+        BucketKey bucketKey = new BucketKey(topicId, timestamp.truncatedTo(ChronoUnit.HOURS));
+        MessageType statsType = type != null ? MessageType.valueOf(type.name()) : MessageType.NORMAL;
+
+        // compute() verrouille la clé : un drain() concurrent ne peut pas perdre cet incrément
+        buckets.compute(bucketKey, (k, bucket) -> {
+            HourBucket target = bucket != null ? bucket : newBucket(connectionId);
+            target.add(statsType, size, timestamp, key, partition);
+            return target;
+        });
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // FLUSH
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Détache tous les buckets en attente et les retourne sous forme de deltas de stats.
+     */
+    public List<KafkaMessageStats> drain() {
+        List<KafkaMessageStats> deltas = new ArrayList<>(buckets.size());
+        for (BucketKey key : buckets.keySet()) {
+            HourBucket bucket = buckets.remove(key);
+            if (bucket != null) {
+                deltas.add(bucket.toDelta(key));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Réinjecte des deltas dont l'écriture a échoué, pour le prochain flush.
+     */
+    public void restore(List<KafkaMessageStats> deltas) {
+        for (KafkaMessageStats delta : deltas) {
+            BucketKey key = new BucketKey(delta.getTopicId(), delta.getHourBucket());
+            buckets.compute(key, (k, bucket) -> {
+                HourBucket target = bucket != null ? bucket : newBucket(delta.getConnectionId());
+                target.merge(delta);
+                return target;
+            });
+        }
+    }
+
+    public int getPendingBuckets() {
+        return buckets.size();
+    }
+
+    public int getKeyPrecision() {
+        return keyPrecision;
+    }
+
+    private HourBucket newBucket(Long connectionId) {
+        return new HourBucket(connectionId, new HyperLogLog(keyPrecision), new HyperLogLog(partitionPrecision),
+                new QuantileSketch(sizeAccuracy));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // BUCKETS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private record BucketKey(Long topicId, LocalDateTime hourBucket) {}
+
+    /** Muté uniquement sous le verrou de {@code compute()} sur sa clé. */
+    private static final class HourBucket {
+
+        private final Long connectionId;
+        private int messageCount;
+        private int normalCount;
+        private int errorCount;
+        private int warningCount;
+        private int systemCount;
+        private long totalSizeBytes;
+        private int minSizeBytes = Integer.MAX_VALUE;
+        private int maxSizeBytes;
+        private LocalDateTime firstMessageAt;
+        private LocalDateTime lastMessageAt;
+        private HyperLogLog uniqueKeys;
+        private HyperLogLog uniquePartitions;
+        private final QuantileSketch sizes;
+        private final int[] minuteCounts = new int[KafkaMessageStats.MINUTES_PER_HOUR];
+
+        HourBucket(Long connectionId, HyperLogLog uniqueKeys, HyperLogLog uniquePartitions, QuantileSketch sizes) {
+            this.connectionId = connectionId;
+            this.uniqueKeys = uniqueKeys;
+            this.uniquePartitions = uniquePartitions;
+            this.sizes = sizes;
+        }
+
+        void add(MessageType type, int size, LocalDateTime timestamp, String key, Integer partition) {
+            messageCount++;
+            totalSizeBytes += size;
+            switch (type) {
+                case NORMAL -> normalCount++;
+                case ERROR -> errorCount++;
+                case WARNING -> warningCount++;
+                case SYSTEM -> systemCount++;
+            }
+            minSizeBytes = Math.min(minSizeBytes, size);
+            maxSizeBytes = Math.max(maxSizeBytes, size);
+            if (firstMessageAt == null || timestamp.isBefore(firstMessageAt)) firstMessageAt = timestamp;
+            if (lastMessageAt == null || timestamp.isAfter(lastMessageAt)) lastMessageAt = timestamp;
+            uniqueKeys.add(key);
+            if (partition != null) uniquePartitions.add(partition);
+            sizes.add(size);
+            minuteCounts[timestamp.getMinute()]++;
+        }
+
+        void merge(KafkaMessageStats delta) {
+            messageCount += delta.getMessageCount();
+            normalCount += delta.getNormalCount();
+            errorCount += delta.getErrorCount();
+            warningCount += delta.getWarningCount();
+            systemCount += delta.getSystemCount();
+            totalSizeBytes += delta.getTotalSizeBytes();
+            minSizeBytes = Math.min(minSizeBytes, delta.getMinSizeBytes());
+            maxSizeBytes = Math.max(maxSizeBytes, delta.getMaxSizeBytes());
+            if (firstMessageAt == null || delta.getFirstMessageAt().isBefore(firstMessageAt)) {
+                firstMessageAt = delta.getFirstMessageAt();
+            }
+            if (lastMessageAt == null || delta.getLastMessageAt().isAfter(lastMessageAt)) {
+                lastMessageAt = delta.getLastMessageAt();
+            }
+            if (delta.getUniqueKeysSketch() != null) {
+                uniqueKeys = uniqueKeys.union(HyperLogLog.fromBytes(delta.getUniqueKeysSketch()));
+            }
+            if (delta.getUniquePartitionsSketch() != null) {
+                uniquePartitions = uniquePartitions.union(HyperLogLog.fromBytes(delta.getUniquePartitionsSketch()));
+            }
+            if (delta.getSizeSketch() != null) {
+                sizes.merge(QuantileSketch.fromBytes(delta.getSizeSketch()));
+            }
+            int[] deltaMinutes = KafkaMessageStats.decodeMinuteCounts(delta.getMinuteCounts());
+            for (int minute = 0; minute < minuteCounts.length; minute++) {
+                minuteCounts[minute] += deltaMinutes[minute];
+            }
+        }
+
+        KafkaMessageStats toDelta(BucketKey key) {
+            KafkaMessageStats delta = KafkaMessageStats.createForHour(key.topicId(), connectionId, key.hourBucket());
+            delta.setMessageCount(messageCount);
+            delta.setNormalCount(normalCount);
+            delta.setErrorCount(errorCount);
+            delta.setWarningCount(warningCount);
+            delta.setSystemCount(systemCount);
+            delta.setTotalSizeBytes(totalSizeBytes);
+            delta.setMinSizeBytes(messageCount > 0 ? minSizeBytes : 0);
+            delta.setMaxSizeBytes(maxSizeBytes);
+            delta.setFirstMessageAt(firstMessageAt);
+            delta.setLastMessageAt(lastMessageAt);
+            delta.setUniqueKeysSketch(uniqueKeys.toBytes());
+            delta.setUniquePartitionsSketch(uniquePartitions.toBytes());
+            delta.setUniqueKeysCount((int) uniqueKeys.estimate());
+            delta.setUniquePartitionsCount((int) uniquePartitions.estimate());
+            delta.setSizeSketch(sizes.toBytes());
+            delta.setMinuteCounts(KafkaMessageStats.encodeMinuteCounts(minuteCounts));
+            delta.setPeakMessagesPerMinute(Arrays.stream(minuteCounts).max().orElse(0));
+            return delta;
+        }
+    }
+}
@@ -3,84 +3,130 @@ package com.kafkaflow.visualizer.service.retention;
 import com.kafkaflow.visualizer.model.*;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
 import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog.TopicStatus;
 import com.kafkaflow.visualizer.repository.*;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.profiling.PipelineEvents;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.ArchiveTarget;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.Chunk;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.JobOutcome;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicResult;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicTask;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RetentionArchiveService {
 
-    private final KafkaMessageRepository messageRepository;
     private final KafkaMessageArchiveRepository archiveRepository;
     private final RetentionPolicyRepository policyRepository;
     private final RetentionJobLogRepository jobLogRepository;
     private final KafkaTopicRepository topicRepository;
     private final RetentionPolicyService policyService;
-
-    private static final int BATCH_SIZE = 1000;
-
-    @Transactional
+    private final PipelineMetrics pipelineMetrics;
+    private final SearchIndexService searchIndex;
+    private final TablePartitionManager partitionManager;
+    private final RetentionChunkArchiver chunkArchiver;
+    private final RetentionTopicExecutor topicExecutor;
+    private final ColdArchiveStore coldStore;
+
+    @Value("${app.retention.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.retention.archive.time-budget-seconds:600}")
+    private int timeBudgetSeconds;
+
+    /**
+     * Archive les messages expirés par chunks de {@code chunk-size} lignes, chacun dans sa propre
+     * transaction ({@link RetentionChunkArchiver}), jusqu'à épuisement du backlog ou du budget de
+     * temps. Les topics sont traités en parallèle par {@link RetentionTopicExecutor} : un topic très
+     * chargé ou en erreur ne bloque pas les autres, et son débit est tracé dans sa ligne de suivi.
+     */
     public RetentionJobLog archiveOldMessages() {
         RetentionJobLog jobLog = RetentionJobLog.start(JobType.ARCHIVE);
         jobLogRepository.save(jobLog);
 
         try {
-            List<KafkaTopic> topics = topicRepository.findAll();
-            int totalArchived = 0;
-            long totalBytes = 0;
-
-            for (KafkaTopic topic : topics) {
+            List<TopicTask> tasks = new ArrayList<>();
+            for (KafkaTopic topic : topicRepository.findAll()) {
                 RetentionPolicy policy = policyService.getEffectivePolicy(
                         topic.getId(), topic.getConnection().getId());
 
                 if (policy == null || !policy.getArchiveEnabled()) {
                     continue;
                 }
-
-                LocalDateTime cutoff = policy.getHotCutoffTime();
-                List<KafkaMessage> messagesToArchive = messageRepository.findMessagesToArchive(
-                        topic.getId(), cutoff, policy.getPurgeBookmarked(), PageRequest.of(0, BATCH_SIZE));
-
-                if (messagesToArchive.isEmpty()) {
-                    continue;
-                }
-
-                List<KafkaMessageArchive> archives = new ArrayList<>(messagesToArchive.size());
-                List<Long> idsToDelete = new ArrayList<>(messagesToArchive.size());
-
-                for (KafkaMessage message : messagesToArchive) {
-                    archives.add(KafkaMessageArchive.fromMessage(
-                            message, topic.getName(), topic.getConnection().getId(),
-                            topic.getConnection().getName(), ArchiveReason.RETENTION));
-                    totalBytes += message.getValueSize() != null ? message.getValueSize() : 0;
-                    idsToDelete.add(message.getId());
-                }
-
-                archiveRepository.saveAll(archives);
-                messageRepository.deleteAllById(idsToDelete);
-                totalArchived += archives.size();
+                ArchiveTarget target = new ArchiveTarget(topic.getId(), topic.getName(),
+                        topic.getConnection().getId(), topic.getConnection().getName(),
+                        policy.getHotCutoffTime(), policy.getPurgeBookmarked());
+                tasks.add(new TopicTask(topic.getId(), topic.getName(), deadline -> archiveTopic(target, deadline)));
             }
 
-            jobLog.incrementArchived(totalArchived, totalBytes);
+            JobOutcome outcome = topicExecutor.run(jobLog, tasks, Duration.ofSeconds(timeBudgetSeconds));
+
+            jobLog.incrementArchived((int) outcome.rows(), outcome.bytes());
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("chunkSize", chunkSize);
+            details.put("concurrency", topicExecutor.getConcurrency());
+            details.putAll(outcome.summary());
+            jobLog.setDetails(details);
             jobLog.complete();
+            jobLog.setErrorMessage(outcome.failureMessage());
+            if (outcome.budgetExhausted()) {
+                log.info("Archive job stopped after {} s budget, {} topics still have a backlog", timeBudgetSeconds,
+                        outcome.count(TopicStatus.PARTIAL) + outcome.count(TopicStatus.SKIPPED));
+            }
 
         } catch (Exception e) {
             log.error("Archive job failed", e);
             jobLog.fail(e.getMessage());
         }
 
+        pipelineMetrics.recordRetentionJob(jobLog);
         return jobLogRepository.save(jobLog);
     }
 
+    /** Vide le backlog d'un topic chunk par chunk, jusqu'au dernier chunk incomplet ou à l'échéance. */
+    private TopicResult archiveTopic(ArchiveTarget target, long deadline) {
+        long rows = 0;
+        long bytes = 0;
+        int chunks = 0;
+        while (System.nanoTime() < deadline) {
+            PipelineEvents.ArchiveChunk event = new PipelineEvents.ArchiveChunk();
+            event.begin();
+
+            Chunk chunk = chunkArchiver.archiveChunk(target, chunkSize, ArchiveReason.RETENTION);
+
+            event.end();
+            if (chunk.rows() == 0) {
+                return new TopicResult(rows, bytes, chunks, true);
+            }
+            rows += chunk.rows();
+            bytes += chunk.bytes();
+            chunks++;
+            searchIndex.indexArchiveIds(chunk.archiveIds());
+
+            if (event.shouldCommit()) {
+                event.set(target.topicId(), chunk.rows(), chunk.bytes());
+                event.commit();
+            }
+            if (chunk.rows() < chunkSize) {
+                return new TopicResult(rows, bytes, chunks, true);
+            }
+        }
+        return new TopicResult(rows, bytes, chunks, false);
+    }
+
     @Transactional
     public RetentionJobLog purgeExpiredArchives() {
         RetentionJobLog jobLog = RetentionJobLog.start(JobType.PURGE_ARCHIVE);
@@ -90,9 +136,11 @@ public class RetentionArchiveService {
             RetentionPolicy globalPolicy = policyRepository.findGlobalPolicy()
                     .orElse(policyService.createDefaultPolicy());
             LocalDateTime cutoff = globalPolicy.getArchiveCutoffTime();
+            long dropped = partitionManager.dropPartitionsBefore(TablePartitionManager.PartitionedTable.ARCHIVES, cutoff);
             int deleted = archiveRepository.deleteExpiredArchives(cutoff);
+            long droppedCold = coldStore.dropArchivedBefore(cutoff);
 
-            jobLog.incrementDeleted(deleted, 0);
+            jobLog.incrementDeleted((int) (dropped + deleted + droppedCold), 0);
             jobLog.complete();
 
         } catch (Exception e) {
@@ -100,6 +148,7 @@ public class RetentionArchiveService {
             jobLog.fail(e.getMessage());
         }
 
+        pipelineMetrics.recordRetentionJob(jobLog);
         return jobLogRepository.save(jobLog);
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
+import com.kafkaflow.visualizer.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Déplace un chunk de messages vers les archives en une transaction courte, entièrement en SQL :
+ * {@code INSERT INTO kafka_messages_archive SELECT ...} puis {@code DELETE} sur la même plage d'ids.
+ * Aucune entité n'est chargée en mémoire et les verrous ne couvrent que le chunk. Les compteurs du
+ * stockage chaud ne sont décrémentés qu'après commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class RetentionChunkArchiver {
+
+    /** Topic à archiver, dénormalisé dans chaque ligne d'archive. */
+    public record ArchiveTarget(Long topicId, String topicName, Long connectionId, String connectionName,
+                                LocalDateTime cutoff, boolean includeBookmarked) {}
+
+    /**
+     * Chunk déplacé. {@code archiveIds} : ids des archives créées par ce chunk seulement (pour
+     * l'index de recherche) ; {@code rows == 0} = plus rien à archiver.
+     */
+    public record Chunk(int rows, long bytes, List<Long> archiveIds) {
+        static final Chunk EMPTY = new Chunk(0, 0, List.of());
+    }
+
+    /**
+     * Mêmes critères que {@link KafkaMessageRepository#deleteArchiveRange} et mêmes conversions que
+     * {@link KafkaMessageArchive#fromMessage}. {@code %s} : conversion texte → JSON des headers.
+     */
+    private static final String INSERT_ARCHIVES = "INSERT INTO kafka_messages_archive (original_id, topic_id, " +
+            "topic_name, connection_id, connection_name, partition_num, offset_num, msg_key, msg_value, timestamp, " +
+            "headers_json, message_type, content_type, value_size, archived_at, archive_reason) " +
+            "SELECT m.id, m.topic_id, :topicName, :connectionId, :connectionName, m.partition_number, " +
+            "m.offset_value, m.message_key, m.message_value, m.timestamp, %s, " +
+            "COALESCE(m.message_type, 'NORMAL'), m.content_type, " +
+            "CASE WHEN COALESCE(m.value_size, 0) = 0 THEN COALESCE(CHAR_LENGTH(m.message_value), 0) ELSE m.value_size END, " +
+            ":archivedAt, :reason " +
+            "FROM kafka_messages m WHERE m.topic_id = :topicId AND m.id BETWEEN :fromId AND :toId " +
+            "AND m.timestamp < :cutoff AND (:includeBookmarked = TRUE OR m.is_bookmarked = FALSE)";
+
+    private final KafkaMessageRepository messageRepository;
+    private final KafkaMessageArchiveRepository archiveRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HotStorageTracker hotStorage;
+
+    private volatile String insertSql;
+
+    @Transactional
+    public Chunk archiveChunk(ArchiveTarget target, int chunkSize, ArchiveReason reason) {
+        List<Long> ids = messageRepository.findIdsToArchive(
+                target.topicId(), target.cutoff(), target.includeBookmarked(), PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return Chunk.EMPTY;
+        }
+        // Ids triés : la plage [premier, dernier] ne contient que les lignes sélectionnées
+        long fromId = ids.get(0);
+        long toId = ids.get(ids.size() - 1);
+
+        Long archiveIdBefore = archiveRepository.findMaxId();
+        long bytes = messageRepository.sumValueSizeInArchiveRange(
+                target.topicId(), fromId, toId, target.cutoff(), target.includeBookmarked());
+        int inserted = jdbcTemplate.update(insertSql(), new MapSqlParameterSource()
+                .addValue("topicId", target.topicId())
+                .addValue("topicName", target.topicName())
+                .addValue("connectionId", target.connectionId())
+                .addValue("connectionName", target.connectionName())
+                .addValue("fromId", fromId)
+                .addValue("toId", toId)
+                .addValue("cutoff", target.cutoff())
+                .addValue("includeBookmarked", target.includeBookmarked())
+                .addValue("archivedAt", LocalDateTime.now())
+                .addValue("reason", reason.name()));
+        int deleted = messageRepository.deleteArchiveRange(
+                target.topicId(), fromId, toId, target.cutoff(), target.includeBookmarked());
+
+        if (inserted != deleted) {
+            // Rollback : un message supprimé sans archive (ou l'inverse) ne doit jamais être validé
+            throw new IllegalStateException(String.format(
+                    "Archive chunk %d-%d of topic %s: %d rows copied but %d deleted",
+                    fromId, toId, target.topicName(), inserted, deleted));
+        }
+        TransactionHooks.afterCommit(() -> hotStorage.recordRemoved(target.topicId(), deleted, bytes));
+        // Les workers des autres topics insèrent en parallèle : seules les lignes de ce chunk,
+        // toutes au-delà du max lu avant l'insert, sont retenues pour l'index
+        List<Long> archiveIds = archiveRepository.findIdsArchivedFrom(
+                archiveIdBefore != null ? archiveIdBefore : 0, target.topicId(), fromId, toId);
+        return new Chunk(inserted, bytes, archiveIds);
+    }
+
+    /** Supprime un chunk sans l'archiver (topics dont la politique désactive l'archivage). */
+    @Transactional
+    public Chunk evictChunk(ArchiveTarget target, int chunkSize) {
+        List<Long> ids = messageRepository.findIdsToArchive(
+                target.topicId(), target.cutoff(), target.includeBookmarked(), PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return Chunk.EMPTY;
+        }
+        long fromId = ids.get(0);
+        long toId = ids.get(ids.size() - 1);
+
+        long bytes = messageRepository.sumValueSizeInArchiveRange(
+                target.topicId(), fromId, toId, target.cutoff(), target.includeBookmarked());
+        int deleted = messageRepository.deleteArchiveRange(
+                target.topicId(), fromId, toId, target.cutoff(), target.includeBookmarked());
+        TransactionHooks.afterCommit(() -> hotStorage.recordRemoved(target.topicId(), deleted, bytes));
+        return new Chunk(deleted, bytes, List.of());
+    }
+
+    /** MySQL analyse le texte inséré dans une colonne JSON ; H2 doit le lire explicitement comme JSON. */
+    private String insertSql() {
+        if (insertSql == null) {
+            String product = jdbcTemplate.getJdbcTemplate().execute(
+                    (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            String headers = "H2".equalsIgnoreCase(product) ? "NULLIF(m.headers, '') FORMAT JSON" : "NULLIF(m.headers, '')";
+            insertSql = String.format(INSERT_ARCHIVES, headers);
+        }
+        return insertSql;
+    }
+}
@@ -4,6 +4,10 @@ import com.kafkaflow.visualizer.exception.ResourceNotFoundException;
 import com.kafkaflow.visualizer.model.*;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
 import com.kafkaflow.visualizer.repository.*;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import com.kafkaflow.visualizer.util.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +26,11 @@ public class RetentionManualService {
     private final KafkaMessageRepository messageRepository;
     private final KafkaMessageArchiveRepository archiveRepository;
     private final KafkaTopicRepository topicRepository;
+    private final TopicMetadataCache topicMetadataCache;
+    private final SearchIndexService searchIndex;
+    private final TablePartitionManager partitionManager;
+    private final HotStorageTracker hotStorage;
+    private final ColdArchiveStore coldStore;
 
     private static final int BATCH_SIZE = 100;
 
@@ -51,10 +60,12 @@ public class RetentionManualService {
             }
 
             archiveRepository.saveAll(archives);
+            TransactionHooks.afterCommit(() -> searchIndex.indexArchives(archives));
             messageRepository.deleteAllById(idsToDelete);
             totalArchived += batch.size();
 
         } while (!batch.isEmpty());
+        TransactionHooks.afterCommit(() -> hotStorage.forget(topicId));
 
         log.info("Manually archived {} messages for topic {}", totalArchived, topic.getName());
         return totalArchived;
@@ -80,7 +91,14 @@ public class RetentionManualService {
         }
 
         archiveRepository.saveAll(archives);
+        TransactionHooks.afterCommit(() -> searchIndex.indexArchives(archives));
         messageRepository.deleteAllById(idsToDelete);
+        TransactionHooks.afterCommit(() -> {
+            for (KafkaMessage message : messages) {
+                hotStorage.recordRemoved(message.getTopic().getId(), 1,
+                        message.getValueSize() != null ? message.getValueSize() : 0);
+            }
+        });
 
         log.info("Manually archived {} specific messages", archives.size());
         return archives.size();
@@ -106,11 +124,14 @@ public class RetentionManualService {
 
         if (deleteArchives) {
             archiveDeleted = archiveRepository.deleteByTopicId(topicId);
+            archiveDeleted += (int) coldStore.dropTopic(topicId);
         }
 
         topic.setMessageCount(0L);
         topic.setLastMessageAt(null);
         topicRepository.save(topic);
+        topicMetadataCache.invalidate(topicId);
+        TransactionHooks.afterCommit(() -> hotStorage.forget(topicId));
 
         log.info("Reset topic {}: {} hot messages, {} archives deleted",
                 topic.getName(), hotDeleted, archiveDeleted);
@@ -137,9 +158,14 @@ public class RetentionManualService {
                             topic.getConnection().getName(), ArchiveReason.CLEANUP));
                 }
                 archiveRepository.saveAll(archives);
+                TransactionHooks.afterCommit(() -> searchIndex.indexArchives(archives));
             }
         }
-        return messageRepository.deleteOlderThan(cutoff);
+        // Jours entiers par DROP PARTITION si la table est partitionnée, le reste ligne à ligne
+        long dropped = partitionManager.dropPartitionsBefore(TablePartitionManager.PartitionedTable.MESSAGES, cutoff);
+        int deleted = messageRepository.deleteOlderThan(cutoff);
+        TransactionHooks.afterCommit(hotStorage::markStale);
+        return (int) (dropped + deleted);
     }
 
     @Transactional
@@ -2,6 +2,10 @@ package com.kafkaflow.visualizer.service.retention;
 
 import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
 import com.kafkaflow.visualizer.repository.RetentionJobLogRepository;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.metrics.AnomalyDetector;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,6 +19,11 @@ public class RetentionScheduler {
     private final RetentionJobLogRepository jobLogRepository;
     private final RetentionArchiveService archiveService;
     private final RetentionStatsService statsService;
+    private final AnomalyDetector anomalyDetector;
+    private final SearchIndexService searchIndexService;
+    private final TablePartitionManager partitionManager;
+    private final HotCapacityEnforcer capacityEnforcer;
+    private final ColdArchiveStore coldArchiveStore;
 
     @Scheduled(cron = "0 5 * * * *")
     public void scheduledArchiveJob() {
@@ -32,6 +41,49 @@ public class RetentionScheduler {
         archiveService.purgeExpiredArchives();
     }
 
+    /** Déplace les archives anciennes vers les segments du tier froid, après la purge de la nuit. */
+    @Scheduled(cron = "${app.archive.cold.cron:0 0 4 * * *}")
+    public void scheduledColdArchiveMigration() {
+        try {
+            coldArchiveStore.migrateColdArchives();
+        } catch (Exception e) {
+            log.warn("Cold archive migration failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /** Contrôle en mémoire à chaque passage ; n'écrit un job PURGE_HOT que si un topic dépasse son plafond. */
+    @Scheduled(fixedDelayString = "${app.retention.capacity.check-interval-ms:10000}", initialDelay = 30000)
+    public void scheduledCapacityEnforcement() {
+        try {
+            capacityEnforcer.enforceCaps();
+        } catch (Exception e) {
+            log.warn("Hot storage capacity enforcement failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void scheduledStatsFlush() {
+        try {
+            statsService.flushAccumulatedStats();
+        } catch (Exception e) {
+            log.warn("Stats flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void scheduledSearchIndexMaintenance() {
+        try {
+            searchIndexService.maintain();
+        } catch (Exception e) {
+            log.warn("Search index maintenance failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushStatsOnShutdown() {
+        scheduledStatsFlush();
+    }
+
     @Scheduled(cron = "0 0 * * * *")
     public void scheduledStatsAggregationJob() {
         if (jobLogRepository.isJobRunning(JobType.STATS_AGGREGATE)) {
@@ -44,4 +96,22 @@ public class RetentionScheduler {
     public void scheduledStatsCleanupJob() {
         statsService.cleanupOldStats();
     }
+
+    @Scheduled(cron = "0 30 0 * * *")
+    public void scheduledPartitionMaintenance() {
+        try {
+            partitionManager.ensureFuturePartitions();
+        } catch (Exception e) {
+            log.error("Failed to create upcoming partitions: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 15 3 * * *")
+    public void scheduledAnomalyCleanupJob() {
+        try {
+            anomalyDetector.purgeExpired();
+        } catch (Exception e) {
+            log.warn("Anomaly cleanup failed: {}", e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -1,17 +1,37 @@
 package com.kafkaflow.visualizer.service.retention;
 
+import com.kafkaflow.visualizer.dto.RetentionDto.CardinalityResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.SizeDistributionResponse;
 import com.kafkaflow.visualizer.model.*;
 import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
 import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog.TopicStatus;
 import com.kafkaflow.visualizer.repository.*;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.JobOutcome;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicResult;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicTask;
+import com.kafkaflow.visualizer.util.HyperLogLog;
+import com.kafkaflow.visualizer.util.QuantileSketch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,46 +44,137 @@ public class RetentionStatsService {
     private final RetentionJobLogRepository jobLogRepository;
     private final KafkaTopicRepository topicRepository;
     private final RetentionPolicyService policyService;
+    private final PipelineMetrics pipelineMetrics;
+    private final HourlyStatsAccumulator statsAccumulator;
+    private final RetentionTopicExecutor topicExecutor;
+    private final TransactionTemplate transactionTemplate;
 
+    private static final double[] SIZE_QUANTILES = {0.5, 0.75, 0.9, 0.95, 0.99, 0.999};
+
+    /** Un flush à la fois, tenu jusqu'à la fin de sa transaction. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Écrit en base les agrégats accumulés à l'ingestion (upsert par topic et par heure). Les deltas
+     * vidés de l'accumulateur y sont remis si la transaction est annulée, y compris au commit.
+     * <p>
+     * Planificateur, réconciliation et endpoint manuel peuvent flusher en même temps : sans verrou,
+     * deux transactions ne voient pas la ligne (topic, heure) encore non validée de l'autre et
+     * l'insèrent toutes les deux, la seconde échoue sur la contrainte d'unicité. Le verrou n'est
+     * rendu qu'après commit ou rollback.
+     */
     @Transactional
+    public int flushAccumulatedStats() {
+        flushLock.lock();
+        boolean releasedAtCompletion = false;
+        try {
+            List<KafkaMessageStats> deltas = statsAccumulator.drain();
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK) {
+                            statsAccumulator.restore(deltas);
+                        }
+                        flushLock.unlock();
+                    }
+                });
+                releasedAtCompletion = true;
+                flush(deltas);
+                return deltas.size();
+            }
+
+            try {
+                flush(deltas);
+            } catch (RuntimeException e) {
+                // Sans transaction : les deltas repartent au prochain flush
+                statsAccumulator.restore(deltas);
+                throw e;
+            }
+
+            return deltas.size();
+        } finally {
+            if (!releasedAtCompletion) {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void flush(List<KafkaMessageStats> deltas) {
+        for (KafkaMessageStats delta : deltas) {
+            KafkaMessageStats stats = statsRepository
+                    .findByTopicIdAndHourBucket(delta.getTopicId(), delta.getHourBucket())
+                    .orElseGet(() -> KafkaMessageStats.createForHour(
+                            delta.getTopicId(), delta.getConnectionId(), delta.getHourBucket()));
+            stats.merge(delta);
+            statsRepository.save(stats);
+        }
+    }
+
+    /**
+     * Réconciliation horaire : les stats sont maintenues à l'ingestion, ce job vérifie seulement
+     * l'heure écoulée (un COUNT groupé) et ne recalcule, par agrégats SQL, que les topics divergents
+     * (redémarrage avant flush, messages insérés hors du chemin d'ingestion...). Les topics divergents
+     * sont reconstruits en parallèle par {@link RetentionTopicExecutor}, chacun dans sa transaction.
+     */
     public RetentionJobLog aggregateStats() {
         RetentionJobLog jobLog = RetentionJobLog.start(JobType.STATS_AGGREGATE);
         jobLogRepository.save(jobLog);
 
         try {
+            // Transaction validée avant les workers : ils mettent à jour les mêmes lignes horaires
+            transactionTemplate.execute(status -> flushAccumulatedStats());
+
             LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
             LocalDateTime previousHour = currentHour.minusHours(1);
-            List<KafkaTopic> topics = topicRepository.findAll();
-            int processed = 0;
 
-            for (KafkaTopic topic : topics) {
-                long messageCount = countMessagesInHour(topic.getId(), previousHour);
+            Map<Long, Integer> existingCounts = statsRepository.findByHourBucket(previousHour).stream()
+                    .collect(Collectors.toMap(KafkaMessageStats::getTopicId, KafkaMessageStats::getMessageCount));
+            List<TopicTask> tasks = new ArrayList<>();
+
+            for (Object[] row : messageRepository.countByTopicInRange(previousHour, currentHour)) {
+                Long topicId = (Long) row[0];
+                long messageCount = ((Number) row[1]).longValue();
+                Integer existingCount = existingCounts.get(topicId);
 
-                if (messageCount == 0) {
+                if (messageCount == 0 || (existingCount != null && existingCount == messageCount)) {
                     continue;
                 }
 
-                KafkaMessageStats stats = statsRepository
-                        .findByTopicIdAndHourBucket(topic.getId(), previousHour)
-                        .orElse(KafkaMessageStats.createForHour(
-                                topic.getId(), topic.getConnection().getId(), previousHour));
-
-                updateStatsFromMessages(stats, topic.getId(), previousHour);
-                statsRepository.save(stats);
-                processed++;
+                Optional<KafkaTopic> topic = topicRepository.findByIdWithConnection(topicId);
+                Long connectionId = topic.map(t -> t.getConnection().getId()).orElse(null);
+                tasks.add(new TopicTask(topicId, topic.map(KafkaTopic::getName).orElse(null),
+                        deadline -> reconcileHour(topicId, connectionId, previousHour)));
             }
 
-            jobLog.setMessagesProcessed(processed);
+            JobOutcome outcome = topicExecutor.run(jobLog, tasks);
+
+            jobLog.setMessagesProcessed((int) outcome.count(TopicStatus.COMPLETED));
+            jobLog.setDetails(outcome.summary());
             jobLog.complete();
+            jobLog.setErrorMessage(outcome.failureMessage());
 
         } catch (Exception e) {
             log.error("Stats aggregation job failed", e);
             jobLog.fail(e.getMessage());
         }
 
+        pipelineMetrics.recordRetentionJob(jobLog);
         return jobLogRepository.save(jobLog);
     }
 
+    /** Reconstruit l'heure d'un topic divergent ; exécuté sur un worker de rétention. */
+    private TopicResult reconcileHour(Long topicId, Long connectionId, LocalDateTime hour) {
+        KafkaMessageStats stats = statsRepository.findByTopicIdAndHourBucket(topicId, hour)
+                .orElseGet(() -> KafkaMessageStats.createForHour(topicId, connectionId, hour));
+        rebuildStats(stats, topicId, hour);
+        statsRepository.save(stats);
+        return new TopicResult(stats.getMessageCount(), stats.getTotalSizeBytes(), 1, true);
+    }
+
     @Transactional
     public RetentionJobLog cleanupOldStats() {
         RetentionJobLog jobLog = RetentionJobLog.start(JobType.STATS_CLEANUP);
@@ -83,28 +194,126 @@ public class RetentionStatsService {
             jobLog.fail(e.getMessage());
         }
 
+        pipelineMetrics.recordRetentionJob(jobLog);
         return jobLogRepository.save(jobLog);
     }
 
-    private long countMessagesInHour(Long topicId, LocalDateTime hour) {
-        return messageRepository.countByTopicIdAndTimestampBetween(
-                topicId, hour, hour.plusHours(1));
+    /** Recalcule l'heure à partir d'agrégats SQL groupés par type, sans charger les messages. */
+    private void rebuildStats(KafkaMessageStats stats, Long topicId, LocalDateTime hour) {
+        stats.resetCounters();
+
+        for (Object[] row : messageRepository.aggregateByMessageType(topicId, hour, hour.plusHours(1))) {
+            KafkaMessage.MessageType type = (KafkaMessage.MessageType) row[0];
+            int count = ((Number) row[1]).intValue();
+
+            KafkaMessageStats delta = KafkaMessageStats.createForHour(topicId, stats.getConnectionId(), hour);
+            delta.setMessageCount(count);
+            switch (type != null ? MessageType.valueOf(type.name()) : MessageType.NORMAL) {
+                case NORMAL -> delta.setNormalCount(count);
+                case ERROR -> delta.setErrorCount(count);
+                case WARNING -> delta.setWarningCount(count);
+                case SYSTEM -> delta.setSystemCount(count);
+            }
+            delta.setTotalSizeBytes(((Number) row[2]).longValue());
+            delta.setMinSizeBytes(row[3] != null ? ((Number) row[3]).intValue() : 0);
+            delta.setMaxSizeBytes(row[4] != null ? ((Number) row[4]).intValue() : 0);
+            delta.setFirstMessageAt((LocalDateTime) row[5]);
+            delta.setLastMessageAt((LocalDateTime) row[6]);
+            stats.merge(delta);
+        }
+
+        int[] minuteCounts = new int[KafkaMessageStats.MINUTES_PER_HOUR];
+        for (Object[] row : messageRepository.countByMinute(topicId, hour, hour.plusHours(1))) {
+            minuteCounts[((Number) row[0]).intValue()] = ((Number) row[1]).intValue();
+        }
+        stats.setMinuteCounts(KafkaMessageStats.encodeMinuteCounts(minuteCounts));
+        stats.setPeakMessagesPerMinute(Arrays.stream(minuteCounts).max().orElse(0));
+    }
+
+    /**
+     * Cardinalités (clés et partitions distinctes) sur une plage arbitraire, par union des sketches horaires.
+     */
+    public CardinalityResponse getCardinality(Long topicId, LocalDateTime start, LocalDateTime end) {
+        List<KafkaMessageStats> hours = statsRepository.findByTopicIdAndHourBucketBetweenOrderByHourBucketAsc(
+                topicId, start, end);
+
+        HyperLogLog keys = null;
+        HyperLogLog partitions = null;
+        for (KafkaMessageStats stats : hours) {
+            keys = union(keys, stats.getUniqueKeysSketch());
+            partitions = union(partitions, stats.getUniquePartitionsSketch());
+        }
+
+        int precision = keys != null ? keys.getPrecision() : statsAccumulator.getKeyPrecision();
+        return CardinalityResponse.builder()
+                .topicId(topicId)
+                .start(start)
+                .end(end)
+                .hoursMerged(hours.size())
+                .uniqueKeys(keys != null ? keys.estimate() : 0L)
+                .uniquePartitions(partitions != null ? partitions.estimate() : 0L)
+                .precision(precision)
+                .standardErrorPercent(HyperLogLog.standardError(precision) * 100)
+                .build();
+    }
+
+    /**
+     * Distribution des tailles et pic par minute sur une plage arbitraire, par fusion des sketches horaires.
+     */
+    public SizeDistributionResponse getSizeDistribution(Long topicId, LocalDateTime start, LocalDateTime end) {
+        List<KafkaMessageStats> hours = statsRepository.findByTopicIdAndHourBucketBetweenOrderByHourBucketAsc(
+                topicId, start, end);
+
+        QuantileSketch sizes = null;
+        KafkaMessageStats peakHour = null;
+        for (KafkaMessageStats stats : hours) {
+            if (stats.getSizeSketch() != null) {
+                QuantileSketch hourly = QuantileSketch.fromBytes(stats.getSizeSketch());
+                if (sizes == null) sizes = hourly;
+                else sizes.merge(hourly);
+            }
+            if (peakHour == null || stats.getPeakMessagesPerMinute() > peakHour.getPeakMessagesPerMinute()) {
+                peakHour = stats;
+            }
+        }
+
+        Map<String, Long> quantiles = new LinkedHashMap<>();
+        for (double q : SIZE_QUANTILES) {
+            quantiles.put(quantileLabel(q), sizes != null ? sizes.quantile(q) : 0L);
+        }
+
+        return SizeDistributionResponse.builder()
+                .topicId(topicId)
+                .start(start)
+                .end(end)
+                .hoursMerged(hours.size())
+                .sampledMessages(sizes != null ? sizes.getCount() : 0L)
+                .sizeQuantiles(quantiles)
+                .relativeAccuracyPercent(sizes != null ? sizes.getRelativeAccuracy() * 100 : null)
+                .peakMessagesPerMinute(peakHour != null ? peakHour.getPeakMessagesPerMinute() : 0)
+                .peakMinuteAt(peakHour != null ? peakMinuteOf(peakHour) : null)
+                .build();
+    }
+
+    private static String quantileLabel(double q) {
+        return "p" + BigDecimal.valueOf(q * 100).stripTrailingZeros().toPlainString().replace(".", "");
+    }
+
+    private static LocalDateTime peakMinuteOf(KafkaMessageStats stats) {
+        int[] counts = KafkaMessageStats.decodeMinuteCounts(stats.getMinuteCounts());
+        int peakMinute = 0;
+        for (int minute = 1; minute < counts.length; minute++) {
+            if (counts[minute] > counts[peakMinute]) peakMinute = minute;
+        }
+        return stats.getHourBucket().plusMinutes(peakMinute);
     }
 
-    private void updateStatsFromMessages(KafkaMessageStats stats, Long topicId, LocalDateTime hour) {
-        List<KafkaMessage> messages = messageRepository.findByTopicIdAndTimestampBetween(
-                topicId, hour, hour.plusHours(1));
-
-        for (KafkaMessage msg : messages) {
-            KafkaMessage.MessageType type = msg.getMessageType();
-            MessageType archiveType = type != null
-                    ? MessageType.valueOf(type.name())
-                    : MessageType.NORMAL;
-            stats.incrementMessageCount(
-                    msg.getValueSize() != null ? msg.getValueSize() : 0,
-                    archiveType);
+    private HyperLogLog union(HyperLogLog current, byte[] sketch) {
+        if (sketch == null) {
+            return current;
         }
-        stats.updateThroughput();
+        HyperLogLog hourly = HyperLogLog.fromBytes(sketch);
+        return current != null ? current.union(hourly) : hourly;
     }
 
     public List<KafkaMessageStats> getStatsForTopic(Long topicId, LocalDateTime start, LocalDateTime end) {
@@ -7,6 +7,8 @@ import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.model.RetentionJobLog;
 import com.kafkaflow.visualizer.model.RetentionPolicy;
 import com.kafkaflow.visualizer.repository.*;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore.ColdUsage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,7 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.kafkaflow.visualizer.dto.RetentionDto.formatBytes;
 
@@ -29,6 +34,7 @@ public class RetentionStorageService {
     private final KafkaMessageArchiveRepository archiveRepository;
     private final RetentionPolicyRepository policyRepository;
     private final RetentionJobLogRepository jobLogRepository;
+    private final ColdArchiveStore coldStore;
 
     @Transactional(readOnly = true)
     public GlobalStorageResponse getGlobalStorage() {
@@ -40,12 +46,16 @@ public class RetentionStorageService {
         long totalArchiveSize = 0;
 
         List<StorageUsageResponse> topicUsages = new ArrayList<>();
+        // Les lignes du tier froid comptent comme archives
+        Map<Long, ColdUsage> coldByTopic = coldStore.usageByTopic().stream()
+                .collect(Collectors.toMap(ColdUsage::id, Function.identity()));
 
         for (KafkaTopic topic : topics) {
+            ColdUsage cold = coldByTopic.get(topic.getId());
             long hotCount = messageRepository.countByTopicId(topic.getId());
-            long archiveCount = archiveRepository.countByTopicId(topic.getId());
+            long archiveCount = archiveRepository.countByTopicId(topic.getId()) + (cold != null ? cold.rows() : 0);
             Long archiveSize = archiveRepository.getTotalSizeByTopicId(topic.getId());
-            long safeArchiveSize = archiveSize != null ? archiveSize : 0;
+            long safeArchiveSize = (archiveSize != null ? archiveSize : 0) + (cold != null ? cold.valueBytes() : 0);
 
             totalHotMessages += hotCount;
             totalArchiveMessages += archiveCount;
@@ -89,10 +99,11 @@ public class RetentionStorageService {
         KafkaTopic topic = topicRepository.findById(topicId)
                 .orElseThrow(() -> new ResourceNotFoundException("Topic", topicId));
 
+        Optional<ColdUsage> cold = coldStore.topicUsage(topicId);
         long hotCount = messageRepository.countByTopicId(topicId);
-        long archiveCount = archiveRepository.countByTopicId(topicId);
+        long archiveCount = archiveRepository.countByTopicId(topicId) + cold.map(ColdUsage::rows).orElse(0L);
         Long archiveSize = archiveRepository.getTotalSizeByTopicId(topicId);
-        long safeArchiveSize = archiveSize != null ? archiveSize : 0;
+        long safeArchiveSize = (archiveSize != null ? archiveSize : 0) + cold.map(ColdUsage::valueBytes).orElse(0L);
 
         LocalDateTime oldestArchive = null;
         LocalDateTime newestArchive = null;
@@ -107,6 +118,13 @@ public class RetentionStorageService {
         } catch (Exception e) {
             log.warn("Failed to get archive stats for topic {}: {}", topicId, e.getMessage());
         }
+        // Les segments froids portent les plus anciennes archives
+        if (cold.isPresent()) {
+            LocalDateTime coldOldest = cold.get().oldest();
+            LocalDateTime coldNewest = cold.get().newest();
+            oldestArchive = oldestArchive == null || coldOldest.isBefore(oldestArchive) ? coldOldest : oldestArchive;
+            newestArchive = newestArchive == null || coldNewest.isAfter(newestArchive) ? coldNewest : newestArchive;
+        }
 
         RetentionPolicy policy = policyRepository
                 .findEffectivePolicy(topicId, topic.getConnection().getId())
@@ -0,0 +1,188 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog.TopicStatus;
+import com.kafkaflow.visualizer.repository.RetentionJobTopicLogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécute le travail de rétention topic par topic sur un pool borné partagé par tous les jobs.
+ * <p>
+ * Chaque topic est isolé : une exception ne fait échouer que sa ligne {@link RetentionJobTopicLog},
+ * pas le job. Le budget de temps est commun au job ; un topic qui n'a pas démarré avant l'échéance
+ * est marqué SKIPPED et sera repris au job suivant. La concurrence reste sous la taille du pool de
+ * connexions : chaque worker occupe une connexion pendant ses transactions.
+ */
+@Component
+@Slf4j
+public class RetentionTopicExecutor {
+
+    /** Travail d'un topic ; doit rendre la main dès que {@code System.nanoTime() >= deadlineNanos}. */
+    @FunctionalInterface
+    public interface TopicWork {
+        TopicResult run(long deadlineNanos) throws Exception;
+    }
+
+    public record TopicTask(Long topicId, String topicName, TopicWork work) {}
+
+    /** {@code complete = false} : le topic a encore du travail, interrompu par le budget. */
+    public record TopicResult(long rows, long bytes, int chunks, boolean complete) {
+        public static final TopicResult NOTHING = new TopicResult(0, 0, 0, true);
+    }
+
+    /** Bilan d'un job : lignes par topic, dans l'ordre des tâches. */
+    public record JobOutcome(List<RetentionJobTopicLog> topics) {
+
+        public long rows() {
+            return topics.stream().mapToLong(RetentionJobTopicLog::getRowsProcessed).sum();
+        }
+
+        public long bytes() {
+            return topics.stream().mapToLong(RetentionJobTopicLog::getBytesProcessed).sum();
+        }
+
+        public long count(TopicStatus status) {
+            return topics.stream().filter(topic -> topic.getStatus() == status).count();
+        }
+
+        public boolean budgetExhausted() {
+            return count(TopicStatus.PARTIAL) > 0 || count(TopicStatus.SKIPPED) > 0;
+        }
+
+        /** Résumé pour {@link RetentionJobLog#getDetails()} ; le détail est dans les lignes par topic. */
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("topics", topics.size());
+            for (TopicStatus status : List.of(TopicStatus.COMPLETED, TopicStatus.PARTIAL,
+                    TopicStatus.SKIPPED, TopicStatus.FAILED)) {
+                summary.put(status.name().toLowerCase(Locale.ROOT), count(status));
+            }
+            summary.put("budgetExhausted", budgetExhausted());
+            return summary;
+        }
+
+        /** Message du job quand des topics ont échoué, {@code null} sinon. */
+        public String failureMessage() {
+            List<RetentionJobTopicLog> failed = topics.stream()
+                    .filter(topic -> topic.getStatus() == TopicStatus.FAILED)
+                    .toList();
+            if (failed.isEmpty()) return null;
+            RetentionJobTopicLog first = failed.get(0);
+            return String.format("%d of %d topics failed (first: %s: %s)",
+                    failed.size(), topics.size(), first.getTopicName(), first.getErrorMessage());
+        }
+    }
+
+    private final RetentionJobTopicLogRepository topicLogRepository;
+    private final ExecutorService pool;
+    private final int concurrency;
+    private final Duration defaultBudget;
+
+    @Autowired
+    public RetentionTopicExecutor(RetentionJobTopicLogRepository topicLogRepository,
+                                  @Value("${app.retention.executor.concurrency:4}") int concurrency,
+                                  @Value("${app.retention.executor.time-budget-seconds:900}") int budgetSeconds) {
+        this.topicLogRepository = topicLogRepository;
+        this.concurrency = Math.max(1, concurrency);
+        this.defaultBudget = Duration.ofSeconds(budgetSeconds);
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.concurrency, task -> {
+            Thread thread = new Thread(task, "retention-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public JobOutcome run(RetentionJobLog jobLog, List<TopicTask> tasks) {
+        return run(jobLog, tasks, defaultBudget);
+    }
+
+    /**
+     * Lance les tâches (au plus {@code concurrency} à la fois) et attend qu'elles soient toutes
+     * terminées, échouées ou sautées. Les lignes par topic sont persistées au fil de l'eau.
+     */
+    public JobOutcome run(RetentionJobLog jobLog, List<TopicTask> tasks, Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        List<Callable<RetentionJobTopicLog>> callables = new ArrayList<>(tasks.size());
+        for (TopicTask task : tasks) {
+            callables.add(() -> runTopic(jobLog.getId(), task, deadline));
+        }
+
+        List<RetentionJobTopicLog> topics = new ArrayList<>(tasks.size());
+        try {
+            for (Future<RetentionJobTopicLog> future : pool.invokeAll(callables)) {
+                topics.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Retention job interrupted", e);
+        } catch (ExecutionException | CancellationException e) {
+            // runTopic ne lève pas : seule une annulation (arrêt du pool) arrive ici
+            throw new IllegalStateException("Retention worker stopped: " + e.getMessage(), e);
+        }
+        return new JobOutcome(topics);
+    }
+
+    private RetentionJobTopicLog runTopic(Long jobLogId, TopicTask task, long deadline) {
+        RetentionJobTopicLog topicLog = RetentionJobTopicLog.builder()
+                .jobLogId(jobLogId)
+                .topicId(task.topicId())
+                .topicName(task.topicName())
+                .startedAt(LocalDateTime.now())
+                .build();
+
+        if (System.nanoTime() >= deadline) {
+            topicLog.setStatus(TopicStatus.SKIPPED);
+            return save(topicLog);
+        }
+        save(topicLog);
+
+        long started = System.nanoTime();
+        try {
+            TopicResult result = task.work().run(deadline);
+            topicLog.setRowsProcessed(result.rows());
+            topicLog.setBytesProcessed(result.bytes());
+            topicLog.setChunks(result.chunks());
+            topicLog.setStatus(result.complete() ? TopicStatus.COMPLETED : TopicStatus.PARTIAL);
+        } catch (Exception e) {
+            log.warn("Retention work failed for topic {} ({}): {}", task.topicName(), task.topicId(), e.getMessage());
+            topicLog.setStatus(TopicStatus.FAILED);
+            topicLog.setErrorMessage(e.getMessage());
+        }
+        topicLog.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        return save(topicLog);
+    }
+
+    /** Le suivi par topic ne doit pas faire échouer le travail déjà validé. */
+    private RetentionJobTopicLog save(RetentionJobTopicLog topicLog) {
+        try {
+            RetentionJobTopicLog saved = topicLogRepository.save(topicLog);
+            if (saved != null) {
+                topicLog.setId(saved.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record retention progress for topic {}: {}", topicLog.getTopicId(), e.getMessage());
+        }
+        return topicLog;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
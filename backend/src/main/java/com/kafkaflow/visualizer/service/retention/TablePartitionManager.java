@@ -0,0 +1,294 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Stockage des messages et des archives partitionné par jour (MySQL {@code RANGE COLUMNS}).
+ * <p>
+ * La rétention supprime alors des partitions entières ({@code DROP PARTITION}, quasi instantané,
+ * sans verrou de lignes ni fragmentation InnoDB) au lieu d'un {@code DELETE} massif ; seul le jour
+ * contenant la date de coupure est encore purgé ligne à ligne. Les partitions des prochains jours
+ * sont créées à l'avance en découpant {@code p_future}.
+ * <p>
+ * Chaque partition {@code pAAAAMMJJ} contient les lignes antérieures au lendemain de ce jour : la
+ * plus ancienne reçoit aussi tout l'historique précédent. Mode optionnel, MySQL uniquement ; sur
+ * les autres bases (H2 en démo) les suppressions ligne à ligne restent utilisées.
+ */
+@Service
+@Slf4j
+public class TablePartitionManager {
+
+    public enum PartitionedTable {
+        MESSAGES("kafka_messages", "timestamp"),
+        ARCHIVES("kafka_messages_archive", "archived_at");
+
+        private final String table;
+        private final String column;
+
+        PartitionedTable(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+
+    static final String FUTURE_PARTITION = "p_future";
+
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int daysAhead;
+    private final int maxInitialDays;
+    private final LongSupplier clock;
+
+    private final Set<PartitionedTable> partitioned = EnumSet.noneOf(PartitionedTable.class);
+
+    @Autowired
+    public TablePartitionManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.retention.partitioning.enabled:false}") boolean enabled,
+            @Value("${app.retention.partitioning.days-ahead:3}") int daysAhead,
+            @Value("${app.retention.partitioning.max-initial-days:90}") int maxInitialDays) {
+        this(jdbcTemplate, enabled, daysAhead, maxInitialDays, System::currentTimeMillis);
+    }
+
+    /** Horloge injectable (epoch millis) pour les tests. */
+    TablePartitionManager(JdbcTemplate jdbcTemplate, boolean enabled, int daysAhead, int maxInitialDays,
+                          LongSupplier clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.daysAhead = daysAhead;
+        this.maxInitialDays = maxInitialDays;
+        this.clock = clock;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // INITIALISATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Partitionne les tables au premier démarrage dans ce mode (reconstruction complète de la
+     * table, à planifier sur une fenêtre calme), puis crée les partitions à venir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) return;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            log.info("Table partitioning requires MySQL ({} detected), retention keeps row deletes", product);
+            return;
+        }
+
+        for (PartitionedTable table : PartitionedTable.values()) {
+            try {
+                List<String> names = listPartitions(table);
+                if (names.isEmpty()) {
+                    convert(table);
+                } else if (!isManaged(names)) {
+                    log.warn("{} is partitioned with an unknown layout {}, leaving it alone", table.table, names);
+                    continue;
+                }
+                synchronized (partitioned) {
+                    partitioned.add(table);
+                }
+                ensureFuturePartitions(table);
+            } catch (Exception e) {
+                log.error("Failed to partition {}, retention keeps row deletes: {}", table.table, e.getMessage());
+            }
+        }
+    }
+
+    private void convert(PartitionedTable table) {
+        Integer referencing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                        "WHERE CONSTRAINT_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME = ?",
+                Integer.class, table.table);
+        if (referencing != null && referencing > 0) {
+            throw new IllegalStateException(table.table + " is referenced by foreign keys");
+        }
+
+        // Les tables partitionnées InnoDB n'acceptent pas de clés étrangères
+        for (String foreignKey : jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'FOREIGN KEY'",
+                String.class, table.table)) {
+            jdbcTemplate.execute("ALTER TABLE " + table.table + " DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+        jdbcTemplate.update("UPDATE " + table.table + " SET `" + table.column + "` = CURRENT_TIMESTAMP " +
+                "WHERE `" + table.column + "` IS NULL");
+
+        LocalDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(`" + table.column + "`) FROM " + table.table, LocalDateTime.class);
+        List<LocalDate> days = initialDays(oldest != null ? oldest.toLocalDate() : null, today(),
+                daysAhead, maxInitialDays);
+
+        long started = clock.getAsLong();
+        log.info("Partitioning {} by day ({} partitions), the table is rebuilt", table.table, days.size() + 1);
+        // La colonne de partition doit appartenir à la clé primaire ; id reste en tête pour l'AUTO_INCREMENT
+        jdbcTemplate.execute("ALTER TABLE " + table.table +
+                " DROP PRIMARY KEY, ADD PRIMARY KEY (id, `" + table.column + "`)" +
+                " PARTITION BY RANGE COLUMNS(`" + table.column + "`) (" + partitionDefinitions(days) + ")");
+        log.info("{} partitioned in {} ms", table.table, clock.getAsLong() - started);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // MAINTENANCE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Crée les partitions jusqu'à J+{@code days-ahead} sur les tables partitionnées. */
+    public void ensureFuturePartitions() {
+        for (PartitionedTable table : managedTables()) {
+            ensureFuturePartitions(table);
+        }
+    }
+
+    private void ensureFuturePartitions(PartitionedTable table) {
+        LocalDate last = lastDay(listPartitions(table));
+        List<LocalDate> days = daysToAdd(last, today().plusDays(daysAhead));
+        if (days.isEmpty()) return;
+        // p_future est vide en régime normal : le découpage ne déplace aucune ligne
+        jdbcTemplate.execute("ALTER TABLE " + table.table + " REORGANIZE PARTITION " + FUTURE_PARTITION +
+                " INTO (" + partitionDefinitions(days) + ")");
+        log.info("Created {} partitions on {} up to {}", days.size(), table.table, days.get(days.size() - 1));
+    }
+
+    /**
+     * Supprime les partitions dont toutes les lignes sont antérieures à {@code cutoff} et renvoie le
+     * nombre de lignes retirées ; 0 si la table n'est pas partitionnée. Les lignes restantes avant
+     * {@code cutoff} (jour de coupure) sont à supprimer par l'appelant.
+     * <p>
+     * DDL : sous MySQL, la transaction en cours est validée implicitement.
+     */
+    public long dropPartitionsBefore(PartitionedTable table, LocalDateTime cutoff) {
+        if (!isPartitioned(table)) return 0;
+
+        List<String> expired = partitionsBefore(listPartitions(table), cutoff);
+        if (expired.isEmpty()) return 0;
+
+        String list = String.join(", ", expired);
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table.table + " PARTITION (" + list + ")", Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + table.table + " DROP PARTITION " + list);
+        log.info("Dropped {} partitions ({} rows) from {} before {}", expired.size(), rows, table.table, cutoff);
+        return rows != null ? rows : 0;
+    }
+
+    public boolean isPartitioned(PartitionedTable table) {
+        synchronized (partitioned) {
+            return partitioned.contains(table);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        for (PartitionedTable table : managedTables()) {
+            List<String> names = listPartitions(table);
+            status.put(table.table, Map.of("partitions", names.size(), "lastDay", String.valueOf(lastDay(names))));
+        }
+        return status;
+    }
+
+    private List<PartitionedTable> managedTables() {
+        synchronized (partitioned) {
+            return new ArrayList<>(partitioned);
+        }
+    }
+
+    private List<String> listPartitions(PartitionedTable table) {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, table.table);
+    }
+
+    private LocalDate today() {
+        return Instant.ofEpochMilli(clock.getAsLong()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // PLANIFICATION (sans base)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Jours à créer au partitionnement : l'historique au-delà de {@code maxInitialDays} tient dans le premier. */
+    static List<LocalDate> initialDays(LocalDate oldest, LocalDate today, int daysAhead, int maxInitialDays) {
+        LocalDate first = oldest == null || oldest.isAfter(today) ? today : oldest;
+        LocalDate floor = today.minusDays(maxInitialDays);
+        if (first.isBefore(floor)) first = floor;
+        return daysToAdd(first.minusDays(1), today.plusDays(daysAhead));
+    }
+
+    /** Jours de {@code last + 1} à {@code until} inclus. */
+    static List<LocalDate> daysToAdd(LocalDate last, LocalDate until) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = last.plusDays(1); !day.isAfter(until); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    /** Partitions dont la borne haute (lendemain du jour) est au plus {@code cutoff}. */
+    static List<String> partitionsBefore(List<String> names, LocalDateTime cutoff) {
+        List<String> expired = new ArrayList<>();
+        for (String name : names) {
+            LocalDate day = dayOf(name);
+            if (day != null && !day.plusDays(1).atStartOfDay().isAfter(cutoff)) {
+                expired.add(name);
+            }
+        }
+        return expired;
+    }
+
+    /** Définitions des partitions journalières suivies de {@code p_future}. */
+    static String partitionDefinitions(List<LocalDate> days) {
+        StringJoiner definitions = new StringJoiner(", ");
+        for (LocalDate day : days) {
+            definitions.add("PARTITION " + partitionName(day) +
+                    " VALUES LESS THAN ('" + day.plusDays(1).atStartOfDay().format(BOUND) + "')");
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return definitions.toString();
+    }
+
+    static String partitionName(LocalDate day) {
+        return "p" + day.format(PARTITION_DAY);
+    }
+
+    /** Jour d'une partition journalière, {@code null} pour {@code p_future} ou un nom inconnu. */
+    static LocalDate dayOf(String name) {
+        if (name == null || name.length() != 9 || name.charAt(0) != 'p') return null;
+        try {
+            return LocalDate.parse(name.substring(1), PARTITION_DAY);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isManaged(List<String> names) {
+        return names.contains(FUTURE_PARTITION)
+                && names.stream().allMatch(name -> name.equals(FUTURE_PARTITION) || dayOf(name) != null);
+    }
+
+    /** Dernier jour partitionné ; la veille d'aujourd'hui si toutes les partitions journalières ont été supprimées. */
+    private LocalDate lastDay(List<String> names) {
+        return names.stream().map(TablePartitionManager::dayOf).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(today().minusDays(1));
+    }
+}
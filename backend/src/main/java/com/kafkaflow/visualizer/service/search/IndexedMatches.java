@@ -0,0 +1,82 @@
+package com.kafkaflow.visualizer.service.search;
+
+import com.kafkaflow.visualizer.util.KeysetCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Candidats de l'index revérifiés en base, triés comme les listes ({@code timestamp DESC, id DESC}).
+ * <p>
+ * Seuls les couples (id, timestamp) sont chargés pour trier et compter ; les entités de la page
+ * demandée sont lues ensuite par id. Les lignes sans timestamp sont ignorées, comme en keyset SQL.
+ */
+public final class IndexedMatches {
+
+    private record Match(long id, LocalDateTime timestamp) {}
+
+    private static final Comparator<Match> NEWEST_FIRST = Comparator.comparing(Match::timestamp)
+            .thenComparingLong(Match::id)
+            .reversed();
+
+    private final List<Match> matches;
+
+    private IndexedMatches(List<Match> matches) {
+        this.matches = matches;
+    }
+
+    /** Lignes {@code (Long id, LocalDateTime timestamp)} issues des requêtes de revérification. */
+    public static IndexedMatches of(List<Object[]> rows) {
+        List<Match> matches = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                matches.add(new Match((Long) row[0], (LocalDateTime) row[1]));
+            }
+        }
+        matches.sort(NEWEST_FIRST);
+        return new IndexedMatches(matches);
+    }
+
+    public long total() {
+        return matches.size();
+    }
+
+    /** Page {@code pageable} (le tri de {@code pageable} est ignoré). */
+    public <T> Page<T> page(Pageable pageable, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(load(matches.subList(from, to), loader, idOf), pageable, matches.size());
+    }
+
+    /** Tranche de {@code size} éléments strictement après {@code cursor}. */
+    public <T> Slice<T> after(KeysetCursor cursor, int size, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        Match position = new Match(cursor.id(), cursor.timestamp());
+        int from = Collections.binarySearch(matches, position, NEWEST_FIRST);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int to = Math.min(from + size, matches.size());
+        return new SliceImpl<>(load(matches.subList(from, to), loader, idOf), PageRequest.of(0, size), to < matches.size());
+    }
+
+    /** Charge les entités et rétablit l'ordre des ids ({@code findAllById} ne le garantit pas). */
+    private static <T> List<T> load(List<Match> window, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        if (window.isEmpty()) return List.of();
+        List<Long> ids = window.stream().map(Match::id).toList();
+        Map<Long, T> byId = new HashMap<>();
+        for (T entity : loader.apply(ids)) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) ordered.add(entity);
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,265 @@
+package com.kafkaflow.visualizer.service.search;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Recherche plein texte via {@link TrigramIndex} : un index pour les messages (clé + valeur), un pour
+ * les archives (topic, connexion, clé, valeur).
+ * <p>
+ * Tenu à jour à l'ingestion et à l'archivage ; au démarrage, les lignes absentes de l'index
+ * (nouvel index, arrêt brutal) sont rattrapées en tâche de fond. Tant qu'un index n'est pas prêt,
+ * {@link #candidates} renvoie vide et les services gardent leur requête {@code LIKE}.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    public enum Scope {
+        MESSAGES("messages"), ARCHIVES("archives");
+
+        private final String directory;
+
+        Scope(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    private static final int CATCH_UP_BATCH = 1000;
+
+    private final KafkaMessageRepository messageRepository;
+    private final KafkaMessageArchiveRepository archiveRepository;
+    private final long flushPostings;
+    private final long flushIntervalMillis;
+    private final int maxSegments;
+    private final int maxCandidates;
+
+    private final Map<Scope, TrigramIndex> indexes = new EnumMap<>(Scope.class);
+    private final Map<Scope, Boolean> ready = Collections.synchronizedMap(new EnumMap<>(Scope.class));
+    private final Map<Scope, Long> lastFlush = Collections.synchronizedMap(new EnumMap<>(Scope.class));
+
+    public SearchIndexService(
+            KafkaMessageRepository messageRepository,
+            KafkaMessageArchiveRepository archiveRepository,
+            @Value("${app.search.index.enabled:true}") boolean enabled,
+            @Value("${app.search.index.dir:data/search-index}") String directory,
+            @Value("${app.search.index.max-indexed-chars:4096}") int maxIndexedChars,
+            @Value("${app.search.index.flush-postings:2000000}") long flushPostings,
+            @Value("${app.search.index.flush-interval-seconds:300}") int flushIntervalSeconds,
+            @Value("${app.search.index.max-segments:32}") int maxSegments,
+            @Value("${app.search.index.max-candidates:5000}") int maxCandidates) {
+        this.messageRepository = messageRepository;
+        this.archiveRepository = archiveRepository;
+        this.flushPostings = flushPostings;
+        this.flushIntervalMillis = flushIntervalSeconds * 1000L;
+        this.maxSegments = maxSegments;
+        this.maxCandidates = maxCandidates;
+
+        if (!enabled) return;
+        for (Scope scope : Scope.values()) {
+            try {
+                indexes.put(scope, new TrigramIndex(Path.of(directory, scope.directory), maxIndexedChars));
+                lastFlush.put(scope, System.currentTimeMillis());
+            } catch (IOException e) {
+                log.warn("Search index {} unavailable, falling back to LIKE queries: {}", scope, e.getMessage());
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // INDEXATION INCRÉMENTALE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void indexMessage(Long id, String key, String value) {
+        TrigramIndex index = indexes.get(Scope.MESSAGES);
+        if (index != null && id != null) {
+            index.add(id, key, value);
+        }
+    }
+
+    public void indexArchives(Collection<KafkaMessageArchive> archives) {
+        TrigramIndex index = indexes.get(Scope.ARCHIVES);
+        if (index == null) return;
+        for (KafkaMessageArchive archive : archives) {
+            if (archive.getId() != null) {
+                index.add(archive.getId(), archive.getTopicName(), archive.getConnectionName(),
+                        archive.getMessageKey(), archive.getMessageValue());
+            }
+        }
+    }
+
+    /** Indexe les archives {@code ids}, insérées en SQL sans passer par JPA. */
+    public void indexArchiveIds(List<Long> ids) {
+        TrigramIndex index = indexes.get(Scope.ARCHIVES);
+        if (index == null || ids.isEmpty()) return;
+        for (Object[] row : verifyInChunks(ids, archiveRepository::findSearchFieldsByIds)) {
+            index.add((Long) row[0], fields(row));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // RECHERCHE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Ids candidats pour {@code query}, à revérifier en base. Vide si l'index n'est pas prêt, si la
+     * requête est trop courte pour des trigrammes, ou si elle dépasse {@code max-candidates} : une
+     * requête aussi peu sélective est servie aussi vite par le {@code LIKE} paginé.
+     */
+    public Optional<List<Long>> candidates(Scope scope, String query) {
+        TrigramIndex index = indexes.get(scope);
+        if (index == null || !Boolean.TRUE.equals(ready.get(scope)) || !TrigramIndex.isSearchable(query)) {
+            return Optional.empty();
+        }
+        long[] ids = index.search(query, maxCandidates + 1);
+        if (ids.length > maxCandidates) {
+            return Optional.empty();
+        }
+        List<Long> candidates = new ArrayList<>(ids.length);
+        for (long id : ids) candidates.add(id);
+        return Optional.of(candidates);
+    }
+
+    public boolean isReady(Scope scope) {
+        return Boolean.TRUE.equals(ready.get(scope));
+    }
+
+    /**
+     * Exécute {@code verify} sur les candidats par paquets (clause IN bornée) et concatène les lignes.
+     */
+    public static <T> List<T> verifyInChunks(List<Long> candidates, Function<List<Long>, List<T>> verify) {
+        List<T> rows = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += CATCH_UP_BATCH) {
+            rows.addAll(verify.apply(candidates.subList(from, Math.min(from + CATCH_UP_BATCH, candidates.size()))));
+        }
+        return rows;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // MAINTENANCE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Vide les buffers pleins ou anciens, fusionne les petits segments et oublie les ids sous le
+     * plus petit id encore en base (rétention).
+     */
+    public void maintain() {
+        indexes.forEach((scope, index) -> {
+            try {
+                long now = System.currentTimeMillis();
+                if (index.bufferedPostings() >= flushPostings
+                        || (index.bufferedDocs() > 0 && now - lastFlush.get(scope) >= flushIntervalMillis)) {
+                    index.flush(isReady(scope));
+                    lastFlush.put(scope, now);
+                }
+                index.compact(maxSegments);
+
+                Long minId = scope == Scope.MESSAGES ? messageRepository.findMinId() : archiveRepository.findMinId();
+                if (minId != null) {
+                    index.pruneBelow(minId);
+                }
+            } catch (Exception e) {
+                log.warn("Search index {} maintenance failed: {}", scope, e.getMessage());
+            }
+        });
+    }
+
+    /** Rattrapage des lignes non indexées, hors du thread de démarrage. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCatchUp() {
+        if (indexes.isEmpty()) return;
+        Thread thread = new Thread(() -> indexes.keySet().forEach(this::catchUp), "search-index-catch-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void catchUp(Scope scope) {
+        TrigramIndex index = indexes.get(scope);
+        try {
+            Long maxId = scope == Scope.MESSAGES ? messageRepository.findMaxId() : archiveRepository.findMaxId();
+            long after = index.getIndexedThrough();
+            if (maxId == null || after >= maxId) {
+                index.commit(index.newBuffer(), maxId != null ? maxId : 0);
+                ready.put(scope, true);
+                return;
+            }
+
+            log.info("Search index {}: indexing ids {} to {}", scope, after + 1, maxId);
+            long started = System.currentTimeMillis();
+            TrigramIndex.PostingBuffer buffer = index.newBuffer();
+            long indexed = 0;
+            while (after < maxId) {
+                List<Object[]> rows = fetchAfter(scope, after, maxId);
+                if (rows.isEmpty()) break;
+                for (Object[] row : rows) {
+                    after = (Long) row[0];
+                    index.add(buffer, after, fields(row));
+                }
+                indexed += rows.size();
+                if (buffer.postings() >= flushPostings) {
+                    index.commit(buffer, after);
+                    buffer = index.newBuffer();
+                }
+            }
+            index.commit(buffer, maxId);
+            ready.put(scope, true);
+            log.info("Search index {} ready: {} rows indexed in {} ms", scope, indexed, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.warn("Search index {} catch-up failed, LIKE queries stay in use: {}", scope, e.getMessage());
+        }
+    }
+
+    /** Lignes (id, champs texte...) d'ids dans ]after, upTo], par ordre d'id. */
+    private List<Object[]> fetchAfter(Scope scope, long after, long upTo) {
+        PageRequest page = PageRequest.of(0, CATCH_UP_BATCH);
+        return scope == Scope.MESSAGES
+                ? messageRepository.findSearchFieldsAfter(after, upTo, page)
+                : archiveRepository.findSearchFieldsAfter(after, upTo, page);
+    }
+
+    private static String[] fields(Object[] row) {
+        String[] fields = new String[row.length - 1];
+        for (int i = 1; i < row.length; i++) fields[i - 1] = (String) row[i];
+        return fields;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexes.forEach((scope, index) -> {
+            try {
+                index.flush(isReady(scope));
+            } catch (IOException e) {
+                log.warn("Failed to flush search index {}: {}", scope, e.getMessage());
+            }
+            index.close();
+        });
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // DIAGNOSTIC
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        indexes.forEach((scope, index) -> status.put(scope.name().toLowerCase(Locale.ROOT), Map.of(
+                "ready", isReady(scope),
+                "segments", index.segmentCount(),
+                "diskBytes", index.diskBytes(),
+                "bufferedDocs", index.bufferedDocs(),
+                "indexedThrough", index.getIndexedThrough())));
+        return status;
+    }
+}
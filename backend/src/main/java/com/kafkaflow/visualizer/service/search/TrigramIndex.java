@@ -0,0 +1,681 @@
+package com.kafkaflow.visualizer.service.search;
+
+import com.kafkaflow.visualizer.util.TextFolding;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Index inversé de trigrammes sur disque, pour des recherches de sous-chaînes ({@code LIKE '%q%'})
+ * sans scan de table.
+ * <p>
+ * Chaque document (id + champs texte) est replié comme la collation {@code _ai_ci} de MySQL
+ * ({@link TextFolding} : minuscules, sans accents) puis découpé en trigrammes ; un trigramme pointe
+ * vers la liste triée des ids qui le contiennent. Les ajouts vont dans un buffer mémoire, vidé en segments immuables ({@code seg-N.seg}, listes delta-encodées en varint + table
+ * des termes triée, lue via un mapping mémoire). Les petits segments sont fusionnés en arrière-plan.
+ * <p>
+ * L'index ne fournit que des <b>candidats</b> : un id peut avoir été supprimé ou ne contenir les
+ * trigrammes que dans le désordre. L'appelant revérifie toujours en base sur ces seuls ids.
+ */
+@Slf4j
+public final class TrigramIndex implements AutoCloseable {
+
+    private static final int MAGIC = 0x59435452; // "YCTR"
+    /** 2 : trigrammes repliés sans accents ; un index d'une autre version est reconstruit. */
+    private static final byte FORMAT_VERSION = 2;
+    private static final int TERM_ENTRY_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int FOOTER_BYTES = Integer.BYTES + Long.BYTES * 2 + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    /**
+     * Terme réservé (hors de l'espace des trigrammes) des documents dont un champ dépasse
+     * {@code maxIndexedChars} : toujours candidats, pour ne jamais manquer un match en fin de texte.
+     */
+    static final long TRUNCATED = -1L;
+
+    /** Nombre max de trigrammes (les plus rares) intersectés par requête ; le reste est revérifié en base. */
+    private static final int MAX_QUERY_TRIGRAMS = 4;
+
+    private final Path directory;
+    private final int maxIndexedChars;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private PostingBuffer live = new PostingBuffer();
+    private long nextGeneration;
+    private long floorId = Long.MIN_VALUE;
+    private long indexedThrough;
+
+    public TrigramIndex(Path directory, int maxIndexedChars) throws IOException {
+        this.directory = directory;
+        this.maxIndexedChars = maxIndexedChars;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // ÉCRITURE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Indexe un document dans le buffer mémoire (champs {@code null} ignorés). */
+    public void add(long id, String... fields) {
+        long[] trigrams = extract(fields);
+        synchronized (this) {
+            live.add(id, trigrams);
+        }
+    }
+
+    /** Buffer indépendant du buffer live, pour les reconstructions en masse. */
+    public PostingBuffer newBuffer() {
+        return new PostingBuffer();
+    }
+
+    public void add(PostingBuffer buffer, long id, String... fields) {
+        buffer.add(id, extract(fields));
+    }
+
+    public synchronized long bufferedPostings() {
+        return live.postings;
+    }
+
+    public synchronized long bufferedDocs() {
+        return live.docs;
+    }
+
+    /**
+     * Écrit le buffer live en segment. {@code indexedThrough} n'avance que si l'index est complet
+     * ({@code advanceIndexedThrough}) : tous les ids inférieurs ou égaux sont alors sur disque.
+     */
+    public void flush(boolean advanceIndexedThrough) throws IOException {
+        PostingBuffer buffer;
+        synchronized (this) {
+            if (live.docs == 0) return;
+            buffer = live;
+            live = new PostingBuffer();
+        }
+        commit(buffer, advanceIndexedThrough ? buffer.maxId : Long.MIN_VALUE);
+    }
+
+    /** Écrit un buffer de reconstruction et avance {@code indexedThrough} jusqu'à {@code through}. */
+    public void commit(PostingBuffer buffer, long through) throws IOException {
+        if (buffer.docs > 0) {
+            Path file = writeSegment(buffer);
+            Segment segment = Segment.open(file);
+            synchronized (this) {
+                segments.add(segment);
+            }
+        }
+        if (through > indexedThrough) {
+            synchronized (this) {
+                indexedThrough = through;
+            }
+            writeManifest();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // RECHERCHE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Ids candidats contenant tous les trigrammes de {@code query}, du plus récent (id le plus
+     * grand) au plus ancien, au plus {@code limit}. Vide si la requête fait moins de 3 caractères
+     * ({@link #isSearchable}).
+     */
+    public long[] search(String query, int limit) {
+        long[] trigrams = queryTrigrams(query);
+        if (trigrams.length == 0) return new long[0];
+
+        List<Segment> snapshot;
+        long[] buffered;
+        long floor;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+            buffered = mergeSorted(live.intersect(trigrams), live.sortedIds(TRUNCATED));
+            floor = floorId;
+        }
+        snapshot.sort(Comparator.comparingLong((Segment s) -> s.maxId).reversed());
+
+        // Min-heap des 'limit' plus grands ids : un segment entièrement plus ancien que le heap plein est ignoré
+        PriorityQueue<Long> top = new PriorityQueue<>();
+        Set<Long> seen = new HashSet<>();
+        offer(top, seen, buffered, limit, floor);
+        for (Segment segment : snapshot) {
+            if (top.size() >= limit && segment.maxId <= top.peek()) break;
+            offer(top, seen, mergeSorted(segment.intersect(trigrams), segment.postings(TRUNCATED)), limit, floor);
+        }
+
+        long[] result = new long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll();
+        }
+        return result;
+    }
+
+    /** Vrai si la requête repliée fait au moins un trigramme. */
+    public static boolean isSearchable(String query) {
+        return query != null && TextFolding.fold(query).length() >= 3;
+    }
+
+    private static void offer(PriorityQueue<Long> top, Set<Long> seen, long[] ids, int limit, long floor) {
+        for (long id : ids) {
+            if (id < floor || !seen.add(id)) continue;
+            if (top.size() < limit) {
+                top.add(id);
+            } else if (id > top.peek()) {
+                seen.remove(top.poll());
+                top.add(id);
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // MAINTENANCE
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Oublie les ids inférieurs à {@code minId} (rétention) : filtrés à la lecture, et les segments
+     * entièrement en dessous sont supprimés.
+     */
+    public void pruneBelow(long minId) throws IOException {
+        List<Segment> dropped = new ArrayList<>();
+        synchronized (this) {
+            if (minId <= floorId) return;
+            floorId = minId;
+            segments.removeIf(segment -> {
+                if (segment.maxId < minId) {
+                    dropped.add(segment);
+                    return true;
+                }
+                return false;
+            });
+        }
+        writeManifest();
+        // Les mappings restent valides pour les recherches en cours : Linux libère le fichier au dernier unmap
+        for (Segment segment : dropped) {
+            Files.deleteIfExists(segment.file);
+        }
+    }
+
+    /**
+     * Fusionne les deux plus petits segments tant qu'il y en a plus de {@code maxSegments}
+     * (dans la limite de {@link #MAX_SEGMENT_BYTES} par segment).
+     */
+    public int compact(int maxSegments) throws IOException {
+        int merges = 0;
+        while (true) {
+            Segment a;
+            Segment b;
+            synchronized (this) {
+                if (segments.size() <= maxSegments) return merges;
+                List<Segment> bySize = new ArrayList<>(segments);
+                bySize.sort(Comparator.comparingLong(s -> s.sizeBytes));
+                a = bySize.get(0);
+                b = bySize.get(1);
+                if (a.sizeBytes + b.sizeBytes > MAX_SEGMENT_BYTES) return merges;
+            }
+
+            Segment merged = Segment.open(merge(a, b));
+            synchronized (this) {
+                segments.remove(a);
+                segments.remove(b);
+                segments.add(merged);
+            }
+            Files.deleteIfExists(a.file);
+            Files.deleteIfExists(b.file);
+            merges++;
+        }
+    }
+
+    /** Plus grand id tel que tous les ids inférieurs ou égaux sont indexés sur disque. */
+    public synchronized long getIndexedThrough() {
+        return indexedThrough;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    public synchronized long diskBytes() {
+        return segments.stream().mapToLong(s -> s.sizeBytes).sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.clear();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // TRIGRAMMES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private long[] extract(String... fields) {
+        String[] folded = new String[fields.length];
+        boolean truncated = false;
+        int total = 1;
+        for (int f = 0; f < fields.length; f++) {
+            String field = fields[f];
+            if (field == null) continue;
+            truncated |= field.length() > maxIndexedChars;
+            folded[f] = TextFolding.fold(field.length() > maxIndexedChars ? field.substring(0, maxIndexedChars) : field);
+            total += Math.max(0, folded[f].length() - 2);
+        }
+        long[] trigrams = new long[total];
+        int n = 0;
+        for (String field : folded) {
+            if (field == null) continue;
+            for (int i = 0; i + 2 < field.length(); i++) {
+                trigrams[n++] = trigram(field.charAt(i), field.charAt(i + 1), field.charAt(i + 2));
+            }
+        }
+        if (truncated) trigrams[n++] = TRUNCATED;
+        return distinct(trigrams, n);
+    }
+
+    /** Trigrammes distincts de la requête repliée, triés (le tri par rareté est fait par segment). */
+    private static long[] queryTrigrams(String query) {
+        if (query == null) return new long[0];
+        String folded = TextFolding.fold(query);
+        if (folded.length() < 3) return new long[0];
+        long[] trigrams = new long[folded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(folded.charAt(i), folded.charAt(i + 1), folded.charAt(i + 2));
+        }
+        return distinct(trigrams, trigrams.length);
+    }
+
+    /** Trois caractères UTF-16 repliés, packés sur 48 bits : pas de collision. */
+    static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static long[] distinct(long[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (n == 0 || values[i] != values[n - 1]) values[n++] = values[i];
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] out = new long[Math.min(left.length, right.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) i++;
+            else if (left[i] > right[j]) j++;
+            else {
+                out[n++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SEGMENTS (FORMAT)
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /*
+     * Format d'un segment :
+     *   MAGIC (int) | VERSION (byte)
+     *   postings  : par terme, premier id en varint puis deltas en varint (ids croissants)
+     *   termes    : termCount x (trigramme long, offset long, count int), triés par trigramme
+     *   footer    : docCount int | minId long | maxId long | termCount int | tableOffset long | MAGIC int
+     */
+
+    private Path writeSegment(PostingBuffer buffer) throws IOException {
+        long[] terms = buffer.sortedTerms();
+        SegmentWriter writer = newWriter();
+        for (long term : terms) {
+            writer.addTerm(term, buffer.sortedIds(term));
+        }
+        return writer.finish(buffer.docs, buffer.minId, buffer.maxId);
+    }
+
+    private Path merge(Segment a, Segment b) throws IOException {
+        SegmentWriter writer = newWriter();
+        int i = 0, j = 0;
+        while (i < a.termCount || j < b.termCount) {
+            long termA = i < a.termCount ? a.termAt(i) : Long.MAX_VALUE;
+            long termB = j < b.termCount ? b.termAt(j) : Long.MAX_VALUE;
+            if (termA < termB) {
+                writer.addTerm(termA, a.postingsAt(i++));
+            } else if (termB < termA) {
+                writer.addTerm(termB, b.postingsAt(j++));
+            } else {
+                writer.addTerm(termA, mergeSorted(a.postingsAt(i++), b.postingsAt(j++)));
+            }
+        }
+        return writer.finish(a.docCount + b.docCount, Math.min(a.minId, b.minId), Math.max(a.maxId, b.maxId));
+    }
+
+    private static long[] mergeSorted(long[] left, long[] right) {
+        long[] out = new long[left.length + right.length];
+        int i = 0, j = 0, n = 0;
+        while (i < left.length || j < right.length) {
+            long next = j >= right.length || (i < left.length && left[i] <= right[j]) ? left[i++] : right[j++];
+            if (n == 0 || out[n - 1] != next) out[n++] = next;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private synchronized SegmentWriter newWriter() throws IOException {
+        return new SegmentWriter(directory.resolve("seg-" + (nextGeneration++) + ".seg"));
+    }
+
+    private void open() throws IOException {
+        if (!readManifest()) {
+            // Segments d'un autre format : indexedThrough repart de zéro, le rattrapage réindexe tout
+            log.info("Search index {} built with another format, rebuilding", directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "seg-*.seg")) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        long maxGeneration = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "seg-*.seg")) {
+            for (Path file : files) {
+                try {
+                    segments.add(Segment.open(file));
+                    String name = file.getFileName().toString();
+                    maxGeneration = Math.max(maxGeneration, Long.parseLong(name.substring(4, name.length() - 4)));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Dropping unreadable search segment {}: {}", file, e.getMessage());
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        nextGeneration = maxGeneration + 1;
+    }
+
+    /** Charge le manifeste ; faux s'il a été écrit par une autre version du format (absente = 1). */
+    private boolean readManifest() throws IOException {
+        Path manifest = directory.resolve("manifest.properties");
+        if (!Files.isRegularFile(manifest)) return true;
+        Properties properties = new Properties();
+        try (var in = Files.newInputStream(manifest)) {
+            properties.load(in);
+        }
+        floorId = Long.parseLong(properties.getProperty("floorId", String.valueOf(Long.MIN_VALUE)));
+        if (!String.valueOf(FORMAT_VERSION).equals(properties.getProperty("formatVersion", "1"))) {
+            return false;
+        }
+        indexedThrough = Long.parseLong(properties.getProperty("indexedThrough", "0"));
+        return true;
+    }
+
+    private void writeManifest() throws IOException {
+        Properties properties = new Properties();
+        synchronized (this) {
+            properties.setProperty("indexedThrough", String.valueOf(indexedThrough));
+            properties.setProperty("floorId", String.valueOf(floorId));
+            properties.setProperty("formatVersion", String.valueOf(FORMAT_VERSION));
+        }
+        Path manifest = directory.resolve("manifest.properties");
+        Path tmp = directory.resolve("manifest.properties.tmp");
+        try (var out = Files.newOutputStream(tmp)) {
+            properties.store(out, "Trigram index");
+        }
+        moveAtomically(tmp, manifest);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // STRUCTURES INTERNES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Postings en mémoire : trigramme → ids (non triés, dédoublonnés à l'écriture). */
+    public static final class PostingBuffer {
+
+        private final Map<Long, long[]> postingsByTerm = new HashMap<>();
+        private final Map<Long, Integer> sizes = new HashMap<>();
+        private long postings;
+        private long docs;
+        private long minId = Long.MAX_VALUE;
+        private long maxId = Long.MIN_VALUE;
+
+        void add(long id, long[] trigrams) {
+            for (long term : trigrams) {
+                long[] ids = postingsByTerm.get(term);
+                int size = sizes.getOrDefault(term, 0);
+                if (ids == null) {
+                    ids = new long[4];
+                } else if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size] = id;
+                postingsByTerm.put(term, ids);
+                sizes.put(term, size + 1);
+            }
+            postings += trigrams.length;
+            docs++;
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+        }
+
+        public long postings() {
+            return postings;
+        }
+
+        public long docs() {
+            return docs;
+        }
+
+        long[] sortedTerms() {
+            long[] terms = postingsByTerm.keySet().stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(terms);
+            return terms;
+        }
+
+        long[] sortedIds(long term) {
+            long[] ids = postingsByTerm.get(term);
+            if (ids == null) return new long[0];
+            return distinct(Arrays.copyOf(ids, sizes.get(term)), sizes.get(term));
+        }
+
+        long[] intersect(long[] trigrams) {
+            long[] result = null;
+            for (long term : trigrams) {
+                long[] ids = sortedIds(term);
+                result = result == null ? ids : TrigramIndex.intersect(result, ids);
+                if (result.length == 0) break;
+            }
+            return result != null ? result : new long[0];
+        }
+    }
+
+    /** Écriture séquentielle d'un segment (fichier temporaire renommé à la fin). */
+    private static final class SegmentWriter {
+
+        private final Path target;
+        private final Path tmp;
+        private final CountingOutputStream counter;
+        private final DataOutputStream out;
+        private final List<long[]> table = new ArrayList<>();
+
+        SegmentWriter(Path target) throws IOException {
+            this.target = target;
+            this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16));
+            this.out = new DataOutputStream(counter);
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+        }
+
+        void addTerm(long term, long[] ids) throws IOException {
+            if (ids.length == 0) return;
+            table.add(new long[]{term, counter.count, ids.length});
+            long previous = 0;
+            for (long id : ids) {
+                writeVarLong(out, id - previous);
+                previous = id;
+            }
+        }
+
+        Path finish(long docCount, long minId, long maxId) throws IOException {
+            long tableOffset = counter.count;
+            for (long[] entry : table) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+                out.writeInt((int) entry[2]);
+            }
+            out.writeInt((int) Math.min(docCount, Integer.MAX_VALUE));
+            out.writeLong(minId);
+            out.writeLong(maxId);
+            out.writeInt(table.size());
+            out.writeLong(tableOffset);
+            out.writeInt(MAGIC);
+            out.close();
+            moveAtomically(tmp, target);
+            return target;
+        }
+
+        private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+    }
+
+    private static final class CountingOutputStream extends java.io.FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /** Segment immuable, lu via un mapping mémoire en lecture seule. */
+    private static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final long sizeBytes;
+        private final int docCount;
+        private final long minId;
+        private final long maxId;
+        private final int termCount;
+        private final int tableOffset;
+
+        private Segment(Path file, MappedByteBuffer buffer, long sizeBytes) {
+            this.file = file;
+            this.buffer = buffer;
+            this.sizeBytes = sizeBytes;
+            if (sizeBytes < 5 + FOOTER_BYTES || buffer.getInt(0) != MAGIC || buffer.get(4) != FORMAT_VERSION
+                    || buffer.getInt((int) sizeBytes - Integer.BYTES) != MAGIC) {
+                throw new IllegalStateException("Invalid search segment " + file);
+            }
+            int footer = (int) sizeBytes - FOOTER_BYTES;
+            this.docCount = buffer.getInt(footer);
+            this.minId = buffer.getLong(footer + 4);
+            this.maxId = buffer.getLong(footer + 12);
+            this.termCount = buffer.getInt(footer + 20);
+            this.tableOffset = (int) buffer.getLong(footer + 24);
+        }
+
+        static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size);
+            }
+        }
+
+        long termAt(int index) {
+            return buffer.getLong(tableOffset + index * TERM_ENTRY_BYTES);
+        }
+
+        int countAt(int index) {
+            return buffer.getInt(tableOffset + index * TERM_ENTRY_BYTES + 16);
+        }
+
+        long[] postingsAt(int index) {
+            int position = (int) buffer.getLong(tableOffset + index * TERM_ENTRY_BYTES + 8);
+            long[] ids = new long[countAt(index)];
+            long previous = 0;
+            for (int i = 0; i < ids.length; i++) {
+                long value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buffer.get(position++);
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                previous += value;
+                ids[i] = previous;
+            }
+            return ids;
+        }
+
+        int find(long term) {
+            int low = 0, high = termCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = termAt(mid);
+                if (value < term) low = mid + 1;
+                else if (value > term) high = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+
+        long[] postings(long term) {
+            int index = find(term);
+            return index < 0 ? new long[0] : postingsAt(index);
+        }
+
+        /** Intersection des listes des trigrammes les plus rares de ce segment. */
+        long[] intersect(long[] trigrams) {
+            int[] indexes = new int[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                indexes[i] = find(trigrams[i]);
+                if (indexes[i] < 0) return new long[0];
+            }
+            Integer[] order = new Integer[indexes.length];
+            for (int i = 0; i < order.length; i++) order[i] = indexes[i];
+            Arrays.sort(order, Comparator.comparingInt(this::countAt));
+
+            long[] result = postingsAt(order[0]);
+            for (int i = 1; i < Math.min(order.length, MAX_QUERY_TRIGRAMS) && result.length > 0; i++) {
+                result = TrigramIndex.intersect(result, postingsAt(order[i]));
+            }
+            return result;
+        }
+    }
+}
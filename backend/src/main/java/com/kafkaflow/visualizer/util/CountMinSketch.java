@@ -0,0 +1,68 @@
+package com.kafkaflow.visualizer.util;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch (Cormode &amp; Muthukrishnan) : fréquences approchées en mémoire fixe.
+ * <p>
+ * {@code depth} lignes de {@code width} compteurs ; une estimation ne sous-estime jamais et
+ * surestime d'au plus {@code e / width} fois le total avec une probabilité {@code 1 - e^-depth}.
+ * Les indices de ligne sont dérivés d'un même hash 64 bits, re-mélangé avec une graine par ligne.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[] counts;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 16 || depth < 1 || depth > 16) {
+            throw new IllegalArgumentException("Invalid Count-Min Sketch dimensions: " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new int[width * depth];
+    }
+
+    /** Ajoute {@code count} occurrences et retourne la nouvelle estimation. */
+    public long add(long hash, int count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            long updated = (long) counts[index] + count;
+            counts[index] = (int) Math.min(updated, Integer.MAX_VALUE);
+            estimate = Math.min(estimate, counts[index]);
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /** Un hash re-mélangé par ligne : les collisions d'une ligne à l'autre sont indépendantes. */
+    private int index(long hash, int row) {
+        long rowHash = HyperLogLog.mix(hash + row * 0x9E3779B97F4A7C15L);
+        return row * width + (int) Math.floorMod(rowHash, (long) width);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long memoryBytes() {
+        return (long) counts.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,213 @@
+package com.kafkaflow.visualizer.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Estimateur de cardinalité HyperLogLog (Flajolet et al.).
+ * <p>
+ * {@code 2^precision} registres d'un octet : précision 12 = 4 Ko pour ~1,6 % d'erreur type,
+ * précision 14 = 16 Ko pour ~0,8 %. Deux sketches fusionnent par max registre à registre ;
+ * des précisions différentes sont ramenées à la plus faible.
+ */
+public final class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                    + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // AJOUT / ESTIMATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void add(String value) {
+        if (value != null) {
+            addHash(hash(value.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+
+        double raw = alpha(m) * m * m / sum;
+        // Petites cardinalités : le comptage linéaire est bien plus précis
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) return false;
+        }
+        return true;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /** Erreur type relative ({@code 1.04 / sqrt(m)}). */
+    public static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // FUSION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /**
+     * Union de deux sketches ; le résultat a la plus faible des deux précisions.
+     */
+    public HyperLogLog union(HyperLogLog other) {
+        int target = Math.min(precision, other.precision);
+        HyperLogLog result = foldTo(target);
+        HyperLogLog folded = other.foldTo(target);
+        for (int i = 0; i < result.registers.length; i++) {
+            if (folded.registers[i] > result.registers[i]) {
+                result.registers[i] = folded.registers[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Réduit la précision : les bits d'index abandonnés deviennent le début du suffixe de hash.
+     */
+    private HyperLogLog foldTo(int target) {
+        HyperLogLog result = new HyperLogLog(target);
+        int dropped = precision - target;
+        if (dropped == 0) {
+            System.arraycopy(registers, 0, result.registers, 0, registers.length);
+            return result;
+        }
+
+        int lowMask = (1 << dropped) - 1;
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) continue;
+            int low = i & lowMask;
+            int rank = low != 0
+                    ? dropped - (32 - Integer.numberOfLeadingZeros(low)) + 1
+                    : dropped + registers[i];
+            int index = i >>> dropped;
+            if (rank > result.registers[index]) {
+                result.registers[index] = (byte) rank;
+            }
+        }
+        return result;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SÉRIALISATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Format : version, précision, registres bruts. */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[2 + registers.length];
+        bytes[0] = FORMAT_VERSION;
+        bytes[1] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 2, registers.length);
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2 || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Invalid HyperLogLog payload");
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        if (bytes.length != 2 + sketch.registers.length) {
+            throw new IllegalArgumentException("Invalid HyperLogLog payload length: " + bytes.length);
+        }
+        System.arraycopy(bytes, 2, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+
+    /**
+     * Union de deux sketches sérialisés (l'un ou l'autre peut être absent).
+     */
+    public static byte[] merge(byte[] left, byte[] right) {
+        if (left == null) return right != null ? right.clone() : null;
+        if (right == null) return left.clone();
+        return fromBytes(left).union(fromBytes(right)).toBytes();
+    }
+
+    public static long estimate(byte[] bytes) {
+        return bytes != null ? fromBytes(bytes).estimate() : 0;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HASH
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** FNV-1a 64 bits suivi du finaliseur de MurmurHash3 pour bien répartir les bits de tête. */
+    public static long hash(byte[] data) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other
+                && precision == other.precision
+                && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+}
@@ -0,0 +1,50 @@
+package com.kafkaflow.visualizer.util;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import com.kafkaflow.visualizer.exception.ErrorCode;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position de pagination par clé (seek) sur l'ordre {@code (timestamp DESC, id DESC)}.
+ * <p>
+ * La page suivante commence strictement après le dernier élément renvoyé : le coût d'une page
+ * ne dépend plus de sa profondeur (pas d'OFFSET). Le jeton exposé au client est opaque
+ * (Base64 URL-safe de secondes, nanos et id) et ne doit pas être interprété côté frontend.
+ */
+public record KeysetCursor(LocalDateTime timestamp, long id) {
+
+    /** Position avant le premier élément : borne haute d'un DATETIME MySQL. */
+    public static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int ENCODED_BYTES = 1 + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .put(FORMAT_VERSION)
+                .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(timestamp.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /** {@code null} ou vide = première page ({@link #START}). */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return START;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != ENCODED_BYTES || buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unexpected cursor layout");
+            }
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return new KeysetCursor(timestamp, buffer.getLong());
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_ARGUMENT, "Invalid pagination cursor");
+        }
+    }
+}
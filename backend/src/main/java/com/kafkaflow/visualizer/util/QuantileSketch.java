@@ -0,0 +1,163 @@
+package com.kafkaflow.visualizer.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sketch de quantiles à erreur relative bornée, sur le modèle de DDSketch (Masson et al.).
+ * <p>
+ * Une valeur {@code v >= 1} tombe dans le bucket {@code ceil(log_gamma(v))} avec
+ * {@code gamma = (1 + a) / (1 - a)} : tout quantile est restitué à {@code a} près en relatif
+ * (1 % par défaut). Les valeurs sont des entiers positifs (tailles en octets), d'où un nombre de
+ * buckets borné (~1 100 pour {@code a = 1 %} sur tout l'intervalle int). Deux sketches de même
+ * précision fusionnent par addition des buckets, sans perte.
+ */
+public final class QuantileSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final long[] counts;
+    private long zeroCount;
+    private long totalCount;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be in ]0, 1[: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+        this.counts = new long[bucketIndex(Integer.MAX_VALUE) + 1];
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // AJOUT / REQUÊTES
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void add(int value) {
+        add(value, 1);
+    }
+
+    public void add(int value, long count) {
+        if (value <= 0) {
+            zeroCount += count;
+        } else {
+            counts[bucketIndex(value)] += count;
+        }
+        totalCount += count;
+    }
+
+    /** Quantile {@code q} dans [0, 1] ; 0 pour un sketch vide. */
+    public long quantile(double q) {
+        if (totalCount == 0) return 0;
+
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (totalCount - 1));
+        if (rank < zeroCount) return 0;
+
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return Math.round(bucketValue(i));
+            }
+        }
+        return Math.round(bucketValue(counts.length - 1));
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // FUSION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void merge(QuantileSketch other) {
+        if (other.logGamma == logGamma) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+        } else {
+            // Précisions différentes : chaque bucket est réinjecté via sa valeur représentative
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] > 0) {
+                    counts[bucketIndex((int) Math.min(Integer.MAX_VALUE, Math.round(other.bucketValue(i))))] += other.counts[i];
+                }
+            }
+        }
+        zeroCount += other.zeroCount;
+        totalCount += other.totalCount;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SÉRIALISATION
+    // ═══════════════════════════════════════════════════════════════════════
+
+    /** Format : version, précision, zeroCount, nombre de buckets non vides, puis (index, count). */
+    public byte[] toBytes() {
+        int nonEmpty = 0;
+        for (long count : counts) {
+            if (count > 0) nonEmpty++;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 + 4 + nonEmpty * 12);
+        buffer.put(FORMAT_VERSION).putDouble(relativeAccuracy).putLong(zeroCount).putInt(nonEmpty);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                buffer.putInt(i).putLong(counts[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported quantile sketch version");
+            }
+            QuantileSketch sketch = new QuantileSketch(buffer.getDouble());
+            sketch.zeroCount = buffer.getLong();
+            sketch.totalCount = sketch.zeroCount;
+            int buckets = buffer.getInt();
+            for (int b = 0; b < buckets; b++) {
+                int index = buffer.getInt();
+                long count = buffer.getLong();
+                sketch.counts[index] += count;
+                sketch.totalCount += count;
+            }
+            return sketch;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid quantile sketch payload", e);
+        }
+    }
+
+    /**
+     * Fusion de deux sketches sérialisés (l'un ou l'autre peut être absent).
+     */
+    public static byte[] merge(byte[] left, byte[] right) {
+        if (left == null) return right != null ? right.clone() : null;
+        if (right == null) return left.clone();
+        QuantileSketch merged = fromBytes(left);
+        merged.merge(fromBytes(right));
+        return merged.toBytes();
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private int bucketIndex(int value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /** Milieu relatif du bucket {@code ]gamma^(i-1), gamma^i]}. */
+    private double bucketValue(int index) {
+        double gamma = Math.exp(logGamma);
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+}
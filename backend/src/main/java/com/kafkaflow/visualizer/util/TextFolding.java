@@ -0,0 +1,51 @@
+package com.kafkaflow.visualizer.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Repliement de texte au moins aussi large que la collation {@code utf8mb4_0900_ai_ci} de MySQL :
+ * minuscules, décomposition de compatibilité (NFKD) sans marques combinantes ({@code é} → {@code e},
+ * {@code ﬁ} → {@code fi}), puis {@link #LETTER_FOLDS}. Les recherches « contient » faites hors de la
+ * base (index plein texte, tier froid) comparent des textes repliés pour trouver les mêmes lignes.
+ */
+public final class TextFolding {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Lettres sans décomposition Unicode que la collation confond avec une ou deux lettres de base.
+     * Replier plus que MySQL ne fait qu'élargir un filtre de candidats, jamais manquer une ligne.
+     */
+    private static final Map<Character, String> LETTER_FOLDS = Map.ofEntries(
+            Map.entry('ß', "ss"), Map.entry('æ', "ae"), Map.entry('œ', "oe"), Map.entry('ø', "o"),
+            Map.entry('đ', "d"), Map.entry('ð', "d"), Map.entry('ł', "l"), Map.entry('ħ', "h"),
+            Map.entry('ŧ', "t"), Map.entry('ı', "i"), Map.entry('þ', "th"));
+
+    private TextFolding() {}
+
+    public static String fold(String text) {
+        if (isAscii(text)) return text.toLowerCase(Locale.ROOT);
+
+        String stripped = COMBINING_MARKS.matcher(
+                Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFKD)).replaceAll("");
+        StringBuilder out = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            String replacement = c < 0x80 ? null : LETTER_FOLDS.get(c);
+            if (replacement != null) out.append(replacement);
+            else out.append(c);
+        }
+        return out.toString();
+    }
+
+    /** Texte ASCII : son repliement se réduit aux minuscules. */
+    public static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+}
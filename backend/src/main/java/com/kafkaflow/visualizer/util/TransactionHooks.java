@@ -0,0 +1,27 @@
+package com.kafkaflow.visualizer.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    /**
+     * Exécute {@code action} après commit de la transaction courante, jamais si elle est annulée ;
+     * tout de suite hors transaction. Pour les états mémoire (compteurs, index, caches) qui ne
+     * doivent refléter que des lignes validées.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.kafkaflow.visualizer.websocket;
+
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compte les octets et les échecs des frames MESSAGE envoyées aux sessions (après transcodage).
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboundMetricsInterceptor implements ChannelInterceptor {
+
+    private final PipelineMetrics pipelineMetrics;
+
+    @Override
+    public void afterSendCompletion(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                    boolean sent, Exception ex) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+
+        if (!sent || ex != null) {
+            pipelineMetrics.recordWebSocketDrop();
+        } else if (message.getPayload() instanceof byte[] payload) {
+            pipelineMetrics.recordWebSocketFrame(payload.length);
+        }
+    }
+}
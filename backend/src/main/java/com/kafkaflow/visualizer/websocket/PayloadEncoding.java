@@ -0,0 +1,81 @@
+package com.kafkaflow.visualizer.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Encodage des payloads STOMP négocié au CONNECT (header natif {@value #HEADER}).
+ * JSON reste le défaut ; CBOR et Smile sont des transcodages binaires du même arbre Jackson.
+ */
+public enum PayloadEncoding {
+
+    JSON("json", null),
+    CBOR("cbor", new CBORFactory()),
+    SMILE("smile", new SmileFactory());
+
+    public static final String HEADER = "payload-encoding";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String headerValue;
+    private final JsonFactory binaryFactory;
+
+    PayloadEncoding(String headerValue, JsonFactory binaryFactory) {
+        this.headerValue = headerValue;
+        this.binaryFactory = binaryFactory;
+    }
+
+    public String headerValue() {
+        return headerValue;
+    }
+
+    public boolean isBinary() {
+        return binaryFactory != null;
+    }
+
+    /**
+     * Choisit le premier encodage supporté dans la liste demandée par le client ("cbor, smile, json").
+     * Les transports non binaires (SockJS) retombent toujours sur JSON.
+     */
+    public static PayloadEncoding negotiate(String requested, boolean binaryCapable) {
+        if (requested == null || requested.isBlank() || !binaryCapable) {
+            return JSON;
+        }
+        for (String candidate : requested.split(",")) {
+            String value = candidate.trim().toLowerCase(Locale.ROOT);
+            for (PayloadEncoding encoding : values()) {
+                if (encoding.headerValue.equals(value)) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Transcode un payload JSON déjà sérialisé vers cet encodage, en streaming (pas d'arbre intermédiaire).
+     */
+    public byte[] transcode(byte[] json) {
+        if (!isBinary()) {
+            return json;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = binaryFactory.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payload transcoding to " + headerValue + " failed", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,103 @@
+package com.kafkaflow.visualizer.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transcode les frames MESSAGE sortantes pour les sessions ayant négocié un encodage binaire.
+ * <p>
+ * Le broker diffuse le même tableau d'octets JSON à chaque abonné : le dernier transcodage est
+ * gardé par thread, un broadcast vers N sessions CBOR ne coûte donc qu'un seul transcodage.
+ * Le content-type est forcé à application/octet-stream pour que STOMP émette une frame binaire.
+ * Seules les charges {@code application/json} sont transcodées : toute autre charge binaire
+ * (texte brut, octets déjà encodés) passe telle quelle.
+ */
+@Component
+@Slf4j
+public class PayloadEncodingInterceptor implements ChannelInterceptor {
+
+    private final Map<String, PayloadEncoding> sessionEncodings = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Transcoded> lastTranscoded = new ThreadLocal<>();
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // SESSIONS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    public void register(String sessionId, PayloadEncoding encoding) {
+        if (sessionId == null) return;
+        if (encoding.isBinary()) {
+            sessionEncodings.put(sessionId, encoding);
+            log.debug("WebSocket session {} negotiated {} payloads", sessionId, encoding.headerValue());
+        } else {
+            sessionEncodings.remove(sessionId);
+        }
+    }
+
+    public PayloadEncoding getEncoding(String sessionId) {
+        return sessionId == null ? PayloadEncoding.JSON : sessionEncodings.getOrDefault(sessionId, PayloadEncoding.JSON);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessionEncodings.remove(event.getSessionId());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // OUTBOUND
+    // ═══════════════════════════════════════════════════════════════════════
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        if (sessionEncodings.isEmpty()
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] json)
+                || !isJson(message.getHeaders())) {
+            return message;
+        }
+
+        PayloadEncoding encoding = getEncoding(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (!encoding.isBinary()) {
+            return message;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(PayloadEncoding.HEADER, encoding.headerValue());
+        return MessageBuilder.createMessage(transcode(json, encoding), accessor.getMessageHeaders());
+    }
+
+    private static boolean isJson(MessageHeaders headers) {
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        MimeType mimeType = contentType instanceof MimeType type ? type
+                : contentType instanceof String text ? MimeTypeUtils.parseMimeType(text) : null;
+        return mimeType != null && MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(mimeType);
+    }
+
+    private byte[] transcode(byte[] json, PayloadEncoding encoding) {
+        Transcoded cached = lastTranscoded.get();
+        if (cached != null && cached.source() == json && cached.encoding() == encoding) {
+            return cached.encoded();
+        }
+        byte[] encoded = encoding.transcode(json);
+        lastTranscoded.set(new Transcoded(json, encoding, encoded));
+        return encoded;
+    }
+
+    private record Transcoded(byte[] source, PayloadEncoding encoding, byte[] encoded) {}
+}
@@ -1,10 +1,16 @@
 package com.kafkaflow.visualizer.websocket;
 
+import com.kafkaflow.visualizer.dto.FlowDto.FlowMetricsDelta;
+import com.kafkaflow.visualizer.dto.KafkaDto.AnomalyResponse;
 import com.kafkaflow.visualizer.dto.KafkaDto.DashboardStats;
 import com.kafkaflow.visualizer.dto.KafkaDto.MessageResponse;
 import com.kafkaflow.visualizer.dto.KafkaDto.WebSocketMessage;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +22,7 @@ import java.time.LocalDateTime;
 public class WebSocketService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final PipelineMetrics pipelineMetrics;
 
     // ═══════════════════════════════════════════════════════════════════════
     // MESSAGES
@@ -28,8 +35,8 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/messages", wsMessage);
-        messagingTemplate.convertAndSend("/topic/messages/" + message.getTopicName(), wsMessage);
+        send("/topic/messages", wsMessage);
+        send("/topic/messages/" + message.getTopicName(), wsMessage);
 
         log.debug("Broadcasted new message for topic: {}", message.getTopicName());
     }
@@ -45,7 +52,7 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/connections", wsMessage);
+        send("/topic/connections", wsMessage);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -65,7 +72,7 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/topics", wsMessage);
+        send("/topic/topics", wsMessage);
         log.debug("Broadcasted topic update: {} - count: {}, throughput: {}/s", topicName, messageCount, throughput);
     }
 
@@ -77,8 +84,42 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/metrics", wsMessage);
-        messagingTemplate.convertAndSend("/topic/metrics/" + metrics.topicId(), wsMessage);
+        send("/topic/metrics", wsMessage);
+        send("/topic/metrics/" + metrics.topicId(), wsMessage);
+    }
+
+    /** Top-K des clés d'un topic (fenêtre glissante) */
+    public void broadcastHotKeys(HotKeyTracker.HotKeys hotKeys) {
+        WebSocketMessage wsMessage = WebSocketMessage.builder()
+                .type("HOT_KEYS")
+                .payload(hotKeys)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        send("/topic/metrics/" + hotKeys.topicId() + "/hot-keys", wsMessage);
+    }
+
+    /** Métriques internes du consumer Kafka (fetch, lag, commit, temps en poll) */
+    public void broadcastClientMetrics(KafkaClientMetricsBridge.ClientMetrics metrics) {
+        WebSocketMessage wsMessage = WebSocketMessage.builder()
+                .type("CLIENT_METRICS")
+                .payload(metrics)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        send("/topic/metrics/" + metrics.topicId() + "/client", wsMessage);
+    }
+
+    /** Anomalie de débit / d'erreurs : flux global et flux du topic */
+    public void broadcastAnomaly(AnomalyResponse anomaly) {
+        WebSocketMessage wsMessage = WebSocketMessage.builder()
+                .type("ANOMALY")
+                .payload(anomaly)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        send("/topic/anomalies", wsMessage);
+        send("/topic/metrics/" + anomaly.getTopicId() + "/anomalies", wsMessage);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -92,7 +133,18 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/flow/" + diagramId, wsMessage);
+        send("/topic/flow/" + diagramId, wsMessage);
+    }
+
+    /** Deltas de métriques par node ; le diagramme complet n'est envoyé qu'à l'abonnement (/app/flow/{id}) */
+    public void broadcastFlowMetrics(FlowMetricsDelta delta) {
+        WebSocketMessage wsMessage = WebSocketMessage.builder()
+                .type("FLOW_METRICS")
+                .payload(delta)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        send("/topic/flow/" + delta.getFlowId(), wsMessage);
     }
 
     // ═══════════════════════════════════════════════════════════════════════
@@ -110,7 +162,7 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/dashboard/stats", wsMessage);
+        send("/topic/dashboard/stats", wsMessage);
         log.trace("Broadcasted dashboard stats - msg/s: {}", stats.getMessagesPerSecond());
     }
 
@@ -125,10 +177,24 @@ public class WebSocketService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/dashboard/realtime", wsMessage);
+        send("/topic/dashboard/realtime", wsMessage);
         log.trace("Broadcasted realtime metrics - msg/s: {}", payload.messagesPerSecond());
     }
 
+    // ═══════════════════════════════════════════════════════════════════════
+    // ENVOI
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void send(String destination, WebSocketMessage wsMessage) {
+        try {
+            messagingTemplate.convertAndSend(destination, wsMessage);
+            pipelineMetrics.recordWebSocketSend(wsMessage.getType());
+        } catch (MessagingException e) {
+            pipelineMetrics.recordWebSocketDrop();
+            throw e;
+        }
+    }
+
     // ═══════════════════════════════════════════════════════════════════════
     // PAYLOADS (Records)
     // ═══════════════════════════════════════════════════════════════════════
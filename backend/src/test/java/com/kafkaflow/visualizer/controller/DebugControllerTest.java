@@ -2,7 +2,14 @@ package com.kafkaflow.visualizer.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
 import com.kafkaflow.visualizer.service.kafka.KafkaConsumerManager;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.metrics.ConsumerThreadProfiler;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService.RecordingStatus;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService.State;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,12 +21,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print; //  Indispensable pour voir le JSON
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -35,6 +44,21 @@ class DebugControllerTest {
     @Mock
     private KafkaConsumerManager consumerManager;
 
+    @Mock
+    private TopicMetadataCache topicMetadataCache;
+
+    @Mock
+    private ConsumerThreadProfiler threadProfiler;
+
+    @Mock
+    private FlightRecorderService flightRecorderService;
+
+    @Mock
+    private SearchIndexService searchIndex;
+
+    @Mock
+    private ColdArchiveStore coldArchiveStore;
+
     @BeforeEach
     void setup() {
         // 1. Configuration Robuste de Jackson
@@ -47,7 +71,8 @@ class DebugControllerTest {
 
         // 3. Setup MockMvc avec logs (print) et converter
         this.mockMvc = MockMvcBuilders
-                .standaloneSetup(new DebugController(jdbcTemplate, consumerManager))
+                .standaloneSetup(new DebugController(jdbcTemplate, consumerManager, topicMetadataCache, threadProfiler,
+                        flightRecorderService, searchIndex, coldArchiveStore))
                 .setMessageConverters(converter)
                 .alwaysDo(print()) // Affiche le Request/Response dans la console à chaque test
                 .build();
@@ -63,6 +88,7 @@ class DebugControllerTest {
 
         when(consumerManager.getActiveConsumerCount()).thenReturn(3);
         when(consumerManager.getConsumerStatus()).thenReturn(Collections.emptyMap());
+        when(coldArchiveStore.getStatus()).thenReturn(Map.of("segments", 4, "rows", 12_000));
 
         // WHEN
         mockMvc.perform(get("/api/debug/status"))
@@ -70,7 +96,8 @@ class DebugControllerTest {
                 // Si ça échoue ici, regarde les logs "MockHttpServletResponse" juste au-dessus
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.databaseConnection").value("OK"))
-                .andExpect(jsonPath("$.data.totalMessages").value(100));
+                .andExpect(jsonPath("$.data.totalMessages").value(100))
+                .andExpect(jsonPath("$.data.coldArchive.segments").value(4));
     }
 
     @Test
@@ -102,4 +129,15 @@ class DebugControllerTest {
                 .andExpect(jsonPath("$.data.tablesExist").value(false))
                 .andExpect(jsonPath("$.data.tablesError").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStartBoundedFlightRecording() throws Exception {
+        when(flightRecorderService.start(60, null))
+                .thenReturn(new RecordingStatus(State.RUNNING, null, 60, 200, null));
+
+        mockMvc.perform(post("/api/debug/jfr/start").param("durationSeconds", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.state").value("RUNNING"))
+                .andExpect(jsonPath("$.data.maxDurationSeconds").value(60));
+    }
+}
@@ -3,10 +3,13 @@ package com.kafkaflow.visualizer.controller.retention;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.kafkaflow.visualizer.dto.RetentionDto.JobLogResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.JobTopicLogResponse;
 import com.kafkaflow.visualizer.mapper.RetentionDtoMapper;
 import com.kafkaflow.visualizer.model.RetentionJobLog;
 import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
 import com.kafkaflow.visualizer.repository.RetentionJobLogRepository;
+import com.kafkaflow.visualizer.repository.RetentionJobTopicLogRepository;
 import com.kafkaflow.visualizer.service.retention.RetentionArchiveService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,6 +43,9 @@ class RetentionJobControllerTest {
     @Mock
     private RetentionJobLogRepository jobLogRepository;
 
+    @Mock
+    private RetentionJobTopicLogRepository topicLogRepository;
+
     @Mock
     private RetentionArchiveService archiveService;
 
@@ -53,7 +59,7 @@ class RetentionJobControllerTest {
     void setup() {
         // Setup Standalone pour tester uniquement ce contrôleur
         this.mockMvc = MockMvcBuilders
-                .standaloneSetup(new RetentionJobController(jobLogRepository, archiveService, mapper))
+                .standaloneSetup(new RetentionJobController(jobLogRepository, topicLogRepository, archiveService, mapper))
                 .build();
     }
 
@@ -103,6 +109,27 @@ class RetentionJobControllerTest {
                 .andExpect(jsonPath("$.data[0].jobType").value("PURGE_HOT"));
     }
 
+    @Test
+    void shouldGetJobTopics() throws Exception {
+        // GIVEN
+        RetentionJobTopicLog topicLog = RetentionJobTopicLog.builder()
+                .jobLogId(7L)
+                .topicId(3L)
+                .topicName("orders")
+                .status(RetentionJobTopicLog.TopicStatus.FAILED)
+                .build();
+        when(topicLogRepository.findByJobLogIdOrderByIdAsc(7L)).thenReturn(List.of(topicLog));
+
+        JobTopicLogResponse responseDto = JobTopicLogResponse.builder().topicName("orders").status("FAILED").build();
+        when(mapper.toJobTopicLogResponse(topicLog)).thenReturn(responseDto);
+
+        // WHEN
+        mockMvc.perform(get("/api/retention/jobs/7/topics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].topicName").value("orders"))
+                .andExpect(jsonPath("$.data[0].status").value("FAILED"));
+    }
+
     @Test
     void shouldRunArchiveJob() throws Exception {
         // GIVEN
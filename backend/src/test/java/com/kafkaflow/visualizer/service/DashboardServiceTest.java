@@ -6,6 +6,8 @@ import com.kafkaflow.visualizer.repository.KafkaConnectionRepository;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
 import com.kafkaflow.visualizer.service.kafka.KafkaConsumerManager;
+import com.kafkaflow.visualizer.service.metrics.ConsumerThreadProfiler;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore;
 import com.kafkaflow.visualizer.service.metrics.ThroughputTracker;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,7 +37,11 @@ class DashboardServiceTest {
     @Mock
     private ThroughputTracker throughputTracker;
     @Mock
+    private MetricsTimeSeriesStore timeSeriesStore;
+    @Mock
     private KafkaConsumerManager consumerManager;
+    @Mock
+    private ConsumerThreadProfiler threadProfiler;
 
     @InjectMocks
     private DashboardService dashboardService;
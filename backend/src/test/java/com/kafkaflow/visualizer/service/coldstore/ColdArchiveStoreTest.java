@@ -0,0 +1,411 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.MessageType;
+import com.kafkaflow.visualizer.model.RetentionPolicy;
+import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.service.retention.RetentionPolicyService;
+import com.kafkaflow.visualizer.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ColdArchiveStoreTest {
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    @Mock
+    private KafkaMessageArchiveRepository archiveRepository;
+
+    @Mock
+    private RetentionPolicyService policyService;
+
+    @TempDir
+    Path directory;
+
+    private ColdArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+    }
+
+    @Test
+    void migrateColdArchives_ShouldMoveRowsToSegmentsAndReadThemBackUnchanged() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            rows.add(archive(id, DAY_ONE.plusMinutes(id), "order-" + (id % 50), orderJson(id)));
+        }
+        KafkaMessageArchive special = rows.get(41);
+        special.setHeaders(Map.of("trace-id", "abc"));
+        special.setPartition(null);
+        special.setOffset(null);
+        special.setMessageType(MessageType.ERROR);
+        rows.get(42).setMessageValue(null);
+        rows.get(43).setMessageValue("");
+        givenColdCandidates(rows);
+
+        assertThat(store.migrateColdArchives()).isEqualTo(3000);
+
+        verify(archiveRepository, atLeastOnce()).deleteByIds(any());
+        assertThat(store.count(ColdArchiveQuery.ALL)).isEqualTo(3000);
+        KafkaMessageArchive read = store.findById(special.getId()).orElseThrow();
+        assertThat(read).usingRecursiveComparison().isEqualTo(special);
+        assertThat(store.findByIds(List.of(43L, 44L))).extracting(KafkaMessageArchive::getMessageValue)
+                .containsExactly("", null);
+
+        // Même topic, trois jours : un segment par jour, relus depuis le disque au redémarrage
+        ColdArchiveStore reopened = newStore();
+        assertThat(reopened.getStatus()).containsEntry("segments", 3).containsEntry("rows", 3000L);
+        assertThat(reopened.findByIds(List.of(1L, 2999L))).extracting(KafkaMessageArchive::getId)
+                .containsExactly(2999L, 1L);
+    }
+
+    @Test
+    void find_ShouldReturnNewestMatchesAfterCursorWithFilters() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            rows.add(archive(id, DAY_ONE.plusSeconds(id), id % 10 == 0 ? "vip-" + id : "key-" + id, orderJson(id)));
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        ColdArchiveQuery vip = ColdArchiveQuery.builder().topicId(1L).messageKey("VIP").build();
+        assertThat(store.count(vip)).isEqualTo(50);
+        assertThat(store.find(vip, 3, true)).extracting(KafkaMessageArchive::getId).containsExactly(500L, 490L, 480L);
+
+        KeysetCursor cursor = new KeysetCursor(DAY_ONE.plusSeconds(480), 480L);
+        assertThat(store.find(vip.toBuilder().before(cursor).build(), 2, true))
+                .extracting(KafkaMessageArchive::getId).containsExactly(470L, 460L);
+        assertThat(store.find(vip, 2, false)).extracting(KafkaMessageArchive::getId).containsExactly(10L, 20L);
+
+        ColdArchiveQuery range = ColdArchiveQuery.builder()
+                .fromDate(DAY_ONE.plusSeconds(100)).toDate(DAY_ONE.plusSeconds(199)).build();
+        assertThat(store.count(range)).isEqualTo(100);
+        assertThat(store.count(ColdArchiveQuery.builder().valueContains("\"ORDERID\": 42,").build())).isEqualTo(1);
+        assertThat(store.count(ColdArchiveQuery.builder().fullText("orders").build())).isEqualTo(500);
+        assertThat(store.count(ColdArchiveQuery.builder().topicId(2L).build())).isZero();
+    }
+
+    @Test
+    void find_ShouldSortByAnyFieldAndReadOnlyRetainedRowsInFull() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 900; id++) {
+            rows.add(archive(id, DAY_ONE.plusMinutes(id), "key-" + id, orderJson(id)));
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        Comparator<KafkaMessageArchive> byOffsetDesc = Comparator
+                .comparing(KafkaMessageArchive::getOffset).thenComparing(KafkaMessageArchive::getId).reversed();
+        List<KafkaMessageArchive> top = store.find(ColdArchiveQuery.builder().messageKey("key-1").build(), 3, byOffsetDesc);
+
+        // Clés key-1, key-10..19, key-100..199 : les offsets les plus grands sont ceux des ids 199, 198, 197
+        assertThat(top).extracting(KafkaMessageArchive::getId).containsExactly(199L, 198L, 197L);
+        assertThat(top.get(0).getMessageValue()).isEqualTo(orderJson(199));
+    }
+
+    @Test
+    void find_ShouldMergeParallelBlockScansInOrder() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 4000; id++) {
+            rows.add(archive(id, DAY_ONE.plusHours(id % 4 * 24).plusSeconds(id), "key-" + (id % 7), orderJson(id)));
+        }
+        givenColdCandidates(rows);
+        ColdArchiveStore parallel = newStore(32, 4);
+        parallel.migrateColdArchives();
+
+        ColdArchiveQuery shipped = ColdArchiveQuery.builder().messageKey("key-3").valueContains("shipped").build();
+        List<KafkaMessageArchive> expected = rows.stream()
+                .filter(row -> row.getMessageKey().equals("key-3") && row.getMessageValue().contains("SHIPPED"))
+                .sorted(Comparator.comparing(KafkaMessageArchive::getOriginalTimestamp)
+                        .thenComparing(KafkaMessageArchive::getId).reversed())
+                .toList();
+
+        assertThat(parallel.count(shipped)).isEqualTo(expected.size());
+        assertThat(parallel.find(shipped, 25, true)).extracting(KafkaMessageArchive::getId)
+                .containsExactlyElementsOf(expected.subList(0, 25).stream().map(KafkaMessageArchive::getId).toList());
+        assertThat(parallel.find(shipped, 5, false)).extracting(KafkaMessageArchive::getId)
+                .containsExactlyElementsOf(expected.reversed().subList(0, 5).stream().map(KafkaMessageArchive::getId).toList());
+        assertThat(parallel.count(ColdArchiveQuery.ALL)).isEqualTo(4000);
+        parallel.shutdown();
+    }
+
+    @Test
+    void count_ShouldOnlyReadBlocksWhoseKeyFilterMayContainKey() throws IOException {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 4000; id++) {
+            rows.add(archive(id, DAY_ONE.plusSeconds(id), "Order-" + id, orderJson(id)));
+        }
+        rows.get(10).setMessageKey(null);
+        givenColdCandidates(rows);
+        ColdArchiveStore filtered = newStore(100, 1);
+        filtered.migrateColdArchives();
+
+        ColdArchiveQuery byKey = ColdArchiveQuery.builder().messageKey("order-1234").build();
+        assertThat(filtered.count(byKey)).isEqualTo(1);
+        assertThat(filtered.find(byKey, 10, true)).extracting(KafkaMessageArchive::getId).containsExactly(1234L);
+        assertThat(filtered.count(ColdArchiveQuery.builder().messageKey("ORDER-12").build())).isEqualTo(111);
+        assertThat(filtered.count(ColdArchiveQuery.builder().messageKey("missing").build())).isZero();
+
+        ColdSegment segment;
+        try (Stream<Path> files = Files.walk(directory)) {
+            segment = ColdSegment.open(files.filter(file -> file.toString().endsWith(SegmentFormat.EXTENSION))
+                    .findFirst().orElseThrow(), new ValueDictionaries(Duration.ofDays(30)));
+        }
+        assertThat(segment.getBlocks()).hasSize(40);
+        assertThat(segment.getBlocks().stream().filter(byKey::mayMatch).count()).isLessThanOrEqualTo(2);
+        // Recherche trop courte pour un trigramme : aucun bloc écarté
+        assertThat(segment.getBlocks().stream().filter(ColdArchiveQuery.builder().messageKey("12").build()::mayMatch))
+                .hasSize(40);
+    }
+
+    @Test
+    void count_ShouldIgnoreAccentsLikeDatabaseCollation() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            String key = id % 100 == 0 ? "Café-" + id : "order-" + id;
+            String value = id == 7 ? "{\"city\": \"Besançon\", \"note\": \"Straße\"}" : orderJson(id);
+            rows.add(archive(id, DAY_ONE.plusSeconds(id), key, value));
+        }
+        givenColdCandidates(rows);
+        ColdArchiveStore filtered = newStore(50, 1);
+        filtered.migrateColdArchives();
+
+        // Le filtre de clés porte sur la forme repliée : « cafe » ne doit écarter aucun bloc de « Café »
+        assertThat(filtered.count(ColdArchiveQuery.builder().messageKey("cafe").build())).isEqualTo(4);
+        assertThat(filtered.count(ColdArchiveQuery.builder().messageKey("CAFÉ-2").build())).isEqualTo(1);
+        assertThat(filtered.count(ColdArchiveQuery.builder().valueContains("besancon").build())).isEqualTo(1);
+        assertThat(filtered.count(ColdArchiveQuery.builder().valueContains("strasse").build())).isEqualTo(1);
+        assertThat(filtered.find(ColdArchiveQuery.builder().fullText("CAFE-3").build(), 10, true))
+                .extracting(KafkaMessageArchive::getId).containsExactly(300L);
+    }
+
+    @Test
+    void migrateColdArchives_ShouldCompressRepetitiveJsonSeveralTimes() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            rows.add(archive(id, DAY_ONE.plusSeconds(id * 7), "customer-" + (id % 200), orderJson(id)));
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        long textBytes = rows.stream().mapToLong(row -> row.getMessageValue().length() + row.getMessageKey().length()).sum();
+        assertThat(textBytes / store.diskBytes()).isGreaterThanOrEqualTo(5);
+        assertThat((Double) store.getStatus().get("compressionRatio")).isGreaterThan(5.0);
+    }
+
+    @Test
+    void dropArchivedBefore_ShouldOnlyDropFullyExpiredSegments() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            KafkaMessageArchive row = archive(id, DAY_ONE.plusDays(id > 10 ? 1 : 0).plusMinutes(id), "k", "v");
+            row.setArchivedAt(DAY_ONE.plusDays(id > 10 ? 30 : 10));
+            rows.add(row);
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        assertThat(store.dropArchivedBefore(DAY_ONE.plusDays(20))).isEqualTo(10);
+        assertThat(store.count(ColdArchiveQuery.ALL)).isEqualTo(10);
+        assertThat(store.dropTopic(1L)).isEqualTo(10);
+        assertThat(store.isEmpty()).isTrue();
+    }
+
+    @Test
+    void dropArchivedBefore_ShouldRewriteSegmentsHoldingExpiredAndLiveRows() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            KafkaMessageArchive row = archive(id, DAY_ONE.plusMinutes(id), "k", "v-" + id);
+            row.setArchivedAt(DAY_ONE.plusDays(id <= 4 ? 10 : 30));
+            rows.add(row);
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        assertThat(store.dropArchivedBefore(DAY_ONE.plusDays(20))).isEqualTo(4);
+
+        assertThat(store.count(ColdArchiveQuery.ALL)).isEqualTo(6);
+        assertThat(store.findByIds(List.of(3L, 5L))).extracting(KafkaMessageArchive::getId).containsExactly(5L);
+        assertThat(newStore().getStatus()).containsEntry("segments", 1).containsEntry("rows", 6L);
+    }
+
+    @Test
+    void deleteByIds_ShouldRewriteSegmentWithoutRowsAndKeepOthersReadable() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) {
+            rows.add(archive(id, DAY_ONE.plusMinutes(id), "key-" + id, orderJson(id)));
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        assertThat(store.deleteByIds(List.of(2L, 300L, 9999L))).isEqualTo(2);
+
+        assertThat(store.count(ColdArchiveQuery.ALL)).isEqualTo(598);
+        assertThat(store.findByIds(List.of(2L, 3L, 300L))).extracting(KafkaMessageArchive::getId).containsExactly(3L);
+        assertThat(store.findById(301L).orElseThrow()).usingRecursiveComparison().isEqualTo(rows.get(300));
+        assertThat(store.getStatus()).containsEntry("retainedBytes", 0L);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(SegmentFormat.TMP_EXTENSION))).isEmpty();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Toutes les lignes d'un segment supprimées : le segment disparaît
+        List<Long> remaining = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) remaining.add(id);
+        assertThat(store.deleteByIds(remaining)).isEqualTo(598);
+        assertThat(store.isEmpty()).isTrue();
+    }
+
+    @Test
+    void usageByTopic_ShouldAggregateSegmentsLikeDatabaseStats() {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            KafkaMessageArchive row = archive(id, DAY_ONE.plusDays(id > 10 ? 1 : 0).plusMinutes(id), "k", "value-" + id);
+            row.setMessageType(id % 5 == 0 ? MessageType.ERROR : MessageType.NORMAL);
+            rows.add(row);
+        }
+        rows.get(0).setContentType("text/plain");
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        long valueBytes = rows.stream().mapToLong(KafkaMessageArchive::getValueSize).sum();
+        assertThat(store.usageByTopic()).singleElement().satisfies(usage -> {
+            assertThat(usage.name()).isEqualTo("orders");
+            assertThat(usage.rows()).isEqualTo(20);
+            assertThat(usage.valueBytes()).isEqualTo(valueBytes);
+            assertThat(usage.oldest()).isEqualTo(DAY_ONE.plusMinutes(1));
+            assertThat(usage.newest()).isEqualTo(DAY_ONE.plusDays(1).plusMinutes(20));
+        });
+        assertThat(store.usageByConnection()).extracting(ColdArchiveStore.ColdUsage::id).containsExactly(10L);
+        assertThat(store.countByMessageType()).containsEntry(MessageType.ERROR, 4L).containsEntry(MessageType.NORMAL, 16L);
+        assertThat(store.countByArchiveReason()).containsEntry(ArchiveReason.RETENTION, 20L);
+        assertThat(store.contentTypes()).containsExactly("application/json", "text/plain");
+        assertThat(store.topicNames()).containsExactly("orders");
+        // Archivées le lendemain : le premier segment est à cheval sur la date, le second entièrement après
+        assertThat(store.countArchivedSince(DAY_ONE.plusDays(1).plusMinutes(6))).isEqualTo(15);
+    }
+
+    @Test
+    void close_ShouldKeepMappingUntilLastReaderReleasesIt() throws IOException {
+        List<KafkaMessageArchive> rows = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            rows.add(archive(id, DAY_ONE.plusMinutes(id), "k", "v-" + id));
+        }
+        givenColdCandidates(rows);
+        store.migrateColdArchives();
+
+        ColdSegment segment;
+        try (Stream<Path> files = Files.walk(directory)) {
+            segment = ColdSegment.open(files.filter(file -> file.toString().endsWith(SegmentFormat.EXTENSION))
+                    .findFirst().orElseThrow(), new ValueDictionaries(Duration.ofDays(30)));
+        }
+        assertThat(segment.acquire()).isTrue();
+        segment.close();
+        // Un lecteur retient encore le mapping
+        assertThat(segment.isReleased()).isFalse();
+        assertThat(segment.meta(segment.getBlocks().get(0)).rows).isEqualTo(20);
+        segment.release();
+        assertThat(segment.isReleased()).isTrue();
+        assertThat(segment.acquire()).isFalse();
+
+        assertThat(store.dropTopic(1L)).isEqualTo(20);
+        assertThat(store.diskBytes()).isZero();
+        assertThat(store.getStatus()).containsEntry("retainedBytes", 0L);
+    }
+
+    @Test
+    void recoverPending_ShouldDeleteRowsStillInDatabaseThenPublishSegment() throws IOException {
+        Path topicDirectory = Files.createDirectories(directory.resolve("topic-1"));
+        Files.write(topicDirectory.resolve("dict-1.dict"), "x".getBytes());
+        new ColdSegmentWriter(100, 1 << 20, 6, 0.01).write(topicDirectory.resolve("20260301-1.pending"),
+                List.of(archive(1L, DAY_ONE, "a", "x"), archive(2L, DAY_ONE.plusHours(1), "b", "y")),
+                new ValueDictionary(1, "x".getBytes()));
+        Files.writeString(topicDirectory.resolve("20260301-5.tmp"), "partial");
+
+        ColdArchiveStore restarted = newStore();
+        assertThat(restarted.isEmpty()).isTrue();
+        restarted.recoverPending();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(archiveRepository).deleteByIds(ids.capture());
+        assertThat(ids.getValue()).containsExactly(1L, 2L);
+        assertThat(restarted.count(ColdArchiveQuery.ALL)).isEqualTo(2);
+        try (Stream<Path> files = Files.list(topicDirectory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactlyInAnyOrder("dict-1.dict", "20260301-1.seg");
+        }
+    }
+
+    private ColdArchiveStore newStore() {
+        return newStore(256, 1);
+    }
+
+    private ColdArchiveStore newStore(int blockRows, int scanParallelism) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new ColdArchiveStore(archiveRepository, policyService, transactionTemplate, true,
+                directory.toString(), 7, blockRows, 1 << 20, 100_000, 6, scanParallelism, 0.01, 30);
+    }
+
+    private void givenColdCandidates(List<KafkaMessageArchive> rows) {
+        given(archiveRepository.findTopicsArchivedBefore(any())).willReturn(List.<Object[]>of(new Object[]{1L, 10L}));
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(RetentionPolicy.builder().archiveCompress(true).build());
+        given(archiveRepository.findColdCandidates(eq(1L), any(), any())).willReturn(rows);
+    }
+
+    private static KafkaMessageArchive archive(long id, LocalDateTime timestamp, String key, String value) {
+        return KafkaMessageArchive.builder()
+                .id(id)
+                .originalId(id + 100_000)
+                .topicId(1L)
+                .topicName("orders")
+                .connectionId(10L)
+                .connectionName("local")
+                .partition((int) (id % 3))
+                .offset(id * 3)
+                .messageKey(key)
+                .messageValue(value)
+                .originalTimestamp(timestamp)
+                .contentType("application/json")
+                .valueSize(value.length())
+                .archivedAt(timestamp.plusDays(1))
+                .archiveReason(ArchiveReason.RETENTION)
+                .build();
+    }
+
+    private static String orderJson(long id) {
+        return "{\"orderId\": " + id + ", \"status\": \"" + (id % 3 == 0 ? "SHIPPED" : "PENDING")
+                + "\", \"customer\": {\"id\": " + (id % 200) + ", \"country\": \"FR\"}, "
+                + "\"items\": [{\"sku\": \"SKU-" + (id % 40) + "\", \"quantity\": " + (id % 5 + 1) + "}], "
+                + "\"currency\": \"EUR\", \"channel\": \"web\"}";
+    }
+}
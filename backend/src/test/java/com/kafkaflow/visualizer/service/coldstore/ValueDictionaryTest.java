@@ -0,0 +1,148 @@
+package com.kafkaflow.visualizer.service.coldstore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValueDictionaryTest {
+
+    @Test
+    void encode_ShouldRoundTripValuesThroughTrainedDictionary() {
+        ValueDictionary dictionary = ValueDictionary.train(1, payloads(1, 500, ValueDictionaryTest::order));
+
+        try (ValueDictionary.Encoder encoder = dictionary.encoder(6)) {
+            for (String value : List.of(order(9_999), "é€ unicode ✓", "x", event(3))) {
+                byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+                assertThat(dictionary.decode(ByteBuffer.wrap(encoder.encode(raw)), raw.length)).isEqualTo(value);
+            }
+        }
+        assertThat(dictionary.decode(ByteBuffer.allocate(0), 0)).isEmpty();
+    }
+
+    @Test
+    void train_ShouldMakeSmallJsonValuesCompressSeveralTimesBetterThanPlainDeflate() {
+        ValueDictionary dictionary = ValueDictionary.train(1, payloads(1, 1000, ValueDictionaryTest::order));
+        ValueDictionary none = new ValueDictionary(0, new byte[0]);
+
+        List<String> values = payloads(50_000, 2000, ValueDictionaryTest::order);
+        long raw = totalBytes(values, null);
+        long plain = totalBytes(values, none);
+        long trained = totalBytes(values, dictionary);
+
+        assertThat(dictionary.bytes().length).isBetween(1, ValueDictionary.MAX_BYTES);
+        assertThat((double) raw / trained).isGreaterThan(5.0);
+        assertThat((double) plain / trained).isGreaterThan(3.0);
+    }
+
+    @Test
+    void train_ShouldStayWithinDeflateWindowOnLargeVariedPayloads() {
+        List<String> samples = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            samples.add(event(id).repeat(8) + id);
+        }
+
+        assertThat(ValueDictionary.train(2, samples).bytes().length).isLessThanOrEqualTo(ValueDictionary.MAX_BYTES);
+        assertThat(ValueDictionary.train(3, List.of()).bytes()).isEmpty();
+    }
+
+    /**
+     * Taux et débit sur des payloads types : {@code mvn test -Dtest=ValueDictionaryTest -Dbenchmark=true}
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_CompressionRatioAndThroughput() {
+        Map<String, LongFunction<String>> payloads = new LinkedHashMap<>();
+        payloads.put("order (~190 B)", ValueDictionaryTest::order);
+        payloads.put("event (~600 B)", ValueDictionaryTest::event);
+        payloads.put("log line (~120 B)", ValueDictionaryTest::logLine);
+
+        System.out.printf("%-18s %-10s %8s %12s %12s%n", "payload", "mode", "ratio", "enc MB/s", "dec MB/s");
+        for (Map.Entry<String, LongFunction<String>> entry : payloads.entrySet()) {
+            long started = System.nanoTime();
+            ValueDictionary trained = ValueDictionary.train(1, payloads(1, 1000, entry.getValue()));
+            long trainMs = (System.nanoTime() - started) / 1_000_000;
+            List<String> values = payloads(100_000, 20_000, entry.getValue());
+
+            report(entry.getKey(), "plain", values, new ValueDictionary(0, new byte[0]));
+            report(entry.getKey(), "dictionary", values, trained);
+            System.out.printf("%-18s dictionary %d bytes trained in %d ms%n", "", trained.bytes().length, trainMs);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static void report(String payload, String mode, List<String> values, ValueDictionary dictionary) {
+        List<byte[]> raws = values.stream().map(value -> value.getBytes(StandardCharsets.UTF_8)).toList();
+        long rawBytes = raws.stream().mapToLong(raw -> raw.length).sum();
+        List<byte[]> packed = new ArrayList<>(raws.size());
+
+        try (ValueDictionary.Encoder encoder = dictionary.encoder(6)) {
+            for (int i = 0; i < 2_000; i++) encoder.encode(raws.get(i));
+            long started = System.nanoTime();
+            for (byte[] raw : raws) packed.add(encoder.encode(raw));
+            double encodeSeconds = (System.nanoTime() - started) / 1e9;
+
+            for (int i = 0; i < 2_000; i++) dictionary.decode(ByteBuffer.wrap(packed.get(i)), raws.get(i).length);
+            started = System.nanoTime();
+            for (int i = 0; i < raws.size(); i++) dictionary.decode(ByteBuffer.wrap(packed.get(i)), raws.get(i).length);
+            double decodeSeconds = (System.nanoTime() - started) / 1e9;
+
+            long packedBytes = packed.stream().mapToLong(bytes -> bytes.length).sum();
+            System.out.printf("%-18s %-10s %8.2f %12.1f %12.1f%n", payload, mode, (double) rawBytes / packedBytes,
+                    rawBytes / 1e6 / encodeSeconds, rawBytes / 1e6 / decodeSeconds);
+        }
+    }
+
+    /** Octets bruts ({@code dictionary == null}) ou compressés valeur par valeur. */
+    private static long totalBytes(List<String> values, ValueDictionary dictionary) {
+        long total = 0;
+        if (dictionary == null) {
+            for (String value : values) total += value.getBytes(StandardCharsets.UTF_8).length;
+            return total;
+        }
+        try (ValueDictionary.Encoder encoder = dictionary.encoder(6)) {
+            for (String value : values) total += encoder.encode(value.getBytes(StandardCharsets.UTF_8)).length;
+        }
+        return total;
+    }
+
+    private static List<String> payloads(long firstId, int count, LongFunction<String> payload) {
+        return LongStream.range(firstId, firstId + count).mapToObj(payload).toList();
+    }
+
+    private static String order(long id) {
+        return "{\"orderId\": " + id + ", \"status\": \"" + (id % 3 == 0 ? "SHIPPED" : "PENDING")
+                + "\", \"customer\": {\"id\": " + (id % 200) + ", \"country\": \"FR\"}, "
+                + "\"items\": [{\"sku\": \"SKU-" + (id % 40) + "\", \"quantity\": " + (id % 5 + 1) + "}], "
+                + "\"currency\": \"EUR\", \"channel\": \"web\"}";
+    }
+
+    private static String event(long id) {
+        return "{\"eventId\": \"evt-" + Long.toHexString(id * 2_654_435_761L) + "\", \"type\": \"PaymentAuthorized\", "
+                + "\"version\": 3, \"occurredAt\": \"2026-03-01T10:" + (id % 60) + ":00Z\", "
+                + "\"source\": {\"service\": \"payment-gateway\", \"region\": \"eu-west-1\", \"instance\": \"pg-"
+                + (id % 12) + "\"}, \"payload\": {\"paymentId\": \"pay-" + id + "\", \"orderId\": \"order-" + (id / 2)
+                + "\", \"amount\": {\"value\": " + (id % 997) + "." + (id % 100) + ", \"currency\": \"EUR\"}, "
+                + "\"method\": {\"type\": \"CARD\", \"brand\": \"" + (id % 2 == 0 ? "VISA" : "MASTERCARD")
+                + "\", \"last4\": \"" + (1000 + id % 9000) + "\"}, \"risk\": {\"score\": " + (id % 100)
+                + ", \"decision\": \"ACCEPT\"}}, \"metadata\": {\"traceId\": \""
+                + Long.toHexString(id * 0x9E3779B97F4A7C15L) + "\", \"schema\": \"payments.v3\"}}";
+    }
+
+    private static String logLine(long id) {
+        return "2026-03-01T10:00:" + (id % 60) + ".123Z INFO [http-nio-8080-exec-" + (id % 20)
+                + "] c.k.orders.OrderController - Order order-" + id + " processed in " + (id % 250) + " ms";
+    }
+}
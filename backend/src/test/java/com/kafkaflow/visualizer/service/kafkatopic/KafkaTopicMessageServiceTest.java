@@ -8,6 +8,12 @@ import com.kafkaflow.visualizer.model.KafkaMessage;
 import com.kafkaflow.visualizer.model.KafkaTopic;
 import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
 import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.dto.KafkaDto.CursorPage;
+import com.kafkaflow.visualizer.service.FilteredCountCache;
+import com.kafkaflow.visualizer.service.retention.HotStorageTracker;
+import com.kafkaflow.visualizer.service.retention.HourlyStatsAccumulator;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import com.kafkaflow.visualizer.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,11 +23,23 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +54,21 @@ class KafkaTopicMessageServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private FilteredCountCache countCache;
+
+    @Mock
+    private SearchIndexService searchIndex;
+
+    @Mock
+    private TopicMetadataCache topicMetadataCache;
+
+    @Mock
+    private HourlyStatsAccumulator statsAccumulator;
+
+    @Mock
+    private HotStorageTracker hotStorage;
+
     @InjectMocks
     private KafkaTopicMessageService messageService;
 
@@ -88,4 +121,152 @@ class KafkaTopicMessageServiceTest {
         // Then
         assertEquals(1, result.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void scrollMessages_ShouldReturnSliceWithCursorOfLastRow() {
+        // Given
+        MessageFilter filter = MessageFilter.builder()
+                .topicId(1L)
+                .size(2)
+                .build();
+
+        LocalDateTime newest = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 500);
+        KafkaMessage first = message(42L, newest);
+        KafkaMessage second = message(41L, newest.minusSeconds(1));
+
+        when(messageRepository.findByFiltersBefore(
+                1L, null, null, null, null, null, null, null,
+                KeysetCursor.START.timestamp(), KeysetCursor.START.id(), PageRequest.of(0, 2)
+        )).thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+        // When
+        CursorPage<MessageResponse> result = messageService.scrollMessages(filter);
+
+        // Then
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals(new KeysetCursor(second.getTimestamp(), 41L), KeysetCursor.decode(result.getNextCursor()));
+        assertNull(result.getTotalElements());
+        verify(countCache, never()).get(any(), any(), any());
+    }
+
+    @Test
+    void scrollMessages_ShouldResumeAfterCursorAndIncludeCachedTotal() {
+        // Given
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 5, 1, 12, 0), 41L);
+        MessageFilter filter = MessageFilter.builder()
+                .topicId(1L)
+                .size(2)
+                .cursor(cursor.encode())
+                .includeTotal(true)
+                .build();
+
+        when(messageRepository.findByFiltersBefore(
+                1L, null, null, null, null, null, null, null,
+                cursor.timestamp(), 41L, PageRequest.of(0, 2)
+        )).thenReturn(new SliceImpl<>(List.of(message(40L, cursor.timestamp())), PageRequest.of(0, 2), false));
+        when(countCache.get(eq("messages"), any(), any())).thenReturn(3L);
+
+        // When
+        CursorPage<MessageResponse> result = messageService.scrollMessages(filter);
+
+        // Then
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals(3L, result.getTotalElements());
+    }
+
+    @Test
+    void getMessages_ShouldServeValueSearchFromIndexCandidates() {
+        // Given
+        MessageFilter filter = MessageFilter.builder()
+                .topicId(1L)
+                .valueContains("order-42")
+                .page(0)
+                .size(10)
+                .build();
+
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(searchIndex.candidates(SearchIndexService.Scope.MESSAGES, "order-42"))
+                .thenReturn(Optional.of(List.of(9L, 7L, 5L)));
+        // 9 ne matche plus (revérification en base) ; 5 est plus récent que 7
+        when(messageRepository.findMatchingIds(
+                1L, null, "order-42", null, null, null, null, null, List.of(9L, 7L, 5L)
+        )).thenReturn(List.of(new Object[]{7L, now.minusMinutes(5)}, new Object[]{5L, now}));
+        when(messageRepository.findAllById(List.of(5L, 7L)))
+                .thenReturn(List.of(message(7L, now.minusMinutes(5)), message(5L, now)));
+
+        // When
+        Page<MessageResponse> result = messageService.getMessages(filter);
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(5L, 7L), result.getContent().stream().map(MessageResponse::getId).toList());
+        verify(messageRepository, never()).findByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void scrollMessages_ShouldPageIndexedMatchesAfterCursor() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        MessageFilter filter = MessageFilter.builder()
+                .topicId(1L)
+                .valueContains("order-42")
+                .size(1)
+                .cursor(new KeysetCursor(now, 5L).encode())
+                .includeTotal(true)
+                .build();
+
+        when(searchIndex.candidates(SearchIndexService.Scope.MESSAGES, "order-42"))
+                .thenReturn(Optional.of(List.of(7L, 5L, 3L)));
+        when(messageRepository.findMatchingIds(
+                1L, null, "order-42", null, null, null, null, null, List.of(7L, 5L, 3L)
+        )).thenReturn(List.of(new Object[]{5L, now}, new Object[]{7L, now.minusMinutes(1)},
+                new Object[]{3L, now.minusMinutes(2)}));
+        when(messageRepository.findAllById(List.of(7L))).thenReturn(List.of(message(7L, now.minusMinutes(1))));
+
+        // When
+        CursorPage<MessageResponse> result = messageService.scrollMessages(filter);
+
+        // Then
+        assertEquals(7L, result.getContent().get(0).getId());
+        assertTrue(result.isHasNext());
+        assertEquals(new KeysetCursor(now.minusMinutes(1), 7L), KeysetCursor.decode(result.getNextCursor()));
+        assertEquals(3L, result.getTotalElements());
+    }
+
+    private KafkaMessage message(Long id, LocalDateTime timestamp) {
+        KafkaMessage message = new KafkaMessage();
+        message.setId(id);
+        message.setTopic(kafkaTopic);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+    @Test
+    void saveMessage_ShouldUpdateInMemoryStateOnlyAfterCommit() {
+        when(topicMetadataCache.get(1L)).thenReturn(Optional.of(TopicMetadataCache.CachedTopic.of(kafkaTopic)));
+        when(messageRepository.save(any(KafkaMessage.class))).thenAnswer(invocation -> {
+            KafkaMessage message = invocation.getArgument(0);
+            message.setId(42L);
+            return message;
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            messageService.saveMessage(1L, KafkaMessage.MessageDirection.INBOUND, "k1", "{\"a\":1}", 0, 10L, null, null);
+
+            // Transaction encore ouverte : un rollback ne doit rien laisser dans les états mémoire
+            verifyNoInteractions(searchIndex, statsAccumulator, hotStorage);
+            verify(topicMetadataCache, never()).recordMessages(any(), anyLong(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(topicMetadataCache).recordMessages(eq(1L), eq(1L), any());
+        verify(searchIndex).indexMessage(42L, "k1", "{\"a\":1}");
+        verify(hotStorage).recordIngest(1L, 7);
+    }
+}
@@ -0,0 +1,112 @@
+package com.kafkaflow.visualizer.service.kafkatopic;
+
+import com.kafkaflow.visualizer.model.KafkaConnection;
+import com.kafkaflow.visualizer.model.KafkaTopic;
+import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TopicMetadataCacheTest {
+
+    @Mock
+    private KafkaTopicRepository topicRepository;
+
+    @InjectMocks
+    private TopicMetadataCache cache;
+
+    private KafkaTopic topic;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConnection connection = new KafkaConnection();
+        connection.setId(7L);
+        connection.setName("local");
+
+        topic = new KafkaTopic();
+        topic.setId(1L);
+        topic.setName("orders");
+        topic.setConnection(connection);
+        topic.setMessageCount(10L);
+    }
+
+    @Test
+    void get_ShouldHitDatabaseOnlyOnce() {
+        given(topicRepository.findByIdWithConnection(1L)).willReturn(Optional.of(topic));
+
+        cache.get(1L);
+        cache.get(1L);
+        var cached = cache.get(1L).orElseThrow();
+
+        verify(topicRepository, times(1)).findByIdWithConnection(1L);
+        assertThat(cached.name()).isEqualTo("orders");
+        assertThat(cached.connectionId()).isEqualTo(7L);
+        assertThat(cache.getStats().hits()).isEqualTo(2);
+        assertThat(cache.getStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void recordMessages_ShouldUpdateCachedCounter() {
+        given(topicRepository.findByIdWithConnection(1L)).willReturn(Optional.of(topic));
+        cache.get(1L);
+
+        LocalDateTime now = LocalDateTime.now();
+        cache.recordMessages(1L, 5, now);
+
+        var cached = cache.get(1L).orElseThrow();
+        assertThat(cached.messageCount()).isEqualTo(15L);
+        assertThat(cached.lastMessageAt()).isEqualTo(now);
+    }
+
+    @Test
+    void get_ShouldNotCacheRowLoadedBeforeConcurrentInvalidation() {
+        KafkaTopic renamed = new KafkaTopic();
+        renamed.setId(1L);
+        renamed.setName("orders-v2");
+        renamed.setConnection(topic.getConnection());
+        given(topicRepository.findByIdWithConnection(1L))
+                .willAnswer(invocation -> {
+                    // Commit d'un renommage pendant la lecture de l'ancienne ligne
+                    cache.invalidate(1L);
+                    return Optional.of(topic);
+                })
+                .willReturn(Optional.of(renamed));
+
+        assertThat(cache.get(1L).orElseThrow().name()).isEqualTo("orders");
+
+        assertThat(cache.get(1L).orElseThrow().name()).isEqualTo("orders-v2");
+        verify(topicRepository, times(2)).findByIdWithConnection(1L);
+    }
+
+    @Test
+    void invalidate_ShouldReloadFromDatabase() {
+        given(topicRepository.findByIdWithConnection(1L)).willReturn(Optional.of(topic));
+        cache.get(1L);
+
+        cache.invalidateConnection(7L);
+        cache.get(1L);
+
+        verify(topicRepository, times(2)).findByIdWithConnection(1L);
+        assertThat(cache.getStats().invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingTopic() {
+        given(topicRepository.findByIdWithConnection(99L)).willReturn(Optional.empty());
+
+        assertThat(cache.get(99L)).isEmpty();
+        assertThat(cache.getStats().size()).isZero();
+    }
+}
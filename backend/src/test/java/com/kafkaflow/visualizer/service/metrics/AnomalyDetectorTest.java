@@ -0,0 +1,149 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.dto.KafkaDto.AnomalyResponse;
+import com.kafkaflow.visualizer.model.TopicAnomaly;
+import com.kafkaflow.visualizer.repository.TopicAnomalyRepository;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AnomalyDetectorTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final Long TOPIC_ID = 1L;
+
+    @Mock
+    private TopicMetadataCache topicMetadataCache;
+
+    @Mock
+    private TopicAnomalyRepository anomalyRepository;
+
+    private AtomicLong clock;
+    private ThroughputTracker throughputTracker;
+    private AnomalyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(START);
+        throughputTracker = new ThroughputTracker(clock::get);
+        throughputTracker.register(TOPIC_ID);
+        detector = new AnomalyDetector(new AnomalyDetector.Settings(0.05, 4.0, 30, 60, 10, 5),
+                30, throughputTracker, topicMetadataCache, anomalyRepository, clock::get);
+    }
+
+    @Test
+    void evaluate_ShouldDetectThroughputSpikeAfterWarmup() {
+        given(topicMetadataCache.get(anyLong())).willReturn(Optional.empty());
+        List<AnomalyResponse> detected = runSeconds(60, 100, 0);
+        assertThat(detected).isEmpty();
+
+        detected = runSeconds(1, 400, 0);
+
+        assertThat(detected).singleElement().satisfies(anomaly -> {
+            assertThat(anomaly.getMetric()).isEqualTo("THROUGHPUT");
+            assertThat(anomaly.getDirection()).isEqualTo("SPIKE");
+            assertThat(anomaly.getObserved()).isEqualTo(400);
+            assertThat(anomaly.getExpected()).isBetween(99.0, 101.0);
+            assertThat(anomaly.getZScore()).isGreaterThan(4.0);
+        });
+        verify(anomalyRepository).saveAll(any());
+    }
+
+    @Test
+    void evaluate_ShouldDetectDropAndRespectCooldown() {
+        given(topicMetadataCache.get(anyLong())).willReturn(Optional.empty());
+        runSeconds(60, 200, 0);
+
+        List<AnomalyResponse> detected = runSeconds(10, 0, 0);
+
+        assertThat(detected).extracting(AnomalyResponse::getDirection).containsExactly("DROP");
+    }
+
+    @Test
+    void evaluate_ShouldIgnoreNormalNoise() {
+        List<AnomalyResponse> detected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            detected.addAll(runSeconds(1, i % 2 == 0 ? 80 : 120, 0));
+        }
+
+        assertThat(detected).isEmpty();
+        verify(anomalyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void evaluate_ShouldIgnoreSmallDeviationsOnLowTrafficTopic() {
+        runSeconds(60, 2, 0);
+
+        // z ~ 4.2 (plancher sqrt(2)) mais +6 msg/s reste sous l'écart minimal de 10
+        assertThat(runSeconds(1, 8, 0)).isEmpty();
+    }
+
+    @Test
+    void evaluate_ShouldDetectErrorSpikeButNotErrorDrop() {
+        given(topicMetadataCache.get(anyLong())).willReturn(Optional.empty());
+        runSeconds(60, 100, 1);
+
+        List<AnomalyResponse> spike = runSeconds(1, 100, 50);
+        runSeconds(120, 100, 1);
+        List<AnomalyResponse> drop = runSeconds(5, 100, 0);
+
+        assertThat(spike).extracting(AnomalyResponse::getMetric).containsExactly("ERROR_RATE");
+        assertThat(drop).isEmpty();
+    }
+
+    @Test
+    void evaluate_ShouldPersistAnomalies() {
+        given(topicMetadataCache.get(anyLong())).willReturn(Optional.empty());
+        runSeconds(60, 100, 0);
+        runSeconds(1, 1000, 0);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TopicAnomaly>> captor = ArgumentCaptor.forClass(List.class);
+        verify(anomalyRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement().satisfies(anomaly -> {
+            assertThat(anomaly.getTopicId()).isEqualTo(TOPIC_ID);
+            assertThat(anomaly.getMetric()).isEqualTo(TopicAnomaly.Metric.THROUGHPUT);
+        });
+    }
+
+    @Test
+    void evaluate_ShouldNotReevaluateSameSecond() {
+        runSeconds(60, 100, 0);
+
+        // Messages tardifs sur la seconde déjà évaluée : ignorés par une seconde évaluation
+        clock.addAndGet(-1000);
+        throughputTracker.recordMessages(TOPIC_ID, 5000);
+        clock.addAndGet(1000);
+
+        assertThat(detector.evaluate()).isEmpty();
+    }
+
+    /** Simule {@code seconds} secondes de trafic puis l'évaluation de chacune. */
+    private List<AnomalyResponse> runSeconds(int seconds, int messages, int errors) {
+        List<AnomalyResponse> detected = new ArrayList<>();
+        for (int i = 0; i < seconds; i++) {
+            throughputTracker.recordMessages(TOPIC_ID, messages);
+            detector.recordErrors(TOPIC_ID, errors);
+            clock.addAndGet(1000);
+            detected.addAll(detector.evaluate());
+        }
+        return detected;
+    }
+}
@@ -0,0 +1,87 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.dto.KafkaDto.ConsumerThreadStats;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerThreadProfilerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Mock
+    private ThreadMXBean threadMXBean;
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private final Thread orders = new Thread(() -> {}, "consumer-orders");
+    private final Thread payments = new Thread(() -> {}, "consumer-payments");
+
+    private ConsumerThreadProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        given(threadMXBean.isThreadCpuTimeSupported()).willReturn(true);
+        given(threadMXBean.isThreadAllocatedMemorySupported()).willReturn(true);
+        profiler = new ConsumerThreadProfiler(threadMXBean, clock::get);
+        profiler.register(1L, "orders", orders);
+        profiler.register(2L, "payments", payments);
+    }
+
+    @Test
+    void constructor_ShouldEnableThreadAccounting() {
+        verify(threadMXBean).setThreadCpuTimeEnabled(true);
+        verify(threadMXBean).setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void getTopConsumers_ShouldRankThreadsByCpuRate() {
+        givenCounters(orders, 0, 0);
+        givenCounters(payments, 0, 0);
+        profiler.sample();
+
+        clock.addAndGet(5 * SECOND);
+        givenCounters(orders, SECOND / 2, 50_000_000);       // 10 % d'un cœur, 10 MB/s
+        givenCounters(payments, 2 * SECOND, 5_000_000);      // 40 % d'un cœur, 1 MB/s
+        profiler.sample();
+
+        List<ConsumerThreadStats> top = profiler.getTopConsumers(5);
+
+        assertThat(top).extracting(ConsumerThreadStats::getTopicName).containsExactly("payments", "orders");
+        assertThat(top.get(0).getCpuPercent()).isEqualTo(40.0);
+        assertThat(top.get(0).getCpuTimeMs()).isEqualTo(2_000);
+        assertThat(top.get(1).getAllocatedBytesPerSecond()).isEqualTo(10_000_000);
+        assertThat(profiler.getTopConsumers(1)).hasSize(1);
+    }
+
+    @Test
+    void sample_ShouldKeepLastTotalsWhenThreadIsGone() {
+        profiler.unregister(2L);
+        givenCounters(orders, SECOND, 1_000);
+        profiler.sample();
+
+        clock.addAndGet(SECOND);
+        givenCounters(orders, -1, -1);
+        profiler.sample();
+
+        ConsumerThreadStats stats = profiler.getAllConsumers().get(0);
+        assertThat(stats.getCpuPercent()).isZero();
+        assertThat(stats.getCpuTimeMs()).isEqualTo(1_000);
+        assertThat(stats.getAllocatedBytes()).isEqualTo(1_000);
+    }
+
+    private void givenCounters(Thread thread, long cpuNanos, long allocatedBytes) {
+        given(threadMXBean.getThreadCpuTime(thread.threadId())).willReturn(cpuNanos);
+        given(threadMXBean.getThreadAllocatedBytes(thread.threadId())).willReturn(allocatedBytes);
+    }
+}
@@ -0,0 +1,88 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.dto.FlowDto.FlowNodeMetrics;
+import com.kafkaflow.visualizer.service.FlowDiagramService.LiveBinding;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlowMetricsTrackerTest {
+
+    private FlowMetricsTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new FlowMetricsTracker();
+        tracker.load(List.of(
+                new LiveBinding(1L, 10L, Map.of("node-orders", 100L), List.of("node-cluster")),
+                new LiveBinding(2L, 10L, Map.of("node-payments", 200L), List.of())
+        ), tracker.generation());
+    }
+
+    @Test
+    void markTopicActivity_ShouldOnlyDirtyFlowsUsingTopic() {
+        tracker.markTopicActivity(100L);
+        tracker.markTopicActivity(100L);
+        tracker.markTopicActivity(999L);
+
+        List<LiveBinding> dirty = tracker.drainDirty();
+
+        assertThat(dirty).extracting(LiveBinding::flowId).containsExactly(1L);
+        assertThat(tracker.drainDirty()).isEmpty();
+    }
+
+    @Test
+    void diff_ShouldReturnOnlyChangedNodes() {
+        FlowNodeMetrics cluster = node("node-cluster", null, null, "active");
+
+        assertThat(tracker.diff(1L, List.of(node("node-orders", 5L, 0.0, "connected"), cluster))).hasSize(2);
+
+        List<FlowNodeMetrics> changed = tracker.diff(1L, List.of(node("node-orders", 8L, 0.0, "connected"), cluster));
+
+        assertThat(changed).extracting(FlowNodeMetrics::getNodeId).containsExactly("node-orders");
+        assertThat(tracker.diff(1L, List.of(node("node-orders", 8L, 0.0, "connected"), cluster))).isEmpty();
+    }
+
+    @Test
+    void diff_ShouldKeepFlowDirty_WhileThroughputIsNotZero() {
+        tracker.diff(1L, List.of(node("node-orders", 5L, 12.5, "active")));
+        assertThat(tracker.drainDirty()).extracting(LiveBinding::flowId).containsExactly(1L);
+
+        tracker.diff(1L, List.of(node("node-orders", 5L, 0.0, "connected")));
+        assertThat(tracker.drainDirty()).isEmpty();
+    }
+
+    @Test
+    void load_ShouldBeIgnored_WhenInvalidatedDuringLoad() {
+        long generation = tracker.generation();
+        tracker.invalidate();
+
+        tracker.load(List.of(new LiveBinding(3L, 10L, Map.of(), List.of())), generation);
+
+        assertThat(tracker.isLoaded()).isFalse();
+    }
+
+    @Test
+    void onTopicCatalogChanged_ShouldDropBindings_WhenTopicIsAddedOrDeleted() {
+        tracker.onTopicCatalogChanged(TopicCatalogChangedEvent.added());
+        assertThat(tracker.isLoaded()).isFalse();
+
+        tracker.load(List.of(new LiveBinding(1L, 10L, Map.of("node-orders", 100L), List.of())), tracker.generation());
+        tracker.onTopicCatalogChanged(TopicCatalogChangedEvent.deleted(100L));
+        assertThat(tracker.isLoaded()).isFalse();
+    }
+
+    private static FlowNodeMetrics node(String nodeId, Long messageCount, Double throughput, String status) {
+        return FlowNodeMetrics.builder()
+                .nodeId(nodeId)
+                .messageCount(messageCount)
+                .throughput(throughput)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker.HotKey;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker.HotKeys;
+import com.kafkaflow.visualizer.service.metrics.HotKeyTracker.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotKeyTrackerTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private AtomicLong clock;
+    private HotKeyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(START);
+        tracker = new HotKeyTracker(3, 512, 4, clock::get);
+    }
+
+    @Test
+    void getHotKeys_ShouldFindHeavyHittersAmongManyDistinctKeys() {
+        for (int i = 0; i < 20_000; i++) {
+            tracker.record(1L, "cold-" + i);
+            if (i % 4 == 0) tracker.record(1L, "hot-a");
+            if (i % 8 == 0) tracker.record(1L, "hot-b");
+            if (i % 16 == 0) tracker.record(1L, "hot-c");
+        }
+
+        HotKeys hotKeys = tracker.getHotKeys(1L, Window.ONE_MINUTE);
+
+        assertThat(hotKeys.keys()).extracting(HotKey::key).containsExactly("hot-a", "hot-b", "hot-c");
+        assertThat(hotKeys.keys().get(0).estimatedCount()).isBetween(5_000L, 5_200L);
+        assertThat(hotKeys.totalMessages()).isEqualTo(20_000 + 5_000 + 2_500 + 1_250);
+        assertThat(hotKeys.keys().get(0).sharePercent()).isBetween(17.0, 18.0);
+    }
+
+    @Test
+    void getHotKeys_ShouldExpireSlotsPerWindow() {
+        tracker.record(1L, "old");
+        tracker.record(1L, "old");
+        advanceSeconds(120);
+        tracker.record(1L, "recent");
+
+        assertThat(tracker.getHotKeys(1L, Window.ONE_MINUTE).keys())
+                .extracting(HotKey::key).containsExactly("recent");
+        assertThat(tracker.getHotKeys(1L, Window.ONE_HOUR).keys())
+                .extracting(HotKey::key).containsExactly("old", "recent");
+
+        advanceSeconds(2 * 3600);
+        assertThat(tracker.getHotKeys(1L, Window.ONE_HOUR).totalMessages()).isZero();
+        assertThat(tracker.getHotKeys(1L, Window.ONE_DAY).totalMessages()).isEqualTo(3);
+    }
+
+    @Test
+    void record_ShouldIgnoreNullKeysAndUnknownTopics() {
+        tracker.record(1L, null);
+
+        assertThat(tracker.getHotKeys(1L, Window.ONE_MINUTE).totalMessages()).isZero();
+        assertThat(tracker.getHotKeys(2L, Window.ONE_DAY).keys()).isEmpty();
+    }
+
+    @Test
+    void memoryBytesPerTopic_ShouldNotDependOnKeyCount() {
+        assertThat(tracker.memoryBytesPerTopic()).isEqualTo(20L * 512 * 4 * Integer.BYTES);
+    }
+
+    @Test
+    void fromLabel_ShouldRejectUnknownWindow() {
+        assertThat(Window.fromLabel("24H")).isEqualTo(Window.ONE_DAY);
+        assertThatThrownBy(() -> Window.fromLabel("7d")).isInstanceOf(AppException.class);
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(seconds * 1000);
+    }
+}
@@ -0,0 +1,103 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache.CachedTopic;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge.Bottleneck;
+import com.kafkaflow.visualizer.service.metrics.KafkaClientMetricsBridge.ClientMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaClientMetricsBridgeTest {
+
+    @Mock
+    private TopicMetadataCache topicMetadataCache;
+
+    private SimpleMeterRegistry registry;
+    private KafkaClientMetricsBridge bridge;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        bridge = new KafkaClientMetricsBridge(registry, new PipelineMetrics(registry, topicMetadataCache, 100));
+
+        CachedTopic topic = mock(CachedTopic.class);
+        given(topic.name()).willReturn("orders");
+        given(topic.connectionName()).willReturn("local");
+        given(topicMetadataCache.get(1L)).willReturn(Optional.of(topic));
+    }
+
+    @Test
+    void harvest_ShouldKeepClientLevelCuratedMetrics() {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        put(metrics, "consumer-fetch-manager-metrics", "fetch-latency-avg", Map.of(), 12.5);
+        put(metrics, "consumer-fetch-manager-metrics", "fetch-latency-avg", Map.of("topic", "orders"), 99.0);
+        put(metrics, "consumer-fetch-manager-metrics", "records-lag-max", Map.of(), 1_500.0);
+        put(metrics, "consumer-metrics", "poll-idle-ratio-avg", Map.of(), 0.9);
+        put(metrics, "consumer-coordinator-metrics", "commit-latency-avg", Map.of(), Double.NaN);
+        put(metrics, "consumer-metrics", "connection-count", Map.of(), 3.0);
+
+        bridge.harvest(1L, metrics);
+        ClientMetrics result = bridge.getMetrics(1L).orElseThrow();
+
+        assertThat(result.metrics())
+                .containsEntry("fetch-latency-avg", 12.5)
+                .containsEntry("records-lag-max", 1_500.0)
+                .containsEntry("commit-latency-avg", null)
+                .doesNotContainKey("connection-count");
+        assertThat(result.bottleneck()).isEqualTo(Bottleneck.FETCH);
+        assertThat(registry.get("yucast.kafka.consumer.fetch.latency.avg").tag("topic", "orders")
+                .gauge().value()).isEqualTo(12.5);
+    }
+
+    @Test
+    void harvest_ShouldFlagProcessingBoundConsumer() {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        put(metrics, "consumer-metrics", "poll-idle-ratio-avg", Map.of(), 0.1);
+
+        bridge.harvest(1L, metrics);
+
+        assertThat(bridge.getMetrics(1L).orElseThrow().bottleneck()).isEqualTo(Bottleneck.PROCESSING);
+    }
+
+    @Test
+    void unregister_ShouldRemoveSnapshotAndGauges() {
+        bridge.harvest(1L, Map.of());
+        assertThat(registry.find("yucast.kafka.consumer.fetch.rate").gauges()).hasSize(1);
+
+        bridge.unregister(1L);
+
+        assertThat(bridge.getMetrics(1L)).isEmpty();
+        assertThat(registry.find("yucast.kafka.consumer.fetch.rate").gauges()).isEmpty();
+    }
+
+    private static void put(Map<MetricName, Metric> metrics, String group, String name, Map<String, String> tags,
+                            double value) {
+        MetricName metricName = new MetricName(name, group, "", tags);
+        metrics.put(metricName, new Metric() {
+            @Override
+            public MetricName metricName() {
+                return metricName;
+            }
+
+            @Override
+            public Object metricValue() {
+                return value;
+            }
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore.Point;
+import com.kafkaflow.visualizer.service.metrics.MetricsTimeSeriesStore.Resolution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTimeSeriesStoreTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private AtomicLong clock;
+    private Path checkpoint;
+    private MetricsTimeSeriesStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(START);
+        checkpoint = tempDir.resolve("metrics.bin");
+        store = new MetricsTimeSeriesStore(checkpoint, true, clock::get);
+    }
+
+    @Test
+    void sum_ShouldRollUpAcrossResolutions() {
+        store.record(1L, 10);
+        advance(Duration.ofMinutes(30));
+        store.record(1L, 5);
+        store.record(2L, 7);
+
+        assertThat(store.sum(1L, Resolution.SECOND, Duration.ofMinutes(1))).isEqualTo(5);
+        assertThat(store.sum(1L, Resolution.MINUTE, Duration.ofHours(1))).isEqualTo(15);
+        assertThat(store.sum(null, Resolution.HOUR, Duration.ofHours(24))).isEqualTo(22);
+        assertThat(store.sum(null, Resolution.DAY, Duration.ofDays(7))).isEqualTo(22);
+
+        advance(Duration.ofHours(2));
+        assertThat(store.sum(1L, Resolution.SECOND, Duration.ofHours(1))).isZero();
+        assertThat(store.sum(1L, Resolution.MINUTE, Duration.ofHours(24))).isEqualTo(15);
+    }
+
+    @Test
+    void query_ShouldReturnChronologicalNonEmptyBuckets() {
+        store.record(1L, 3);
+        advance(Duration.ofHours(2));
+        store.record(1L, 4);
+
+        List<Point> points = store.query(1L, Resolution.HOUR, Duration.ofHours(24));
+
+        assertThat(points).extracting(Point::count).containsExactly(3L, 4L);
+        assertThat(points.get(0).start()).isBefore(points.get(1).start());
+    }
+
+    @Test
+    void globalMessagesSince_ShouldBeEmpty_UntilWindowIsCovered() {
+        store.record(1L, 3);
+        assertThat(store.globalMessagesSince(Duration.ofHours(24))).isEmpty();
+        assertThat(store.globalHourlyTrend(Duration.ofHours(24))).isEmpty();
+
+        advance(Duration.ofHours(24));
+        store.record(1L, 2);
+        assertThat(store.globalMessagesSince(Duration.ofHours(24))).hasValue(2);
+    }
+
+    @Test
+    void checkpoint_ShouldSurviveRestart() throws Exception {
+        store.record(1L, 10);
+        advance(Duration.ofMinutes(5));
+        store.record(2L, 20);
+        store.checkpoint();
+
+        assertThat(Files.size(checkpoint)).isLessThan(1024);
+
+        advance(Duration.ofMinutes(1));
+        MetricsTimeSeriesStore restarted = new MetricsTimeSeriesStore(checkpoint, true, clock::get);
+        restarted.restore();
+
+        assertThat(restarted.sum(1L, Resolution.MINUTE, Duration.ofHours(1))).isEqualTo(10);
+        assertThat(restarted.sum(2L, Resolution.SECOND, Duration.ofHours(1))).isEqualTo(20);
+        assertThat(restarted.sum(null, Resolution.HOUR, Duration.ofHours(24))).isEqualTo(30);
+        assertThat(restarted.getTrackingSince()).isEqualTo(store.getTrackingSince());
+    }
+
+    @Test
+    void onTopicCatalogChanged_ShouldDropDeletedTopicSeriesButKeepGlobal() throws Exception {
+        advance(Duration.ofHours(1));
+        store.record(1L, 10);
+        store.record(2L, 20);
+
+        store.onTopicCatalogChanged(TopicCatalogChangedEvent.deleted(1L));
+        store.checkpoint();
+        MetricsTimeSeriesStore restarted = new MetricsTimeSeriesStore(checkpoint, true, clock::get);
+        restarted.restore();
+
+        assertThat(store.messagesSince(1L, Duration.ofHours(1))).hasValue(0);
+        assertThat(store.messagesSince(2L, Duration.ofHours(1))).hasValue(20);
+        assertThat(restarted.sum(1L, Resolution.MINUTE, Duration.ofHours(2))).isZero();
+        assertThat(restarted.sum(null, Resolution.MINUTE, Duration.ofHours(2))).isEqualTo(30);
+    }
+
+    @Test
+    void restore_ShouldIgnoreCorruptedFile() throws Exception {
+        Files.write(checkpoint, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        store.restore();
+
+        assertThat(store.sum(null, Resolution.DAY, Duration.ofDays(1))).isZero();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toMillis());
+    }
+}
@@ -0,0 +1,144 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.service.kafka.KafkaConsumerConfig.ErrorCategory;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicCatalogChangedEvent;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache;
+import com.kafkaflow.visualizer.service.kafkatopic.TopicMetadataCache.CachedTopic;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics.Stage;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics.TopicMeters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class PipelineMetricsTest {
+
+    @Mock
+    private TopicMetadataCache topicMetadataCache;
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineMetrics(registry, topicMetadataCache, 2);
+    }
+
+    @Test
+    void forTopic_ShouldTagMetersWithTopicAndConnection() {
+        givenTopic(1L, "orders");
+
+        TopicMeters meters = metrics.forTopic(1L);
+        meters.recordPoll(2_000_000, 50);
+        meters.recordStage(Stage.PERSIST, 1_000_000);
+
+        assertThat(metrics.forTopic(1L)).isSameAs(meters);
+        assertThat(registry.get("yucast.consumer.poll").tag("topic", "orders").tag("connection", "local")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("yucast.consumer.records.per.poll").tag("topic", "orders")
+                .summary().totalAmount()).isEqualTo(50);
+        assertThat(registry.get("yucast.ingest.stage").tag("topic", "orders").tag("stage", "persist")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void forTopic_ShouldGroupTopicsBeyondLimitUnderOverflowTag() {
+        givenTopic(1L, "orders");
+        givenTopic(2L, "payments");
+
+        metrics.forTopic(1L).recordPoll(1, 1);
+        metrics.forTopic(2L).recordPoll(1, 1);
+        metrics.forTopic(3L).recordPoll(1, 1);
+        metrics.forTopic(4L).recordPoll(1, 1);
+
+        assertThat(registry.find("yucast.consumer.poll").timers()).hasSize(3);
+        assertThat(registry.get("yucast.consumer.poll").tag("topic", PipelineMetrics.OVERFLOW_TAG)
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void forTopic_ShouldRetagTopicOnceMetadataCacheKnowsIt() {
+        ReflectionTestUtils.setField(metrics, "tagRetrySeconds", 0L);
+        TopicMeters meters = metrics.forTopic(1L);
+        meters.recordPoll(1, 1);
+        assertThat(registry.get("yucast.consumer.poll").tag("topic", PipelineMetrics.OVERFLOW_TAG).timer().count())
+                .isEqualTo(1);
+
+        givenTopic(1L, "orders");
+        meters.recordPoll(1, 1);
+
+        assertThat(meters.isOverflow()).isFalse();
+        assertThat(registry.get("yucast.consumer.poll").tag("topic", "orders").timer().count()).isEqualTo(1);
+        assertThat(registry.get("yucast.consumer.poll").tag("topic", PipelineMetrics.OVERFLOW_TAG).timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void onTopicCatalogChanged_ShouldRemoveDeletedTopicMetersAndFreeItsSlot() {
+        givenTopic(1L, "orders");
+        givenTopic(2L, "payments");
+        givenTopic(3L, "refunds");
+        metrics.forTopic(1L).recordPoll(1, 1);
+        metrics.forTopic(2L).recordPoll(1, 1);
+        metrics.recordConsumerError(1L, ErrorCategory.TIMEOUT);
+
+        metrics.onTopicCatalogChanged(TopicCatalogChangedEvent.deleted(1L));
+
+        assertThat(registry.getMeters()).noneMatch(meter -> "orders".equals(meter.getId().getTag("topic")));
+        assertThat(registry.find("yucast.consumer.poll").tag("topic", "payments").timer()).isNotNull();
+        assertThat(metrics.forTopic(3L).isOverflow()).isFalse();
+    }
+
+    @Test
+    void recordConsumerError_ShouldCountPerCategory() {
+        givenTopic(1L, "orders");
+
+        metrics.recordConsumerError(1L, ErrorCategory.TIMEOUT);
+        metrics.recordConsumerError(1L, ErrorCategory.TIMEOUT);
+
+        assertThat(registry.get("yucast.consumer.errors").tag("topic", "orders").tag("category", "timeout")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void recordRetentionJob_ShouldExposeDurationRowsAndThroughput() {
+        RetentionJobLog jobLog = RetentionJobLog.start(RetentionJobLog.JobType.ARCHIVE);
+        jobLog.setMessagesProcessed(5_000);
+        jobLog.complete();
+        jobLog.setDurationMs(2_000);
+
+        metrics.recordRetentionJob(jobLog);
+
+        assertThat(registry.get("yucast.retention.job").tag("job", "archive").tag("status", "completed")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("yucast.retention.rows").tag("job", "archive").counter().count()).isEqualTo(5_000);
+        assertThat(registry.get("yucast.retention.rows.per.second").tag("job", "archive").gauge().value())
+                .isEqualTo(2_500);
+    }
+
+    @Test
+    void recordRetentionJob_ShouldIgnoreUnfinishedJobs() {
+        metrics.recordRetentionJob(RetentionJobLog.start(RetentionJobLog.JobType.PURGE_HOT));
+
+        assertThat(registry.find("yucast.retention.job").timers()).isEmpty();
+    }
+
+    private void givenTopic(Long id, String name) {
+        CachedTopic topic = mock(CachedTopic.class);
+        given(topic.name()).willReturn(name);
+        given(topic.connectionName()).willReturn("local");
+        given(topicMetadataCache.get(id)).willReturn(Optional.of(topic));
+    }
+}
@@ -0,0 +1,70 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker.Stage;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker.StageLatency;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker.StageRecorders;
+import com.kafkaflow.visualizer.service.metrics.StageLatencyTracker.TopicStageLatencies;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StageLatencyTrackerTest {
+
+    private StageLatencyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new StageLatencyTracker();
+    }
+
+    @Test
+    void getLatencies_ShouldReportPercentilesPerStage() {
+        StageRecorders recorders = tracker.forTopic(1L);
+        for (int i = 1; i <= 1000; i++) {
+            recorders.record(Stage.PERSIST, i * 1_000L);            // 1 µs .. 1000 µs
+        }
+        recorders.record(Stage.BROADCAST, 250_000);
+        tracker.rollIntervals();
+
+        TopicStageLatencies latencies = tracker.getLatencies(1L).orElseThrow();
+
+        StageLatency persist = stage(latencies, "persist");
+        assertThat(persist.count()).isEqualTo(1000);
+        assertThat(persist.p50Micros()).isBetween(495L, 505L);
+        assertThat(persist.p99Micros()).isBetween(985L, 1000L);
+        assertThat(persist.maxMicros()).isBetween(995L, 1005L);
+        assertThat(stage(latencies, "broadcast").p50Micros()).isBetween(247L, 253L);
+        assertThat(stage(latencies, "poll-to-broadcast").count()).isZero();
+        assertThat(latencies.windowSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void rollIntervals_ShouldDropIntervalsOlderThanWindow() {
+        StageRecorders recorders = tracker.forTopic(1L);
+        recorders.record(Stage.CLASSIFY, 10_000);
+        tracker.rollIntervals();
+        recorders.record(Stage.CLASSIFY, 20_000);
+
+        for (int i = 0; i < StageLatencyTracker.WINDOW_INTERVALS - 1; i++) {
+            tracker.rollIntervals();
+        }
+        assertThat(stage(tracker.getLatencies(1L).orElseThrow(), "classify").count()).isEqualTo(2);
+
+        tracker.rollIntervals();
+        assertThat(stage(tracker.getLatencies(1L).orElseThrow(), "classify").count()).isEqualTo(1);
+    }
+
+    @Test
+    void getLatencies_ShouldBeEmptyForUnknownOrStoppedTopics() {
+        tracker.forTopic(1L).record(Stage.PERSIST, 1_000);
+        tracker.unregister(1L);
+
+        assertThat(tracker.getLatencies(1L)).isEmpty();
+        assertThat(tracker.getLatencies(2L)).isEmpty();
+    }
+
+    private static StageLatency stage(TopicStageLatencies latencies, String label) {
+        return latencies.stages().stream().filter(s -> s.stage().equals(label)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,181 @@
+package com.kafkaflow.visualizer.service.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThroughputTrackerTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private AtomicLong clock;
+    private ThroughputTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(START);
+        tracker = new ThroughputTracker(clock::get);
+    }
+
+    @Test
+    void getMessagesInWindow_ShouldOnlyCountLast60Seconds() {
+        tracker.recordMessages(1L, 100);
+        advanceSeconds(30);
+        tracker.recordMessages(1L, 50);
+
+        assertThat(tracker.getMessagesInWindow(1L)).isEqualTo(150);
+        assertThat(tracker.getThroughput(1L)).isEqualTo(2.5);
+
+        advanceSeconds(31);
+        assertThat(tracker.getMessagesInWindow(1L)).isEqualTo(50);
+        assertThat(tracker.getMessagesLastMinute(1L)).isEqualTo(50);
+
+        advanceSeconds(30);
+        assertThat(tracker.getThroughput(1L)).isZero();
+    }
+
+    @Test
+    void getMessagesLastHour_ShouldKeepMessagesOlderThanOneMinute() {
+        tracker.recordMessages(1L, 10);
+        advanceSeconds(20 * 60);
+        tracker.recordMessages(1L, 5);
+
+        assertThat(tracker.getMessagesLastMinute(1L)).isEqualTo(5);
+        assertThat(tracker.getMessagesLastHour(1L)).isEqualTo(15);
+
+        advanceSeconds(45 * 60);
+        assertThat(tracker.getMessagesLastHour(1L)).isEqualTo(5);
+
+        advanceSeconds(20 * 60);
+        assertThat(tracker.getMessagesLastHour(1L)).isZero();
+    }
+
+    @Test
+    void getGlobalMetrics_ShouldSumAllTopics() {
+        tracker.register(3L);
+        tracker.recordMessages(1L, 60);
+        tracker.recordMessages(2L, 120);
+
+        assertThat(tracker.getTrackedTopicIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(tracker.getGlobalThroughput()).isEqualTo(3.0);
+        assertThat(tracker.getGlobalMessagesLastMinute()).isEqualTo(180);
+        assertThat(tracker.getGlobalMessagesLastHour()).isEqualTo(180);
+
+        tracker.unregister(2L);
+        assertThat(tracker.getGlobalMessagesLastMinute()).isEqualTo(60);
+    }
+
+    @Test
+    void cleanupAll_ShouldNotAffectLiveBuckets() {
+        tracker.recordMessages(1L, 10);
+        advanceSeconds(59);
+        tracker.cleanupAll();
+
+        assertThat(tracker.getMessagesInWindow(1L)).isEqualTo(10);
+    }
+
+    /**
+     * Mémoire / CPU ring buffer vs deques d'Instant :
+     * {@code mvn test -Dtest=ThroughputTrackerTest -Dbenchmark=true}
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_MemoryAndCpuAtSustainedRates() {
+        int seconds = 60;
+        int batchSize = 100;
+        System.out.printf("%-10s %-8s %14s %14s %14s%n", "rate", "impl", "retained (KB)", "record ns/msg", "query ns");
+
+        for (int rate : new int[]{1_000, 10_000, 100_000}) {
+            int batchesPerSecond = rate / batchSize;
+
+            long before = usedHeap();
+            ThroughputTracker ring = new ThroughputTracker(clock::get);
+            long ringNanos = 0;
+            for (int s = 0; s < seconds; s++) {
+                long start = System.nanoTime();
+                for (int b = 0; b < batchesPerSecond; b++) ring.recordMessages(1L, batchSize);
+                ringNanos += System.nanoTime() - start;
+                advanceSeconds(1);
+            }
+            long ringRetained = usedHeap() - before;
+            long ringQuery = timeQuery(() -> ring.getMessagesLastMinute(1L) + ring.getMessagesLastHour(1L));
+            report(rate, "ring", ringRetained, (double) ringNanos / ((long) rate * seconds), ringQuery);
+
+            before = usedHeap();
+            LegacyDequeTracker legacy = new LegacyDequeTracker();
+            long legacyNanos = 0;
+            for (int s = 0; s < seconds; s++) {
+                long start = System.nanoTime();
+                for (int b = 0; b < batchesPerSecond; b++) legacy.recordMessages(batchSize);
+                legacyNanos += System.nanoTime() - start;
+            }
+            long legacyRetained = usedHeap() - before;
+            long legacyQuery = timeQuery(() -> legacy.getMessagesLastMinute() + legacy.getMessagesLastHour());
+            report(rate, "deque", legacyRetained, (double) legacyNanos / ((long) rate * seconds), legacyQuery);
+            assertThat(legacy.getMessagesLastHour()).isEqualTo((long) rate * seconds);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(seconds * 1000);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long timeQuery(LongSupplier query) {
+        int iterations = 200;
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) sink += query.getAsLong();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += query.getAsLong();
+        assertThat(sink).isPositive();
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private static void report(int rate, String impl, long retainedBytes, double recordNanosPerMessage, long queryNanos) {
+        System.out.printf("%-10s %-8s %14d %14.2f %14d%n",
+                rate + "/s", impl, Math.max(0, retainedBytes) / 1024, recordNanosPerMessage, queryNanos);
+    }
+
+    /** Ancienne implémentation (un Instant par message dans deux deques), gardée pour comparaison. */
+    private static final class LegacyDequeTracker {
+        private final Deque<Instant> minute = new ConcurrentLinkedDeque<>();
+        private final Deque<Instant> hour = new ConcurrentLinkedDeque<>();
+
+        void recordMessages(int count) {
+            Instant now = Instant.now();
+            for (int i = 0; i < count; i++) minute.addLast(now);
+            for (int i = 0; i < count; i++) hour.addLast(now);
+        }
+
+        long getMessagesLastMinute() {
+            Instant cutoff = Instant.now().minus(Duration.ofSeconds(60));
+            return minute.stream().filter(ts -> ts.isAfter(cutoff)).count();
+        }
+
+        long getMessagesLastHour() {
+            Instant cutoff = Instant.now().minus(Duration.ofHours(1));
+            while (!hour.isEmpty() && hour.peekFirst().isBefore(cutoff)) hour.pollFirst();
+            return hour.size();
+        }
+    }
+}
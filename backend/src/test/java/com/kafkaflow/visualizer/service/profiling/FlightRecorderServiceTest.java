@@ -0,0 +1,79 @@
+package com.kafkaflow.visualizer.service.profiling;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService.RecordingStatus;
+import com.kafkaflow.visualizer.service.profiling.FlightRecorderService.State;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderServiceTest {
+
+    private FlightRecorderService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FlightRecorderService(60, 50, "default");
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void start_ShouldCapRequestedBounds() {
+        RecordingStatus status = service.start(3600, 10);
+
+        assertThat(status.state()).isEqualTo(State.RUNNING);
+        assertThat(status.maxDurationSeconds()).isEqualTo(60);
+        assertThat(status.maxSizeMb()).isEqualTo(10);
+        assertThatThrownBy(() -> service.start(null, null)).isInstanceOf(AppException.class);
+    }
+
+    @Test
+    void stop_ShouldWriteRecordingWithPipelineEvents() throws Exception {
+        service.start(null, null);
+
+        PipelineEvents.ArchiveChunk event = new PipelineEvents.ArchiveChunk();
+        event.begin();
+        event.end();
+        event.set(42L, 1000, 123_456);
+        event.commit();
+
+        RecordingStatus status = service.stop();
+        Path file = service.getRecordingFile();
+
+        assertThat(status.state()).isEqualTo(State.STOPPED);
+        assertThat(status.fileSizeBytes()).isEqualTo(Files.size(file));
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("yucast.ArchiveChunk"))
+                .toList();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getLong("topicId")).isEqualTo(42);
+        assertThat(events.get(0).getInt("recordCount")).isEqualTo(1000);
+        assertThat(events.get(0).getLong("bytes")).isEqualTo(123_456);
+        assertThat(RecordingFile.readAllEvents(file))
+                .noneMatch(e -> e.getEventType().getName().equals("jdk.InitialEnvironmentVariable"));
+    }
+
+    @Test
+    void getRecordingFile_ShouldRequireStoppedRecording() {
+        assertThatThrownBy(() -> service.getRecordingFile()).isInstanceOf(AppException.class);
+
+        service.start(null, null);
+        assertThatThrownBy(() -> service.getRecordingFile()).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> new FlightRecorderService(60, 50, "default").stop())
+                .isInstanceOf(AppException.class);
+    }
+}
@@ -0,0 +1,207 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.KafkaConnection;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaTopic;
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
+import com.kafkaflow.visualizer.model.RetentionPolicy;
+import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
+import com.kafkaflow.visualizer.repository.KafkaTopicRepository;
+import com.kafkaflow.visualizer.repository.RetentionJobLogRepository;
+import com.kafkaflow.visualizer.repository.RetentionJobTopicLogRepository;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.ArchiveTarget;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.Chunk;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class HotCapacityEnforcerTest {
+
+    @Mock
+    private KafkaMessageRepository messageRepository;
+
+    @Mock
+    private KafkaTopicRepository topicRepository;
+
+    @Mock
+    private RetentionJobLogRepository jobLogRepository;
+
+    @Mock
+    private RetentionJobTopicLogRepository topicLogRepository;
+
+    @Mock
+    private RetentionPolicyService policyService;
+
+    @Mock
+    private RetentionChunkArchiver chunkArchiver;
+
+    @Mock
+    private SearchIndexService searchIndex;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    private final HotStorageTracker hotStorage = new HotStorageTracker();
+    private RetentionTopicExecutor topicExecutor;
+    private HotCapacityEnforcer enforcer;
+
+    @BeforeEach
+    void setUp() {
+        topicExecutor = new RetentionTopicExecutor(topicLogRepository, 2, 60);
+        enforcer = new HotCapacityEnforcer(hotStorage, messageRepository, topicRepository, jobLogRepository,
+                policyService, chunkArchiver, topicExecutor, searchIndex, pipelineMetrics);
+        ReflectionTestUtils.setField(enforcer, "chunkSize", 100);
+        ReflectionTestUtils.setField(enforcer, "lowWatermark", 0.9);
+        ReflectionTestUtils.setField(enforcer, "timeBudgetSeconds", 60);
+        ReflectionTestUtils.setField(enforcer, "policyRefreshSeconds", 60);
+        ReflectionTestUtils.setField(enforcer, "resyncHours", 6);
+        given(topicRepository.findAll()).willReturn(List.of(topic(1L, "orders")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        topicExecutor.shutdown();
+    }
+
+    @Test
+    void enforceCaps_ShouldOnlyReadCountersWhileTopicsStayUnderCap() {
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(policy(1000, 1000, true));
+        given(messageRepository.sumHotUsageByTopic()).willReturn(List.<Object[]>of(new Object[]{1L, 400L, 4000L}));
+
+        assertThat(enforcer.enforceCaps()).isNull();
+        for (int i = 0; i < 500; i++) {
+            hotStorage.recordIngest(1L, 10);
+        }
+        assertThat(enforcer.enforceCaps()).isNull();
+
+        // Une seule requête de recalage au premier passage, aucune mesure ni job ensuite
+        verify(messageRepository).sumHotUsageByTopic();
+        verify(messageRepository, never()).measureHotUsage(any());
+        verifyNoInteractions(chunkArchiver, jobLogRepository);
+    }
+
+    @Test
+    void enforceCaps_ShouldArchiveOldestChunksDownToLowWatermark() {
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(policy(1000, 1000, true));
+        given(messageRepository.sumHotUsageByTopic()).willReturn(List.<Object[]>of(new Object[]{1L, 1000L, 10_000L}));
+        given(jobLogRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        hotStorage.recordIngest(1L, 10);
+        enforcer.enforceCaps();
+        hotStorage.recordIngest(1L, 10);
+        given(messageRepository.measureHotUsage(1L)).willReturn(List.<Object[]>of(new Object[]{1200L, 12_000L}));
+        List<Integer> sizes = new ArrayList<>();
+        given(chunkArchiver.archiveChunk(any(), anyInt(), eq(ArchiveReason.CLEANUP))).willAnswer(invocation -> {
+            int size = invocation.getArgument(1);
+            sizes.add(size);
+            ArchiveTarget target = invocation.getArgument(0);
+            assertThat(target.topicId()).isEqualTo(1L);
+            return new Chunk(size, size * 10L, List.of());
+        });
+
+        RetentionJobLog jobLog = enforcer.enforceCaps();
+
+        // 1200 messages pour un plafond de 1000 : retour à 900, par chunks de 100 au plus
+        assertThat(sizes).containsExactly(100, 100, 100);
+        assertThat(jobLog.getJobType()).isEqualTo(JobType.PURGE_HOT);
+        assertThat(jobLog.getMessagesArchived()).isEqualTo(300);
+        assertThat(jobLog.getMessagesDeleted()).isZero();
+        assertThat(jobLog.getDetails()).containsEntry("trigger", "capacity").containsEntry("completed", 1L);
+        verify(chunkArchiver, never()).evictChunk(any(), anyInt());
+    }
+
+    @Test
+    void enforceCaps_ShouldEvictBySizeWhenArchivingIsDisabled() {
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(policy(0, 1, false));
+        long oneMb = 1024L * 1024;
+        given(messageRepository.sumHotUsageByTopic()).willReturn(List.<Object[]>of(new Object[]{1L, 100L, 2 * oneMb}));
+        given(messageRepository.measureHotUsage(1L)).willReturn(List.<Object[]>of(new Object[]{100L, 2 * oneMb}));
+        given(jobLogRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(chunkArchiver.evictChunk(any(), anyInt())).willAnswer(invocation -> {
+            int size = invocation.getArgument(1);
+            return new Chunk(size, size * (2 * oneMb / 100), List.of());
+        });
+
+        RetentionJobLog jobLog = enforcer.enforceCaps();
+
+        // 2 Mo pour 1 Mo : ~1,1 Mo à libérer, soit 56 messages de ~21 Ko
+        verify(chunkArchiver).evictChunk(any(), eq(56));
+        assertThat(jobLog.getMessagesDeleted()).isEqualTo(56);
+        assertThat(jobLog.getMessagesArchived()).isZero();
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void enforceCaps_ShouldTrustMeasurementOverDriftedCounters() {
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(policy(1000, 1000, true));
+        given(messageRepository.sumHotUsageByTopic()).willReturn(List.<Object[]>of(new Object[]{1L, 5000L, 0L}));
+        given(messageRepository.measureHotUsage(1L)).willReturn(List.<Object[]>of(new Object[]{800L, 0L}));
+        given(jobLogRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        RetentionJobLog jobLog = enforcer.enforceCaps();
+
+        assertThat(jobLog.getMessagesProcessed()).isZero();
+        assertThat(hotStorage.get(1L).rows()).isEqualTo(800);
+        verifyNoInteractions(chunkArchiver);
+        assertThat(enforcer.enforceCaps()).isNull();
+    }
+
+    @Test
+    void enforceCaps_ShouldSkipTopicHeldAboveCapByBookmarksUntilUsageGrows() {
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(policy(1000, 1000, true));
+        given(messageRepository.sumHotUsageByTopic()).willReturn(List.<Object[]>of(new Object[]{1L, 1200L, 12_000L}));
+        given(messageRepository.measureHotUsage(1L)).willReturn(List.<Object[]>of(new Object[]{1200L, 12_000L}));
+        given(jobLogRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(chunkArchiver.archiveChunk(any(), anyInt(), eq(ArchiveReason.CLEANUP))).willReturn(new Chunk(0, 0, List.of()));
+
+        assertThat(enforcer.enforceCaps()).isNotNull();
+        // Seuls des favoris restent : ni mesure, ni job, ni avertissement aux passages suivants
+        assertThat(enforcer.enforceCaps()).isNull();
+        assertThat(enforcer.enforceCaps()).isNull();
+        verify(messageRepository, times(1)).measureHotUsage(1L);
+
+        hotStorage.recordIngest(1L, 10);
+        assertThat(enforcer.enforceCaps()).isNotNull();
+        verify(messageRepository, times(2)).measureHotUsage(1L);
+    }
+
+    private RetentionPolicy policy(int maxMessages, int maxSizeMb, boolean archive) {
+        return RetentionPolicy.builder()
+                .hotMaxMessages(maxMessages)
+                .hotMaxSizeMb(maxSizeMb)
+                .archiveEnabled(archive)
+                .autoPurgeEnabled(true)
+                .build();
+    }
+
+    private KafkaTopic topic(Long id, String name) {
+        KafkaConnection connection = new KafkaConnection();
+        connection.setId(10L);
+        connection.setName("local");
+        KafkaTopic topic = new KafkaTopic();
+        topic.setId(id);
+        topic.setName(name);
+        topic.setConnection(connection);
+        return topic;
+    }
+}
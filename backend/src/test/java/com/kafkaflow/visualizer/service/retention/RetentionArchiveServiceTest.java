@@ -0,0 +1,186 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.KafkaConnection;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaTopic;
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog.TopicStatus;
+import com.kafkaflow.visualizer.model.RetentionPolicy;
+import com.kafkaflow.visualizer.repository.*;
+import com.kafkaflow.visualizer.service.coldstore.ColdArchiveStore;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.ArchiveTarget;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.Chunk;
+import com.kafkaflow.visualizer.service.search.SearchIndexService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionArchiveServiceTest {
+
+    @Mock
+    private KafkaMessageArchiveRepository archiveRepository;
+
+    @Mock
+    private RetentionPolicyRepository policyRepository;
+
+    @Mock
+    private RetentionJobLogRepository jobLogRepository;
+
+    @Mock
+    private KafkaTopicRepository topicRepository;
+
+    @Mock
+    private RetentionPolicyService policyService;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private SearchIndexService searchIndex;
+
+    @Mock
+    private TablePartitionManager partitionManager;
+
+    @Mock
+    private RetentionChunkArchiver chunkArchiver;
+
+    @Mock
+    private RetentionJobTopicLogRepository topicLogRepository;
+
+    @Mock
+    private ColdArchiveStore coldStore;
+
+    private RetentionTopicExecutor topicExecutor;
+    private RetentionArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        topicExecutor = new RetentionTopicExecutor(topicLogRepository, 2, 60);
+        service = new RetentionArchiveService(archiveRepository, policyRepository, jobLogRepository,
+                topicRepository, policyService, pipelineMetrics, searchIndex, partitionManager, chunkArchiver,
+                topicExecutor, coldStore);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "timeBudgetSeconds", 60);
+        given(jobLogRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void archiveOldMessages_ShouldDrainTopicsInParallelAndRecordProgressPerTopic() {
+        given(topicRepository.findAll()).willReturn(List.of(topic(1L, "orders"), topic(2L, "payments")));
+        given(policyService.getEffectivePolicy(anyLong(), eq(10L))).willReturn(RetentionPolicy.builder().build());
+        Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+        given(chunkArchiver.archiveChunk(any(), eq(2), eq(ArchiveReason.RETENTION))).willAnswer(invocation -> {
+            ArchiveTarget target = invocation.getArgument(0);
+            int previous = calls.computeIfAbsent(target.topicId(), id -> new AtomicInteger()).getAndIncrement();
+            // orders : 2 + 1 lignes ; payments : 2 lignes puis backlog vide
+            if (target.topicId() == 1L) return previous == 0 ? new Chunk(2, 20, List.of(1L, 2L)) : new Chunk(1, 10, List.of(5L));
+            return previous == 0 ? new Chunk(2, 40, List.of(3L, 4L)) : new Chunk(0, 0, List.of());
+        });
+
+        RetentionJobLog jobLog = service.archiveOldMessages();
+
+        assertThat(jobLog.getStatus()).isEqualTo(RetentionJobLog.JobStatus.COMPLETED);
+        assertThat(jobLog.getMessagesArchived()).isEqualTo(5);
+        assertThat(jobLog.getBytesFreed()).isEqualTo(70);
+        assertThat(jobLog.getErrorMessage()).isNull();
+        assertThat(jobLog.getDetails()).containsEntry("budgetExhausted", false).containsEntry("completed", 2L);
+        assertThat(savedTopicLogs()).extracting(RetentionJobTopicLog::getTopicName, RetentionJobTopicLog::getRowsProcessed,
+                        RetentionJobTopicLog::getChunks, RetentionJobTopicLog::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("orders", 3L, 2, TopicStatus.COMPLETED),
+                        tuple("payments", 2L, 1, TopicStatus.COMPLETED));
+        verify(searchIndex).indexArchiveIds(List.of(5L));
+    }
+
+    @Test
+    void archiveOldMessages_ShouldIsolateTopicFailures() {
+        given(topicRepository.findAll()).willReturn(List.of(topic(1L, "orders"), topic(2L, "payments")));
+        given(policyService.getEffectivePolicy(anyLong(), eq(10L))).willReturn(RetentionPolicy.builder().build());
+        given(chunkArchiver.archiveChunk(any(), eq(2), eq(ArchiveReason.RETENTION))).willAnswer(invocation -> {
+            ArchiveTarget target = invocation.getArgument(0);
+            if (target.topicId() == 1L) throw new IllegalStateException("Lock wait timeout exceeded");
+            return new Chunk(1, 10, List.of(1L));
+        });
+
+        RetentionJobLog jobLog = service.archiveOldMessages();
+
+        assertThat(jobLog.getStatus()).isEqualTo(RetentionJobLog.JobStatus.COMPLETED);
+        assertThat(jobLog.getMessagesArchived()).isEqualTo(1);
+        assertThat(jobLog.getErrorMessage()).startsWith("1 of 2 topics failed (first: orders");
+        assertThat(jobLog.getDetails()).containsEntry("failed", 1L);
+        assertThat(savedTopicLogs()).filteredOn(topicLog -> topicLog.getStatus() == TopicStatus.FAILED)
+                .singleElement()
+                .satisfies(topicLog -> assertThat(topicLog.getErrorMessage()).contains("Lock wait timeout"));
+    }
+
+    @Test
+    void archiveOldMessages_ShouldSkipTopicsOnceTimeBudgetIsSpent() {
+        ReflectionTestUtils.setField(service, "timeBudgetSeconds", 0);
+        given(topicRepository.findAll()).willReturn(List.of(topic(1L, "orders")));
+        given(policyService.getEffectivePolicy(1L, 10L)).willReturn(RetentionPolicy.builder().build());
+
+        RetentionJobLog jobLog = service.archiveOldMessages();
+
+        assertThat(jobLog.getDetails()).containsEntry("budgetExhausted", true).containsEntry("skipped", 1L);
+        assertThat(savedTopicLogs()).extracting(RetentionJobTopicLog::getStatus).containsExactly(TopicStatus.SKIPPED);
+        verify(chunkArchiver, never()).archiveChunk(any(), eq(2), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        topicExecutor.shutdown();
+    }
+
+    @Test
+    void archiveOldMessages_ShouldSkipTopicsWithoutArchiving() {
+        given(topicRepository.findAll()).willReturn(List.of(topic(1L, "orders")));
+        given(policyService.getEffectivePolicy(1L, 10L))
+                .willReturn(RetentionPolicy.builder().archiveEnabled(false).build());
+
+        RetentionJobLog jobLog = service.archiveOldMessages();
+
+        assertThat(jobLog.getMessagesArchived()).isZero();
+        verify(chunkArchiver, never()).archiveChunk(any(), eq(2), any());
+    }
+
+    private List<RetentionJobTopicLog> savedTopicLogs() {
+        ArgumentCaptor<RetentionJobTopicLog> captor = ArgumentCaptor.forClass(RetentionJobTopicLog.class);
+        verify(topicLogRepository, atLeastOnce()).save(captor.capture());
+        // Chaque ligne est enregistrée au démarrage puis à la fin du topic
+        return captor.getAllValues().stream().distinct().toList();
+    }
+
+    private KafkaTopic topic(Long id, String name) {
+        KafkaConnection connection = new KafkaConnection();
+        connection.setId(10L);
+        connection.setName("local");
+        KafkaTopic topic = new KafkaTopic();
+        topic.setId(id);
+        topic.setName(name);
+        topic.setConnection(connection);
+        return topic;
+    }
+}
@@ -0,0 +1,176 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.KafkaConnection;
+import com.kafkaflow.visualizer.model.KafkaMessage;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive.ArchiveReason;
+import com.kafkaflow.visualizer.model.KafkaTopic;
+import com.kafkaflow.visualizer.repository.KafkaMessageArchiveRepository;
+import com.kafkaflow.visualizer.repository.KafkaMessageRepository;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.ArchiveTarget;
+import com.kafkaflow.visualizer.service.retention.RetentionChunkArchiver.Chunk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({RetentionChunkArchiver.class, HotStorageTracker.class})
+class RetentionChunkArchiverTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private KafkaMessageRepository messageRepository;
+
+    @Autowired
+    private KafkaMessageArchiveRepository archiveRepository;
+
+    @Autowired
+    private RetentionChunkArchiver archiver;
+
+    @Autowired
+    private HotStorageTracker hotStorage;
+
+    private KafkaTopic topic;
+    private ArchiveTarget target;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConnection connection = new KafkaConnection();
+        connection.setName("local");
+        connection.setBootstrapServers("localhost:9092");
+        connection.setStatus(KafkaConnection.ConnectionStatus.CONNECTED);
+        entityManager.persist(connection);
+
+        topic = new KafkaTopic();
+        topic.setName("orders");
+        topic.setConnection(connection);
+        entityManager.persist(topic);
+
+        target = new ArchiveTarget(topic.getId(), "orders", connection.getId(), "local", CUTOFF, false);
+    }
+
+    @Test
+    void archiveChunk_ShouldMoveExpiredMessagesInSql() {
+        KafkaMessage expired = message("k1", "{\"id\":1}", CUTOFF.minusDays(2), false);
+        expired.setHeaders("{\"trace\":\"abc\"}");
+        KafkaMessage bookmarked = message("k2", "{\"id\":2}", CUTOFF.minusDays(1), true);
+        KafkaMessage recent = message("k3", "{\"id\":3}", CUTOFF.plusHours(1), false);
+        entityManager.flush();
+
+        Chunk chunk = archiver.archiveChunk(target, 10, ArchiveReason.RETENTION);
+        entityManager.clear();
+
+        assertThat(chunk.rows()).isEqualTo(1);
+        assertThat(messageRepository.findAllById(List.of(expired.getId(), bookmarked.getId(), recent.getId())))
+                .extracting(KafkaMessage::getId)
+                .containsExactlyInAnyOrder(bookmarked.getId(), recent.getId());
+
+        List<KafkaMessageArchive> archives = archiveRepository.findAll();
+        assertThat(archives).singleElement().satisfies(archive -> {
+            assertThat(chunk.archiveIds()).containsExactly(archive.getId());
+            assertThat(archive.getOriginalId()).isEqualTo(expired.getId());
+            assertThat(archive.getTopicName()).isEqualTo("orders");
+            assertThat(archive.getConnectionName()).isEqualTo("local");
+            assertThat(archive.getMessageKey()).isEqualTo("k1");
+            assertThat(archive.getMessageValue()).isEqualTo("{\"id\":1}");
+            assertThat(archive.getOriginalTimestamp()).isEqualTo(expired.getTimestamp());
+            assertThat(archive.getHeaders()).containsEntry("trace", "abc");
+            assertThat(archive.getValueSize()).isEqualTo(8);
+            assertThat(archive.getArchiveReason()).isEqualTo(ArchiveReason.RETENTION);
+        });
+    }
+
+    @Test
+    void archiveChunk_ShouldCountSameBytesAsArchivedRows_WhenValueSizeIsMissing() {
+        KafkaMessage sized = message("k1", "{\"id\":1}", CUTOFF.minusDays(2), false);
+        KafkaMessage unsized = message("k2", "{\"id\":22}", CUTOFF.minusDays(1), false);
+        unsized.setValueSize(0);
+        entityManager.flush();
+
+        Chunk chunk = archiver.archiveChunk(target, 10, ArchiveReason.RETENTION);
+        entityManager.clear();
+
+        // Le compteur décrémenté doit correspondre à value_size tel que copié dans les archives
+        assertThat(chunk.bytes()).isEqualTo(17);
+        assertThat(archiveRepository.findAll()).extracting(KafkaMessageArchive::getValueSize)
+                .containsExactlyInAnyOrder(8, 9);
+    }
+
+    @Test
+    void archiveChunk_ShouldStopAtChunkSize() {
+        for (int i = 0; i < 5; i++) {
+            message("k" + i, "v" + i, CUTOFF.minusHours(5 - i), false);
+        }
+        entityManager.flush();
+
+        Chunk first = archiver.archiveChunk(target, 3, ArchiveReason.RETENTION);
+        Chunk second = archiver.archiveChunk(target, 3, ArchiveReason.RETENTION);
+        Chunk third = archiver.archiveChunk(target, 3, ArchiveReason.RETENTION);
+
+        assertThat(first.rows()).isEqualTo(3);
+        assertThat(second.rows()).isEqualTo(2);
+        assertThat(third.rows()).isZero();
+        assertThat(archiveRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void archiveChunk_ShouldIncludeBookmarksWhenPolicyPurgesThem() {
+        message("k1", "v1", CUTOFF.minusDays(1), true);
+        entityManager.flush();
+
+        ArchiveTarget purgeBookmarked = new ArchiveTarget(topic.getId(), "orders", null, null, CUTOFF, true);
+
+        assertThat(archiver.archiveChunk(target, 10, ArchiveReason.RETENTION).rows()).isZero();
+        assertThat(archiver.archiveChunk(purgeBookmarked, 10, ArchiveReason.RETENTION).rows()).isEqualTo(1);
+    }
+
+    @Test
+    void evictChunk_ShouldDeleteOldestMessagesWithoutArchiving() {
+        for (int i = 0; i < 4; i++) {
+            message("k" + i, "value-" + i, CUTOFF.minusHours(4 - i), false);
+        }
+        entityManager.flush();
+        hotStorage.resetAll(messageRepository.sumHotUsageByTopic());
+        assertThat(hotStorage.get(topic.getId())).isEqualTo(new HotStorageTracker.Usage(4, 28));
+
+        Chunk chunk = archiver.evictChunk(target, 3);
+        entityManager.clear();
+
+        assertThat(chunk.rows()).isEqualTo(3);
+        assertThat(chunk.bytes()).isEqualTo(21);
+        assertThat(archiveRepository.count()).isZero();
+        assertThat(messageRepository.findAll()).extracting(KafkaMessage::getKey).containsExactly("k3");
+        // Compteurs décrémentés au commit seulement (transaction du test encore ouverte)
+        assertThat(hotStorage.get(topic.getId())).isEqualTo(new HotStorageTracker.Usage(4, 28));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(hotStorage.get(topic.getId())).isEqualTo(new HotStorageTracker.Usage(1, 7));
+        assertThat(messageRepository.measureHotUsage(topic.getId()).get(0)).containsExactly(1L, 7L);
+    }
+
+    private KafkaMessage message(String key, String value, LocalDateTime timestamp, boolean bookmarked) {
+        return entityManager.persist(KafkaMessage.builder()
+                .topic(topic)
+                .key(key)
+                .value(value)
+                .valueSize(value.length())
+                .timestamp(timestamp)
+                .direction(KafkaMessage.MessageDirection.INBOUND)
+                .status(KafkaMessage.MessageStatus.RECEIVED)
+                .isBookmarked(bookmarked)
+                .build());
+    }
+}
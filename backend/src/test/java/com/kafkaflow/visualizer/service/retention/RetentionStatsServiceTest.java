@@ -0,0 +1,255 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.dto.RetentionDto.CardinalityResponse;
+import com.kafkaflow.visualizer.dto.RetentionDto.SizeDistributionResponse;
+import com.kafkaflow.visualizer.model.KafkaMessage;
+import com.kafkaflow.visualizer.model.KafkaMessageArchive;
+import com.kafkaflow.visualizer.model.KafkaMessageStats;
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.repository.*;
+import com.kafkaflow.visualizer.service.metrics.PipelineMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionStatsServiceTest {
+
+    @Mock
+    private KafkaMessageRepository messageRepository;
+
+    @Mock
+    private KafkaMessageStatsRepository statsRepository;
+
+    @Mock
+    private RetentionPolicyRepository policyRepository;
+
+    @Mock
+    private RetentionJobLogRepository jobLogRepository;
+
+    @Mock
+    private KafkaTopicRepository topicRepository;
+
+    @Mock
+    private RetentionPolicyService policyService;
+
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Mock
+    private RetentionJobTopicLogRepository topicLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HourlyStatsAccumulator accumulator;
+    private RetentionTopicExecutor topicExecutor;
+    private RetentionStatsService service;
+
+    private final LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        accumulator = new HourlyStatsAccumulator();
+        topicExecutor = new RetentionTopicExecutor(topicLogRepository, 2, 60);
+        service = new RetentionStatsService(messageRepository, statsRepository, policyRepository,
+                jobLogRepository, topicRepository, policyService, pipelineMetrics, accumulator,
+                topicExecutor, new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        topicExecutor.shutdown();
+    }
+
+    @Test
+    void flushAccumulatedStats_ShouldMergeDeltasIntoExistingRow() {
+        accumulator.record(1L, 10L, hour.plusMinutes(1), KafkaMessage.MessageType.NORMAL, 100, "k1", 0);
+        accumulator.record(1L, 10L, hour.plusMinutes(2), KafkaMessage.MessageType.ERROR, 300, "k2", 1);
+
+        KafkaMessageStats existing = KafkaMessageStats.createForHour(1L, 10L, hour);
+        existing.incrementMessageCount(200, KafkaMessageArchive.MessageType.NORMAL);
+        given(statsRepository.findByTopicIdAndHourBucket(1L, hour)).willReturn(Optional.of(existing));
+
+        int flushed = service.flushAccumulatedStats();
+
+        assertThat(flushed).isEqualTo(1);
+        assertThat(existing.getMessageCount()).isEqualTo(3);
+        assertThat(existing.getNormalCount()).isEqualTo(2);
+        assertThat(existing.getErrorCount()).isEqualTo(1);
+        assertThat(existing.getTotalSizeBytes()).isEqualTo(600);
+        assertThat(existing.getMinSizeBytes()).isEqualTo(100);
+        assertThat(existing.getMaxSizeBytes()).isEqualTo(300);
+        assertThat(existing.getAvgSizeBytes()).isEqualTo(200);
+        assertThat(existing.getLastMessageAt()).isEqualTo(hour.plusMinutes(2));
+        assertThat(existing.getUniqueKeysCount()).isEqualTo(2);
+        assertThat(existing.getUniquePartitionsCount()).isEqualTo(2);
+        assertThat(existing.getPeakMessagesPerMinute()).isEqualTo(1);
+        assertThat(accumulator.getPendingBuckets()).isZero();
+        verify(statsRepository).save(existing);
+    }
+
+    @Test
+    void flushAccumulatedStats_ShouldSplitBucketsByHourAndTopic() {
+        accumulator.record(1L, 10L, hour.minusMinutes(1), KafkaMessage.MessageType.NORMAL, 10, "k1", 0);
+        accumulator.record(1L, 10L, hour.plusMinutes(1), KafkaMessage.MessageType.NORMAL, 10, "k1", 0);
+        accumulator.record(2L, 10L, hour.plusMinutes(1), KafkaMessage.MessageType.SYSTEM, 10, "k1", 0);
+        given(statsRepository.findByTopicIdAndHourBucket(any(), any())).willReturn(Optional.empty());
+
+        assertThat(service.flushAccumulatedStats()).isEqualTo(3);
+        verify(statsRepository, times(3)).save(any(KafkaMessageStats.class));
+    }
+
+    @Test
+    void flushAccumulatedStats_ShouldRestoreDeltas_WhenSaveFails() {
+        accumulator.record(1L, 10L, hour, KafkaMessage.MessageType.NORMAL, 10, "k1", 0);
+        given(statsRepository.findByTopicIdAndHourBucket(1L, hour)).willThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> service.flushAccumulatedStats()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(accumulator.getPendingBuckets()).isEqualTo(1);
+        assertThat(accumulator.drain().get(0).getMessageCount()).isEqualTo(1);
+    }
+
+    @Test
+    void flushAccumulatedStats_ShouldRestoreDeltas_WhenTransactionRollsBackAtCommit() {
+        accumulator.record(1L, 10L, hour, KafkaMessage.MessageType.NORMAL, 10, "k1", 0);
+        given(statsRepository.findByTopicIdAndHourBucket(1L, hour)).willReturn(Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(service.flushAccumulatedStats()).isEqualTo(1);
+            assertThat(accumulator.getPendingBuckets()).isZero();
+
+            // Échec du commit (flush Hibernate, contrainte...) : les deltas déjà vidés reviennent
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(accumulator.getPendingBuckets()).isEqualTo(1);
+        assertThat(accumulator.drain().get(0).getMessageCount()).isEqualTo(1);
+    }
+
+    @Test
+    void flushAccumulatedStats_ShouldWaitForPreviousFlushToCommit() throws Exception {
+        accumulator.record(1L, 10L, hour, KafkaMessage.MessageType.NORMAL, 10, "k1", 0);
+        given(statsRepository.findByTopicIdAndHourBucket(1L, hour)).willReturn(Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Integer> concurrent;
+        try {
+            assertThat(service.flushAccumulatedStats()).isEqualTo(1);
+            accumulator.record(1L, 10L, hour, KafkaMessage.MessageType.NORMAL, 10, "k2", 0);
+
+            // Ligne (topic, heure) pas encore validée : un second flush ne doit pas l'insérer à son tour
+            concurrent = CompletableFuture.supplyAsync(service::flushAccumulatedStats);
+            Thread.sleep(200);
+            assertThat(concurrent).isNotDone();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(concurrent.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        verify(statsRepository, times(2)).save(any(KafkaMessageStats.class));
+    }
+
+    @Test
+    void aggregateStats_ShouldOnlyRebuildTopicsWhoseCountDiverges() {
+        LocalDateTime previousHour = hour.minusHours(1);
+        KafkaMessageStats upToDate = KafkaMessageStats.createForHour(1L, 10L, previousHour);
+        upToDate.setMessageCount(5);
+        given(jobLogRepository.save(any(RetentionJobLog.class))).willAnswer(inv -> inv.getArgument(0));
+        given(statsRepository.findByHourBucket(previousHour)).willReturn(List.of(upToDate));
+        given(messageRepository.countByTopicInRange(previousHour, hour))
+                .willReturn(List.of(new Object[]{1L, 5L}, new Object[]{2L, 3L}));
+        given(topicRepository.findByIdWithConnection(2L)).willReturn(Optional.empty());
+        given(messageRepository.aggregateByMessageType(2L, previousHour, hour)).willReturn(List.of(
+                new Object[]{KafkaMessage.MessageType.NORMAL, 2L, 40L, 10, 30, previousHour, previousHour.plusMinutes(5)},
+                new Object[]{KafkaMessage.MessageType.WARNING, 1L, 50L, 50, 50, previousHour.plusMinutes(7), previousHour.plusMinutes(7)}));
+
+        RetentionJobLog jobLog = service.aggregateStats();
+
+        assertThat(jobLog.getMessagesProcessed()).isEqualTo(1);
+        assertThat(jobLog.getDetails()).containsEntry("completed", 1L).containsEntry("failed", 0L);
+        ArgumentCaptor<KafkaMessageStats> captor = ArgumentCaptor.forClass(KafkaMessageStats.class);
+        verify(statsRepository).save(captor.capture());
+        KafkaMessageStats rebuilt = captor.getValue();
+        assertThat(rebuilt.getTopicId()).isEqualTo(2L);
+        assertThat(rebuilt.getMessageCount()).isEqualTo(3);
+        assertThat(rebuilt.getWarningCount()).isEqualTo(1);
+        assertThat(rebuilt.getTotalSizeBytes()).isEqualTo(90);
+        assertThat(rebuilt.getMinSizeBytes()).isEqualTo(10);
+        assertThat(rebuilt.getMaxSizeBytes()).isEqualTo(50);
+        assertThat(rebuilt.getLastMessageAt()).isEqualTo(previousHour.plusMinutes(7));
+        verify(messageRepository, never()).findByTopicIdAndTimestampBetween(any(), any(), any());
+        verify(messageRepository, never()).aggregateByMessageType(1L, previousHour, hour);
+    }
+
+    @Test
+    void getCardinality_ShouldMergeHourlySketches() {
+        for (int i = 0; i < 1000; i++) {
+            accumulator.record(1L, 10L, hour.minusHours(1), KafkaMessage.MessageType.NORMAL, 10, "key-" + i, i % 3);
+            accumulator.record(1L, 10L, hour, KafkaMessage.MessageType.NORMAL, 10, "key-" + (i + 500), i % 6);
+        }
+        List<KafkaMessageStats> hours = accumulator.drain();
+        given(statsRepository.findByTopicIdAndHourBucketBetweenOrderByHourBucketAsc(1L, hour.minusHours(1), hour))
+                .willReturn(hours);
+
+        CardinalityResponse response = service.getCardinality(1L, hour.minusHours(1), hour);
+
+        assertThat(response.getHoursMerged()).isEqualTo(2);
+        assertThat(response.getUniqueKeys()).isBetween(1425L, 1575L);
+        assertThat(response.getUniquePartitions()).isEqualTo(6);
+        assertThat(response.getPrecision()).isEqualTo(12);
+    }
+
+    @Test
+    void getSizeDistribution_ShouldMergeHoursAndReportTruePeakMinute() {
+        for (int i = 0; i < 100; i++) {
+            accumulator.record(1L, 10L, hour.minusHours(1).plusMinutes(5), KafkaMessage.MessageType.NORMAL, 100, null, 0);
+        }
+        for (int i = 0; i < 30; i++) {
+            accumulator.record(1L, 10L, hour.plusMinutes(i), KafkaMessage.MessageType.NORMAL, 10_000, null, 0);
+        }
+        List<KafkaMessageStats> hours = accumulator.drain();
+        given(statsRepository.findByTopicIdAndHourBucketBetweenOrderByHourBucketAsc(1L, hour.minusHours(1), hour))
+                .willReturn(hours);
+
+        SizeDistributionResponse response = service.getSizeDistribution(1L, hour.minusHours(1), hour);
+
+        assertThat(response.getSampledMessages()).isEqualTo(130);
+        assertThat(response.getSizeQuantiles().get("p50")).isBetween(99L, 101L);
+        assertThat(response.getSizeQuantiles().get("p99")).isBetween(9_900L, 10_100L);
+        assertThat(response.getSizeQuantiles()).containsKey("p999");
+        assertThat(response.getPeakMessagesPerMinute()).isEqualTo(100);
+        assertThat(response.getPeakMinuteAt()).isEqualTo(hour.minusHours(1).plusMinutes(5));
+    }
+}
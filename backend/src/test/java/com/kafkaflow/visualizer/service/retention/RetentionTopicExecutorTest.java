@@ -0,0 +1,92 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.model.RetentionJobLog;
+import com.kafkaflow.visualizer.model.RetentionJobLog.JobType;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog;
+import com.kafkaflow.visualizer.model.RetentionJobTopicLog.TopicStatus;
+import com.kafkaflow.visualizer.repository.RetentionJobTopicLogRepository;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.JobOutcome;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicResult;
+import com.kafkaflow.visualizer.service.retention.RetentionTopicExecutor.TopicTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionTopicExecutorTest {
+
+    @Mock
+    private RetentionJobTopicLogRepository topicLogRepository;
+
+    private RetentionTopicExecutor executor;
+    private final RetentionJobLog jobLog = RetentionJobLog.start(JobType.ARCHIVE);
+
+    @BeforeEach
+    void setUp() {
+        executor = new RetentionTopicExecutor(topicLogRepository, 2, 60);
+        jobLog.setId(42L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void run_ShouldNeverExceedConcurrency() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<TopicTask> tasks = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            tasks.add(new TopicTask(id, "topic-" + id, deadline -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Thread.sleep(30);
+                active.decrementAndGet();
+                return new TopicResult(10, 100, 1, true);
+            }));
+        }
+
+        JobOutcome outcome = executor.run(jobLog, tasks);
+
+        assertThat(peak.get()).isBetween(1, 2);
+        assertThat(outcome.rows()).isEqualTo(60);
+        assertThat(outcome.bytes()).isEqualTo(600);
+        assertThat(outcome.topics()).extracting(RetentionJobTopicLog::getJobLogId).containsOnly(42L);
+        assertThat(outcome.topics()).extracting(RetentionJobTopicLog::getTopicName)
+                .containsExactly("topic-1", "topic-2", "topic-3", "topic-4", "topic-5", "topic-6");
+    }
+
+    @Test
+    void run_ShouldReportPartialTopicsAndSkipThoseStartedAfterDeadline() {
+        List<TopicTask> tasks = List.of(
+                new TopicTask(1L, "slow", deadline -> {
+                    while (System.nanoTime() < deadline) Thread.sleep(5);
+                    return new TopicResult(7, 70, 3, false);
+                }),
+                new TopicTask(2L, "late", deadline -> TopicResult.NOTHING),
+                new TopicTask(3L, "also-late", deadline -> TopicResult.NOTHING));
+        RetentionTopicExecutor single = new RetentionTopicExecutor(topicLogRepository, 1, 60);
+
+        try {
+            JobOutcome outcome = single.run(jobLog, tasks, Duration.ofMillis(50));
+
+            assertThat(outcome.topics()).extracting(RetentionJobTopicLog::getStatus)
+                    .containsExactly(TopicStatus.PARTIAL, TopicStatus.SKIPPED, TopicStatus.SKIPPED);
+            assertThat(outcome.budgetExhausted()).isTrue();
+            assertThat(outcome.summary()).containsEntry("partial", 1L).containsEntry("skipped", 2L);
+            assertThat(outcome.failureMessage()).isNull();
+        } finally {
+            single.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.kafkaflow.visualizer.service.retention;
+
+import com.kafkaflow.visualizer.service.retention.TablePartitionManager.PartitionedTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TablePartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 10);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void initialDays_ShouldCoverHistoryUpToDaysAhead() {
+        List<LocalDate> days = TablePartitionManager.initialDays(TODAY.minusDays(2), TODAY, 3, 90);
+
+        assertThat(days).containsExactly(
+                TODAY.minusDays(2), TODAY.minusDays(1), TODAY,
+                TODAY.plusDays(1), TODAY.plusDays(2), TODAY.plusDays(3));
+    }
+
+    @Test
+    void initialDays_ShouldFoldOldHistoryIntoFirstPartition() {
+        List<LocalDate> days = TablePartitionManager.initialDays(TODAY.minusYears(2), TODAY, 1, 5);
+
+        assertThat(days).first().isEqualTo(TODAY.minusDays(5));
+        assertThat(days).last().isEqualTo(TODAY.plusDays(1));
+
+        assertThat(TablePartitionManager.initialDays(null, TODAY, 0, 5)).containsExactly(TODAY);
+    }
+
+    @Test
+    void partitionsBefore_ShouldOnlyDropDaysEntirelyBeforeCutoff() {
+        List<String> names = List.of("p20240507", "p20240508", "p20240509", "p20240510", "p_future");
+
+        assertThat(TablePartitionManager.partitionsBefore(names, LocalDateTime.of(2024, 5, 9, 12, 0)))
+                .containsExactly("p20240507", "p20240508");
+        assertThat(TablePartitionManager.partitionsBefore(names, LocalDateTime.of(2024, 5, 9, 0, 0)))
+                .containsExactly("p20240507", "p20240508");
+        assertThat(TablePartitionManager.partitionsBefore(names, LocalDateTime.of(2024, 5, 1, 0, 0))).isEmpty();
+    }
+
+    @Test
+    void partitionDefinitions_ShouldBoundEachDayByNextMidnight() {
+        String definitions = TablePartitionManager.partitionDefinitions(List.of(TODAY));
+
+        assertThat(definitions).isEqualTo("PARTITION p20240510 VALUES LESS THAN ('2024-05-11 00:00:00'), " +
+                "PARTITION p_future VALUES LESS THAN (MAXVALUE)");
+        assertThat(TablePartitionManager.dayOf("p20240510")).isEqualTo(TODAY);
+        assertThat(TablePartitionManager.dayOf("p_future")).isNull();
+    }
+
+    @Test
+    void initialize_ShouldKeepRowDeletesOutsideMySql() {
+        given(jdbcTemplate.execute(any(ConnectionCallback.class))).willReturn("H2");
+        TablePartitionManager manager = new TablePartitionManager(jdbcTemplate, true, 3, 90, System::currentTimeMillis);
+
+        manager.initialize();
+
+        assertThat(manager.isPartitioned(PartitionedTable.MESSAGES)).isFalse();
+        assertThat(manager.dropPartitionsBefore(PartitionedTable.MESSAGES, LocalDateTime.now())).isZero();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,162 @@
+package com.kafkaflow.visualizer.service.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new TrigramIndex(tempDir, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Test
+    void search_ShouldReturnCandidatesNewestFirstIgnoringCase() {
+        index.add(1, "order-1", "{\"status\":\"CREATED\"}");
+        index.add(2, "order-2", "{\"status\":\"PAID\"}");
+        index.add(3, null, "{\"status\":\"created\"}");
+
+        assertThat(index.search("Created", 10)).containsExactly(3, 1);
+        assertThat(index.search("order-2", 10)).containsExactly(2);
+        assertThat(index.search("shipped", 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsLikeTheDatabaseCollation() {
+        index.add(1, "Café crème");
+        index.add(2, "Straße", "Ærø");
+        index.add(3, "cafe creme");
+
+        assertThat(index.search("CAFE", 10)).containsExactly(3, 1);
+        assertThat(index.search("crème", 10)).containsExactly(3, 1);
+        assertThat(index.search("strasse", 10)).containsExactly(2);
+        assertThat(index.search("aero", 10)).containsExactly(2);
+        assertThat(TrigramIndex.isSearchable("ßa")).isTrue();
+    }
+
+    @Test
+    void search_ShouldIgnoreQueriesShorterThanATrigram() {
+        index.add(1, "ab");
+
+        assertThat(TrigramIndex.isSearchable("ab")).isFalse();
+        assertThat(index.search("ab", 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldKeepNewestIdsAcrossSegmentsWhenLimited() throws IOException {
+        for (long id = 1; id <= 30; id++) {
+            index.add(id, "payment event " + id);
+            if (id % 10 == 0) index.flush(true);
+        }
+        index.add(31, "payment event 31");
+
+        assertThat(index.search("payment", 3)).containsExactly(31, 30, 29);
+        assertThat(index.segmentCount()).isEqualTo(3);
+    }
+
+    @Test
+    void search_ShouldAlwaysReturnDocumentsLongerThanIndexedPrefix() {
+        index.add(1, "x".repeat(100) + "needle");
+        index.add(2, "short haystack");
+
+        assertThat(index.search("needle", 10)).containsExactly(1);
+    }
+
+    @Test
+    void flush_ShouldPersistSegmentsAcrossReopen() throws IOException {
+        index.add(5, "invoice-77");
+        index.add(6, "invoice-78");
+        index.flush(true);
+        index.close();
+
+        index = new TrigramIndex(tempDir, 64);
+
+        assertThat(index.getIndexedThrough()).isEqualTo(6);
+        assertThat(index.search("invoice-7", 10)).containsExactly(6, 5);
+    }
+
+    @Test
+    void open_ShouldDropIndexBuiltWithAnotherFormat() throws IOException {
+        index.add(5, "invoice-77");
+        index.flush(true);
+        index.close();
+        Path manifest = tempDir.resolve("manifest.properties");
+        Files.writeString(manifest, Files.readString(manifest).replace("formatVersion=2", "formatVersion=1"));
+
+        index = new TrigramIndex(tempDir, 64);
+
+        // indexedThrough repart de zéro : le rattrapage réindexe tout avec le repliement courant
+        assertThat(index.getIndexedThrough()).isZero();
+        assertThat(index.segmentCount()).isZero();
+        assertThat(index.search("invoice", 10)).isEmpty();
+    }
+
+    @Test
+    void flush_ShouldNotAdvanceIndexedThroughWhileIncomplete() throws IOException {
+        index.add(9, "late row");
+        index.flush(false);
+
+        assertThat(index.getIndexedThrough()).isZero();
+        assertThat(index.search("late", 10)).containsExactly(9);
+    }
+
+    @Test
+    void commit_ShouldWriteRebuildBufferIndependentlyOfLiveBuffer() throws IOException {
+        TrigramIndex.PostingBuffer buffer = index.newBuffer();
+        index.add(buffer, 1, "rebuilt row");
+        index.add(2, "live row");
+
+        index.commit(buffer, 1);
+
+        assertThat(index.getIndexedThrough()).isEqualTo(1);
+        assertThat(index.bufferedDocs()).isEqualTo(1);
+        assertThat(index.search(" row", 10)).containsExactly(2, 1);
+    }
+
+    @Test
+    void compact_ShouldMergeSegmentsWithoutLosingPostings() throws IOException {
+        for (long id = 1; id <= 4; id++) {
+            index.add(id, "topic-" + id, "shared payload");
+            index.flush(true);
+        }
+
+        int merges = index.compact(1);
+
+        assertThat(merges).isEqualTo(3);
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search("shared", 10)).containsExactly(4, 3, 2, 1);
+        assertThat(index.search("topic-3", 10)).containsExactly(3);
+    }
+
+    @Test
+    void pruneBelow_ShouldHideOldIdsAndDropObsoleteSegments() throws IOException {
+        index.add(1, "retained value");
+        index.add(2, "retained value");
+        index.flush(true);
+        index.add(3, "retained value");
+        index.flush(true);
+
+        index.pruneBelow(3);
+
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search("retained", 10)).containsExactly(3);
+    }
+}
@@ -0,0 +1,76 @@
+package com.kafkaflow.visualizer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_ShouldBeExactForSmallCardinalities() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (int i = 0; i < 50; i++) {
+            hll.add("key-" + (i % 10));
+        }
+
+        assertThat(hll.estimate()).isEqualTo(10);
+    }
+
+    @Test
+    void estimate_ShouldStayWithinStandardErrorForLargeCardinalities() {
+        HyperLogLog hll = new HyperLogLog(12);
+        int distinct = 200_000;
+        for (int i = 0; i < distinct; i++) {
+            hll.add("key-" + i);
+        }
+
+        double error = Math.abs(hll.estimate() - distinct) / (double) distinct;
+        assertThat(error).isLessThan(3 * HyperLogLog.standardError(12));
+    }
+
+    @Test
+    void union_ShouldCountOverlapOnce() {
+        HyperLogLog first = new HyperLogLog(14);
+        HyperLogLog second = new HyperLogLog(14);
+        for (int i = 0; i < 10_000; i++) {
+            first.add("key-" + i);
+            second.add("key-" + (i + 5_000));
+        }
+
+        long estimate = first.union(second).estimate();
+
+        assertThat(estimate).isBetween(14_500L, 15_500L);
+    }
+
+    @Test
+    void union_ShouldFoldToLowestPrecision() {
+        HyperLogLog precise = new HyperLogLog(14);
+        HyperLogLog coarse = new HyperLogLog(10);
+        HyperLogLog reference = new HyperLogLog(10);
+        for (int i = 0; i < 20_000; i++) {
+            precise.add("key-" + i);
+            reference.add("key-" + i);
+        }
+
+        HyperLogLog merged = coarse.union(precise);
+
+        assertThat(merged.getPrecision()).isEqualTo(10);
+        assertThat(merged).isEqualTo(reference);
+    }
+
+    @Test
+    void toBytes_ShouldRoundTrip() {
+        HyperLogLog hll = new HyperLogLog(8);
+        hll.add(3L);
+        hll.add("key");
+
+        byte[] bytes = hll.toBytes();
+
+        assertThat(bytes).hasSize(2 + 256);
+        assertThat(HyperLogLog.fromBytes(bytes)).isEqualTo(hll);
+        assertThat(HyperLogLog.merge(null, bytes)).isEqualTo(bytes);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{9, 9}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
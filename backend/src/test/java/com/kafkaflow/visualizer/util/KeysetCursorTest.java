@@ -0,0 +1,34 @@
+package com.kafkaflow.visualizer.util;
+
+import com.kafkaflow.visualizer.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_ShouldRoundTripTimestampWithNanosAndId() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789), 9_876_543_210L);
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_ShouldStartFromTheBeginningWithoutToken() {
+        assertThat(KeysetCursor.decode(null)).isEqualTo(KeysetCursor.START);
+        assertThat(KeysetCursor.decode(" ")).isEqualTo(KeysetCursor.START);
+    }
+
+    @Test
+    void decode_ShouldRejectTamperedTokens() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor")).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("AAAA")).isInstanceOf(AppException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.kafkaflow.visualizer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantile_ShouldStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        Random random = new Random(42);
+        int[] values = new int[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Distribution log-normale : typique des tailles de payload
+            values[i] = (int) Math.max(1, Math.exp(6 + 1.5 * random.nextGaussian()));
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertThat((double) sketch.quantile(q)).isCloseTo(exact, within(exact * 0.02 + 1));
+        }
+        assertThat(sketch.getCount()).isEqualTo(values.length);
+    }
+
+    @Test
+    void merge_ShouldMatchSingleSketch() {
+        QuantileSketch left = new QuantileSketch(0.01);
+        QuantileSketch right = new QuantileSketch(0.01);
+        QuantileSketch all = new QuantileSketch(0.01);
+        for (int i = 1; i <= 10_000; i++) {
+            (i % 2 == 0 ? left : right).add(i);
+            all.add(i);
+        }
+
+        byte[] merged = QuantileSketch.merge(left.toBytes(), right.toBytes());
+
+        QuantileSketch restored = QuantileSketch.fromBytes(merged);
+        assertThat(restored.getCount()).isEqualTo(10_000);
+        assertThat(restored.quantile(0.5)).isEqualTo(all.quantile(0.5));
+        assertThat(restored.quantile(0.99)).isEqualTo(all.quantile(0.99));
+    }
+
+    @Test
+    void quantile_ShouldHandleZeroSizesAndEmptySketch() {
+        QuantileSketch sketch = new QuantileSketch(0.02);
+        assertThat(sketch.quantile(0.5)).isZero();
+
+        sketch.add(0, 3);
+        sketch.add(1000);
+
+        assertThat(sketch.quantile(0.5)).isZero();
+        assertThat((double) sketch.quantile(1.0)).isCloseTo(1000, within(20.0));
+        assertThat(sketch.toBytes().length).isLessThan(64);
+    }
+}
@@ -0,0 +1,187 @@
+package com.kafkaflow.visualizer.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kafkaflow.visualizer.dto.KafkaDto.MessageResponse;
+import com.kafkaflow.visualizer.dto.KafkaDto.WebSocketMessage;
+import com.kafkaflow.visualizer.model.KafkaMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PayloadEncodingTest {
+
+    private static final ObjectMapper JSON = mapper(new ObjectMapper());
+    private static final ObjectMapper CBOR = mapper(new ObjectMapper(new CBORFactory()));
+    private static final ObjectMapper SMILE = mapper(new ObjectMapper(new SmileFactory()));
+
+    @Test
+    void negotiate_ShouldPickFirstSupportedEncoding() {
+        assertThat(PayloadEncoding.negotiate("msgpack, smile, cbor", true)).isEqualTo(PayloadEncoding.SMILE);
+        assertThat(PayloadEncoding.negotiate("CBOR", true)).isEqualTo(PayloadEncoding.CBOR);
+        assertThat(PayloadEncoding.negotiate("msgpack", true)).isEqualTo(PayloadEncoding.JSON);
+        assertThat(PayloadEncoding.negotiate(null, true)).isEqualTo(PayloadEncoding.JSON);
+    }
+
+    @Test
+    void negotiate_ShouldFallBackToJson_WhenTransportIsNotBinary() {
+        assertThat(PayloadEncoding.negotiate("cbor", false)).isEqualTo(PayloadEncoding.JSON);
+    }
+
+    @Test
+    void transcode_ShouldPreserveDocument() throws Exception {
+        byte[] json = JSON.writeValueAsBytes(wrap("TOPIC_METRICS", topicMetrics()));
+
+        JsonNode expected = JSON.readTree(json);
+        assertThat(CBOR.readTree(PayloadEncoding.CBOR.transcode(json))).isEqualTo(expected);
+        assertThat(SMILE.readTree(PayloadEncoding.SMILE.transcode(json))).isEqualTo(expected);
+        assertThat(PayloadEncoding.JSON.transcode(json)).isSameAs(json);
+    }
+
+    @Test
+    void preSend_ShouldTranscodeOnlyForBinarySessions() throws Exception {
+        PayloadEncodingInterceptor interceptor = new PayloadEncodingInterceptor();
+        interceptor.register("cbor-session", PayloadEncoding.CBOR);
+        byte[] json = JSON.writeValueAsBytes(wrap("REALTIME_METRICS", realTimeMetrics()));
+
+        Message<?> binary = interceptor.preSend(brokerMessage("cbor-session", json), mock(MessageChannel.class));
+        Message<?> text = interceptor.preSend(brokerMessage("json-session", json), mock(MessageChannel.class));
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(binary);
+        assertThat(accessor.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        assertThat(accessor.getFirstNativeHeader(PayloadEncoding.HEADER)).isEqualTo("cbor");
+        assertThat(CBOR.readTree((byte[]) binary.getPayload())).isEqualTo(JSON.readTree(json));
+        assertThat(text.getPayload()).isSameAs(json);
+    }
+
+    @Test
+    void preSend_ShouldPassNonJsonPayloadsThrough() {
+        PayloadEncodingInterceptor interceptor = new PayloadEncodingInterceptor();
+        interceptor.register("cbor-session", PayloadEncoding.CBOR);
+        byte[] text = "plain text".getBytes(StandardCharsets.UTF_8);
+
+        Message<byte[]> plain = brokerMessage("cbor-session", text, MimeTypeUtils.TEXT_PLAIN);
+        Message<byte[]> untyped = brokerMessage("cbor-session", text, null);
+
+        assertThat(interceptor.preSend(plain, mock(MessageChannel.class))).isSameAs(plain);
+        assertThat(interceptor.preSend(untyped, mock(MessageChannel.class))).isSameAs(untyped);
+    }
+
+    /**
+     * Micro-benchmark (CPU + octets sur le fil) : {@code mvn test -Dtest=PayloadEncodingTest -Dbenchmark=true}
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_SerializationCpuAndBytes() throws Exception {
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("TopicMetricsPayload", wrap("TOPIC_METRICS", topicMetrics()));
+        payloads.put("RealTimeMetricsPayload", wrap("REALTIME_METRICS", realTimeMetrics()));
+        payloads.put("MessageResponse", wrap("NEW_MESSAGE", messageResponse()));
+
+        int iterations = 200_000;
+        System.out.printf("%-24s %-16s %8s %10s%n", "payload", "encoding", "bytes", "ns/op");
+        for (Map.Entry<String, Object> entry : payloads.entrySet()) {
+            Object payload = entry.getValue();
+            byte[] json = JSON.writeValueAsBytes(payload);
+
+            report(entry.getKey(), "json", json.length, time(iterations, () -> JSON.writeValueAsBytes(payload)));
+            report(entry.getKey(), "cbor (direct)", CBOR.writeValueAsBytes(payload).length,
+                    time(iterations, () -> CBOR.writeValueAsBytes(payload)));
+            report(entry.getKey(), "smile (direct)", SMILE.writeValueAsBytes(payload).length,
+                    time(iterations, () -> SMILE.writeValueAsBytes(payload)));
+            report(entry.getKey(), "cbor (transcode)", PayloadEncoding.CBOR.transcode(json).length,
+                    time(iterations, () -> PayloadEncoding.CBOR.transcode(json)));
+            report(entry.getKey(), "smile (transcode)", PayloadEncoding.SMILE.transcode(json).length,
+                    time(iterations, () -> PayloadEncoding.SMILE.transcode(json)));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════
+    // HELPERS
+    // ═══════════════════════════════════════════════════════════════════════
+
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static WebSocketMessage wrap(String type, Object payload) {
+        return WebSocketMessage.builder()
+                .type(type)
+                .payload(payload)
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 0))
+                .build();
+    }
+
+    private static WebSocketService.TopicMetricsPayload topicMetrics() {
+        return new WebSocketService.TopicMetricsPayload(42L, "orders.events", 1_254_331L, 812.45, 48_747.0,
+                48_747L, LocalDateTime.of(2024, 1, 15, 10, 29, 59), true);
+    }
+
+    private static WebSocketService.RealTimeMetricsPayload realTimeMetrics() {
+        return new WebSocketService.RealTimeMetricsPayload(1532.17, 91_930L, 5_515_800L);
+    }
+
+    private static MessageResponse messageResponse() {
+        return MessageResponse.builder()
+                .id(98_765_432L)
+                .topicName("orders.events")
+                .key("order-123")
+                .value("{\"orderId\":\"order-123\",\"status\":\"CREATED\",\"amount\":129.90,\"currency\":\"EUR\","
+                        + "\"items\":[{\"sku\":\"A-1\",\"qty\":2},{\"sku\":\"B-7\",\"qty\":1}]}")
+                .partition(3)
+                .offset(1_048_576L)
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 29, 59))
+                .headers(Map.of("traceId", "4bf92f3577b34da6", "source", "checkout"))
+                .direction(KafkaMessage.MessageDirection.INBOUND)
+                .status(KafkaMessage.MessageStatus.RECEIVED)
+                .build();
+    }
+
+    private static Message<byte[]> brokerMessage(String sessionId, byte[] payload) {
+        return brokerMessage(sessionId, payload, MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    private static Message<byte[]> brokerMessage(String sessionId, byte[] payload, MimeType contentType) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        if (contentType != null) {
+            accessor.setContentType(contentType);
+        }
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private static long time(int iterations, ThrowingRunnable task) throws Exception {
+        for (int i = 0; i < iterations / 4; i++) task.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) task.run();
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private static void report(String payload, String encoding, int bytes, long nanos) {
+        System.out.printf("%-24s %-16s %8d %10d%n", payload, encoding, bytes, nanos);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,53 @@
+import { Cpu } from 'lucide-react';
+import { Card, Badge } from '@components/common';
+import { DASHBOARD } from '@constants/styles/dashboard';
+
+const formatRate = (bytesPerSecond) => {
+  if (bytesPerSecond < 0) return 'n/a';
+  if (bytesPerSecond >= 1024 * 1024) return `${(bytesPerSecond / (1024 * 1024)).toFixed(1)} MB/s`;
+  if (bytesPerSecond >= 1024) return `${(bytesPerSecond / 1024).toFixed(1)} KB/s`;
+  return `${bytesPerSecond} B/s`;
+};
+
+export function ExpensiveConsumers({ consumers = [] }) {
+  const getCpuVariant = (cpuPercent) => {
+    if (cpuPercent > 50) return 'error';
+    if (cpuPercent > 20) return 'warning';
+    return 'neutral';
+  };
+
+  return (
+    <Card padding="none" className="mt-6">
+      <div className={DASHBOARD.ACTIVITY_HEADER}>
+        <h3 className={DASHBOARD.CHART_TITLE}>Most Expensive Consumers</h3>
+        <Badge variant="neutral">CPU / allocations</Badge>
+      </div>
+      <div className={DASHBOARD.ACTIVITY_LIST}>
+        {consumers.length === 0 ? (
+          <div className="p-8 text-center text-surface-500">
+            No consumer running
+          </div>
+        ) : (
+          consumers.map((c) => (
+            <div key={c.topicId} className={DASHBOARD.ACTIVITY_ITEM}>
+              <div className="flex items-center gap-4">
+                <div className={`${DASHBOARD.ACTIVITY_ITEM_ICON} ${DASHBOARD.STAT_CARD_ICON_SECONDARY}`}>
+                  <Cpu className="w-5 h-5" />
+                </div>
+                <div className={DASHBOARD.ACTIVITY_ITEM_CONTENT}>
+                  <p className={DASHBOARD.ACTIVITY_ITEM_TITLE}>{c.topicName}</p>
+                  <p className={DASHBOARD.ACTIVITY_ITEM_DESCRIPTION}>
+                    {formatRate(c.allocatedBytesPerSecond)} allocated · {c.threadState}
+                  </p>
+                </div>
+                <Badge variant={getCpuVariant(c.cpuPercent)}>
+                  {c.cpuPercent < 0 ? 'n/a' : `${c.cpuPercent.toFixed(1)} % CPU`}
+                </Badge>
+              </div>
+            </div>
+          ))
+        )}
+      </div>
+    </Card>
+  );
+}
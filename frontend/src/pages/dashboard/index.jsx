@@ -12,6 +12,7 @@ import { SystemHealth } from './SystemHealth';
 import { HealthComponents } from './HealthComponents';
 import { StatCard } from './StatCard';
 import { ActiveConnections } from './ActiveConnections';
+import { ExpensiveConsumers } from './ExpensiveConsumers';
 
 export default function DashboardPage() {
   const navigate = useNavigate();
@@ -109,6 +110,7 @@ export default function DashboardPage() {
         </div>
 
         <ActiveConnections connections={connections} stats={stats} />
+        <ExpensiveConsumers consumers={stats?.expensiveConsumers} />
       </main>
     </>
   );